@@ -1,15 +1,19 @@
 package edu.study.llm_application;
 
+import edu.study.llm_application.infrastructure.offline.OfflineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
-@ComponentScan(basePackages = "edu.study.llm_application")
 public class LlmApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(LlmApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(LlmApplication.class, args);
+		if (context.getEnvironment().matchesProfiles(OfflineRunner.PROFILE)) {
+			// The offline run is over once the runners have returned, whatever schedulers are left
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -1,13 +1,33 @@
 package edu.study.llm_application.application.controllers;
 
+import edu.study.llm_application.application.dtos.ComparisonResponseDto;
+import edu.study.llm_application.application.dtos.DocumentIngestRequestDto;
+import edu.study.llm_application.application.dtos.DocumentIngestResponseDto;
+import edu.study.llm_application.application.dtos.EmbeddingRequestDto;
+import edu.study.llm_application.application.dtos.EmbeddingResponseDto;
 import edu.study.llm_application.application.dtos.HealthDto;
 import edu.study.llm_application.application.dtos.LlmRequestDto;
 import edu.study.llm_application.application.dtos.LlmResponseDto;
+import edu.study.llm_application.application.dtos.LongInputRequestDto;
 import edu.study.llm_application.application.dtos.ModelsDto;
+import edu.study.llm_application.application.dtos.PromptTemplateDto;
+import edu.study.llm_application.application.dtos.PromptTemplateRequestDto;
+import edu.study.llm_application.application.mappers.ErrorMapper;
 import edu.study.llm_application.application.mappers.LlmMapper;
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.EmbeddingRequest;
+import edu.study.llm_application.domain.entities.EmbeddingResponse;
+import edu.study.llm_application.domain.entities.IngestionResult;
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ModelComparison;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.ports.in.ComparisonUseCasePort;
+import edu.study.llm_application.domain.ports.in.DocumentUseCasePort;
+import edu.study.llm_application.domain.ports.in.EmbeddingUseCasePort;
 import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.in.LongInputUseCasePort;
+import edu.study.llm_application.domain.ports.in.PromptTemplateUseCasePort;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,19 +37,33 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST Controller for LLM operations
@@ -42,10 +76,46 @@ import java.time.format.DateTimeFormatter;
 @Tag(name = "LLM API", description = "API for interacting with Large Language Models")
 public class LlmController {
     
+    /**
+     * Header selecting the priority class (interactive, bulk or deferred) of a request
+     */
+    public static final String PRIORITY_HEADER = "X-Priority";
+    
+    /**
+     * Header carrying the time budget of a request in milliseconds
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    
+    /**
+     * Header under which the retries of a request get the response of the first attempt
+     */
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    
+    /**
+     * Longest idempotency key accepted
+     */
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    
+    /**
+     * Extra time the servlet container waits after a deadline before giving up on the response
+     */
+    private static final long DEADLINE_GRACE_MS = 1000;
+    
     private final LlmUseCasePort llmUseCase;
+    private final LongInputUseCasePort longInputUseCase;
+    private final ComparisonUseCasePort comparisonUseCase;
+    private final EmbeddingUseCasePort embeddingUseCase;
+    private final DocumentUseCasePort documentUseCase;
+    private final PromptTemplateUseCasePort promptTemplateUseCase;
     private final LlmMapper mapper;
     private final BuildProperties buildProperties;
     
+    @Value("${llm.deadline.default-ms:30000}")
+    private long defaultDeadlineMs;
+    
+    @Value("${llm.deadline.max-ms:300000}")
+    private long maxDeadlineMs;
+    
     @Operation(summary = "Generate text using LLM", 
                description = "Sends a prompt to the configured LLM and returns the generated response")
     @ApiResponses(value = {
@@ -53,44 +123,397 @@ public class LlmController {
                      description = "Text generated successfully",
                      content = @Content(mediaType = "application/json",
                                       schema = @Schema(implementation = LlmResponseDto.class))),
+        @ApiResponse(responseCode = "202", 
+                     description = "Deferred request queued; its response is fetched from the Location header"),
         @ApiResponse(responseCode = "400", 
                      description = "Invalid request parameters"),
+        @ApiResponse(responseCode = "422", 
+                     description = "Idempotency key already used for a different request"),
         @ApiResponse(responseCode = "500", 
-                     description = "Internal server error or LLM provider error")
+                     description = "Internal server error or LLM provider error"),
+        @ApiResponse(responseCode = "503", 
+                     description = "Bulkhead of the requested model and priority class is full"),
+        @ApiResponse(responseCode = "504", 
+                     description = "Request deadline passed before the LLM answered")
     })
     @PostMapping("/generate")
-    public ResponseEntity<LlmResponseDto> generateText(
+    public DeferredResult<ResponseEntity<LlmResponseDto>> generateText(
             @Parameter(description = "LLM request containing prompt and configuration")
-            @Valid @RequestBody LlmRequestDto requestDto) {
+            @Valid @RequestBody LlmRequestDto requestDto,
+            @Parameter(description = "Priority class of the request: interactive (default), bulk, "
+                    + "or deferred to answer it through the batch API")
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @Parameter(description = "Time budget of the request in milliseconds, including queueing")
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @Parameter(description = "Client key of the request; retries with the same key get the first response "
+                    + "instead of generating a new one. Needs the user_id of the request")
+            @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
         
         log.info("Received LLM generation request with model: {}", requestDto.getModel());
         
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new IllegalArgumentException(IDEMPOTENCY_HEADER + " must be between 1 and " 
+                    + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        
+        Priority priorityClass = Priority.fromHeader(priority);
+        if (priorityClass == Priority.DEFERRED) {
+            DeferredResult<ResponseEntity<LlmResponseDto>> result = new DeferredResult<>();
+            result.setResult(deferText(requestDto));
+            return result;
+        }
+        
+        Deadline deadline = Deadline.after(requestBudget(timeoutMs));
+        
+        // The use case cancels the call at the deadline; the grace period lets it report that itself
+        DeferredResult<ResponseEntity<LlmResponseDto>> result = 
+                new DeferredResult<>(deadline.remaining().toMillis() + DEADLINE_GRACE_MS);
+        
         try {
             // Convert DTO to domain entity
-            LlmRequest domainRequest = mapper.toDomain(requestDto);
+            LlmRequest domainRequest = mapper.toDomain(requestDto, priorityClass, deadline).toBuilder()
+                    .idempotencyKey(idempotencyKey)
+                    .build();
             
             // Process request through use case
-            LlmResponse domainResponse = llmUseCase.processRequest(domainRequest);
+            CompletableFuture<LlmResponse> call = llmUseCase.submitRequest(domainRequest);
+            
+            // Abort the provider call if the client disconnects or the deadline passes
+            result.onError(error -> call.cancel(true));
+            result.onTimeout(() -> call.cancel(true));
             
             // Convert domain response to DTO
-            LlmResponseDto responseDto = mapper.toDto(domainResponse);
+            call.whenComplete((domainResponse, error) -> result.setResult(error == null
+                    ? ResponseEntity.ok(mapper.toDto(domainResponse))
+                    : errorResponse(error, deadline)));
+                    
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            result.setResult(errorResponse(e, deadline));
+        }
+        
+        return result;
+    }
+    
+    @Operation(summary = "Get a deferred response", 
+               description = "Returns the response of a request sent with the deferred priority once its batch completed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Batch completed; the body holds the response or its error",
+                     content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = LlmResponseDto.class))),
+        @ApiResponse(responseCode = "202", 
+                     description = "Batch still running"),
+        @ApiResponse(responseCode = "404", 
+                     description = "Unknown request id, or its result has expired")
+    })
+    @GetMapping("/deferred/{id}")
+    public ResponseEntity<LlmResponseDto> getDeferred(
+            @Parameter(description = "Request id returned when the request was deferred") 
+            @PathVariable String id) {
+        
+        return llmUseCase.findDeferred(id)
+                .map(response -> ResponseEntity.status(response.isPending() ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                        .body(mapper.toDto(response)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    @Operation(summary = "Stream text using LLM", 
+               description = "Sends a prompt to the configured LLM and streams the generated text as server-sent events")
+    @ApiResponse(responseCode = "200", 
+                 description = "Stream of 'token' events followed by a 'done' event, or an 'error' event on failure",
+                 content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE))
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamText(
+            @Parameter(description = "LLM request containing prompt and configuration")
+            @Valid @RequestBody LlmRequestDto requestDto,
+            @Parameter(description = "Priority class of the request: interactive (default) or bulk")
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @Parameter(description = "Time budget of the request in milliseconds")
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        
+        log.info("Received LLM streaming request with model: {}", requestDto.getModel());
+        
+        Deadline deadline = Deadline.after(requestBudget(timeoutMs));
+        
+        try {
+            LlmRequest domainRequest = mapper.toDomain(requestDto, Priority.fromHeader(priority), deadline);
+            
+            // The servlet container cancels the subscription when the client disconnects
+            return llmUseCase.streamRequest(domainRequest)
+                    .map(chunk -> ServerSentEvent.builder(chunk).event("token").build())
+                    .concatWith(Mono.just(ServerSentEvent.builder("").event("done").build()))
+                    .onErrorResume(error -> Mono.just(errorEvent(error)));
+                    
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            return Flux.just(errorEvent(e));
+        }
+    }
+    
+    @Operation(summary = "Process a long input", 
+               description = "Applies an instruction to an input larger than one prompt by processing its chunks "
+                       + "in parallel and combining the partial answers")
+    @ApiResponse(responseCode = "200", 
+                 description = "Stream of 'progress' events as calls finish, then a 'result' event with the combined "
+                         + "answer, or an 'error' event on failure",
+                 content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE))
+    @PostMapping(value = "/generate/long", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> processLongInput(
+            @Parameter(description = "Instruction, input and the configuration of every call")
+            @Valid @RequestBody LongInputRequestDto requestDto,
+            @Parameter(description = "Priority class of the calls: interactive (default) or bulk")
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @Parameter(description = "Time budget of the whole input in milliseconds")
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        
+        log.info("Received long input request of {} characters with model: {}", 
+                requestDto.getInput().length(), requestDto.getModel());
+        
+        Deadline deadline = Deadline.after(requestBudget(timeoutMs));
+        
+        try {
+            Priority priorityClass = Priority.fromHeader(priority);
+            if (priorityClass == Priority.DEFERRED) {
+                throw new LlmUseCasePort.LlmProcessingException("Long inputs cannot be deferred");
+            }
+            LlmRequest domainRequest = mapper.toLongInputDomain(requestDto, priorityClass, deadline);
             
-            return ResponseEntity.ok(responseDto);
+            // The servlet container cancels the subscription when the client disconnects
+            return longInputUseCase.process(domainRequest, requestDto.getInput())
+                    .<ServerSentEvent<?>>map(progress -> progress.response() != null
+                            ? ServerSentEvent.builder(mapper.toDto(progress.response())).event("result").build()
+                            : ServerSentEvent.builder(mapper.toProgressDto(progress)).event("progress").build())
+                    .onErrorResume(error -> Mono.just(errorEvent(error)));
+                    
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            return Flux.just(errorEvent(e));
+        }
+    }
+    
+    @Operation(summary = "Compare models", 
+               description = "Sends the same prompt to several models at once and returns every answer with its "
+                       + "latency and tokens; models that fail are reported without failing the others")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Every model answered or failed",
+                     content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ComparisonResponseDto.class))),
+        @ApiResponse(responseCode = "400", 
+                     description = "Invalid request parameters"),
+        @ApiResponse(responseCode = "500", 
+                     description = "Invalid request or list of models"),
+        @ApiResponse(responseCode = "504", 
+                     description = "Request deadline passed before the slowest model answered")
+    })
+    @PostMapping("/compare")
+    public DeferredResult<ResponseEntity<ComparisonResponseDto>> compareModels(
+            @Parameter(description = "LLM request containing prompt and configuration; its model is ignored")
+            @Valid @RequestBody LlmRequestDto requestDto,
+            @Parameter(description = "Models to compare, at most 10; all available models when omitted")
+            @RequestParam(required = false) List<String> models,
+            @Parameter(description = "Priority class of the calls: interactive (default) or bulk")
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @Parameter(description = "Time budget of the comparison in milliseconds")
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        
+        log.info("Received model comparison request for models: {}", models);
+        
+        Deadline deadline = Deadline.after(requestBudget(timeoutMs));
+        DeferredResult<ResponseEntity<ComparisonResponseDto>> result = 
+                new DeferredResult<>(deadline.remaining().toMillis() + DEADLINE_GRACE_MS);
+        
+        try {
+            LlmRequest domainRequest = mapper.toDomain(requestDto, comparedPriority(priority), deadline);
+            CompletableFuture<ModelComparison> comparison = comparisonUseCase.compare(domainRequest, models);
             
+            result.onError(error -> comparison.cancel(true));
+            result.onTimeout(() -> comparison.cancel(true));
+            
+            comparison.whenComplete((domainComparison, error) -> result.setResult(error == null
+                    ? ResponseEntity.ok(mapper.toComparisonDto(domainComparison))
+                    : ResponseEntity.status(ErrorMapper.toFailure(error, deadline).httpStatus()).build()));
+                    
         } catch (LlmUseCasePort.LlmProcessingException e) {
-            log.error("Error processing LLM request: {}", e.getMessage());
+            result.setResult(ResponseEntity.status(ErrorMapper.toFailure(e, deadline).httpStatus()).build());
+        }
+        
+        return result;
+    }
+    
+    @Operation(summary = "Stream a model comparison", 
+               description = "Streams the answers of several models to the same prompt, interleaved as they are generated")
+    @ApiResponse(responseCode = "200", 
+                 description = "Stream of 'token' events tagged with their model, a 'done' or 'error' event per model, "
+                         + "then a 'complete' event",
+                 content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE))
+    @PostMapping(value = "/compare/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> streamComparison(
+            @Parameter(description = "LLM request containing prompt and configuration; its model is ignored")
+            @Valid @RequestBody LlmRequestDto requestDto,
+            @Parameter(description = "Models to compare, at most 10; all available models when omitted")
+            @RequestParam(required = false) List<String> models,
+            @Parameter(description = "Priority class of the calls: interactive (default) or bulk")
+            @RequestHeader(value = PRIORITY_HEADER, required = false) String priority,
+            @Parameter(description = "Time budget of the comparison in milliseconds")
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        
+        log.info("Received streaming model comparison request for models: {}", models);
+        
+        Deadline deadline = Deadline.after(requestBudget(timeoutMs));
+        
+        try {
+            LlmRequest domainRequest = mapper.toDomain(requestDto, comparedPriority(priority), deadline);
             
-            LlmResponseDto errorResponse = LlmResponseDto.builder()
+            // The servlet container cancels the subscription when the client disconnects
+            return comparisonUseCase.streamCompare(domainRequest, models)
+                    .<ServerSentEvent<?>>map(chunk -> ServerSentEvent.builder(mapper.toChunkDto(chunk))
+                            .event(chunk.type().name().toLowerCase())
+                            .build())
+                    .concatWithValues(ServerSentEvent.builder("").event("complete").build())
+                    .onErrorResume(error -> Mono.just(errorEvent(error)));
+                    
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            return Flux.just(errorEvent(e));
+        }
+    }
+    
+    @Operation(summary = "Compute embeddings", 
+               description = "Returns one embedding vector per input text; repeated texts are served from the cache")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Embeddings computed successfully",
+                     content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = EmbeddingResponseDto.class))),
+        @ApiResponse(responseCode = "400", 
+                     description = "Invalid request parameters"),
+        @ApiResponse(responseCode = "500", 
+                     description = "Internal server error or LLM provider error"),
+        @ApiResponse(responseCode = "504", 
+                     description = "Request deadline passed before the embeddings were computed")
+    })
+    @PostMapping("/embeddings")
+    public DeferredResult<ResponseEntity<EmbeddingResponseDto>> createEmbeddings(
+            @Parameter(description = "Embedding request containing the texts to embed")
+            @Valid @RequestBody EmbeddingRequestDto requestDto,
+            @Parameter(description = "Time budget of the request in milliseconds")
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        
+        log.info("Received embedding request with {} input(s)", requestDto.getInput().size());
+        
+        Deadline deadline = Deadline.after(requestBudget(timeoutMs));
+        DeferredResult<ResponseEntity<EmbeddingResponseDto>> result = 
+                new DeferredResult<>(deadline.remaining().toMillis() + DEADLINE_GRACE_MS);
+        
+        try {
+            EmbeddingRequest domainRequest = mapper.toEmbeddingDomain(requestDto, deadline);
+            
+            CompletableFuture<EmbeddingResponse> call = embeddingUseCase.submitRequest(domainRequest);
+            
+            // Stop waiting for the embeddings if the client disconnects or the deadline passes
+            result.onError(error -> call.cancel(true));
+            result.onTimeout(() -> call.cancel(true));
+            
+            call.whenComplete((domainResponse, error) -> result.setResult(error == null
+                    ? ResponseEntity.ok(mapper.toEmbeddingDto(domainResponse))
+                    : embeddingErrorResponse(error, deadline)));
+                    
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            result.setResult(embeddingErrorResponse(e, deadline));
+        }
+        
+        return result;
+    }
+    
+    @Operation(summary = "Index documents for retrieval", 
+               description = "Splits documents into chunks, embeds them and adds them to the index searched by retrieval_top_k")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Documents indexed successfully",
+                     content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = DocumentIngestResponseDto.class))),
+        @ApiResponse(responseCode = "400", 
+                     description = "Invalid request parameters"),
+        @ApiResponse(responseCode = "500", 
+                     description = "Internal server error or embedding provider error")
+    })
+    @PostMapping("/documents")
+    public DeferredResult<ResponseEntity<DocumentIngestResponseDto>> ingestDocuments(
+            @Parameter(description = "Documents to index")
+            @Valid @RequestBody DocumentIngestRequestDto requestDto,
+            @Parameter(description = "Time budget of the request in milliseconds")
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMs) {
+        
+        log.info("Received ingestion request with {} document(s)", requestDto.getDocuments().size());
+        
+        // Indexing keeps going past the deadline; the budget only bounds how long the client waits
+        Deadline deadline = Deadline.after(requestBudget(timeoutMs));
+        DeferredResult<ResponseEntity<DocumentIngestResponseDto>> result = 
+                new DeferredResult<>(deadline.remaining().toMillis() + DEADLINE_GRACE_MS);
+        
+        try {
+            CompletableFuture<IngestionResult> call = documentUseCase.ingest(mapper.toDocumentsDomain(requestDto));
+            call.whenComplete((domainResult, error) -> result.setResult(error == null
+                    ? ResponseEntity.ok(mapper.toIngestDto(domainResult))
+                    : ingestErrorResponse(error, deadline)));
+                    
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            result.setResult(ingestErrorResponse(e, deadline));
+        }
+        
+        return result;
+    }
+    
+    @Operation(summary = "Register a prompt template", 
+               description = "Compiles a template with {{name}} placeholders that generation requests can reference by id")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Template registered successfully",
+                     content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = PromptTemplateDto.class))),
+        @ApiResponse(responseCode = "400", 
+                     description = "Invalid template")
+    })
+    @PutMapping("/templates/{id}")
+    public ResponseEntity<PromptTemplateDto> registerTemplate(
+            @Parameter(description = "Template id") 
+            @PathVariable String id,
+            @Parameter(description = "Template text")
+            @Valid @RequestBody PromptTemplateRequestDto requestDto) {
+        
+        log.info("Registering prompt template '{}'", id);
+        
+        try {
+            return ResponseEntity.ok(mapper.toTemplateDto(promptTemplateUseCase.register(id, requestDto.getTemplate())));
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            log.warn("Rejected prompt template '{}': {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(PromptTemplateDto.builder()
+                    .id(id)
                     .status("ERROR")
                     .errorMessage(e.getMessage())
                     .timestamp(LocalDateTime.now())
-                    .build();
-                    
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse);
+                    .build());
         }
     }
     
+    @Operation(summary = "Get a prompt template", 
+               description = "Returns a registered template and the variables it expects")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", 
+                     description = "Template found",
+                     content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = PromptTemplateDto.class))),
+        @ApiResponse(responseCode = "404", 
+                     description = "No template is registered under the id")
+    })
+    @GetMapping("/templates/{id}")
+    public ResponseEntity<PromptTemplateDto> getTemplate(
+            @Parameter(description = "Template id") 
+            @PathVariable String id) {
+        
+        return promptTemplateUseCase.find(id)
+                .map(template -> ResponseEntity.ok(mapper.toTemplateDto(template)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
     @Operation(summary = "Get available models", 
                description = "Returns a list of all available LLM models")
     @ApiResponse(responseCode = "200", 
@@ -133,4 +556,96 @@ public class LlmController {
         
         return ResponseEntity.ok(response);
     }
+    
+    private ServerSentEvent<String> errorEvent(Throwable error) {
+        log.error("Error streaming LLM response: {}", error.getMessage());
+        return ServerSentEvent.builder(error.getMessage() != null ? error.getMessage() : "Stream failed")
+                .event("error")
+                .build();
+    }
+    
+    /**
+     * Priority of the calls of a comparison, which are answered now and so cannot be deferred
+     */
+    private Priority comparedPriority(String priority) {
+        Priority priorityClass = Priority.fromHeader(priority);
+        if (priorityClass == Priority.DEFERRED) {
+            throw new IllegalArgumentException("Model comparisons cannot be deferred");
+        }
+        return priorityClass;
+    }
+    
+    /**
+     * Resolves the time budget of a request from the client header, capped by configuration
+     */
+    private Duration requestBudget(Long timeoutMs) {
+        if (timeoutMs == null) {
+            return Duration.ofMillis(defaultDeadlineMs);
+        }
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException(TIMEOUT_HEADER + " must be a positive number of milliseconds");
+        }
+        return Duration.ofMillis(Math.min(timeoutMs, maxDeadlineMs));
+    }
+    
+    /**
+     * Queues a request for the batch API and points the client to where its response will be
+     */
+    private ResponseEntity<LlmResponseDto> deferText(LlmRequestDto requestDto) {
+        try {
+            // A deferred request has no deadline; it waits as long as the batch's completion window
+            LlmRequest domainRequest = mapper.toDomain(requestDto, Priority.DEFERRED, null);
+            LlmResponse pending = llmUseCase.deferRequest(domainRequest);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/llm/deferred/" + pending.requestId()))
+                    .body(mapper.toDto(pending));
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            return errorResponse(e, null);
+        }
+    }
+    
+    /**
+     * Converts a failed request into an error response with a matching HTTP status
+     */
+    private ResponseEntity<LlmResponseDto> errorResponse(Throwable error, Deadline deadline) {
+        ErrorMapper.Failure failure = ErrorMapper.toFailure(error, deadline);
+        
+        LlmResponseDto errorResponse = LlmResponseDto.builder()
+                .status(failure.status())
+                .errorMessage(failure.message())
+                .timestamp(LocalDateTime.now())
+                .build();
+        
+        return ResponseEntity.status(failure.httpStatus()).body(errorResponse);
+    }
+    
+    /**
+     * Converts a failed embedding request into an error response with a matching HTTP status
+     */
+    private ResponseEntity<EmbeddingResponseDto> embeddingErrorResponse(Throwable error, Deadline deadline) {
+        ErrorMapper.Failure failure = ErrorMapper.toFailure(error, deadline);
+        
+        EmbeddingResponseDto errorResponse = EmbeddingResponseDto.builder()
+                .status(failure.status())
+                .errorMessage(failure.message())
+                .timestamp(LocalDateTime.now())
+                .build();
+        
+        return ResponseEntity.status(failure.httpStatus()).body(errorResponse);
+    }
+    
+    /**
+     * Converts a failed ingestion into an error response with a matching HTTP status
+     */
+    private ResponseEntity<DocumentIngestResponseDto> ingestErrorResponse(Throwable error, Deadline deadline) {
+        ErrorMapper.Failure failure = ErrorMapper.toFailure(error, deadline);
+        
+        DocumentIngestResponseDto errorResponse = DocumentIngestResponseDto.builder()
+                .status(failure.status())
+                .errorMessage(failure.message())
+                .timestamp(LocalDateTime.now())
+                .build();
+        
+        return ResponseEntity.status(failure.httpStatus()).body(errorResponse);
+    }
 }
@@ -0,0 +1,164 @@
+package edu.study.llm_application.application.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.application.dtos.LlmRequestDto;
+import edu.study.llm_application.application.dtos.LlmResponseDto;
+import edu.study.llm_application.application.mappers.ErrorMapper;
+import edu.study.llm_application.application.mappers.LlmMapper;
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import io.rsocket.exceptions.ApplicationErrorException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * RSocket controller for internal callers, exposing generation over one multiplexed connection
+ * Payloads are CBOR unless the client sets another data MIME type in its setup frame, and the
+ * request and response bodies are the same as those of the REST API. Streams honour the REQUEST_N
+ * frames of the client, so a caller that reads slowly holds back the work instead of having it buffered
+ */
+@Slf4j
+@Controller
+public class LlmRSocketController {
+    
+    /**
+     * Status of a request of a batch that failed validation
+     */
+    static final String VALIDATION_ERROR = "VALIDATION_ERROR";
+    
+    private final LlmUseCasePort llmUseCase;
+    private final LlmMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final long defaultDeadlineMs;
+    private final int channelConcurrency;
+    
+    public LlmRSocketController(LlmUseCasePort llmUseCase, LlmMapper mapper, ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${llm.deadline.default-ms:30000}") long defaultDeadlineMs,
+                                @Value("${llm.rsocket.channel-concurrency:32}") int channelConcurrency) {
+        this.llmUseCase = llmUseCase;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.defaultDeadlineMs = defaultDeadlineMs;
+        this.channelConcurrency = channelConcurrency;
+    }
+    
+    /**
+     * Request-response generation; cancelling the request cancels the provider call
+     * Failures are returned as an application error frame carrying the error response as JSON
+     */
+    @MessageMapping("llm.generate")
+    public Mono<LlmResponseDto> generate(LlmRequestDto requestDto) {
+        log.info("Received RSocket generation request with model: {}", requestDto.getModel());
+        Deadline deadline = Deadline.after(Duration.ofMillis(defaultDeadlineMs));
+        return submit(requestDto, Priority.INTERACTIVE, deadline)
+                .map(mapper::toDto)
+                .onErrorMap(error -> errorSignal(error, deadline));
+    }
+    
+    /**
+     * Request-stream generation, one payload per token
+     */
+    @MessageMapping("llm.generate.stream")
+    public Flux<String> stream(LlmRequestDto requestDto) {
+        log.info("Received RSocket streaming request with model: {}", requestDto.getModel());
+        Deadline deadline = Deadline.after(Duration.ofMillis(defaultDeadlineMs));
+        try {
+            return llmUseCase.streamRequest(toDomain(requestDto, Priority.INTERACTIVE, deadline))
+                    .onErrorMap(error -> errorSignal(error, deadline));
+        } catch (Exception e) {
+            return Flux.error(errorSignal(e, deadline));
+        }
+    }
+    
+    /**
+     * Request-channel batch: every request sent is answered in the order it was sent
+     * Up to the configured number of requests run at once, and no more are read from the client until
+     * it has asked for the responses already produced. A failed request is answered with a response
+     * carrying its status rather than ending the channel, so one bad request does not lose the others
+     */
+    @MessageMapping("llm.generate.batch")
+    public Flux<LlmResponseDto> batch(Flux<LlmRequestDto> requests) {
+        return requests.flatMapSequential(requestDto -> {
+            Deadline deadline = Deadline.after(Duration.ofMillis(defaultDeadlineMs));
+            return submit(requestDto, Priority.BULK, deadline)
+                    .map(mapper::toDto)
+                    .onErrorResume(error -> Mono.just(errorResponse(error, deadline)));
+        }, channelConcurrency, 1);
+    }
+    
+    /**
+     * Submits a request, cancelling its call when the subscriber cancels
+     */
+    private Mono<LlmResponse> submit(LlmRequestDto requestDto, Priority priority, Deadline deadline) {
+        try {
+            return Mono.fromFuture(llmUseCase.submitRequest(toDomain(requestDto, priority, deadline)));
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+    }
+    
+    private LlmRequest toDomain(LlmRequestDto requestDto, Priority priority, Deadline deadline)
+            throws InvalidRequestException {
+        Set<ConstraintViolation<LlmRequestDto>> violations = validator.validate(requestDto);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return mapper.toDomain(requestDto, priority, deadline);
+    }
+    
+    private LlmResponseDto errorResponse(Throwable error, Deadline deadline) {
+        ErrorMapper.Failure failure = error instanceof InvalidRequestException
+                ? new ErrorMapper.Failure(HttpStatus.BAD_REQUEST, VALIDATION_ERROR, error.getMessage())
+                : ErrorMapper.toFailure(error, deadline);
+        return LlmResponseDto.builder()
+                .status(failure.status())
+                .errorMessage(failure.message())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    /**
+     * Application error raised to the client, whose data is the error response as JSON, as a failed
+     * request of a batch is answered; error frames carry text only, whatever the data MIME type
+     */
+    private Throwable errorSignal(Throwable error, Deadline deadline) {
+        LlmResponseDto response = errorResponse(error, deadline);
+        try {
+            return new ApplicationErrorException(objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to encode RSocket error response: {}", e.getMessage());
+            return new ApplicationErrorException(response.getStatus() + ": " + response.getErrorMessage());
+        }
+    }
+    
+    /**
+     * Request rejected by the constraints of the request body
+     */
+    static class InvalidRequestException extends Exception {
+        InvalidRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package edu.study.llm_application.application.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Event of the merged comparison stream
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Piece of one model's answer in a comparison stream")
+public class ComparisonChunkDto {
+    
+    @Schema(description = "The model the piece comes from", 
+            example = "gpt-4")
+    private String model;
+    
+    @Schema(description = "Generated text for a token event, the failure for an error event, empty for done", 
+            example = "Hel")
+    private String text;
+}
@@ -0,0 +1,34 @@
+package edu.study.llm_application.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO comparing the answers of several models
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Answers of several models to the same prompt")
+public class ComparisonResponseDto {
+    
+    @Schema(description = "Identifier of the compared request", 
+            example = "req_123456789")
+    @JsonProperty("request_id")
+    private String requestId;
+    
+    @Schema(description = "One response per model with its own latency, tokens and status; a failed model has status ERROR")
+    private List<LlmResponseDto> responses;
+    
+    @Schema(description = "Wall time until the slowest model answered, in milliseconds", 
+            example = "1850.5")
+    @JsonProperty("processing_time_ms")
+    private Double processingTimeMs;
+}
@@ -0,0 +1,52 @@
+package edu.study.llm_application.application.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request DTO for adding documents to the retrieval index
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for indexing documents used as retrieval context")
+public class DocumentIngestRequestDto {
+    
+    @NotEmpty(message = "Documents cannot be empty")
+    @Size(max = 100, message = "Cannot index more than 100 documents at once")
+    @Schema(description = "The documents to index", required = true)
+    private List<@Valid Document> documents;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "A document to split into chunks and index")
+    public static class Document {
+        
+        @Schema(description = "Optional document identifier, generated when missing", 
+                example = "handbook-ch1")
+        private String id;
+        
+        @Schema(description = "Optional document title", 
+                example = "Employee handbook, chapter 1")
+        private String title;
+        
+        @NotBlank(message = "Document text cannot be blank")
+        @Size(max = 1000000, message = "Document text cannot exceed 1000000 characters")
+        @Schema(description = "The document text", 
+                example = "Employees may work remotely up to three days a week...", 
+                required = true)
+        private String text;
+    }
+}
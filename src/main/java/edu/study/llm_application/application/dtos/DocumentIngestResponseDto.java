@@ -0,0 +1,58 @@
+package edu.study.llm_application.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for adding documents to the retrieval index
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Response object describing the indexed documents")
+public class DocumentIngestResponseDto {
+    
+    @Schema(description = "Unique identifier for this response", 
+            example = "resp_123456789")
+    private String id;
+    
+    @Schema(description = "Identifiers of the indexed documents, in request order")
+    @JsonProperty("document_ids")
+    private List<String> documentIds;
+    
+    @Schema(description = "Number of chunks the documents were split into", 
+            example = "42")
+    @JsonProperty("chunk_count")
+    private Integer chunkCount;
+    
+    @Schema(description = "Number of chunks whose embedding was served from the cache", 
+            example = "0")
+    @JsonProperty("cached_embeddings")
+    private Integer cachedEmbeddings;
+    
+    @Schema(description = "Processing time in milliseconds", 
+            example = "85.2")
+    @JsonProperty("processing_time_ms")
+    private Double processingTimeMs;
+    
+    @Schema(description = "Timestamp when the response was generated")
+    private LocalDateTime timestamp;
+    
+    @Schema(description = "Response status", 
+            example = "SUCCESS")
+    private String status;
+    
+    @Schema(description = "Error message if status is not SUCCESS")
+    @JsonProperty("error_message")
+    private String errorMessage;
+}
@@ -0,0 +1,42 @@
+package edu.study.llm_application.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request DTO for the embeddings API
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for computing embedding vectors")
+public class EmbeddingRequestDto {
+    
+    @NotEmpty(message = "Input cannot be empty")
+    @Size(max = 2048, message = "Input cannot contain more than 2048 texts")
+    @Schema(description = "The texts to embed", 
+            example = "[\"The quick brown fox\", \"jumps over the lazy dog\"]", 
+            required = true)
+    private List<@NotBlank(message = "Input texts cannot be blank") 
+                 @Size(max = 32000, message = "Input texts cannot exceed 32000 characters") String> input;
+    
+    @Schema(description = "The embedding model to use", 
+            example = "text-embedding-3-small", 
+            defaultValue = "text-embedding-3-small")
+    private String model;
+    
+    @Schema(description = "Optional user identifier", 
+            example = "user123")
+    @JsonProperty("user_id")
+    private String userId;
+}
@@ -0,0 +1,80 @@
+package edu.study.llm_application.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for the embeddings API
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Response object containing one embedding vector per input text")
+public class EmbeddingResponseDto {
+    
+    @Schema(description = "Unique identifier for this response", 
+            example = "resp_123456789")
+    private String id;
+    
+    @Schema(description = "Identifier of the original request", 
+            example = "req_123456789")
+    @JsonProperty("request_id")
+    private String requestId;
+    
+    @Schema(description = "The embedding model used", 
+            example = "text-embedding-3-small")
+    private String model;
+    
+    @Schema(description = "Embedding vectors in the order of the input texts")
+    private List<Item> data;
+    
+    @Schema(description = "Number of values in each vector", 
+            example = "1536")
+    private Integer dimensions;
+    
+    @Schema(description = "Number of distinct texts served from the cache", 
+            example = "1")
+    @JsonProperty("cached_count")
+    private Integer cachedCount;
+    
+    @Schema(description = "Processing time in milliseconds", 
+            example = "12.5")
+    @JsonProperty("processing_time_ms")
+    private Double processingTimeMs;
+    
+    @Schema(description = "Timestamp when the response was generated")
+    private LocalDateTime timestamp;
+    
+    @Schema(description = "Response status", 
+            example = "SUCCESS")
+    private String status;
+    
+    @Schema(description = "Error message if status is not SUCCESS")
+    @JsonProperty("error_message")
+    private String errorMessage;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Embedding vector of one input text")
+    public static class Item {
+        
+        @Schema(description = "Position of the text in the input", 
+                example = "0")
+        private Integer index;
+        
+        @Schema(description = "The embedding values")
+        private float[] embedding;
+    }
+}
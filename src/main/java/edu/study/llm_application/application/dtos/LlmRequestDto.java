@@ -1,5 +1,6 @@
 package edu.study.llm_application.application.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -7,13 +8,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Request DTO for LLM API
@@ -25,13 +27,29 @@ import java.util.List;
 @Schema(description = "Request object for LLM text generation")
 public class LlmRequestDto {
     
-    @NotBlank(message = "Prompt cannot be empty")
     @Size(max = 10000, message = "Prompt cannot exceed 10000 characters")
-    @Schema(description = "The text prompt to send to the LLM", 
-            example = "Explain what is artificial intelligence", 
-            required = true)
+    @Schema(description = "The text prompt to send to the LLM; required unless template_id is given", 
+            example = "Explain what is artificial intelligence")
     private String prompt;
     
+    @Size(max = 10000, message = "System prompt cannot exceed 10000 characters")
+    @Schema(description = "Instructions sent ahead of everything else; keep it identical across requests "
+            + "so the provider can serve it from its prompt cache", 
+            example = "You are a concise assistant for the engineering handbook")
+    @JsonProperty("system_prompt")
+    private String systemPrompt;
+    
+    @Size(max = 100, message = "Template id cannot exceed 100 characters")
+    @Schema(description = "Id of a registered prompt template to render instead of sending a prompt", 
+            example = "summarize")
+    @JsonProperty("template_id")
+    private String templateId;
+    
+    @Size(max = 100, message = "Cannot pass more than 100 template variables")
+    @Schema(description = "Values of the template variables by name", 
+            example = "{\"text\": \"The quick brown fox\"}")
+    private Map<String, String> variables;
+    
     @Schema(description = "The LLM model to use", 
             example = "gpt-3.5-turbo", 
             defaultValue = "gpt-3.5-turbo")
@@ -61,4 +79,37 @@ public class LlmRequestDto {
     
     @Schema(description = "Optional context or conversation history")
     private List<String> context;
+    
+    @Min(value = 0, message = "Retrieval top k cannot be negative")
+    @Max(value = 20, message = "Retrieval top k cannot exceed 20")
+    @Schema(description = "Number of indexed document chunks to add to the prompt as context; 0 disables retrieval", 
+            example = "4", 
+            minimum = "0", 
+            maximum = "20")
+    @JsonProperty("retrieval_top_k")
+    private Integer retrievalTopK;
+    
+    @Schema(description = "Whether a faster model configured for the requested one may answer first; "
+            + "false always sends the request to the requested model", 
+            example = "true")
+    private Boolean cascade;
+    
+    @Schema(description = "JSON Schema the answer must follow; the content is then a JSON value matching it. "
+            + "Output that diverges from the schema is abandoned while generating and generated again")
+    @JsonProperty("response_schema")
+    private Map<String, Object> responseSchema;
+    
+    @Size(max = 16, message = "At most 16 tools can be offered")
+    @Schema(description = "Names of server-side tools the model may call; the service runs the calls and feeds "
+            + "their results back until the model answers", 
+            example = "[\"current_time\", \"search_documents\"]")
+    private List<String> tools;
+    
+    @JsonIgnore
+    @AssertTrue(message = "Exactly one of prompt and template_id is required")
+    public boolean isPromptOrTemplate() {
+        boolean hasPrompt = prompt != null && !prompt.isBlank();
+        boolean hasTemplate = templateId != null && !templateId.isBlank();
+        return hasPrompt != hasTemplate;
+    }
 }
@@ -43,6 +43,16 @@ public class LlmResponseDto {
     @JsonProperty("tokens_used")
     private Integer tokensUsed;
     
+    @Schema(description = "Number of prompt tokens counted by the provider", 
+            example = "1200")
+    @JsonProperty("prompt_tokens")
+    private Integer promptTokens;
+    
+    @Schema(description = "Number of prompt tokens served from the provider's prompt cache", 
+            example = "1024")
+    @JsonProperty("cached_tokens")
+    private Integer cachedTokens;
+    
     @Schema(description = "Processing time in milliseconds", 
             example = "1250.5")
     @JsonProperty("processing_time_ms")
@@ -58,4 +68,9 @@ public class LlmResponseDto {
     @Schema(description = "Error message if status is ERROR")
     @JsonProperty("error_message")
     private String errorMessage;
+    
+    @Schema(description = "Why the model stopped generating; length when max_tokens cut the answer short", 
+            example = "stop")
+    @JsonProperty("finish_reason")
+    private String finishReason;
 }
@@ -0,0 +1,34 @@
+package edu.study.llm_application.application.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress event of a long input
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Calls of the current map or reduce level that have finished")
+public class LongInputProgressDto {
+    
+    @Schema(description = "map while chunks are processed, reduce while partial answers are combined", 
+            example = "map")
+    private String stage;
+    
+    @Schema(description = "0 for the map step, then 1, 2, ... for each round of reduction", 
+            example = "0")
+    private int level;
+    
+    @Schema(description = "Calls of the level that have finished", 
+            example = "3")
+    private int completed;
+    
+    @Schema(description = "Calls of the level", 
+            example = "12")
+    private int total;
+}
@@ -0,0 +1,73 @@
+package edu.study.llm_application.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for applying an instruction to an input larger than one prompt
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for processing a long input in parallel chunks")
+public class LongInputRequestDto {
+    
+    @NotBlank(message = "Instruction cannot be blank")
+    @Size(max = 10000, message = "Instruction cannot exceed 10000 characters")
+    @Schema(description = "What to do with the input; applied to every chunk and to the combined answer", 
+            example = "Summarize the main decisions and their owners", 
+            required = true)
+    private String instruction;
+    
+    @NotBlank(message = "Input cannot be blank")
+    @Size(max = 1000000, message = "Input cannot exceed 1000000 characters")
+    @Schema(description = "The text the instruction applies to", 
+            example = "Meeting notes, 12 March...", 
+            required = true)
+    private String input;
+    
+    @Size(max = 10000, message = "System prompt cannot exceed 10000 characters")
+    @Schema(description = "Instructions sent ahead of every call", 
+            example = "You are a concise assistant")
+    @JsonProperty("system_prompt")
+    private String systemPrompt;
+    
+    @Schema(description = "The LLM model to use", 
+            example = "gpt-3.5-turbo", 
+            defaultValue = "gpt-3.5-turbo")
+    private String model;
+    
+    @Min(value = 1, message = "Max tokens must be at least 1")
+    @Max(value = 4000, message = "Max tokens cannot exceed 4000")
+    @Schema(description = "Maximum number of tokens generated by each call", 
+            example = "300", 
+            minimum = "1", 
+            maximum = "4000")
+    @JsonProperty("max_tokens")
+    private Integer maxTokens;
+    
+    @DecimalMin(value = "0.0", message = "Temperature must be between 0.0 and 2.0")
+    @DecimalMax(value = "2.0", message = "Temperature must be between 0.0 and 2.0")
+    @Schema(description = "Sampling temperature (0.0 = deterministic, 2.0 = very creative)", 
+            example = "0.2", 
+            minimum = "0.0", 
+            maximum = "2.0")
+    private Double temperature;
+    
+    @Schema(description = "Optional user identifier", 
+            example = "user123")
+    @JsonProperty("user_id")
+    private String userId;
+}
@@ -0,0 +1,51 @@
+package edu.study.llm_application.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO describing a registered prompt template
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Response object describing a compiled prompt template")
+public class PromptTemplateDto {
+    
+    @Schema(description = "Template id referenced by generation requests", 
+            example = "summarize")
+    private String id;
+    
+    @Schema(description = "Template text with {{name}} placeholders")
+    private String template;
+    
+    @Schema(description = "Variables a request must supply, in order of first use", 
+            example = "[\"sentences\", \"text\"]")
+    private List<String> variables;
+    
+    @Schema(description = "Estimated tokens of the static text of the template", 
+            example = "12")
+    @JsonProperty("static_tokens")
+    private Integer staticTokens;
+    
+    @Schema(description = "Timestamp when the response was generated")
+    private LocalDateTime timestamp;
+    
+    @Schema(description = "Response status", 
+            example = "SUCCESS")
+    private String status;
+    
+    @Schema(description = "Error message if status is not SUCCESS")
+    @JsonProperty("error_message")
+    private String errorMessage;
+}
@@ -0,0 +1,28 @@
+package edu.study.llm_application.application.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for registering a prompt template
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for registering a prompt template")
+public class PromptTemplateRequestDto {
+    
+    @NotBlank(message = "Template cannot be empty")
+    @Size(max = 10000, message = "Template cannot exceed 10000 characters")
+    @Schema(description = "Template text with {{name}} placeholders for the variables", 
+            example = "Summarize the following text in {{sentences}} sentences:\n\n{{text}}", 
+            required = true)
+    private String template;
+}
@@ -0,0 +1,76 @@
+package edu.study.llm_application.application.mappers;
+
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Mapper for converting failed requests into the status reported to their callers
+ * Shared by the REST and RSocket controllers and the offline mode, so a failure is reported the
+ * same way whichever way the request came in
+ */
+@Slf4j
+public final class ErrorMapper {
+    
+    private ErrorMapper() {
+    }
+    
+    /**
+     * Maps a failure, reported directly or by a completed future, to its status
+     * 429 when the user is over their limit, 503 when overloaded, 504 when the deadline passed, 422 for
+     * a reused idempotency key, 400 for content flagged by moderation, 502 for output that kept diverging
+     * from the response schema or that diverged from it once streamed, 500 otherwise
+     * 
+     * @param deadline the deadline of the request, telling a cancellation for lack of time from others
+     */
+    public static Failure toFailure(Throwable error, Deadline deadline) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause instanceof CancellationException ? "Request cancelled" : cause.getMessage();
+        
+        if (cause instanceof LlmUseCasePort.LlmSchemaMismatchException) {
+            log.warn("LLM output diverged from its schema: {}", cause.getMessage());
+            return new Failure(HttpStatus.BAD_GATEWAY, "SCHEMA_MISMATCH", message);
+        }
+        if (cause instanceof LlmUseCasePort.LlmInvalidOutputException) {
+            log.warn("Invalid LLM output: {}", cause.getMessage());
+            return new Failure(HttpStatus.BAD_GATEWAY, "INVALID_OUTPUT", message);
+        }
+        if (cause instanceof LlmUseCasePort.LlmContentFlaggedException) {
+            log.warn("Flagged LLM request: {}", cause.getMessage());
+            return new Failure(HttpStatus.BAD_REQUEST, "FLAGGED", message);
+        }
+        if (cause instanceof LlmUseCasePort.LlmIdempotencyConflictException) {
+            log.warn("Conflicting LLM request: {}", cause.getMessage());
+            return new Failure(HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_CONFLICT", message);
+        }
+        if (cause instanceof LlmUseCasePort.LlmRateLimitedException) {
+            log.warn("Rate limited LLM request: {}", cause.getMessage());
+            return new Failure(HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMITED", message);
+        }
+        if (cause instanceof LlmUseCasePort.LlmOverloadedException) {
+            log.warn("Rejected LLM request: {}", cause.getMessage());
+            return new Failure(HttpStatus.SERVICE_UNAVAILABLE, "OVERLOADED", message);
+        }
+        if (cause instanceof LlmUseCasePort.LlmDeadlineExceededException
+                || (cause instanceof CancellationException && deadline != null && deadline.isExpired())) {
+            log.warn("LLM request deadline exceeded: {}", cause.getMessage());
+            return new Failure(HttpStatus.GATEWAY_TIMEOUT, "DEADLINE_EXCEEDED", message);
+        }
+        log.error("Error processing LLM request: {}", cause.getMessage());
+        return new Failure(HttpStatus.INTERNAL_SERVER_ERROR, "ERROR", message);
+    }
+    
+    /**
+     * Status of a failed request
+     * 
+     * @param httpStatus the HTTP status of the REST API
+     * @param status the status name reported in the body of the error response
+     * @param message the error message reported in the body of the error response
+     */
+    public record Failure(HttpStatus httpStatus, String status, String message) {
+    }
+}
@@ -1,11 +1,36 @@
 package edu.study.llm_application.application.mappers;
 
+import edu.study.llm_application.application.dtos.ComparisonChunkDto;
+import edu.study.llm_application.application.dtos.ComparisonResponseDto;
+import edu.study.llm_application.application.dtos.DocumentIngestRequestDto;
+import edu.study.llm_application.application.dtos.DocumentIngestResponseDto;
+import edu.study.llm_application.application.dtos.EmbeddingRequestDto;
+import edu.study.llm_application.application.dtos.EmbeddingResponseDto;
 import edu.study.llm_application.application.dtos.LlmRequestDto;
 import edu.study.llm_application.application.dtos.LlmResponseDto;
+import edu.study.llm_application.application.dtos.LongInputProgressDto;
+import edu.study.llm_application.application.dtos.LongInputRequestDto;
+import edu.study.llm_application.application.dtos.PromptTemplateDto;
+import edu.study.llm_application.domain.entities.ComparisonChunk;
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.Document;
+import edu.study.llm_application.domain.entities.EmbeddingRequest;
+import edu.study.llm_application.domain.entities.EmbeddingResponse;
+import edu.study.llm_application.domain.entities.IngestionResult;
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.LongInputProgress;
+import edu.study.llm_application.domain.entities.ModelComparison;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.entities.PromptTemplate;
+import edu.study.llm_application.domain.entities.ToolDefinition;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Mapper for converting between DTOs and domain entities
  */
@@ -13,20 +38,29 @@ import org.springframework.stereotype.Component;
 public class LlmMapper {
     
     /**
-     * Converts LLM request DTO to domain entity
+     * Converts LLM request DTO to domain entity, resolving its defaults
      */
-    public LlmRequest toDomain(LlmRequestDto dto) {
+    public LlmRequest toDomain(LlmRequestDto dto, Priority priority, Deadline deadline) {
         if (dto == null) {
             return null;
         }
         
         return LlmRequest.builder()
                 .prompt(dto.getPrompt())
+                .systemPrompt(dto.getSystemPrompt())
                 .model(dto.getModel())
                 .maxTokens(dto.getMaxTokens())
                 .temperature(dto.getTemperature())
                 .userId(dto.getUserId())
                 .context(dto.getContext())
+                .retrievalTopK(dto.getRetrievalTopK())
+                .templateId(dto.getTemplateId())
+                .variables(dto.getVariables())
+                .cascade(dto.getCascade())
+                .responseSchema(dto.getResponseSchema())
+                .tools(dto.getTools() != null ? dto.getTools().stream().map(ToolDefinition::named).toList() : null)
+                .priority(priority)
+                .deadline(deadline)
                 .build();
     }
     
@@ -39,15 +73,182 @@ public class LlmMapper {
         }
         
         return LlmResponseDto.builder()
+                .id(domain.id())
+                .requestId(domain.requestId())
+                .content(domain.content())
+                .model(domain.model())
+                .tokensUsed(domain.tokensUsed())
+                .promptTokens(domain.promptTokens())
+                .cachedTokens(domain.cachedTokens())
+                .processingTimeMs(domain.processingTimeMs())
+                .timestamp(domain.timestamp())
+                .status(domain.status())
+                .errorMessage(domain.errorMessage())
+                .finishReason(domain.finishReason())
+                .build();
+    }
+    
+    /**
+     * Converts a model comparison to DTO
+     */
+    public ComparisonResponseDto toComparisonDto(ModelComparison domain) {
+        if (domain == null) {
+            return null;
+        }
+        
+        return ComparisonResponseDto.builder()
+                .requestId(domain.requestId())
+                .responses(domain.responses().stream().map(this::toDto).toList())
+                .processingTimeMs(domain.processingTimeMs())
+                .build();
+    }
+    
+    /**
+     * Converts a piece of a comparison stream to DTO
+     */
+    public ComparisonChunkDto toChunkDto(ComparisonChunk domain) {
+        if (domain == null) {
+            return null;
+        }
+        
+        return ComparisonChunkDto.builder()
+                .model(domain.model())
+                .text(domain.text())
+                .build();
+    }
+    
+    /**
+     * Converts a long input request to the domain request carrying its instruction as the prompt
+     */
+    public LlmRequest toLongInputDomain(LongInputRequestDto dto, Priority priority, Deadline deadline) {
+        if (dto == null) {
+            return null;
+        }
+        
+        return LlmRequest.builder()
+                .prompt(dto.getInstruction())
+                .systemPrompt(dto.getSystemPrompt())
+                .model(dto.getModel())
+                .maxTokens(dto.getMaxTokens())
+                .temperature(dto.getTemperature())
+                .userId(dto.getUserId())
+                .priority(priority)
+                .deadline(deadline)
+                .build();
+    }
+    
+    /**
+     * Converts the progress of a long input to DTO
+     */
+    public LongInputProgressDto toProgressDto(LongInputProgress domain) {
+        if (domain == null) {
+            return null;
+        }
+        
+        return LongInputProgressDto.builder()
+                .stage(domain.stage().name().toLowerCase(Locale.ROOT))
+                .level(domain.level())
+                .completed(domain.completed())
+                .total(domain.total())
+                .build();
+    }
+    
+    /**
+     * Converts embedding request DTO to domain entity, resolving its defaults
+     */
+    public EmbeddingRequest toEmbeddingDomain(EmbeddingRequestDto dto, Deadline deadline) {
+        if (dto == null) {
+            return null;
+        }
+        
+        return EmbeddingRequest.builder()
+                .inputs(dto.getInput())
+                .model(dto.getModel())
+                .userId(dto.getUserId())
+                .deadline(deadline)
+                .build();
+    }
+    
+    /**
+     * Converts embedding response domain entity to DTO
+     */
+    public EmbeddingResponseDto toEmbeddingDto(EmbeddingResponse domain) {
+        if (domain == null) {
+            return null;
+        }
+        
+        List<EmbeddingResponseDto.Item> data = new ArrayList<>(domain.getEmbeddings().size());
+        for (int i = 0; i < domain.getEmbeddings().size(); i++) {
+            data.add(EmbeddingResponseDto.Item.builder()
+                    .index(i)
+                    .embedding(domain.getEmbeddings().get(i))
+                    .build());
+        }
+        
+        return EmbeddingResponseDto.builder()
                 .id(domain.getId())
                 .requestId(domain.getRequestId())
-                .content(domain.getContent())
                 .model(domain.getModel())
-                .tokensUsed(domain.getTokensUsed())
+                .data(data)
+                .dimensions(domain.getDimensions())
+                .cachedCount(domain.getCachedCount())
                 .processingTimeMs(domain.getProcessingTimeMs())
                 .timestamp(domain.getTimestamp())
                 .status(domain.getStatus())
-                .errorMessage(domain.getErrorMessage())
+                .build();
+    }
+    
+    /**
+     * Converts a document ingestion DTO to domain documents
+     */
+    public List<Document> toDocumentsDomain(DocumentIngestRequestDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        
+        return dto.getDocuments().stream()
+                .map(document -> Document.builder()
+                        .id(document.getId())
+                        .title(document.getTitle())
+                        .text(document.getText())
+                        .build())
+                .toList();
+    }
+    
+    /**
+     * Converts an ingestion result to DTO
+     */
+    public DocumentIngestResponseDto toIngestDto(IngestionResult domain) {
+        if (domain == null) {
+            return null;
+        }
+        
+        return DocumentIngestResponseDto.builder()
+                .id(domain.getId())
+                .documentIds(domain.getDocumentIds())
+                .chunkCount(domain.getChunkCount())
+                .cachedEmbeddings(domain.getCachedEmbeddings())
+                .processingTimeMs(domain.getProcessingTimeMs())
+                .timestamp(domain.getTimestamp())
+                .status(domain.getStatus())
+                .build();
+    }
+    
+    /**
+     * Converts a compiled prompt template to DTO
+     */
+    public PromptTemplateDto toTemplateDto(PromptTemplate domain) {
+        if (domain == null) {
+            return null;
+        }
+        
+        return PromptTemplateDto.builder()
+                .id(domain.getId())
+                .template(domain.getSource())
+                .variables(domain.getVariables())
+                .staticTokens(domain.getStaticTokens())
+                .timestamp(LocalDateTime.now())
+                .status("SUCCESS")
                 .build();
     }
 }
@@ -0,0 +1,57 @@
+package edu.study.llm_application.domain.entities;
+
+import java.time.Instant;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Audit trail entry of a request and what it was answered with
+ * 
+ * @param timestamp when the request finished
+ * @param requestId id of the request
+ * @param userId user of the request, or null
+ * @param model the model asked
+ * @param priority priority class of the request
+ * @param systemPrompt instructions sent with the prompt, or null
+ * @param prompt the prompt sent, after any template was rendered
+ * @param completion the answer, or null when the request failed
+ * @param status status of the answer, or ERROR when the request failed
+ * @param tokensUsed total tokens of prompt and completion, or null
+ * @param promptTokens prompt tokens counted by the provider, or null
+ * @param error why the request failed, or null
+ * @param durationMs time from the request being started to it finishing
+ */
+public record AuditRecord(
+        Instant timestamp,
+        String requestId,
+        String userId,
+        String model,
+        Priority priority,
+        String systemPrompt,
+        String prompt,
+        String completion,
+        String status,
+        Integer tokensUsed,
+        Integer promptTokens,
+        String error,
+        double durationMs) {
+    
+    /**
+     * Entry of a request that was answered or failed
+     * 
+     * @param response the answer, or null when the request failed
+     * @param error why the request failed, or null
+     * @param startTime {@link System#nanoTime()} when the request was started
+     */
+    public static AuditRecord of(LlmRequest request, LlmResponse response, Throwable error, long startTime) {
+        double durationMs = (System.nanoTime() - startTime) / 1_000_000.0;
+        if (response == null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            String reason = cause == null ? null : cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            return new AuditRecord(Instant.now(), request.id(), request.userId(), request.model(), request.priority(),
+                    request.systemPrompt(), request.prompt(), null, "ERROR", null, null, reason, durationMs);
+        }
+        return new AuditRecord(Instant.now(), request.id(), request.userId(), request.model(), request.priority(),
+                request.systemPrompt(), request.prompt(), response.content(), response.status(), response.tokensUsed(),
+                response.promptTokens(), response.errorMessage(), durationMs);
+    }
+}
@@ -0,0 +1,19 @@
+package edu.study.llm_application.domain.entities;
+
+import java.util.Map;
+
+/**
+ * Settings of the model cascade
+ * 
+ * @param firstModels model asked first for each requested model; empty when the cascade is disabled
+ */
+public record CascadeSettings(Map<String, String> firstModels) {
+    
+    /**
+     * Model to ask before the requested one, or null when requests to it are not cascaded
+     */
+    public String firstModelFor(String model) {
+        String first = firstModels.get(model);
+        return first != null && !first.equals(model) ? first : null;
+    }
+}
@@ -0,0 +1,45 @@
+package edu.study.llm_application.domain.entities;
+
+import java.util.List;
+
+/**
+ * One message of the conversation sent to a chat model
+ * 
+ * @param role who the message is from: system, user, assistant or tool
+ * @param content the text of the message, or null for an assistant turn that only calls tools
+ * @param toolCalls tools the assistant called in this turn, or null
+ * @param toolCallId call a tool message answers, or null
+ */
+public record ChatMessage(String role, String content, List<ToolCall> toolCalls, String toolCallId) {
+    
+    public static final String SYSTEM = "system";
+    public static final String USER = "user";
+    public static final String ASSISTANT = "assistant";
+    public static final String TOOL = "tool";
+    
+    public ChatMessage(String role, String content) {
+        this(role, content, null, null);
+    }
+    
+    public static ChatMessage system(String content) {
+        return new ChatMessage(SYSTEM, content);
+    }
+    
+    public static ChatMessage user(String content) {
+        return new ChatMessage(USER, content);
+    }
+    
+    /**
+     * The turn in which the model called tools, sent back ahead of their results
+     */
+    public static ChatMessage assistant(String content, List<ToolCall> toolCalls) {
+        return new ChatMessage(ASSISTANT, content, toolCalls, null);
+    }
+    
+    /**
+     * The result of a tool call
+     */
+    public static ChatMessage tool(String toolCallId, String content) {
+        return new ChatMessage(TOOL, content, null, toolCallId);
+    }
+}
@@ -0,0 +1,29 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Piece of the merged stream of several models answering the same request
+ * 
+ * @param model the model the piece comes from
+ * @param type what the piece carries
+ * @param text generated text for a TOKEN, the failure for an ERROR, empty for DONE
+ */
+public record ComparisonChunk(String model, Type type, String text) {
+    
+    public enum Type {
+        
+        /**
+         * Text generated by the model
+         */
+        TOKEN,
+        
+        /**
+         * The model finished its answer
+         */
+        DONE,
+        
+        /**
+         * The model failed; the other models carry on
+         */
+        ERROR
+    }
+}
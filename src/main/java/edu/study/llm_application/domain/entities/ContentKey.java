@@ -0,0 +1,70 @@
+package edu.study.llm_application.domain.entities;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * First 128 bits of the SHA-256 hash of some content, such as an embedding model and text
+ */
+public record ContentKey(long high, long low) {
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+    
+    /**
+     * Hashes a text together with its model, since vectors of different models are not interchangeable
+     */
+    public static ContentKey of(String model, String text) {
+        MessageDigest digest = sha256();
+        digest.update(model.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        return of(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * Hashes texts in order; each text ends with a separator, and a null text differs from an empty one
+     */
+    public static ContentKey of(List<String> parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts) {
+            if (part != null) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            } else {
+                // Never part of UTF-8 text
+                digest.update((byte) 0xFF);
+            }
+            digest.update((byte) 0);
+        }
+        return of(digest.digest());
+    }
+    
+    /**
+     * SHA-256 digest of the calling thread, reset for a new hash
+     */
+    public static MessageDigest sha256() {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return digest;
+    }
+    
+    /**
+     * The key as 32 hexadecimal digits
+     */
+    public String toHex() {
+        return HexFormat.of().toHexDigits(high) + HexFormat.of().toHexDigits(low);
+    }
+    
+    private static ContentKey of(byte[] hash) {
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new ContentKey(buffer.getLong(), buffer.getLong());
+    }
+}
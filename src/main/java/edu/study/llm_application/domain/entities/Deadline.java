@@ -0,0 +1,41 @@
+package edu.study.llm_application.domain.entities;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Point in time by which an LLM request must be answered
+ * Queue wait and upstream time are both counted against it
+ */
+public record Deadline(Instant expiresAt) {
+    
+    /**
+     * Creates a deadline expiring after the given budget from now
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(Instant.now().plus(budget));
+    }
+    
+    /**
+     * Time left before the deadline, never negative
+     */
+    public Duration remaining() {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+    
+    /**
+     * Checks if the deadline has already passed
+     */
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+    
+    /**
+     * Caps a timeout so that it does not outlive this deadline
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+}
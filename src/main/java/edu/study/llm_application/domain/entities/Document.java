@@ -0,0 +1,20 @@
+package edu.study.llm_application.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Domain entity representing a document to make available for retrieval
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Document {
+    
+    private String id;
+    private String title;
+    private String text;
+}
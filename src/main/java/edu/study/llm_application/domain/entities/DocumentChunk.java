@@ -0,0 +1,20 @@
+package edu.study.llm_application.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Domain entity representing a passage of a document, the unit that is indexed and retrieved
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentChunk {
+    
+    private String documentId;
+    private int index;
+    private String text;
+}
@@ -0,0 +1,10 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Embedding vector of a single text
+ * 
+ * @param vector the embedding values
+ * @param cached whether the vector was served from the cache instead of the provider
+ */
+public record Embedding(float[] vector, boolean cached) {
+}
@@ -0,0 +1,36 @@
+package edu.study.llm_application.domain.entities;
+
+import lombok.Builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Domain entity representing a request for embedding vectors of one or more texts
+ * Defaults are resolved when the request is built, and the inputs are copied into an unmodifiable
+ * list, keeping null texts for the use case to reject
+ * 
+ * @param id request id, generated when not given
+ * @param inputs the texts to embed
+ * @param model the embedding model, text-embedding-3-small by default
+ * @param userId optional user identifier
+ * @param deadline time by which the request must be answered, or null
+ */
+@Builder(toBuilder = true)
+public record EmbeddingRequest(
+        String id,
+        List<String> inputs,
+        String model,
+        String userId,
+        Deadline deadline) {
+    
+    public static final String DEFAULT_MODEL = "text-embedding-3-small";
+    
+    public EmbeddingRequest {
+        id = id != null ? id : UUID.randomUUID().toString();
+        model = model != null ? model : DEFAULT_MODEL;
+        inputs = inputs != null ? Collections.unmodifiableList(new ArrayList<>(inputs)) : null;
+    }
+}
@@ -0,0 +1,29 @@
+package edu.study.llm_application.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Domain entity representing the embedding vectors of a request, in input order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmbeddingResponse {
+    
+    private String id;
+    private String requestId;
+    private String model;
+    private List<float[]> embeddings;
+    private Integer dimensions;
+    private Integer cachedCount;
+    private Double processingTimeMs;
+    private LocalDateTime timestamp;
+    private String status;
+}
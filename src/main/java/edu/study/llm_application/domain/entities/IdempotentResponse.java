@@ -0,0 +1,10 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Response kept for the retries of a request sent with an idempotency key
+ * 
+ * @param fingerprint digest of the request the key was first used for, to tell a retry from a reused key
+ * @param response the response returned to the first request
+ */
+public record IdempotentResponse(String fingerprint, LlmResponse response) {
+}
@@ -0,0 +1,27 @@
+package edu.study.llm_application.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Domain entity representing the outcome of indexing a set of documents
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionResult {
+    
+    private String id;
+    private List<String> documentIds;
+    private int chunkCount;
+    private int cachedEmbeddings;
+    private Double processingTimeMs;
+    private LocalDateTime timestamp;
+    private String status;
+}
@@ -1,30 +1,86 @@
 package edu.study.llm_application.domain.entities;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Domain entity representing an LLM request
+ * Defaults are resolved when the request is built, so the same instance travels unchanged from the
+ * controller to the provider and can be shared between threads; stages that add to it build a copy.
+ * Lists and maps are copied into unmodifiable ones, one level deep, so a caller changing its own
+ * collections afterwards does not change the request
+ * 
+ * @param id request id, generated when not given
+ * @param prompt the user prompt
+ * @param systemPrompt instructions sent ahead of everything else
+ * @param model the model, gpt-3.5-turbo by default
+ * @param maxTokens largest number of tokens to generate, 150 by default
+ * @param temperature sampling temperature, 0.7 by default
+ * @param userId optional user identifier
+ * @param timestamp when the request was received
+ * @param context earlier turns of the conversation
+ * @param priority priority class, interactive by default
+ * @param deadline time by which the request must be answered, or null
+ * @param retrievalTopK number of indexed chunks to retrieve as context
+ * @param retrievedContext passages found for the prompt, sent as their own message rather than spliced into the prompt
+ * @param templateId prompt template to render instead of a prompt
+ * @param variables values of the template variables
+ * @param estimatedPromptTokens set when the prompt was rendered from a template, whose static token count is known up front
+ * @param idempotencyKey client key under which retries of the request get its first response, or null
+ * @param cascade whether a faster model configured for the requested one may answer first, true by default
+ * @param responseSchema JSON Schema the content of the answer must follow, or null for free text
+ * @param tools registered tools the model may call, run by the service until the model answers
+ * @param toolMessages tool calls of earlier turns and their results, sent after the prompt
  */
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class LlmRequest {
+@Builder(toBuilder = true)
+public record LlmRequest(
+        String id,
+        String prompt,
+        String systemPrompt,
+        String model,
+        Integer maxTokens,
+        Double temperature,
+        String userId,
+        LocalDateTime timestamp,
+        List<String> context,
+        Priority priority,
+        Deadline deadline,
+        Integer retrievalTopK,
+        String retrievedContext,
+        String templateId,
+        Map<String, String> variables,
+        Integer estimatedPromptTokens,
+        String idempotencyKey,
+        Boolean cascade,
+        Map<String, Object> responseSchema,
+        List<ToolDefinition> tools,
+        List<ChatMessage> toolMessages) {
     
-    private String id;
-    private String prompt;
-    private String model;
-    private Integer maxTokens;
-    private Double temperature;
-    private String userId;
-    private LocalDateTime timestamp;
-    private List<String> context;
+    public static final String DEFAULT_MODEL = "gpt-3.5-turbo";
+    public static final int DEFAULT_MAX_TOKENS = 150;
+    public static final double DEFAULT_TEMPERATURE = 0.7;
+    
+    public LlmRequest {
+        id = id != null ? id : UUID.randomUUID().toString();
+        model = model != null ? model : DEFAULT_MODEL;
+        maxTokens = maxTokens != null ? maxTokens : DEFAULT_MAX_TOKENS;
+        temperature = temperature != null ? temperature : DEFAULT_TEMPERATURE;
+        timestamp = timestamp != null ? timestamp : LocalDateTime.now();
+        priority = priority != null ? priority : Priority.INTERACTIVE;
+        cascade = cascade != null ? cascade : true;
+        context = copyOf(context);
+        variables = copyOf(variables);
+        responseSchema = copyOf(responseSchema);
+        tools = copyOf(tools);
+        toolMessages = copyOf(toolMessages);
+    }
     
     /**
      * Validates if the request has minimum required fields
@@ -35,18 +91,58 @@ public class LlmRequest {
     }
     
     /**
-     * Sets default values for optional parameters
+     * Checks if the model may call tools
+     */
+    public boolean hasTools() {
+        return tools != null && !tools.isEmpty();
+    }
+    
+    /**
+     * Messages of the request in the order they are sent, longest-lived first
+     * The system prompt is shared by many requests, the conversation grows only at its end and the
+     * retrieved passages change per question, so requests that share any of them also share a
+     * byte-identical prefix that providers can serve from their prompt cache; the turns of a tool
+     * loop follow the prompt
+     */
+    public List<ChatMessage> toMessages() {
+        List<ChatMessage> messages = new ArrayList<>((context != null ? context.size() : 0) 
+                + (toolMessages != null ? toolMessages.size() : 0) + 3);
+        if (systemPrompt != null && !systemPrompt.isBlank()) {
+            messages.add(ChatMessage.system(systemPrompt));
+        }
+        if (context != null) {
+            context.forEach(turn -> messages.add(ChatMessage.user(turn)));
+        }
+        if (retrievedContext != null) {
+            messages.add(ChatMessage.system(retrievedContext));
+        }
+        messages.add(ChatMessage.user(prompt));
+        if (toolMessages != null) {
+            messages.addAll(toolMessages);
+        }
+        return messages;
+    }
+    
+    /**
+     * Unmodifiable copy of a list; one that is already unmodifiable and free of nulls is kept as it is
+     */
+    private static <T> List<T> copyOf(List<T> list) {
+        if (list == null) {
+            return null;
+        }
+        for (T element : list) {
+            if (element == null) {
+                return Collections.unmodifiableList(new ArrayList<>(list));
+            }
+        }
+        return List.copyOf(list);
+    }
+    
+    /**
+     * Unmodifiable copy of a map keeping its order, which the schema's text and so the cache key depend on,
+     * and its null values, which JSON Schema documents may hold
      */
-    public LlmRequest withDefaults() {
-        return LlmRequest.builder()
-                .id(this.id)
-                .prompt(this.prompt)
-                .model(this.model != null ? this.model : "gpt-3.5-turbo")
-                .maxTokens(this.maxTokens != null ? this.maxTokens : 150)
-                .temperature(this.temperature != null ? this.temperature : 0.7)
-                .userId(this.userId)
-                .timestamp(this.timestamp != null ? this.timestamp : LocalDateTime.now())
-                .context(this.context)
-                .build();
+    private static <K, V> Map<K, V> copyOf(Map<K, V> map) {
+        return map != null ? Collections.unmodifiableMap(new LinkedHashMap<>(map)) : null;
     }
 }
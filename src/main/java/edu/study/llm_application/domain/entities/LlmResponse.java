@@ -1,30 +1,48 @@
 package edu.study.llm_application.domain.entities;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Domain entity representing an LLM response
+ * 
+ * @param id response id, generated when not given
+ * @param requestId id of the request answered
+ * @param content the generated text
+ * @param model the model that answered
+ * @param tokensUsed total tokens of prompt and completion
+ * @param promptTokens prompt tokens counted by the provider
+ * @param cachedTokens prompt tokens the provider served from its prompt cache
+ * @param processingTimeMs time the provider took to answer
+ * @param timestamp when the response was created
+ * @param status SUCCESS, ERROR, or PENDING while a deferred request waits for its batch
+ * @param errorMessage what went wrong when the status is ERROR
+ * @param finishReason why the provider stopped generating, e.g. stop or length, when it says
+ * @param toolCalls tools the model called instead of answering, or null
  */
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class LlmResponse {
-    
-    private String id;
-    private String requestId;
-    private String content;
-    private String model;
-    private Integer tokensUsed;
-    private Double processingTimeMs;
-    private LocalDateTime timestamp;
-    private String status;
-    private String errorMessage;
+@Builder(toBuilder = true)
+public record LlmResponse(
+        String id,
+        String requestId,
+        String content,
+        String model,
+        Integer tokensUsed,
+        Integer promptTokens,
+        Integer cachedTokens,
+        Double processingTimeMs,
+        LocalDateTime timestamp,
+        String status,
+        String errorMessage,
+        String finishReason,
+        List<ToolCall> toolCalls) {
+    
+    public LlmResponse {
+        id = id != null ? id : UUID.randomUUID().toString();
+        timestamp = timestamp != null ? timestamp : LocalDateTime.now();
+    }
     
     /**
      * Creates a successful response
@@ -37,7 +55,6 @@ public class LlmResponse {
                 .model(model)
                 .tokensUsed(tokensUsed)
                 .processingTimeMs(processingTimeMs)
-                .timestamp(LocalDateTime.now())
                 .status("SUCCESS")
                 .build();
     }
@@ -49,15 +66,47 @@ public class LlmResponse {
         return LlmResponse.builder()
                 .requestId(requestId)
                 .errorMessage(errorMessage)
-                .timestamp(LocalDateTime.now())
                 .status("ERROR")
                 .build();
     }
     
+    /**
+     * Creates the placeholder of a deferred request whose batch has not completed yet
+     */
+    public static LlmResponse pending(String requestId) {
+        return LlmResponse.builder()
+                .requestId(requestId)
+                .status("PENDING")
+                .build();
+    }
+    
     /**
      * Checks if the response was successful
      */
     public boolean isSuccessful() {
         return "SUCCESS".equals(status) && content != null && !content.trim().isEmpty();
     }
+    
+    /**
+     * Checks if the model called tools, whose results it waits for before answering
+     */
+    public boolean hasToolCalls() {
+        return toolCalls != null && !toolCalls.isEmpty();
+    }
+    
+    /**
+     * Checks if the response stands for a deferred request whose batch has not completed
+     */
+    public boolean isPending() {
+        return "PENDING".equals(status);
+    }
+    
+    /**
+     * Copy of the response carrying the time the provider took
+     * Built through the canonical constructor, since this runs once per call and a builder would be a second copy
+     */
+    public LlmResponse withProcessingTimeMs(double processingTimeMs) {
+        return new LlmResponse(id, requestId, content, model, tokensUsed, promptTokens, cachedTokens,
+                processingTimeMs, timestamp, status, errorMessage, finishReason, toolCalls);
+    }
 }
@@ -0,0 +1,35 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Progress of a long input through its map and reduce calls
+ * 
+ * @param stage the step the input is in
+ * @param level 0 for the map step, then 1, 2, ... for each round of reduction
+ * @param completed calls of the level that have finished
+ * @param total calls of the level
+ * @param response the combined answer, set only when the stage is DONE
+ */
+public record LongInputProgress(Stage stage, int level, int completed, int total, LlmResponse response) {
+    
+    public enum Stage {
+        
+        /**
+         * Chunks of the input are processed on their own
+         */
+        MAP,
+        
+        /**
+         * Partial answers are combined, in several rounds when they do not fit one call
+         */
+        REDUCE,
+        
+        /**
+         * The combined answer is available
+         */
+        DONE
+    }
+    
+    public static LongInputProgress done(LlmResponse response) {
+        return new LongInputProgress(Stage.DONE, 0, 1, 1, response);
+    }
+}
@@ -0,0 +1,22 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * How inputs larger than one prompt are split and how many of their pieces run at once
+ * 
+ * @param chunkTokens estimated tokens of input per map call; partial answers are grouped up to the same size to be reduced
+ * @param overlapTokens estimated tokens a chunk repeats from the end of the previous one
+ * @param maxConcurrent provider calls of one long input running at the same time
+ * @param maxInputChars longest input accepted
+ */
+public record LongInputSettings(int chunkTokens, int overlapTokens, int maxConcurrent, int maxInputChars) {
+    
+    public LongInputSettings {
+        if (chunkTokens < 1 || overlapTokens < 0 || overlapTokens >= chunkTokens) {
+            throw new IllegalArgumentException(
+                    "Chunk overlap must be smaller than the chunk of " + chunkTokens + " tokens, was " + overlapTokens);
+        }
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("At least one concurrent call is required, was " + maxConcurrent);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package edu.study.llm_application.domain.entities;
+
+import java.util.List;
+
+/**
+ * Answers of several models to the same request
+ * 
+ * @param requestId id of the compared request
+ * @param responses one response per model in the order the models were given; a model that failed has an ERROR response
+ * @param processingTimeMs wall time until the slowest model answered
+ */
+public record ModelComparison(String requestId, List<LlmResponse> responses, double processingTimeMs) {
+}
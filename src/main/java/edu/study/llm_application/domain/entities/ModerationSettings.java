@@ -0,0 +1,10 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Settings of the moderation check run alongside generation
+ * 
+ * @param enabled whether requests are moderated
+ * @param failOpen whether a request is answered when its moderation check fails rather than rejected
+ */
+public record ModerationSettings(boolean enabled, boolean failOpen) {
+}
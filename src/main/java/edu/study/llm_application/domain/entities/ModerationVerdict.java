@@ -0,0 +1,19 @@
+package edu.study.llm_application.domain.entities;
+
+import java.util.List;
+
+/**
+ * Outcome of checking the content of a request against the content policy
+ * 
+ * @param flagged whether the content breaks the policy
+ * @param categories policy categories the content was flagged for, empty when it was not
+ */
+public record ModerationVerdict(boolean flagged, List<String> categories) {
+    
+    /**
+     * Verdict for content that does not break the policy
+     */
+    public static ModerationVerdict cleared() {
+        return new ModerationVerdict(false, List.of());
+    }
+}
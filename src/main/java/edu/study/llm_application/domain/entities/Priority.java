@@ -0,0 +1,40 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Priority class of an LLM request, used to pick the bulkhead it runs in
+ * Deferred requests skip the bulkheads and go through the provider's batch API instead
+ */
+public enum Priority {
+    
+    /**
+     * Latency sensitive traffic from end users
+     */
+    INTERACTIVE,
+    
+    /**
+     * Latency tolerant traffic such as batch enrichment jobs
+     */
+    BULK,
+    
+    /**
+     * Traffic that can wait hours for its answer, sent in batches at a lower price and outside real-time rate limits
+     */
+    DEFERRED;
+    
+    /**
+     * Resolves a priority from a header value, falling back to INTERACTIVE
+     */
+    public static Priority fromHeader(String value) {
+        if (value == null || value.isBlank()) {
+            return INTERACTIVE;
+        }
+        
+        for (Priority priority : values()) {
+            if (priority.name().equalsIgnoreCase(value.trim())) {
+                return priority;
+            }
+        }
+        
+        throw new IllegalArgumentException("Unknown priority class: " + value);
+    }
+}
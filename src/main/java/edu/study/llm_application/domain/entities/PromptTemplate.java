@@ -0,0 +1,133 @@
+package edu.study.llm_application.domain.entities;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Prompt template compiled once into static text segments and variable slots
+ * Placeholders are written as {@code {{name}}}. The static segments and their token estimate are
+ * computed when the template is registered, so rendering only sizes the buffer and appends the parts
+ */
+public final class PromptTemplate {
+    
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+    
+    private final String id;
+    private final String source;
+    // texts[i] precedes slots[i]; the last text follows the last slot
+    private final String[] texts;
+    private final String[] slots;
+    private final List<String> variables;
+    private final int staticLength;
+    private final int staticTokens;
+    
+    private PromptTemplate(String id, String source, String[] texts, String[] slots) {
+        this.id = id;
+        this.source = source;
+        this.texts = texts;
+        this.slots = slots;
+        this.variables = List.copyOf(new LinkedHashSet<>(List.of(slots)));
+        int length = 0;
+        for (String text : texts) {
+            length += text.length();
+        }
+        this.staticLength = length;
+        this.staticTokens = length / 4;
+    }
+    
+    /**
+     * Parses a template source into its compiled form
+     *
+     * @throws IllegalArgumentException if a placeholder is not closed or has an invalid name
+     */
+    public static PromptTemplate compile(String id, String source) {
+        if (id == null || id.isBlank() || source == null) {
+            throw new IllegalArgumentException("Template id and source are required");
+        }
+        
+        List<String> texts = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at character " + open);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (!VARIABLE_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid variable name '" + name + "' at character " + open);
+            }
+            texts.add(source.substring(position, open));
+            slots.add(name);
+            position = close + CLOSE.length();
+        }
+        texts.add(source.substring(position));
+        
+        return new PromptTemplate(id, source, texts.toArray(String[]::new), slots.toArray(String[]::new));
+    }
+    
+    /**
+     * Appends the template with its variables filled in to a buffer
+     * The buffer grows at most once, to the exact length of the rendered prompt
+     *
+     * @param values variable values by name; names the template does not use are ignored
+     * @param buffer the buffer to append to
+     * @return estimated prompt tokens of the rendered text, about four characters per token
+     * @throws IllegalArgumentException if a variable of the template has no value
+     */
+    public int render(Map<String, String> values, StringBuilder buffer) {
+        int variableLength = 0;
+        Set<String> missing = null;
+        for (String slot : slots) {
+            String value = values != null ? values.get(slot) : null;
+            if (value == null) {
+                if (missing == null) {
+                    missing = new LinkedHashSet<>();
+                }
+                missing.add(slot);
+            } else {
+                variableLength += value.length();
+            }
+        }
+        if (missing != null) {
+            throw new IllegalArgumentException(
+                    "Missing variables of template '" + id + "': " + String.join(", ", missing));
+        }
+        
+        buffer.ensureCapacity(buffer.length() + staticLength + variableLength);
+        for (int i = 0; i < slots.length; i++) {
+            buffer.append(texts[i]).append(values.get(slots[i]));
+        }
+        buffer.append(texts[slots.length]);
+        return staticTokens + variableLength / 4 + 1;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    /**
+     * Distinct variable names in order of first use
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+    
+    /**
+     * Estimated tokens of the static text, computed at compile time
+     */
+    public int getStaticTokens() {
+        return staticTokens;
+    }
+}
@@ -0,0 +1,18 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * How documents are split into chunks and which model embeds them
+ * 
+ * @param chunkWords words per chunk
+ * @param chunkOverlap words a chunk repeats from the end of the previous one
+ * @param embeddingModel model embedding chunks and queries; both must use the same one
+ */
+public record RetrievalSettings(int chunkWords, int chunkOverlap, String embeddingModel) {
+    
+    public RetrievalSettings {
+        if (chunkWords < 1 || chunkOverlap < 0 || chunkOverlap >= chunkWords) {
+            throw new IllegalArgumentException(
+                    "Chunk overlap must be smaller than the chunk of " + chunkWords + " words, was " + chunkOverlap);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package edu.study.llm_application.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Domain entity representing a chunk found for a query, with its cosine similarity to the query
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetrievedChunk {
+    
+    private String documentId;
+    private int chunkIndex;
+    private String text;
+    private double score;
+}
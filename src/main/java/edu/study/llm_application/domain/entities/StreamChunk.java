@@ -0,0 +1,18 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Piece of a streamed generation: a text delta, or the token usage the provider reported at its end
+ * 
+ * @param text generated text, null on the usage chunk
+ * @param tokensUsed total tokens of prompt and completion on the usage chunk, null on text chunks
+ */
+public record StreamChunk(String text, Integer tokensUsed) {
+    
+    public static StreamChunk text(String text) {
+        return new StreamChunk(text, null);
+    }
+    
+    public static StreamChunk usage(int tokensUsed) {
+        return new StreamChunk(null, tokensUsed);
+    }
+}
@@ -0,0 +1,9 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Settings of requests answered with JSON following a schema
+ * 
+ * @param maxAttempts generations tried before giving up on output that keeps diverging from the schema
+ */
+public record StructuredOutputSettings(int maxAttempts) {
+}
@@ -0,0 +1,11 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * A call of a tool requested by the model
+ * 
+ * @param id id given by the provider, which the result is sent back under
+ * @param name the tool called
+ * @param arguments the arguments, as a JSON object
+ */
+public record ToolCall(String id, String name, String arguments) {
+}
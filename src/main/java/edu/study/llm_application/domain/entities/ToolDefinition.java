@@ -0,0 +1,20 @@
+package edu.study.llm_application.domain.entities;
+
+import java.util.Map;
+
+/**
+ * A function the model may call, run by the service rather than the client
+ * 
+ * @param name name the model calls the tool by
+ * @param description what the tool does, shown to the model
+ * @param parameters JSON Schema of the arguments
+ */
+public record ToolDefinition(String name, String description, Map<String, Object> parameters) {
+    
+    /**
+     * Reference to a registered tool by name, resolved to its definition when the request is prepared
+     */
+    public static ToolDefinition named(String name) {
+        return new ToolDefinition(name, null, null);
+    }
+}
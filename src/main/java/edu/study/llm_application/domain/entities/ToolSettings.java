@@ -0,0 +1,9 @@
+package edu.study.llm_application.domain.entities;
+
+/**
+ * Settings of the tool-calling loop
+ * 
+ * @param maxRounds turns in which the model may call tools before the request fails
+ */
+public record ToolSettings(int maxRounds) {
+}
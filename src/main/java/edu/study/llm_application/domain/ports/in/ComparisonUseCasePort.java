@@ -0,0 +1,40 @@
+package edu.study.llm_application.domain.ports.in;
+
+import edu.study.llm_application.domain.entities.ComparisonChunk;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.ModelComparison;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Use case port for sending the same request to several models at once
+ */
+public interface ComparisonUseCasePort {
+    
+    /**
+     * Sends a request to every model concurrently and collects their answers
+     * A model that fails is reported in its own response, so the future completes with the others;
+     * cancelling it aborts the calls still running
+     * 
+     * @param request the request; its model is replaced by each of the models
+     * @param models models to compare, or empty for all available models
+     * @return a future completed once the slowest model answered
+     * @throws LlmUseCasePort.LlmProcessingException if the request or the list of models is invalid
+     */
+    CompletableFuture<ModelComparison> compare(LlmRequest request, List<String> models) 
+            throws LlmUseCasePort.LlmProcessingException;
+    
+    /**
+     * Streams the answers of every model interleaved as they are generated
+     * A model that fails ends with an ERROR chunk while the others carry on; cancelling the stream aborts them all
+     * 
+     * @param request the request; its model is replaced by each of the models
+     * @param models models to compare, or empty for all available models
+     * @return chunks tagged with their model, each model ending with DONE or ERROR
+     * @throws LlmUseCasePort.LlmProcessingException if the request or the list of models is invalid
+     */
+    Flux<ComparisonChunk> streamCompare(LlmRequest request, List<String> models) 
+            throws LlmUseCasePort.LlmProcessingException;
+}
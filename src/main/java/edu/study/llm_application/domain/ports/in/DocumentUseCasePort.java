@@ -0,0 +1,38 @@
+package edu.study.llm_application.domain.ports.in;
+
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.Document;
+import edu.study.llm_application.domain.entities.IngestionResult;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Use case port for retrieval-augmented generation: indexing documents and finding passages for a query
+ */
+public interface DocumentUseCasePort {
+    
+    /**
+     * Starts chunking, embedding and indexing documents without waiting for them
+     * The future fails with an LlmProcessingException when a chunk cannot be embedded or indexed
+     * 
+     * @param documents the documents to index
+     * @return a future completed once every chunk can be retrieved
+     * @throws LlmUseCasePort.LlmProcessingException if the documents are rejected before any work starts
+     */
+    CompletableFuture<IngestionResult> ingest(List<Document> documents) 
+            throws LlmUseCasePort.LlmProcessingException;
+    
+    /**
+     * Finds the indexed chunks most relevant to a query
+     * 
+     * @param query the text to find passages for
+     * @param topK the number of chunks to return
+     * @param deadline the deadline of the request the chunks are for, or null
+     * @return up to topK chunks, most relevant first
+     * @throws LlmUseCasePort.LlmProcessingException if the query cannot be embedded or searched in time
+     */
+    List<RetrievedChunk> retrieve(String query, int topK, Deadline deadline) 
+            throws LlmUseCasePort.LlmProcessingException;
+}
@@ -0,0 +1,31 @@
+package edu.study.llm_application.domain.ports.in;
+
+import edu.study.llm_application.domain.entities.EmbeddingRequest;
+import edu.study.llm_application.domain.entities.EmbeddingResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Use case port for embedding operations
+ */
+public interface EmbeddingUseCasePort {
+    
+    /**
+     * Starts computing the embeddings of a request without waiting for them
+     * The future fails with an LlmProcessingException, or an LlmDeadlineExceededException
+     * when the deadline of the request passes first
+     * 
+     * @param request the embedding request to process
+     * @return a future completed with one vector per input, in input order
+     * @throws LlmUseCasePort.LlmProcessingException if the request is rejected before reaching the provider
+     */
+    CompletableFuture<EmbeddingResponse> submitRequest(EmbeddingRequest request) 
+            throws LlmUseCasePort.LlmProcessingException;
+    
+    /**
+     * Gets the available embedding models
+     * 
+     * @return array of embedding model names
+     */
+    String[] getAvailableModels();
+}
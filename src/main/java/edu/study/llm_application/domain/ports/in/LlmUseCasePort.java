@@ -3,6 +3,11 @@ package edu.study.llm_application.domain.ports.in;
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
 
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Use case port for LLM operations
  */
@@ -18,6 +23,43 @@ public interface LlmUseCasePort {
      */
     LlmResponse processRequest(LlmRequest request) throws LlmProcessingException;
     
+    /**
+     * Starts processing an LLM request without waiting for the response
+     * The future fails with an LlmProcessingException; cancelling it aborts the provider call
+     * 
+     * @param request the LLM request to process
+     * @return a future completed with the generated response
+     * @throws LlmProcessingException if the request is rejected before reaching the provider
+     */
+    CompletableFuture<LlmResponse> submitRequest(LlmRequest request) throws LlmProcessingException;
+    
+    /**
+     * Processes an LLM request, streaming the generated text as it is produced
+     * The stream fails with an LlmProcessingException; cancelling it aborts the provider call
+     * 
+     * @param request the LLM request to process
+     * @return the chunks of generated text
+     * @throws LlmProcessingException if the request is rejected before reaching the provider
+     */
+    Flux<String> streamRequest(LlmRequest request) throws LlmProcessingException;
+    
+    /**
+     * Queues an LLM request for the provider's batch API instead of answering it now
+     * 
+     * @param request the LLM request to process
+     * @return a PENDING response carrying the id to look the result up by
+     * @throws LlmProcessingException if the request is rejected or cannot be queued
+     */
+    LlmResponse deferRequest(LlmRequest request) throws LlmProcessingException;
+    
+    /**
+     * Looks up the outcome of a deferred request
+     * 
+     * @param requestId id returned when the request was deferred
+     * @return the response, a PENDING response while its batch runs, or empty if unknown or expired
+     */
+    Optional<LlmResponse> findDeferred(String requestId);
+    
     /**
      * Validates if an LLM request is properly formatted
      * 
@@ -52,4 +94,68 @@ public interface LlmUseCasePort {
             super(message, cause);
         }
     }
+    
+    /**
+     * Exception thrown when the service has no capacity left for a request
+     */
+    class LlmOverloadedException extends LlmProcessingException {
+        public LlmOverloadedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+    
+    /**
+     * Exception thrown when a request could not be answered before its deadline
+     */
+    class LlmDeadlineExceededException extends LlmProcessingException {
+        public LlmDeadlineExceededException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Exception thrown when a user has sent more requests than their limit allows
+     */
+    class LlmRateLimitedException extends LlmProcessingException {
+        public LlmRateLimitedException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Exception thrown when an idempotency key is reused for a different request
+     */
+    class LlmIdempotencyConflictException extends LlmProcessingException {
+        public LlmIdempotencyConflictException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Exception thrown when the content of a request was flagged by moderation
+     */
+    class LlmContentFlaggedException extends LlmProcessingException {
+        public LlmContentFlaggedException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Exception thrown when the provider kept generating output that does not match the requested schema
+     */
+    class LlmInvalidOutputException extends LlmProcessingException {
+        public LlmInvalidOutputException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * Exception thrown when a streamed answer diverged from the requested schema once part of it was sent,
+     * so it could not be generated again; the provider stream is cancelled at the diverging chunk
+     */
+    class LlmSchemaMismatchException extends LlmInvalidOutputException {
+        public LlmSchemaMismatchException(String message) {
+            super(message);
+        }
+    }
 }
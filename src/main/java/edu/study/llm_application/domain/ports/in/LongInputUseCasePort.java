@@ -0,0 +1,22 @@
+package edu.study.llm_application.domain.ports.in;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LongInputProgress;
+import reactor.core.publisher.Flux;
+
+/**
+ * Use case port for inputs too large for a single prompt
+ */
+public interface LongInputUseCasePort {
+    
+    /**
+     * Applies an instruction to a long input by processing its chunks in parallel and combining the answers
+     * The stream fails with an LlmProcessingException; cancelling it aborts the calls in flight
+     * 
+     * @param request the instruction as prompt, with the model and sampling settings of every call
+     * @param input the text the instruction applies to
+     * @return progress of each finished call, ending with a DONE event carrying the combined answer
+     * @throws LlmUseCasePort.LlmProcessingException if the request is rejected before reaching the provider
+     */
+    Flux<LongInputProgress> process(LlmRequest request, String input) throws LlmUseCasePort.LlmProcessingException;
+}
@@ -0,0 +1,39 @@
+package edu.study.llm_application.domain.ports.in;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.PromptTemplate;
+
+import java.util.Optional;
+
+/**
+ * Use case port for server-side prompt templates
+ */
+public interface PromptTemplateUseCasePort {
+    
+    /**
+     * Compiles and registers a template, replacing any template with the same id
+     *
+     * @param id the template id
+     * @param source the template text with {{name}} placeholders
+     * @return the compiled template
+     * @throws LlmUseCasePort.LlmProcessingException if the template cannot be parsed or is too large
+     */
+    PromptTemplate register(String id, String source) throws LlmUseCasePort.LlmProcessingException;
+    
+    /**
+     * Finds a registered template
+     *
+     * @param id the template id
+     * @return the template, or empty if none is registered under the id
+     */
+    Optional<PromptTemplate> find(String id);
+    
+    /**
+     * Renders the template a request refers to into its prompt
+     *
+     * @param request a request carrying a template id and variables
+     * @return a copy of the request with the rendered prompt and its estimated token count
+     * @throws LlmUseCasePort.LlmProcessingException if the template is unknown or a variable is missing
+     */
+    LlmRequest render(LlmRequest request) throws LlmUseCasePort.LlmProcessingException;
+}
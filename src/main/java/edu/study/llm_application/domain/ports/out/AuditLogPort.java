@@ -0,0 +1,16 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.AuditRecord;
+
+/**
+ * Port for the audit trail of requests and their answers
+ */
+public interface AuditLogPort {
+    
+    /**
+     * Hands a record over to be written later, so the request is not held up by the write
+     * 
+     * @param record the record
+     */
+    void record(AuditRecord record);
+}
@@ -0,0 +1,31 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port for sending latency tolerant requests through the provider's batch API
+ * Requests are collected and sent together; each one's response is looked up by its id once the batch completes
+ */
+public interface BatchLlmPort {
+    
+    /**
+     * Queues a request for the next batch
+     * 
+     * @return the response, or error response, of the request once its batch completed; it is not completed
+     *         when the batch is lost with the process
+     * @throws LlmProviderPort.LlmProviderException if the request cannot be queued
+     */
+    CompletableFuture<LlmResponse> enqueue(LlmRequest request) throws LlmProviderPort.LlmProviderException;
+    
+    /**
+     * Outcome of a queued request
+     * 
+     * @return a PENDING response while its batch runs, the response or error once it completed,
+     *         or empty if the id is unknown or its result has expired
+     */
+    Optional<LlmResponse> result(String requestId);
+}
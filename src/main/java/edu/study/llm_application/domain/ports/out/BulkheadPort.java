@@ -0,0 +1,32 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.Priority;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port for running provider calls inside isolated bulkheads
+ */
+public interface BulkheadPort {
+    
+    /**
+     * Submits a task to the bulkhead partition of the given model and priority class
+     * 
+     * @param model the model the task calls
+     * @param priority the priority class of the originating request
+     * @param task the work to run inside the partition
+     * @return a future completed with the task result; cancelling it interrupts the task
+     * @throws BulkheadFullException if the partition has no free worker and its queue is full
+     */
+    <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) throws BulkheadFullException;
+    
+    /**
+     * Exception thrown when a bulkhead partition cannot accept more work
+     */
+    class BulkheadFullException extends Exception {
+        public BulkheadFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.DocumentChunk;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port for the approximate nearest neighbour index of document chunks
+ */
+public interface DocumentIndexPort {
+    
+    /**
+     * Indexes chunks with their embeddings, possibly on several threads
+     * The future fails with a DocumentIndexException when the chunks cannot be stored
+     * 
+     * @param chunks the chunks to index
+     * @param vectors the embedding of each chunk, in chunk order
+     * @return a future completed once every chunk can be found
+     */
+    CompletableFuture<Void> add(List<DocumentChunk> chunks, List<float[]> vectors);
+    
+    /**
+     * Finds the chunks most similar to a query embedding
+     * 
+     * @param query the embedding of the query
+     * @param topK the number of chunks to return
+     * @return up to topK chunks, most similar first
+     * @throws DocumentIndexException if the query cannot be compared with the indexed vectors
+     */
+    List<RetrievedChunk> search(float[] query, int topK) throws DocumentIndexException;
+    
+    /**
+     * Number of indexed chunks
+     */
+    long size();
+    
+    /**
+     * Exception thrown when the index cannot store or search vectors
+     */
+    class DocumentIndexException extends Exception {
+        public DocumentIndexException(String message) {
+            super(message);
+        }
+        
+        public DocumentIndexException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.Embedding;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port for computing embeddings of single texts
+ * Implementations are free to cache vectors and to share provider calls between concurrent requests
+ */
+public interface EmbeddingPort {
+    
+    /**
+     * Computes the embedding of one text
+     * The future fails with an LlmProviderException when the provider cannot embed the text
+     * 
+     * @param model the embedding model
+     * @param text the text to embed
+     * @return a future completed with the embedding
+     */
+    CompletableFuture<Embedding> embed(String model, String text);
+}
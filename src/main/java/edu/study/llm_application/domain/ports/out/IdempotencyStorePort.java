@@ -0,0 +1,22 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.IdempotentResponse;
+
+import java.util.Optional;
+
+/**
+ * Port for keeping the responses of requests sent with an idempotency key for the retries of their clients
+ * Implementations are bounded in size and drop responses once their retention window has passed
+ */
+public interface IdempotencyStorePort {
+    
+    /**
+     * Looks up the response kept under a key
+     */
+    Optional<IdempotentResponse> find(String key);
+    
+    /**
+     * Keeps a response under a key for the retention window
+     */
+    void put(String key, IdempotentResponse response);
+}
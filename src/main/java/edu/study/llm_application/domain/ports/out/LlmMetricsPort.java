@@ -0,0 +1,130 @@
+package edu.study.llm_application.domain.ports.out;
+
+/**
+ * Port for publishing business metrics of the LLM use cases
+ * Methods default to no-ops so that adapters only implement what they export
+ */
+public interface LlmMetricsPort {
+    
+    /**
+     * Records a request whose provider call was cancelled before completing
+     * 
+     * @param model the model the request was sent to
+     * @param reason why the call was cancelled, e.g. deadline_exceeded, client_cancelled or
+     *               moderation_rejected
+     */
+    default void recordCancellation(String model, String reason) {
+    }
+    
+    /**
+     * Records an embedding request
+     * 
+     * @param model the embedding model
+     * @param inputs number of texts in the request
+     * @param unique number of distinct texts after deduplication
+     * @param cached number of distinct texts served from the cache
+     */
+    default void recordEmbeddingRequest(String model, int inputs, int unique, int cached) {
+    }
+    
+    /**
+     * Records the retrieval of context for a prompt
+     * 
+     * @param found number of chunks returned by the index
+     * @param durationMs time spent embedding the query and searching the index
+     */
+    default void recordRetrieval(int found, double durationMs) {
+    }
+    
+    /**
+     * Records documents added to the retrieval index
+     * 
+     * @param documents number of documents ingested
+     * @param chunks number of chunks they were split into
+     */
+    default void recordIngestion(int documents, int chunks) {
+    }
+    
+    /**
+     * Records how much of a prompt the provider served from its prompt cache
+     * 
+     * @param model the model the request was sent to
+     * @param promptTokens prompt tokens the provider counted
+     * @param cachedTokens prompt tokens read from the provider's cache
+     */
+    default void recordPromptCache(String model, int promptTokens, int cachedTokens) {
+    }
+    
+    /**
+     * Records a lookup in the response cache
+     * 
+     * @param model the model of the request
+     * @param result hit_local, hit_remote or miss
+     */
+    default void recordResponseCache(String model, String result) {
+    }
+    
+    /**
+     * Records a request rejected because its user exceeded their rate limit
+     */
+    default void recordUserRateLimited() {
+    }
+    
+    /**
+     * Records a request answered with the response of an earlier request sent with the same idempotency key
+     * 
+     * @param model the model of the request
+     * @param source stored when the response was kept, in_flight when the earlier request was still running
+     */
+    default void recordIdempotentReplay(String model, String source) {
+    }
+    
+    /**
+     * Records a request answered through the model cascade
+     * 
+     * @param model the requested model
+     * @param outcome accepted when the first model's answer was returned, otherwise why it was rejected
+     * @param firstModelMs time the first model took
+     * @param escalationMs time the requested model took after the rejection, 0 when accepted
+     */
+    default void recordCascade(String model, String outcome, double firstModelMs, double escalationMs) {
+    }
+    
+    /**
+     * Records a long input answered through map and reduce calls
+     */
+    default void recordLongInput(String model, int chunks, int reduceRounds) {
+    }
+    
+    /**
+     * Records the moderation check of a request
+     * 
+     * @param outcome cleared, flagged, or failed when the check could not be made
+     * @param moderationMs time the check took
+     * @param heldMs time the generated answer waited for the check, 0 when the check finished first
+     */
+    default void recordModeration(String outcome, double moderationMs, double heldMs) {
+    }
+    
+    /**
+     * Records a request answered with JSON following a schema
+     * 
+     * @param model the model of the request
+     * @param outcome valid when an attempt matched the schema, invalid when every attempt diverged
+     * @param attempts generations started, including the one that matched
+     * @param abandonedChars characters generated by attempts abandoned for diverging
+     */
+    default void recordStructuredOutput(String model, String outcome, int attempts, int abandonedChars) {
+    }
+    
+    /**
+     * Records a request answered through the tool-calling loop
+     * 
+     * @param model the model of the request
+     * @param outcome answered when the model gave its answer, exhausted when it was still calling tools after the last round
+     * @param rounds provider calls made
+     * @param toolCalls tool calls run over all rounds
+     */
+    default void recordToolLoop(String model, String outcome, int rounds, int toolCalls) {
+    }
+}
@@ -2,6 +2,11 @@ package edu.study.llm_application.domain.ports.out;
 
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.StreamChunk;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * Port for communicating with external LLM providers
@@ -10,13 +15,59 @@ public interface LlmProviderPort {
     
     /**
      * Sends a request to the LLM provider and returns the response
+     * When the request offers tools, the model may call some of them instead of answering; the calls
+     * come back in the response, and their results are sent with the next request as its tool messages
      * 
      * @param request the LLM request containing prompt and configuration
-     * @return the LLM response with generated content
+     * @return the LLM response with generated content or tool calls
      * @throws LlmProviderException if there's an error communicating with the provider
      */
     LlmResponse generateResponse(LlmRequest request) throws LlmProviderException;
     
+    /**
+     * Streams the generated content as the provider produces it
+     * Providers without native streaming emit the whole response as a single chunk
+     * 
+     * @param request the LLM request containing prompt and configuration
+     * @return the chunks of generated text; cancelling the subscription aborts the call
+     */
+    default Flux<String> streamResponse(LlmRequest request) {
+        return Mono.fromCallable(() -> generateResponse(request).content()).flux();
+    }
+    
+    /**
+     * Streams the generated content like {@link #streamResponse}, ending with the token usage the
+     * provider reported for the call
+     * Providers that report no usage for streams end without it
+     * 
+     * @param request the LLM request containing prompt and configuration
+     * @return the text chunks, then at most one usage chunk; cancelling the subscription aborts the call
+     */
+    default Flux<StreamChunk> streamChunks(LlmRequest request) {
+        return streamResponse(request).map(StreamChunk::text);
+    }
+    
+    /**
+     * Computes embedding vectors for a batch of texts
+     * 
+     * @param model the embedding model
+     * @param texts the texts to embed
+     * @return one vector per text, in input order
+     * @throws LlmProviderException if the provider does not support embeddings or the call fails
+     */
+    default List<float[]> generateEmbeddings(String model, List<String> texts) throws LlmProviderException {
+        throw new LlmProviderException(getProviderName() + " does not support embeddings");
+    }
+    
+    /**
+     * Gets the embedding models supported by this provider
+     * 
+     * @return array of embedding model names
+     */
+    default String[] getSupportedEmbeddingModels() {
+        return new String[0];
+    }
+    
     /**
      * Checks if the provider is available and healthy
      * 
@@ -0,0 +1,35 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port for checking the content of requests against the content policy
+ * Checks are started without waiting for them, so they can run alongside the provider call
+ */
+public interface ModerationPort {
+    
+    /**
+     * Starts checking texts
+     * 
+     * @param inputs the texts sent to the provider for a request
+     * @return the verdict on all texts together, failed with a ModerationException when the check could
+     *         not be made; cancelling it aborts the check
+     */
+    CompletableFuture<ModerationVerdict> moderate(List<String> inputs);
+    
+    /**
+     * Exception thrown when content could not be checked
+     */
+    class ModerationException extends Exception {
+        public ModerationException(String message) {
+            super(message);
+        }
+        
+        public ModerationException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
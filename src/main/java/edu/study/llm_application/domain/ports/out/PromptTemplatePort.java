@@ -0,0 +1,31 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.PromptTemplate;
+
+import java.util.Optional;
+
+/**
+ * Port for storing compiled prompt templates
+ */
+public interface PromptTemplatePort {
+    
+    /**
+     * Stores a template, replacing any template with the same id
+     *
+     * @param template the compiled template
+     */
+    void save(PromptTemplate template);
+    
+    /**
+     * Finds a template by id
+     *
+     * @param id the template id
+     * @return the template, or empty if none is registered under the id
+     */
+    Optional<PromptTemplate> find(String id);
+    
+    /**
+     * Number of stored templates
+     */
+    int size();
+}
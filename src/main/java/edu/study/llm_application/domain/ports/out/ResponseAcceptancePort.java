@@ -0,0 +1,22 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+
+import java.util.Optional;
+
+/**
+ * Port for checks deciding whether the answer of the first model of a cascade is good enough to return
+ * Every implementation is applied; the first one rejecting the answer sends the request on to the requested model
+ */
+public interface ResponseAcceptancePort {
+    
+    /**
+     * Checks the answer of the first model
+     * 
+     * @param request the request as sent to the requested model
+     * @param response the successful answer of the first model
+     * @return a short reason for rejecting the answer, used as a metric tag, or empty when it is accepted
+     */
+    Optional<String> reject(LlmRequest request, LlmResponse response);
+}
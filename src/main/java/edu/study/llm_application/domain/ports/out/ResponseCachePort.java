@@ -0,0 +1,36 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+
+import java.util.Optional;
+
+/**
+ * Port for reusing provider responses to identical requests
+ * Implementations may share the cache with other replicas; {@link #findLocal} never leaves the process
+ */
+public interface ResponseCachePort {
+    
+    /**
+     * Key of the responses to a request
+     * 
+     * @return the key, or null if responses to the request are not cached
+     */
+    String keyOf(LlmRequest request);
+    
+    /**
+     * Looks up a response held by this replica
+     */
+    Optional<LlmResponse> findLocal(String key);
+    
+    /**
+     * Looks up a response, asking the replica owning the key when this one does not hold it
+     * A peer that does not answer in time counts as a miss
+     */
+    Optional<LlmResponse> find(String key);
+    
+    /**
+     * Stores a successful response under its key
+     */
+    void put(String key, LlmResponse response);
+}
@@ -0,0 +1,48 @@
+package edu.study.llm_application.domain.ports.out;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Port for checking generated output against a JSON Schema while it is being generated
+ */
+public interface SchemaValidatorPort {
+    
+    /**
+     * Starts checking one generated output
+     * 
+     * @param schema the JSON Schema as parsed from the request
+     * @throws InvalidSchemaException when the schema is malformed
+     */
+    OutputValidator open(Map<String, Object> schema) throws InvalidSchemaException;
+    
+    /**
+     * Check of one output, fed the output a chunk at a time
+     * Once a chunk breaks the schema every later call reports the same violation
+     */
+    interface OutputValidator {
+        
+        /**
+         * Checks the next chunk of the output
+         * 
+         * @return why the output no longer matches the schema, or empty while it still can
+         */
+        Optional<String> accept(String chunk);
+        
+        /**
+         * Checks that the output fed so far is a complete value matching the schema
+         * 
+         * @return why the output does not match the schema, or empty when it does
+         */
+        Optional<String> finish();
+    }
+    
+    /**
+     * Exception thrown when a schema cannot be used to check output
+     */
+    class InvalidSchemaException extends Exception {
+        public InvalidSchemaException(String message) {
+            super(message);
+        }
+    }
+}
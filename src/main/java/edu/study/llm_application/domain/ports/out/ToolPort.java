@@ -0,0 +1,59 @@
+package edu.study.llm_application.domain.ports.out;
+
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port for the tools the service runs on behalf of the model
+ */
+public interface ToolPort {
+    
+    /**
+     * Gets the definitions of all registered tools
+     */
+    List<ToolDefinition> getTools();
+    
+    /**
+     * Finds a registered tool
+     * 
+     * @param name the name of the tool
+     * @return its definition, or empty when no tool has that name
+     */
+    Optional<ToolDefinition> find(String name);
+    
+    /**
+     * Starts a tool call without waiting for it, so the calls of one turn run at the same time
+     * 
+     * @param call the call requested by the model
+     * @return the result of the call; fails with {@link ToolException} when the tool is unknown, rejects its
+     *         arguments, fails or runs past its timeout, and with {@link ToolOverloadedException} when too
+     *         many calls are already waiting to run
+     */
+    CompletableFuture<String> execute(ToolCall call);
+    
+    /**
+     * Exception thrown when a tool call cannot produce a result
+     */
+    class ToolException extends Exception {
+        public ToolException(String message) {
+            super(message);
+        }
+        
+        public ToolException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+    
+    /**
+     * Exception thrown when a tool call is rejected because the workers running tools are saturated
+     */
+    class ToolOverloadedException extends ToolException {
+        public ToolOverloadedException(String message) {
+            super(message);
+        }
+    }
+}
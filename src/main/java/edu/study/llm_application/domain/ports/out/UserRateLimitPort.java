@@ -0,0 +1,16 @@
+package edu.study.llm_application.domain.ports.out;
+
+/**
+ * Port for limiting how many requests a user may send
+ * Implementations decide from state held in the process, so a check never waits on other replicas
+ */
+public interface UserRateLimitPort {
+    
+    /**
+     * Takes one request from the allowance of a user
+     * 
+     * @param userId the user sending the request
+     * @return false if the user has used up the allowance
+     */
+    boolean tryAcquire(String userId);
+}
@@ -0,0 +1,148 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.ComparisonChunk;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ModelComparison;
+import edu.study.llm_application.domain.ports.in.ComparisonUseCasePort;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmProcessingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Implementation of the model comparison use case
+ * Every model gets its own copy of the request, submitted through the regular pipeline so it runs in
+ * that model's bulkhead, and all copies start at once; the comparison therefore takes as long as the
+ * slowest model rather than the sum of them
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComparisonUseCase implements ComparisonUseCasePort {
+    
+    /**
+     * Largest number of models compared in one request
+     */
+    public static final int MAX_MODELS = 10;
+    
+    private final LlmUseCasePort llmUseCase;
+    
+    @Override
+    public CompletableFuture<ModelComparison> compare(LlmRequest request, List<String> models)
+            throws LlmProcessingException {
+        List<String> compared = resolveModels(request, models);
+        long startTime = System.nanoTime();
+        
+        List<CompletableFuture<LlmResponse>> calls = new ArrayList<>(compared.size());
+        List<CompletableFuture<LlmResponse>> outcomes = new ArrayList<>(compared.size());
+        for (String model : compared) {
+            LlmRequest copy = copyFor(request, model);
+            CompletableFuture<LlmResponse> call;
+            try {
+                call = llmUseCase.submitRequest(copy);
+            } catch (LlmProcessingException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            calls.add(call);
+            outcomes.add(call.exceptionally(error -> failed(copy, error, startTime)));
+        }
+        
+        CompletableFuture<ModelComparison> comparison = CompletableFuture
+                .allOf(outcomes.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> new ModelComparison(request.id(),
+                        outcomes.stream().map(CompletableFuture::join).toList(),
+                        (System.nanoTime() - startTime) / 1_000_000.0));
+        
+        // Cancelling the comparison aborts the models still running
+        comparison.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                calls.forEach(call -> call.cancel(true));
+            }
+        });
+        return comparison;
+    }
+    
+    @Override
+    public Flux<ComparisonChunk> streamCompare(LlmRequest request, List<String> models) throws LlmProcessingException {
+        List<String> compared = resolveModels(request, models);
+        
+        List<Flux<ComparisonChunk>> streams = new ArrayList<>(compared.size());
+        for (String model : compared) {
+            LlmRequest copy = copyFor(request, model);
+            streams.add(Flux.defer(() -> {
+                        try {
+                            return llmUseCase.streamRequest(copy);
+                        } catch (LlmProcessingException e) {
+                            return Flux.error(e);
+                        }
+                    })
+                    .map(text -> new ComparisonChunk(model, ComparisonChunk.Type.TOKEN, text))
+                    .concatWithValues(new ComparisonChunk(model, ComparisonChunk.Type.DONE, ""))
+                    .onErrorResume(error -> {
+                        log.warn("Model {} failed in comparison {}: {}", model, request.id(), error.getMessage());
+                        return Flux.just(new ComparisonChunk(model, ComparisonChunk.Type.ERROR, errorMessage(copy, error)));
+                    }));
+        }
+        
+        // All models are subscribed at once and their chunks interleave as they arrive
+        return Flux.merge(streams);
+    }
+    
+    /**
+     * Resolves the models to compare, defaulting to every available model
+     */
+    private List<String> resolveModels(LlmRequest request, List<String> models) throws LlmProcessingException {
+        if (request.templateId() == null && !llmUseCase.validateRequest(request)) {
+            throw new LlmProcessingException("Invalid request: missing required fields");
+        }
+        
+        List<String> compared = models == null || models.isEmpty()
+                ? List.of(llmUseCase.getAvailableModels())
+                : List.copyOf(new LinkedHashSet<>(models));
+        if (compared.isEmpty()) {
+            throw new LlmProcessingException("No models available to compare");
+        }
+        if (compared.size() > MAX_MODELS) {
+            throw new LlmProcessingException("Cannot compare more than " + MAX_MODELS + " models at once");
+        }
+        
+        log.info("Comparing request {} across models {}", request.id(), compared);
+        return compared;
+    }
+    
+    private static LlmRequest copyFor(LlmRequest request, String model) {
+        return request.toBuilder()
+                .id(UUID.randomUUID().toString())
+                .model(model)
+                // Every model of a comparison answers for itself
+                .cascade(false)
+                .build();
+    }
+    
+    private static LlmResponse failed(LlmRequest copy, Throwable error, long startTime) {
+        return LlmResponse.error(copy.id(), errorMessage(copy, error)).toBuilder()
+                .model(copy.model())
+                .processingTimeMs((System.nanoTime() - startTime) / 1_000_000.0)
+                .build();
+    }
+    
+    private static String errorMessage(LlmRequest copy, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            // The pipeline cancels a call whose deadline passed; the other models may still have answered
+            return copy.deadline() != null && copy.deadline().isExpired() ? "Deadline exceeded" : "Request cancelled";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,144 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.Document;
+import edu.study.llm_application.domain.entities.DocumentChunk;
+import edu.study.llm_application.domain.entities.Embedding;
+import edu.study.llm_application.domain.entities.IngestionResult;
+import edu.study.llm_application.domain.entities.RetrievalSettings;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+import edu.study.llm_application.domain.ports.in.DocumentUseCasePort;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmDeadlineExceededException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmProcessingException;
+import edu.study.llm_application.domain.ports.out.DocumentIndexPort;
+import edu.study.llm_application.domain.ports.out.EmbeddingPort;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Implementation of the retrieval use case: chunking, embedding and indexing documents,
+ * and finding the passages relevant to a prompt
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentUseCase implements DocumentUseCasePort {
+    
+    /**
+     * Largest number of documents accepted in a single ingestion
+     */
+    public static final int MAX_DOCUMENTS = 100;
+    
+    /**
+     * Largest number of chunks retrieved for one prompt
+     */
+    public static final int MAX_TOP_K = 20;
+    
+    private final EmbeddingPort embeddingPort;
+    private final DocumentIndexPort documentIndexPort;
+    private final LlmMetricsPort llmMetricsPort;
+    private final RetrievalSettings settings;
+    
+    @Override
+    public CompletableFuture<IngestionResult> ingest(List<Document> documents) throws LlmProcessingException {
+        validateDocuments(documents);
+        long startTime = System.nanoTime();
+        
+        List<String> documentIds = new ArrayList<>(documents.size());
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (Document document : documents) {
+            String documentId = document.getId() != null ? document.getId() : UUID.randomUUID().toString();
+            documentIds.add(documentId);
+            List<String> texts = TextChunker.split(document.getText(), settings.chunkWords(), settings.chunkOverlap());
+            for (int i = 0; i < texts.size(); i++) {
+                chunks.add(DocumentChunk.builder().documentId(documentId).index(i).text(texts.get(i)).build());
+            }
+        }
+        log.info("Ingesting {} document(s) as {} chunk(s)", documents.size(), chunks.size());
+        
+        // Every chunk is handed to the embedding port at once, which batches them into few provider calls
+        List<CompletableFuture<Embedding>> embeddings = chunks.stream()
+                .map(chunk -> embeddingPort.embed(settings.embeddingModel(), chunk.getText()))
+                .toList();
+        
+        return CompletableFuture.allOf(embeddings.toArray(CompletableFuture[]::new))
+                .thenCompose(ignored -> documentIndexPort.add(chunks,
+                        embeddings.stream().map(future -> future.join().vector()).toList()))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        log.error("Failed to ingest documents {}: {}", documentIds, cause.getMessage());
+                        throw new CompletionException(
+                                new LlmProcessingException("Failed to ingest documents: " + cause.getMessage(), cause));
+                    }
+                    
+                    int cached = (int) embeddings.stream().filter(future -> future.join().cached()).count();
+                    llmMetricsPort.recordIngestion(documents.size(), chunks.size());
+                    
+                    return IngestionResult.builder()
+                            .id(UUID.randomUUID().toString())
+                            .documentIds(documentIds)
+                            .chunkCount(chunks.size())
+                            .cachedEmbeddings(cached)
+                            .processingTimeMs((System.nanoTime() - startTime) / 1_000_000.0)
+                            .timestamp(LocalDateTime.now())
+                            .status("SUCCESS")
+                            .build();
+                });
+    }
+    
+    @Override
+    public List<RetrievedChunk> retrieve(String query, int topK, Deadline deadline) throws LlmProcessingException {
+        if (topK < 1 || documentIndexPort.size() == 0) {
+            return List.of();
+        }
+        
+        long startTime = System.nanoTime();
+        CompletableFuture<Embedding> embedding = embeddingPort.embed(settings.embeddingModel(), query);
+        try {
+            float[] vector = (deadline == null 
+                    ? embedding.get() 
+                    : embedding.get(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS)).vector();
+            List<RetrievedChunk> chunks = documentIndexPort.search(vector, Math.min(topK, MAX_TOP_K));
+            
+            double durationMs = (System.nanoTime() - startTime) / 1_000_000.0;
+            llmMetricsPort.recordRetrieval(chunks.size(), durationMs);
+            log.debug("Retrieved {} chunk(s) in {} ms", chunks.size(), durationMs);
+            return chunks;
+            
+        } catch (TimeoutException e) {
+            throw new LlmDeadlineExceededException("Deadline passed while embedding the query");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmProcessingException("Interrupted while retrieving context", e);
+        } catch (ExecutionException e) {
+            throw new LlmProcessingException("Failed to embed the query: " + e.getCause().getMessage(), e.getCause());
+        } catch (DocumentIndexPort.DocumentIndexException e) {
+            throw new LlmProcessingException("Failed to search the document index: " + e.getMessage(), e);
+        }
+    }
+    
+    private static void validateDocuments(List<Document> documents) throws LlmProcessingException {
+        if (documents == null || documents.isEmpty()) {
+            throw new LlmProcessingException("Invalid request: at least one document is required");
+        }
+        if (documents.size() > MAX_DOCUMENTS) {
+            throw new LlmProcessingException("Invalid request: at most " + MAX_DOCUMENTS + " documents are allowed");
+        }
+        if (documents.stream().anyMatch(document -> document.getText() == null || document.getText().isBlank())) {
+            throw new LlmProcessingException("Invalid request: documents cannot be empty");
+        }
+    }
+}
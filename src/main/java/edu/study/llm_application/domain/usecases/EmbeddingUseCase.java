@@ -0,0 +1,137 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.Embedding;
+import edu.study.llm_application.domain.entities.EmbeddingRequest;
+import edu.study.llm_application.domain.entities.EmbeddingResponse;
+import edu.study.llm_application.domain.ports.in.EmbeddingUseCasePort;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmDeadlineExceededException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmProcessingException;
+import edu.study.llm_application.domain.ports.out.EmbeddingPort;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Implementation of the embedding use case
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmbeddingUseCase implements EmbeddingUseCasePort {
+    
+    /**
+     * Largest number of texts accepted in a single request
+     */
+    public static final int MAX_INPUTS = 2048;
+    
+    private final LlmProviderPort llmProviderPort;
+    private final EmbeddingPort embeddingPort;
+    private final LlmMetricsPort llmMetricsPort;
+    
+    @Override
+    public CompletableFuture<EmbeddingResponse> submitRequest(EmbeddingRequest request) throws LlmProcessingException {
+        EmbeddingRequest processedRequest = prepareRequest(request);
+        String model = processedRequest.model();
+        List<String> inputs = processedRequest.inputs();
+        long startTime = System.nanoTime();
+        
+        // Identical texts are embedded once and share the vector
+        Map<String, CompletableFuture<Embedding>> unique = new LinkedHashMap<>();
+        List<CompletableFuture<Embedding>> perInput = new ArrayList<>(inputs.size());
+        for (String text : inputs) {
+            perInput.add(unique.computeIfAbsent(text, key -> embeddingPort.embed(model, key)));
+        }
+        
+        CompletableFuture<Void> all = CompletableFuture.allOf(unique.values().toArray(CompletableFuture[]::new));
+        if (processedRequest.deadline() != null) {
+            // Texts still in flight keep going and end up in the cache for the next request
+            all = all.orTimeout(processedRequest.deadline().remaining().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        
+        return all.handle((ignored, error) -> {
+            if (error != null) {
+                throw new CompletionException(processingError(processedRequest, error));
+            }
+            
+            List<float[]> vectors = perInput.stream().map(future -> future.join().vector()).toList();
+            int cached = (int) unique.values().stream().filter(future -> future.join().cached()).count();
+            llmMetricsPort.recordEmbeddingRequest(model, inputs.size(), unique.size(), cached);
+            
+            return EmbeddingResponse.builder()
+                    .id(UUID.randomUUID().toString())
+                    .requestId(processedRequest.id())
+                    .model(model)
+                    .embeddings(vectors)
+                    .dimensions(vectors.get(0).length)
+                    .cachedCount(cached)
+                    .processingTimeMs((System.nanoTime() - startTime) / 1_000_000.0)
+                    .timestamp(LocalDateTime.now())
+                    .status("SUCCESS")
+                    .build();
+        });
+    }
+    
+    @Override
+    public String[] getAvailableModels() {
+        return llmProviderPort.getSupportedEmbeddingModels();
+    }
+    
+    /**
+     * Validates a request before any text is embedded; its defaults were resolved when it was built
+     */
+    private EmbeddingRequest prepareRequest(EmbeddingRequest request) throws LlmProcessingException {
+        if (request == null || request.inputs() == null || request.inputs().isEmpty()) {
+            throw new LlmProcessingException("Invalid request: at least one input is required");
+        }
+        if (request.inputs().size() > MAX_INPUTS) {
+            throw new LlmProcessingException("Invalid request: at most " + MAX_INPUTS + " inputs are allowed");
+        }
+        if (request.inputs().stream().anyMatch(text -> text == null || text.isBlank())) {
+            throw new LlmProcessingException("Invalid request: inputs cannot be empty");
+        }
+        
+        log.info("Processing embedding request {} with {} input(s)", request.id(), request.inputs().size());
+        
+        if (!Arrays.asList(getAvailableModels()).contains(request.model())) {
+            throw new LlmProcessingException(
+                "Embedding model '" + request.model() + "' is not supported");
+        }
+        
+        if (request.deadline() != null && request.deadline().isExpired()) {
+            throw new LlmDeadlineExceededException("Deadline of request " + request.id() + " already passed");
+        }
+        
+        return request;
+    }
+    
+    private LlmProcessingException processingError(EmbeddingRequest request, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            llmMetricsPort.recordCancellation(request.model(), "deadline_exceeded");
+            return new LlmDeadlineExceededException("Deadline of request " + request.id() + " passed before embedding");
+        }
+        if (cause instanceof LlmProcessingException processingException) {
+            return processingException;
+        }
+        if (cause instanceof LlmProviderPort.LlmProviderException) {
+            log.error("Error computing embeddings: {}", cause.getMessage());
+        } else {
+            log.error("Error computing embeddings: {}", cause.getMessage(), cause);
+        }
+        return new LlmProcessingException("Failed to compute embeddings: " + cause.getMessage(), cause);
+    }
+}
@@ -1,14 +1,54 @@
 package edu.study.llm_application.domain.usecases;
 
+import edu.study.llm_application.domain.entities.AuditRecord;
+import edu.study.llm_application.domain.entities.CascadeSettings;
+import edu.study.llm_application.domain.entities.ContentKey;
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.IdempotentResponse;
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+import edu.study.llm_application.domain.entities.StructuredOutputSettings;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.ports.in.DocumentUseCasePort;
 import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.in.PromptTemplateUseCasePort;
+import edu.study.llm_application.domain.ports.out.AuditLogPort;
+import edu.study.llm_application.domain.ports.out.BatchLlmPort;
+import edu.study.llm_application.domain.ports.out.BulkheadPort;
+import edu.study.llm_application.domain.ports.out.IdempotencyStorePort;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
 import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.domain.ports.out.ResponseAcceptancePort;
+import edu.study.llm_application.domain.ports.out.ResponseCachePort;
+import edu.study.llm_application.domain.ports.out.SchemaValidatorPort;
+import edu.study.llm_application.domain.ports.out.UserRateLimitPort;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Implementation of LLM use case containing business logic
@@ -18,62 +58,647 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class LlmUseCase implements LlmUseCasePort {
     
+    /**
+     * Timer cancelling provider calls whose deadline has passed
+     */
+    private static final ScheduledThreadPoolExecutor DEADLINE_TIMER = createDeadlineTimer();
+    
     private final LlmProviderPort llmProviderPort;
+    private final BulkheadPort bulkheadPort;
+    private final LlmMetricsPort llmMetricsPort;
+    private final DocumentUseCasePort documentUseCase;
+    private final PromptTemplateUseCasePort promptTemplateUseCase;
+    private final ResponseCachePort responseCache;
+    private final UserRateLimitPort userRateLimit;
+    private final BatchLlmPort batchLlmPort;
+    private final IdempotencyStorePort idempotencyStore;
+    private final CascadeSettings cascadeSettings;
+    private final List<ResponseAcceptancePort> acceptanceChecks;
+    private final ModerationGate moderationGate;
+    private final SchemaValidatorPort schemaValidator;
+    private final StructuredOutputSettings structuredOutputSettings;
+    private final ToolCallingUseCase toolCalling;
+    private final AuditLogPort auditLog;
+    // Requests with an idempotency key that are still running, by user and key
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
     
     @Override
     public LlmResponse processRequest(LlmRequest request) throws LlmProcessingException {
-        log.info("Processing LLM request for prompt: {}", 
-                request.getPrompt().substring(0, Math.min(50, request.getPrompt().length())));
+        CompletableFuture<LlmResponse> call = submitRequest(request);
         
-        // Validate request
-        if (!validateRequest(request)) {
-            throw new LlmProcessingException("Invalid request: missing required fields");
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LlmProcessingException("Interrupted while waiting for provider", e);
+        } catch (CancellationException e) {
+            throw new LlmDeadlineExceededException("Request " + request.id() + " was cancelled before completing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LlmProcessingException processingException) {
+                throw processingException;
+            }
+            throw new LlmProcessingException("Failed to process request: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    @Override
+    public CompletableFuture<LlmResponse> submitRequest(LlmRequest request) throws LlmProcessingException {
+        if (request.idempotencyKey() != null) {
+            return submitIdempotent(request);
+        }
+        return submit(request);
+    }
+    
+    /**
+     * Answers the requests sent with the same idempotency key with a single provider call
+     * A duplicate arriving while the first request runs waits for its response, and one arriving later
+     * gets the stored copy; neither takes a bulkhead slot or counts against the user's limit. Failures
+     * are not stored, so a retry after one is answered again
+     * 
+     * @throws IllegalArgumentException if the request has no user the key could belong to
+     */
+    private CompletableFuture<LlmResponse> submitIdempotent(LlmRequest request) throws LlmProcessingException {
+        // Keys are chosen by clients, so they only identify requests of the same user; anonymous callers
+        // would all share one namespace and could read each other's answers by guessing a key
+        if (request.userId() == null || request.userId().isBlank()) {
+            throw new IllegalArgumentException("An idempotency key can only be sent together with a user id");
+        }
+        String key = request.userId() + ":" + request.idempotencyKey();
+        String fingerprint = fingerprint(request);
+        
+        InFlight started = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, started);
+        if (running != null) {
+            if (!running.fingerprint().equals(fingerprint)) {
+                throw conflict(request);
+            }
+            llmMetricsPort.recordIdempotentReplay(request.model(), "in_flight");
+            return running.response().copy();
         }
         
+        // The response is stored before its request leaves the in-flight map, so it is found here if it finished
+        Optional<IdempotentResponse> stored = idempotencyStore.find(key);
+        if (stored.isPresent()) {
+            inFlight.remove(key, started);
+            if (!stored.get().fingerprint().equals(fingerprint)) {
+                LlmIdempotencyConflictException conflict = conflict(request);
+                started.response().completeExceptionally(conflict);
+                throw conflict;
+            }
+            started.response().complete(stored.get().response());
+            llmMetricsPort.recordIdempotentReplay(request.model(), "stored");
+            return CompletableFuture.completedFuture(stored.get().response());
+        }
+        
+        CompletableFuture<LlmResponse> call;
         try {
-            // Set request ID if not present
-            if (request.getId() == null) {
-                request.setId(UUID.randomUUID().toString());
+            call = submit(request);
+        } catch (LlmProcessingException | RuntimeException e) {
+            // Left in place, the entry would make every retry wait on a response that never comes
+            inFlight.remove(key, started);
+            started.response().completeExceptionally(e);
+            throw e;
+        }
+        
+        call.whenComplete((response, error) -> {
+            if (error == null && response.isSuccessful()) {
+                idempotencyStore.put(key, new IdempotentResponse(fingerprint, response));
+            }
+            inFlight.remove(key, started);
+            if (error == null) {
+                started.response().complete(response);
+            } else {
+                started.response().completeExceptionally(error);
+            }
+        });
+        
+        // The caller gets a copy, so the call runs on for a retry when its first client goes away
+        return started.response().copy();
+    }
+    
+    private CompletableFuture<LlmResponse> submit(LlmRequest request) throws LlmProcessingException {
+        long startTime = System.nanoTime();
+        LlmRequest processedRequest = prepareRequest(request);
+        
+        // A response this replica already holds is returned without taking a bulkhead slot
+        String cacheKey = responseCache.keyOf(processedRequest);
+        if (cacheKey != null) {
+            Optional<LlmResponse> cached = responseCache.findLocal(cacheKey);
+            if (cached.isPresent()) {
+                llmMetricsPort.recordResponseCache(processedRequest.model(), "hit_local");
+                CompletableFuture<LlmResponse> hit = CompletableFuture.completedFuture(fromCache(cached.get(), processedRequest));
+                return audited(moderationGate.enabled() ? moderationGate.moderated(hit, processedRequest) : hit,
+                        processedRequest, startTime);
+            }
+        }
+        
+        try {
+            // Call LLM provider inside the bulkhead of the model and priority class
+            AtomicReference<LlmResponse> generated = new AtomicReference<>();
+            CompletableFuture<LlmResponse> call = bulkheadPort.submit(
+                    processedRequest.model(),
+                    processedRequest.priority(),
+                    () -> callProvider(processedRequest, cacheKey, generated));
+            CompletableFuture<LlmResponse> answer = moderationGate.enabled() 
+                    ? moderationGate.moderated(call, processedRequest) : call;
+            watchDeadline(call, answer, processedRequest);
+            if (cacheKey != null) {
+                // Stored once moderation cleared it, so a flagged request is never answered from the cache
+                answer.thenRun(() -> {
+                    LlmResponse response = generated.get();
+                    if (response != null && response.isSuccessful()) {
+                        responseCache.put(cacheKey, response);
+                    }
+                });
             }
             
-            // Apply defaults
-            LlmRequest processedRequest = request.withDefaults();
+            return audited(answer, processedRequest, startTime);
             
-            // Validate model is supported
-            String[] supportedModels = llmProviderPort.getSupportedModels();
-            boolean modelSupported = false;
-            for (String model : supportedModels) {
-                if (model.equals(processedRequest.getModel())) {
-                    modelSupported = true;
-                    break;
+            
+        } catch (BulkheadPort.BulkheadFullException e) {
+            log.warn("Rejecting LLM request {}: {}", request.id(), e.getMessage());
+            throw new LlmOverloadedException("Service overloaded: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Flux<String> streamRequest(LlmRequest request) throws LlmProcessingException {
+        if (request.priority() == Priority.DEFERRED) {
+            throw new LlmProcessingException("Deferred requests are answered in batches and cannot be streamed");
+        }
+        if (request.hasTools()) {
+            // The rounds of tool calls carry no text for the client, so the answer arrives as one chunk
+            CompletableFuture<LlmResponse> answer = submitRequest(request);
+            return Mono.fromFuture(answer).mapNotNull(LlmResponse::content).flux();
+        }
+        long startTime = System.nanoTime();
+        LlmRequest processedRequest = prepareRequest(request);
+        String model = processedRequest.model();
+        Deadline deadline = processedRequest.deadline();
+        
+        Flux<String> stream;
+        if (wantsRetrieval(processedRequest)) {
+            // Retrieval blocks on the query embedding, so it runs off the subscribing thread
+            stream = Flux.defer(() -> {
+                try {
+                    return llmProviderPort.streamResponse(withRetrievedContext(processedRequest));
+                } catch (LlmProcessingException e) {
+                    return Flux.error(e);
                 }
+            }).subscribeOn(Schedulers.boundedElastic());
+        } else {
+            stream = llmProviderPort.streamResponse(processedRequest);
+        }
+        if (processedRequest.responseSchema() != null) {
+            stream = validated(stream, processedRequest);
+        }
+        if (moderationGate.enabled()) {
+            stream = moderationGate.moderated(stream, processedRequest);
+        }
+        if (deadline != null) {
+            stream = stream.timeout(Mono.delay(deadline.remaining()), chunk -> Mono.delay(deadline.remaining()));
+        }
+        
+        StringBuilder completion = new StringBuilder();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        return stream
+                .doOnNext(completion::append)
+                .onErrorMap(TimeoutException.class, e -> {
+                    llmMetricsPort.recordCancellation(model, "deadline_exceeded");
+                    return new LlmDeadlineExceededException("Deadline of request " + request.id() + " passed while streaming");
+                })
+                .onErrorMap(LlmProviderPort.LlmProviderException.class, 
+                        e -> new LlmProcessingException("Failed to process request: " + e.getMessage(), e))
+                .doOnError(failure::set)
+                .doOnCancel(() -> {
+                    log.info("Cancelled LLM stream {}: client_cancelled", request.id());
+                    llmMetricsPort.recordCancellation(model, "client_cancelled");
+                    failure.set(new CancellationException("Stream cancelled by the client"));
+                })
+                .doFinally(signal -> auditLog.record(AuditRecord.of(processedRequest, failure.get() == null 
+                        ? LlmResponse.success(processedRequest.id(), completion.toString(), model, null, null) : null, 
+                        failure.get(), startTime)));
+    }
+    
+    @Override
+    public LlmResponse deferRequest(LlmRequest request) throws LlmProcessingException {
+        if (request.hasTools()) {
+            throw new LlmProcessingException("Requests with tools need the service between rounds and cannot be deferred");
+        }
+        long startTime = System.nanoTime();
+        LlmRequest processedRequest = prepareRequest(request);
+        if (moderationGate.enabled()) {
+            // Nothing runs alongside a deferred request, so it is checked before it is queued
+            moderationGate.moderateNow(processedRequest);
+        }
+        
+        // The batch runs long after this call returns, so the context is retrieved now
+        LlmRequest groundedRequest = wantsRetrieval(processedRequest) 
+                ? withRetrievedContext(processedRequest) : processedRequest;
+        try {
+            // Audited when its batch completes, with the time it took
+            audited(batchLlmPort.enqueue(groundedRequest), processedRequest, startTime);
+        } catch (LlmProviderPort.LlmProviderException e) {
+            throw new LlmProcessingException("Failed to defer request: " + e.getMessage(), e);
+        }
+        
+        log.info("Deferred LLM request {} to the next batch", processedRequest.id());
+        return LlmResponse.pending(processedRequest.id());
+    }
+    
+    @Override
+    public Optional<LlmResponse> findDeferred(String requestId) {
+        return batchLlmPort.result(requestId);
+    }
+    
+    /**
+     * Validates a request and resolves its defaults before it reaches the provider
+     */
+    private LlmRequest prepareRequest(LlmRequest request) throws LlmProcessingException {
+        // A template request carries only an id and variables; its prompt is rendered here
+        if (request.templateId() != null) {
+            request = promptTemplateUseCase.render(request);
+        }
+        
+        if (log.isInfoEnabled() && request.prompt() != null) {
+            log.info("Processing LLM request for prompt: {}", 
+                    request.prompt().substring(0, Math.min(50, request.prompt().length())));
+        }
+        
+        // Validate request
+        if (!validateRequest(request)) {
+            throw new LlmProcessingException("Invalid request: missing required fields");
+        }
+        
+        // Defaults were resolved when the request was built, so it is used as is
+        LlmRequest processedRequest = request;
+        
+        // Validate model is supported
+        String[] supportedModels = llmProviderPort.getSupportedModels();
+        boolean modelSupported = false;
+        for (String model : supportedModels) {
+            if (model.equals(processedRequest.model())) {
+                modelSupported = true;
+                break;
             }
-            
-            if (!modelSupported) {
-                throw new LlmProcessingException(
-                    "Model '" + processedRequest.getModel() + "' is not supported");
+        }
+        
+        if (!modelSupported) {
+            throw new LlmProcessingException(
+                "Model '" + processedRequest.model() + "' is not supported");
+        }
+        
+        if (processedRequest.responseSchema() != null) {
+            openValidator(processedRequest);
+        }
+        
+        if (processedRequest.hasTools()) {
+            processedRequest = toolCalling.withToolDefinitions(processedRequest);
+        }
+        
+        if (processedRequest.deadline() != null && processedRequest.deadline().isExpired()) {
+            throw new LlmDeadlineExceededException("Deadline of request " + request.id() + " already passed");
+        }
+        
+        if (processedRequest.userId() != null && !userRateLimit.tryAcquire(processedRequest.userId())) {
+            llmMetricsPort.recordUserRateLimited();
+            throw new LlmRateLimitedException("User " + processedRequest.userId() + " exceeded their request limit");
+        }
+        
+        return processedRequest;
+    }
+    
+    /**
+     * Calls the provider from a bulkhead worker, timing the call
+     * A cacheable request first asks the replica owning its key, which is cheaper than the provider
+     * 
+     * @param generated set to the response of the provider, left unset when the answer came from the cache
+     */
+    private LlmResponse callProvider(LlmRequest request, String cacheKey, AtomicReference<LlmResponse> generated)
+            throws LlmProcessingException {
+        // Time spent waiting in the bulkhead queue counts against the deadline
+        if (request.deadline() != null && request.deadline().isExpired()) {
+            throw new LlmDeadlineExceededException("Deadline of request " + request.id() + " passed while queued");
+        }
+        
+        if (cacheKey != null) {
+            Optional<LlmResponse> cached = responseCache.find(cacheKey);
+            if (cached.isPresent()) {
+                llmMetricsPort.recordResponseCache(request.model(), "hit_remote");
+                return fromCache(cached.get(), request);
             }
-            
-            // Call LLM provider
+            llmMetricsPort.recordResponseCache(request.model(), "miss");
+        }
+        
+        LlmRequest groundedRequest = wantsRetrieval(request) ? withRetrievedContext(request) : request;
+        
+        try {
             long startTime = System.currentTimeMillis();
-            LlmResponse response = llmProviderPort.generateResponse(processedRequest);
+            LlmResponse response = groundedRequest.hasTools() ? toolCalling.generate(groundedRequest)
+                    : groundedRequest.responseSchema() != null ? generateStructured(groundedRequest) 
+                    : generate(groundedRequest);
             long endTime = System.currentTimeMillis();
             
-            // Set processing time
-            response.setProcessingTimeMs((double) (endTime - startTime));
-            response.setId(UUID.randomUUID().toString());
+            if (response.promptTokens() != null) {
+                llmMetricsPort.recordPromptCache(request.model(), response.promptTokens(), 
+                        response.cachedTokens() != null ? response.cachedTokens() : 0);
+            }
+            
+            generated.set(response);
             
-            log.info("Successfully processed LLM request {} in {} ms", 
-                    request.getId(), response.getProcessingTimeMs());
+            log.info("Successfully processed LLM request {} in {} ms", request.id(), endTime - startTime);
             
-            return response;
+            return response.withProcessingTimeMs(endTime - startTime);
             
         } catch (LlmProviderPort.LlmProviderException e) {
-            log.error("Error processing LLM request: {}", e.getMessage(), e);
+            if (Thread.currentThread().isInterrupted()) {
+                log.debug("Provider call of request {} was cancelled", request.id());
+            } else {
+                log.error("Error processing LLM request: {}", e.getMessage(), e);
+            }
             throw new LlmProcessingException("Failed to process request: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Hands the outcome of a call to the audit log once it completes; the caller gets the same future,
+     * so cancelling it still reaches the call
+     */
+    private CompletableFuture<LlmResponse> audited(CompletableFuture<LlmResponse> call, LlmRequest request, long startTime) {
+        call.whenComplete((response, error) -> auditLog.record(AuditRecord.of(request, response, error, startTime)));
+        return call;
+    }
+    
+    /**
+     * SHA-256 digest of what a request asks for, telling a retry from another request under the same key
+     * Every field is delimited and lists are preceded by their size, so different requests never share
+     * the text hashed
+     */
+    private static String fingerprint(LlmRequest request) {
+        List<String> parts = new ArrayList<>(Arrays.asList(request.model(), request.prompt(), request.systemPrompt(),
+                String.valueOf(request.maxTokens()), String.valueOf(request.temperature()), 
+                String.valueOf(request.retrievalTopK()), request.templateId(),
+                request.responseSchema() != null ? request.responseSchema().toString() : null));
+        List<String> context = request.context() != null ? request.context() : List.of();
+        parts.add(String.valueOf(context.size()));
+        parts.addAll(context);
+        Map<String, String> variables = request.variables() != null ? new TreeMap<>(request.variables()) : Map.of();
+        parts.add(String.valueOf(variables.size()));
+        variables.forEach((name, value) -> {
+            parts.add(name);
+            parts.add(value);
+        });
+        List<ToolDefinition> tools = request.hasTools() ? request.tools() : List.of();
+        parts.add(String.valueOf(tools.size()));
+        tools.forEach(tool -> parts.add(tool.name()));
+        return ContentKey.of(parts).toHex();
+    }
+    
+    private static LlmIdempotencyConflictException conflict(LlmRequest request) {
+        return new LlmIdempotencyConflictException(
+                "Idempotency key " + request.idempotencyKey() + " was already used for a different request");
+    }
+    
+    /**
+     * Asks the faster first model of the cascade when the requested model has one, and the requested
+     * model only when that answer fails, is empty or is rejected by an acceptance check
+     * Both calls run in the bulkhead slot taken for the requested model, so cancelling the request
+     * aborts whichever of them is running
+     */
+    private LlmResponse generate(LlmRequest request) throws LlmProviderPort.LlmProviderException {
+        String firstModel = request.cascade() ? cascadeSettings.firstModelFor(request.model()) : null;
+        if (firstModel == null) {
+            return llmProviderPort.generateResponse(request);
+        }
+        
+        long startTime = System.nanoTime();
+        String rejection;
+        try {
+            LlmResponse first = llmProviderPort.generateResponse(request.toBuilder().model(firstModel).build());
+            rejection = rejection(request, first);
+            if (rejection == null) {
+                llmMetricsPort.recordCascade(request.model(), "accepted", (System.nanoTime() - startTime) / 1_000_000.0, 0);
+                return first;
+            }
+        } catch (LlmProviderPort.LlmProviderException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            rejection = "failed";
+        }
+        
+        double firstModelMs = (System.nanoTime() - startTime) / 1_000_000.0;
+        log.info("Escalating request {} from {} to {}: {}", request.id(), firstModel, request.model(), rejection);
+        long escalationStart = System.nanoTime();
+        LlmResponse response = llmProviderPort.generateResponse(request);
+        llmMetricsPort.recordCascade(request.model(), rejection, firstModelMs, 
+                (System.nanoTime() - escalationStart) / 1_000_000.0);
+        return response;
+    }
+    
+    /**
+     * Streams the answer to a request with a response schema, checking every chunk as it arrives
+     * An attempt diverging from the schema is cancelled at that chunk and generated again, up to the
+     * configured number of attempts, so malformed output costs only the tokens before it went wrong.
+     * The tokens used are those the provider reported at the end of the stream, left out when it reported none.
+     * The cascade does not apply, its checks being meant for free text
+     */
+    private LlmResponse generateStructured(LlmRequest request) 
+            throws LlmProviderPort.LlmProviderException, LlmProcessingException {
+        int maxAttempts = structuredOutputSettings.maxAttempts();
+        int abandonedChars = 0;
+        String violation = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            SchemaValidatorPort.OutputValidator validator = openValidator(request);
+            StringBuilder content = new StringBuilder();
+            AtomicReference<String> diverged = new AtomicReference<>();
+            AtomicReference<Integer> tokensUsed = new AtomicReference<>();
+            
+            // Completing early cancels the provider stream, ending the generation
+            awaitStream(llmProviderPort.streamChunks(request).handle((chunk, sink) -> {
+                if (chunk.text() == null) {
+                    tokensUsed.set(chunk.tokensUsed());
+                    return;
+                }
+                content.append(chunk.text());
+                Optional<String> chunkViolation = validator.accept(chunk.text());
+                if (chunkViolation.isPresent()) {
+                    diverged.set(chunkViolation.get());
+                    sink.complete();
+                } else {
+                    sink.next(chunk);
+                }
+            }));
+            
+            violation = diverged.get() != null ? diverged.get() : validator.finish().orElse(null);
+            if (violation == null) {
+                llmMetricsPort.recordStructuredOutput(request.model(), "valid", attempt, abandonedChars);
+                return LlmResponse.success(request.id(), content.toString(), request.model(), 
+                        tokensUsed.get(), null);
+            }
+            abandonedChars += content.length();
+            log.info("Attempt {} of request {} diverged from its schema after {} characters: {}", 
+                    attempt, request.id(), content.length(), violation);
+        }
+        
+        llmMetricsPort.recordStructuredOutput(request.model(), "invalid", maxAttempts, abandonedChars);
+        throw new LlmInvalidOutputException("Output did not match the response schema after " + maxAttempts 
+                + " attempts: " + violation);
+    }
+    
+    /**
+     * Waits for a provider stream to end on a bulkhead worker; interrupting the worker cancels the stream
+     */
+    private static void awaitStream(Flux<?> stream) throws LlmProviderPort.LlmProviderException {
+        try {
+            stream.blockLast();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof LlmProviderPort.LlmProviderException providerException) {
+                throw providerException;
+            }
+            throw new LlmProviderPort.LlmProviderException("Stream failed: " + cause.getMessage(), cause);
+        }
+    }
+    
+    /**
+     * Checks a streamed answer against the schema of its request, ending the stream with a schema mismatch
+     * at the first chunk that diverges and cancelling the provider stream there; chunks already sent
+     * cannot be taken back, so it is not generated again
+     */
+    private Flux<String> validated(Flux<String> stream, LlmRequest request) {
+        return Flux.defer(() -> {
+            SchemaValidatorPort.OutputValidator validator;
+            try {
+                validator = openValidator(request);
+            } catch (LlmProcessingException e) {
+                return Flux.error(e);
+            }
+            return stream
+                    .<String>handle((chunk, sink) -> {
+                        Optional<String> violation = validator.accept(chunk);
+                        if (violation.isPresent()) {
+                            llmMetricsPort.recordStructuredOutput(request.model(), "invalid", 1, 0);
+                            sink.error(new LlmSchemaMismatchException("Output diverged from the response schema: "
+                                    + violation.get()));
+                        } else {
+                            sink.next(chunk);
+                        }
+                    })
+                    .concatWith(Mono.defer(() -> {
+                        Optional<String> violation = validator.finish();
+                        llmMetricsPort.recordStructuredOutput(request.model(), 
+                                violation.isPresent() ? "invalid" : "valid", 1, 0);
+                        return violation.isPresent() 
+                                ? Mono.error(new LlmSchemaMismatchException("Output did not match the response schema: "
+                                        + violation.get()))
+                                : Mono.empty();
+                    }));
+        });
+    }
+    
+    private SchemaValidatorPort.OutputValidator openValidator(LlmRequest request) throws LlmProcessingException {
+        try {
+            return schemaValidator.open(request.responseSchema());
+        } catch (SchemaValidatorPort.InvalidSchemaException e) {
+            throw new LlmProcessingException("Invalid response schema: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Why the answer of the first model of the cascade is not returned, or null when it is accepted
+     */
+    private String rejection(LlmRequest request, LlmResponse response) {
+        if (!response.isSuccessful()) {
+            return "empty";
+        }
+        for (ResponseAcceptancePort check : acceptanceChecks) {
+            Optional<String> rejection = check.reject(request, response);
+            if (rejection.isPresent()) {
+                return rejection.get();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Copy of a cached response answering another request
+     */
+    private static LlmResponse fromCache(LlmResponse cached, LlmRequest request) {
+        return cached.toBuilder()
+                .id(null)
+                .requestId(request.id())
+                .processingTimeMs(0.0)
+                .timestamp(null)
+                .build();
+    }
+    
+    private static boolean wantsRetrieval(LlmRequest request) {
+        return request.retrievalTopK() != null && request.retrievalTopK() > 0;
+    }
+    
+    /**
+     * Adds the indexed passages most relevant to the prompt as context ahead of it
+     * A failed retrieval only costs the context; the prompt still goes to the provider
+     */
+    private LlmRequest withRetrievedContext(LlmRequest request) throws LlmProcessingException {
+        List<RetrievedChunk> chunks;
+        try {
+            chunks = documentUseCase.retrieve(request.prompt(), request.retrievalTopK(), request.deadline());
+        } catch (LlmDeadlineExceededException e) {
+            throw e;
+        } catch (LlmProcessingException e) {
+            log.warn("Sending request {} without retrieved context: {}", request.id(), e.getMessage());
+            return request;
+        }
+        if (chunks.isEmpty()) {
+            return request;
+        }
+        
+        StringBuilder passages = new StringBuilder("Use the following passages to answer when they are relevant.");
+        for (int i = 0; i < chunks.size(); i++) {
+            passages.append("\n\n[").append(i + 1).append("] ").append(chunks.get(i).getText());
+        }
+        
+        return request.toBuilder().retrievedContext(passages.toString()).build();
+    }
+    
+    /**
+     * Cancels the provider call once the deadline passes and counts cancelled calls
+     * 
+     * @param answer what the caller gets for the call, failing rather than cancelled when moderation rejected it
+     */
+    private void watchDeadline(CompletableFuture<LlmResponse> call, CompletableFuture<LlmResponse> answer,
+                               LlmRequest request) {
+        Deadline deadline = request.deadline();
+        // The timer clock may fire a little before the deadline's wall clock agrees, so it records its own firing
+        AtomicBoolean deadlinePassed = new AtomicBoolean();
+        ScheduledFuture<?> timer = deadline == null ? null : DEADLINE_TIMER.schedule(() -> {
+            deadlinePassed.set(true);
+            call.cancel(true);
+        }, deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+        
+        if (timer != null) {
+            call.whenComplete((response, error) -> timer.cancel(false));
+        }
+        // Looked at once the answer is done, since moderation cancels the call before failing the answer
+        answer.whenComplete((response, error) -> {
+            if (call.isCancelled()) {
+                String reason = deadlinePassed.get() || (deadline != null && deadline.isExpired()) ? "deadline_exceeded"
+                        : answer.isCancelled() ? "client_cancelled" : "moderation_rejected";
+                log.info("Cancelled LLM request {}: {}", request.id(), reason);
+                llmMetricsPort.recordCancellation(request.model(), reason);
+            }
+        });
+    }
+    
+    private static ScheduledThreadPoolExecutor createDeadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, DaemonThreads.named("llm-deadline-timer"));
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+    
     @Override
     public boolean validateRequest(LlmRequest request) {
         if (request == null) {
@@ -81,26 +706,38 @@ public class LlmUseCase implements LlmUseCasePort {
         }
         
         // Check required fields
-        if (request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
+        if (request.prompt() == null || request.prompt().trim().isEmpty()) {
             log.warn("Request validation failed: prompt is empty");
             return false;
         }
         
         // Check prompt length (reasonable limit)
-        if (request.getPrompt().length() > 10000) {
+        if (request.prompt().length() > 10000) {
             log.warn("Request validation failed: prompt too long ({} characters)", 
-                    request.getPrompt().length());
+                    request.prompt().length());
+            return false;
+        }
+        
+        if (request.systemPrompt() != null && request.systemPrompt().length() > 10000) {
+            log.warn("Request validation failed: system prompt too long ({} characters)", 
+                    request.systemPrompt().length());
             return false;
         }
         
         // Check parameter ranges
-        if (request.getMaxTokens() != null && (request.getMaxTokens() < 1 || request.getMaxTokens() > 4000)) {
-            log.warn("Request validation failed: invalid maxTokens value: {}", request.getMaxTokens());
+        if (request.maxTokens() != null && (request.maxTokens() < 1 || request.maxTokens() > 4000)) {
+            log.warn("Request validation failed: invalid maxTokens value: {}", request.maxTokens());
             return false;
         }
         
-        if (request.getTemperature() != null && (request.getTemperature() < 0.0 || request.getTemperature() > 2.0)) {
-            log.warn("Request validation failed: invalid temperature value: {}", request.getTemperature());
+        if (request.temperature() != null && (request.temperature() < 0.0 || request.temperature() > 2.0)) {
+            log.warn("Request validation failed: invalid temperature value: {}", request.temperature());
+            return false;
+        }
+        
+        if (request.retrievalTopK() != null 
+                && (request.retrievalTopK() < 0 || request.retrievalTopK() > DocumentUseCase.MAX_TOP_K)) {
+            log.warn("Request validation failed: invalid retrievalTopK value: {}", request.retrievalTopK());
             return false;
         }
         
@@ -126,4 +763,10 @@ public class LlmUseCase implements LlmUseCasePort {
             return false;
         }
     }
+    
+    /**
+     * Request with an idempotency key whose response is not stored yet
+     */
+    private record InFlight(String fingerprint, CompletableFuture<LlmResponse> response) {
+    }
 }
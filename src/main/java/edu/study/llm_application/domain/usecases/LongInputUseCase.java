@@ -0,0 +1,276 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.AuditRecord;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.LongInputProgress;
+import edu.study.llm_application.domain.entities.LongInputSettings;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmDeadlineExceededException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmOverloadedException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmProcessingException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmRateLimitedException;
+import edu.study.llm_application.domain.ports.in.LongInputUseCasePort;
+import edu.study.llm_application.domain.ports.out.AuditLogPort;
+import edu.study.llm_application.domain.ports.out.BulkheadPort;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.domain.ports.out.UserRateLimitPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Implementation of the long input use case as a map-reduce over provider calls
+ * The input is split into overlapping chunks that are answered concurrently, up to the configured
+ * number of calls at once. The partial answers are then grouped into calls of the same size and
+ * combined, round after round, until a single call can produce the final answer, so the time taken
+ * grows with the number of rounds rather than with the length of the input
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LongInputUseCase implements LongInputUseCasePort {
+    
+    private static final String SEPARATOR = "\n\n---\n\n";
+    
+    private final LlmUseCasePort llmUseCase;
+    private final LlmProviderPort llmProviderPort;
+    private final BulkheadPort bulkheadPort;
+    private final LlmMetricsPort llmMetricsPort;
+    private final UserRateLimitPort userRateLimit;
+    private final ModerationGate moderationGate;
+    private final AuditLogPort auditLog;
+    private final LongInputSettings settings;
+    
+    @Override
+    public Flux<LongInputProgress> process(LlmRequest request, String input) throws LlmProcessingException {
+        validate(request, input);
+        
+        List<String> chunks = TextChunker.splitTokens(input, settings.chunkTokens(), settings.overlapTokens());
+        log.info("Processing long input of {} characters in {} chunks", input.length(), chunks.size());
+        
+        Run run = new Run(request, chunks.size());
+        Flux<LongInputProgress> progress;
+        if (chunks.size() == 1) {
+            // Input that fits one call needs no reduction
+            progress = level(run, LongInputProgress.Stage.MAP, 0, List.of(finalPrompt(request, chunks.get(0))),
+                    answers -> done(run, answers.get(0)));
+        } else {
+            List<String> prompts = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                prompts.add(mapPrompt(request, chunks.get(i), i + 1, chunks.size()));
+            }
+            progress = level(run, LongInputProgress.Stage.MAP, 0, prompts, answers -> reduce(run, answers, 1));
+        }
+        
+        if (moderationGate.enabled()) {
+            // The chunks are checked alongside the calls answering them, as a single request is
+            progress = moderationGate.moderated(progress, request.id(), moderatedInputs(request, chunks));
+        }
+        if (request.deadline() != null) {
+            progress = progress.timeout(Mono.delay(request.deadline().remaining()),
+                    event -> Mono.delay(request.deadline().remaining()));
+        }
+        return audited(progress.onErrorMap(TimeoutException.class, e -> new LlmDeadlineExceededException(
+                "Deadline of long input request " + request.id() + " passed")), run);
+    }
+    
+    /**
+     * Hands the combined answer, or why the input was not answered, to the audit log once the run ends
+     * The prompt recorded is the instruction; the input itself is left out
+     */
+    private Flux<LongInputProgress> audited(Flux<LongInputProgress> progress, Run run) {
+        AtomicReference<LlmResponse> answer = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        return progress
+                .doOnNext(event -> {
+                    if (event.response() != null) {
+                        answer.set(event.response());
+                    }
+                })
+                .doOnError(failure::set)
+                .doOnCancel(() -> failure.set(new CancellationException("Long input cancelled by the client")))
+                .doFinally(signal -> auditLog.record(AuditRecord.of(run.request(), 
+                        failure.get() == null ? answer.get() : null, failure.get(), run.startTime())));
+    }
+    
+    private void validate(LlmRequest request, String input) throws LlmProcessingException {
+        if (!llmUseCase.validateRequest(request)) {
+            throw new LlmProcessingException("Invalid request: missing required fields");
+        }
+        if (input == null || input.isBlank()) {
+            throw new LlmProcessingException("Invalid request: input is empty");
+        }
+        if (input.length() > settings.maxInputChars()) {
+            throw new LlmProcessingException("Input of " + input.length() + " characters exceeds the limit of "
+                    + settings.maxInputChars());
+        }
+        if (!Arrays.asList(llmUseCase.getAvailableModels()).contains(request.model())) {
+            throw new LlmProcessingException("Model '" + request.model() + "' is not supported");
+        }
+        // The whole input counts as one request against the user's limit, however many calls it takes
+        if (request.userId() != null && !userRateLimit.tryAcquire(request.userId())) {
+            llmMetricsPort.recordUserRateLimited();
+            throw new LlmRateLimitedException("User " + request.userId() + " exceeded their request limit");
+        }
+    }
+    
+    /**
+     * Combines partial answers, in further rounds while they do not fit a single call
+     */
+    private Flux<LongInputProgress> reduce(Run run, List<String> partials, int level) {
+        List<String> groups = group(partials);
+        if (groups.size() == 1) {
+            return level(run, LongInputProgress.Stage.REDUCE, level, List.of(reducePrompt(run.request(), groups.get(0), true)),
+                    answers -> done(run, answers.get(0)));
+        }
+        
+        List<String> prompts = groups.stream().map(group -> reducePrompt(run.request(), group, false)).toList();
+        return level(run, LongInputProgress.Stage.REDUCE, level, prompts, answers -> reduce(run, answers, level + 1));
+    }
+    
+    /**
+     * Runs the calls of one level concurrently, reporting each one as it finishes, then continues with their answers
+     */
+    private Flux<LongInputProgress> level(Run run, LongInputProgress.Stage stage, int level, List<String> prompts,
+                                          Function<List<String>, Flux<LongInputProgress>> next) {
+        String[] answers = new String[prompts.size()];
+        AtomicInteger completed = new AtomicInteger();
+        
+        return Flux.range(0, prompts.size())
+                .flatMap(i -> call(run, prompts.get(i)).doOnNext(answer -> answers[i] = answer), settings.maxConcurrent())
+                .map(answer -> new LongInputProgress(stage, level, completed.incrementAndGet(), prompts.size(), null))
+                .concatWith(Flux.defer(() -> {
+                    run.levels().set(level);
+                    return next.apply(List.of(answers));
+                }));
+    }
+    
+    private Mono<String> call(Run run, String prompt) {
+        LlmRequest original = run.request();
+        LlmRequest part = LlmRequest.builder()
+                .id(UUID.randomUUID().toString())
+                .prompt(prompt)
+                .systemPrompt(original.systemPrompt())
+                .model(original.model())
+                .maxTokens(original.maxTokens())
+                .temperature(original.temperature())
+                .userId(original.userId())
+                .priority(original.priority())
+                .deadline(original.deadline())
+                .build();
+        
+        // Cancelling the future interrupts the bulkhead worker, which aborts the provider call
+        return Mono.defer(() -> {
+            try {
+                return Mono.fromFuture(bulkheadPort.submit(part.model(), part.priority(),
+                        () -> llmProviderPort.generateResponse(part)));
+            } catch (BulkheadPort.BulkheadFullException e) {
+                return Mono.error(new LlmOverloadedException(
+                        "Too many requests queued for model " + part.model() + ": " + e.getMessage(), e));
+            }
+        }).<String>handle((response, sink) -> {
+            if (!response.isSuccessful()) {
+                sink.error(new LlmProcessingException("Part of long input request " + original.id() + " failed: "
+                        + response.errorMessage()));
+                return;
+            }
+            if (response.tokensUsed() != null) {
+                run.tokens().addAndGet(response.tokensUsed());
+            }
+            sink.next(response.content());
+        }).onErrorMap(LlmProviderPort.LlmProviderException.class,
+                e -> new LlmProcessingException("Failed to process long input: " + e.getMessage(), e));
+    }
+    
+    private Flux<LongInputProgress> done(Run run, String answer) {
+        double processingTimeMs = (System.nanoTime() - run.startTime()) / 1_000_000.0;
+        llmMetricsPort.recordLongInput(run.request().model(), run.chunks(), run.levels().get());
+        log.info("Long input request {} answered from {} chunks in {} reduce rounds",
+                run.request().id(), run.chunks(), run.levels().get());
+        return Flux.just(LongInputProgress.done(LlmResponse.success(run.request().id(), answer, run.request().model(),
+                (int) run.tokens().get(), processingTimeMs)));
+    }
+    
+    /**
+     * Packs partial answers in order into groups of at most the chunk size, at least two per group
+     * so that every round shrinks the number of answers
+     */
+    private List<String> group(List<String> partials) {
+        List<String> groups = new ArrayList<>();
+        StringBuilder group = new StringBuilder();
+        int groupSize = 0;
+        int groupTokens = 0;
+        for (String partial : partials) {
+            int tokens = partial.length() / 4 + 1;
+            if (groupSize >= 2 && groupTokens + tokens > settings.chunkTokens()) {
+                groups.add(group.toString());
+                group.setLength(0);
+                groupSize = 0;
+                groupTokens = 0;
+            }
+            if (groupSize > 0) {
+                group.append(SEPARATOR);
+            }
+            group.append(partial);
+            groupSize++;
+            groupTokens += tokens;
+        }
+        groups.add(group.toString());
+        return groups;
+    }
+    
+    /**
+     * Texts of a long input written by its client: the instruction and every chunk of the input
+     */
+    private static List<String> moderatedInputs(LlmRequest request, List<String> chunks) {
+        List<String> inputs = new ArrayList<>(chunks.size() + 2);
+        if (request.systemPrompt() != null) {
+            inputs.add(request.systemPrompt());
+        }
+        inputs.add(request.prompt());
+        inputs.addAll(chunks);
+        return inputs;
+    }
+    
+    private static String mapPrompt(LlmRequest request, String chunk, int part, int parts) {
+        return request.prompt() + "\n\nThe text below is part " + part + " of " + parts + " of a longer document. "
+                + "Apply the instruction to this part only; the answers for all parts will be combined afterwards."
+                + SEPARATOR + chunk;
+    }
+    
+    private static String reducePrompt(LlmRequest request, String partials, boolean last) {
+        return request.prompt() + "\n\nBelow are answers to the instruction for consecutive parts of a longer document, "
+                + "separated by lines of dashes. Merge them into one answer covering "
+                + (last ? "the whole document." : "all of these parts.")
+                + SEPARATOR + partials;
+    }
+    
+    private static String finalPrompt(LlmRequest request, String text) {
+        return request.prompt() + SEPARATOR + text;
+    }
+    
+    /**
+     * State shared by the calls of one long input
+     */
+    private record Run(LlmRequest request, int chunks, long startTime, AtomicLong tokens, AtomicInteger levels) {
+        
+        Run(LlmRequest request, int chunks) {
+            this(request, chunks, System.nanoTime(), new AtomicLong(), new AtomicInteger());
+        }
+    }
+}
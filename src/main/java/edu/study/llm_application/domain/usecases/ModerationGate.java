@@ -0,0 +1,223 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ModerationSettings;
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmContentFlaggedException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmProcessingException;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import edu.study.llm_application.domain.ports.out.ModerationPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds answers back until the moderation check of their request clears them
+ * Checks are started alongside the work they guard, so a cleared request waits only for whichever of
+ * the two finishes last; every path answering client text goes through here
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ModerationGate {
+    
+    private final ModerationPort moderationPort;
+    private final ModerationSettings moderationSettings;
+    private final LlmMetricsPort llmMetricsPort;
+    
+    /**
+     * Whether requests are moderated at all
+     */
+    public boolean enabled() {
+        return moderationSettings.enabled();
+    }
+    
+    /**
+     * Holds the response of a provider call until the moderation check of its request, started now to
+     * run alongside the call, clears it
+     * A flagged request, or one whose check fails while moderation fails closed, is rejected as soon as
+     * the verdict arrives and its provider call cancelled; a failed call ends the check
+     */
+    public CompletableFuture<LlmResponse> moderated(CompletableFuture<LlmResponse> call, LlmRequest request) {
+        long startTime = System.nanoTime();
+        CompletableFuture<ModerationVerdict> check = moderationPort.moderate(inputsOf(request));
+        CompletableFuture<LlmResponse> result = new CompletableFuture<>();
+        AtomicLong generatedAt = new AtomicLong();
+        AtomicLong checkedAt = new AtomicLong();
+        // Set only once the verdict has been read; the check being done does not mean it was read yet
+        AtomicBoolean cleared = new AtomicBoolean();
+        AtomicBoolean released = new AtomicBoolean();
+        AtomicReference<LlmProcessingException> rejected = new AtomicReference<>();
+        
+        // Either side may finish last; whichever does releases the response
+        Runnable release = () -> {
+            if (cleared.get() && call.isDone() && !call.isCompletedExceptionally() && !result.isDone()
+                    && released.compareAndSet(false, true)) {
+                long releasedAt = System.nanoTime();
+                long generated = generatedAt.get();
+                long checked = checkedAt.get();
+                llmMetricsPort.recordModeration("cleared", moderationMs(startTime, checked == 0 ? releasedAt : checked),
+                        generated == 0 ? 0 : Math.max(0, (releasedAt - generated) / 1_000_000.0));
+                result.complete(call.join());
+            }
+        };
+        call.whenComplete((response, error) -> {
+            if (error != null) {
+                // A call cancelled for its flagged request fails with the rejection
+                result.completeExceptionally(rejected.get() != null ? rejected.get() : error);
+                check.cancel(true);
+                return;
+            }
+            generatedAt.set(System.nanoTime());
+            release.run();
+        });
+        check.whenComplete((verdict, error) -> {
+            if (result.isDone()) {
+                return;
+            }
+            LlmProcessingException rejection = rejection(request.id(), verdict, error, startTime);
+            if (rejection != null) {
+                rejected.set(rejection);
+                call.cancel(true);
+                result.completeExceptionally(rejection);
+                return;
+            }
+            checkedAt.set(System.nanoTime());
+            cleared.set(true);
+            release.run();
+        });
+        
+        // Cancelling the response, as the controller does when its client goes away, aborts both
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+                check.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Holds the elements of a stream until the moderation check of its request, started when the stream
+     * is subscribed, clears it
+     */
+    public <T> Flux<T> moderated(Flux<T> stream, LlmRequest request) {
+        return moderated(stream, request.id(), inputsOf(request));
+    }
+    
+    /**
+     * Holds the elements of a stream until the moderation check of the given texts, started when the
+     * stream is subscribed, clears them
+     * A flagged request ends the stream with an error, cancelling the work upstream even before its
+     * first element
+     */
+    public <T> Flux<T> moderated(Flux<T> stream, String requestId, List<String> inputs) {
+        return Flux.defer(() -> {
+            long startTime = System.nanoTime();
+            AtomicLong firstElementAt = new AtomicLong();
+            Mono<Void> cleared = Mono.fromFuture(moderationPort.moderate(inputs))
+                    .materialize()
+                    .<Void>handle((signal, sink) -> {
+                        LlmProcessingException rejection = rejection(requestId, signal.get(),
+                                signal.getThrowable(), startTime);
+                        if (rejection != null) {
+                            sink.error(rejection);
+                            return;
+                        }
+                        long released = System.nanoTime();
+                        long firstElement = firstElementAt.get();
+                        llmMetricsPort.recordModeration("cleared", moderationMs(startTime, released),
+                                firstElement == 0 ? 0 : Math.max(0, (released - firstElement) / 1_000_000.0));
+                        sink.complete();
+                    })
+                    .cache();
+            
+            Flux<T> held = stream
+                    .doOnNext(element -> firstElementAt.compareAndSet(0, System.nanoTime()))
+                    .delayUntil(element -> cleared);
+            // The check is also subscribed on its own, so a flag ends the stream while nothing has arrived
+            return Flux.merge(held, cleared.thenMany(Flux.<T>empty()));
+        });
+    }
+    
+    /**
+     * Checks a request before it is answered, waiting for the verdict
+     */
+    public void moderateNow(LlmRequest request) throws LlmProcessingException {
+        long startTime = System.nanoTime();
+        CompletableFuture<ModerationVerdict> check = moderationPort.moderate(inputsOf(request));
+        ModerationVerdict verdict = null;
+        Throwable error = null;
+        try {
+            verdict = check.get();
+        } catch (InterruptedException e) {
+            check.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LlmProcessingException("Interrupted while waiting for moderation", e);
+        } catch (ExecutionException e) {
+            error = e.getCause();
+        }
+        LlmProcessingException rejection = rejection(request.id(), verdict, error, startTime);
+        if (rejection != null) {
+            throw rejection;
+        }
+        llmMetricsPort.recordModeration("cleared", moderationMs(startTime, System.nanoTime()), 0);
+    }
+    
+    /**
+     * Why a request is rejected after its moderation check, or null when it may be answered
+     * Flagged and failed checks are recorded here; cleared ones are recorded once the answer is released
+     */
+    private LlmProcessingException rejection(String requestId, ModerationVerdict verdict, Throwable error,
+                                             long startTime) {
+        double moderationMs = moderationMs(startTime, System.nanoTime());
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            llmMetricsPort.recordModeration("failed", moderationMs, 0);
+            if (moderationSettings.failOpen()) {
+                log.warn("Answering request {} without moderation: {}", requestId, cause.getMessage());
+                return null;
+            }
+            log.error("Moderation of request {} failed: {}", requestId, cause.getMessage());
+            return new LlmProcessingException("Failed to moderate request: " + cause.getMessage(), cause);
+        }
+        if (verdict != null && verdict.flagged()) {
+            llmMetricsPort.recordModeration("flagged", moderationMs, 0);
+            log.info("Rejecting request {} flagged by moderation for {}", requestId, verdict.categories());
+            return new LlmContentFlaggedException("Request was flagged by moderation"
+                    + (verdict.categories().isEmpty() ? "" : " for " + String.join(", ", verdict.categories())));
+        }
+        return null;
+    }
+    
+    /**
+     * Texts of a request written by its client, after template rendering; retrieved passages are not checked
+     */
+    static List<String> inputsOf(LlmRequest request) {
+        List<String> inputs = new ArrayList<>();
+        if (request.systemPrompt() != null) {
+            inputs.add(request.systemPrompt());
+        }
+        if (request.context() != null) {
+            inputs.addAll(request.context());
+        }
+        inputs.add(request.prompt());
+        return inputs;
+    }
+    
+    private static double moderationMs(long startTime, long endTime) {
+        return (endTime - startTime) / 1_000_000.0;
+    }
+}
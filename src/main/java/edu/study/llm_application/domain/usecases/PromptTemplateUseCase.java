@@ -0,0 +1,91 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.PromptTemplate;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmProcessingException;
+import edu.study.llm_application.domain.ports.in.PromptTemplateUseCasePort;
+import edu.study.llm_application.domain.ports.out.PromptTemplatePort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the prompt template use case: compiling templates once and rendering them per request
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PromptTemplateUseCase implements PromptTemplateUseCasePort {
+    
+    /**
+     * Longest template source accepted, matching the prompt limit
+     */
+    public static final int MAX_TEMPLATE_LENGTH = 10000;
+    
+    /**
+     * Largest number of templates kept at once
+     */
+    public static final int MAX_TEMPLATES = 1000;
+    
+    /**
+     * Buffers larger than this are dropped after rendering instead of being kept by their thread
+     */
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+    
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+    
+    private final PromptTemplatePort promptTemplatePort;
+    
+    @Override
+    public PromptTemplate register(String id, String source) throws LlmProcessingException {
+        if (source == null || source.isBlank()) {
+            throw new LlmProcessingException("Invalid template: source cannot be empty");
+        }
+        if (source.length() > MAX_TEMPLATE_LENGTH) {
+            throw new LlmProcessingException("Invalid template: source cannot exceed " + MAX_TEMPLATE_LENGTH + " characters");
+        }
+        if (promptTemplatePort.size() >= MAX_TEMPLATES && promptTemplatePort.find(id).isEmpty()) {
+            throw new LlmProcessingException("Invalid template: at most " + MAX_TEMPLATES + " templates can be registered");
+        }
+        
+        try {
+            PromptTemplate template = PromptTemplate.compile(id, source);
+            promptTemplatePort.save(template);
+            log.info("Registered prompt template '{}' with variables {} and {} static tokens", 
+                    id, template.getVariables(), template.getStaticTokens());
+            return template;
+        } catch (IllegalArgumentException e) {
+            throw new LlmProcessingException("Invalid template: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public Optional<PromptTemplate> find(String id) {
+        return promptTemplatePort.find(id);
+    }
+    
+    @Override
+    public LlmRequest render(LlmRequest request) throws LlmProcessingException {
+        PromptTemplate template = promptTemplatePort.find(request.templateId())
+                .orElseThrow(() -> new LlmProcessingException("Unknown prompt template '" + request.templateId() + "'"));
+        
+        // Each request thread renders into its own buffer, so only the final prompt string is allocated
+        StringBuilder buffer = RENDER_BUFFER.get();
+        buffer.setLength(0);
+        try {
+            int estimatedTokens = template.render(request.variables(), buffer);
+            return request.toBuilder()
+                    .prompt(buffer.toString())
+                    .estimatedPromptTokens(estimatedTokens)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new LlmProcessingException("Invalid request: " + e.getMessage(), e);
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                RENDER_BUFFER.remove();
+            }
+        }
+    }
+}
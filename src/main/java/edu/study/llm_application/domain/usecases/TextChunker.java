@@ -0,0 +1,71 @@
+package edu.study.llm_application.domain.usecases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into windows of words overlapping by a few words
+ * The overlap keeps a sentence cut at a chunk boundary whole in at least one of the two chunks
+ * Windows are measured in words, or in estimated tokens of about four characters each
+ */
+final class TextChunker {
+    
+    private TextChunker() {
+    }
+    
+    /**
+     * Splits a text into chunks of at most the given number of words
+     */
+    static List<String> split(String text, int words, int overlap) {
+        String[] tokens = text.trim().split("\\s+");
+        List<String> chunks = new ArrayList<>();
+        int stride = words - overlap;
+        for (int start = 0; start < tokens.length; start += stride) {
+            int end = Math.min(tokens.length, start + words);
+            chunks.add(String.join(" ", List.of(tokens).subList(start, end)));
+            if (end == tokens.length) {
+                break;
+            }
+        }
+        return chunks;
+    }
+    
+    /**
+     * Splits a text into chunks of at most the given number of estimated tokens
+     * A single word longer than the budget still becomes a chunk of its own
+     */
+    static List<String> splitTokens(String text, int tokens, int overlap) {
+        String[] words = text.trim().split("\\s+");
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < words.length) {
+            int end = start;
+            int used = 0;
+            while (end < words.length && (end == start || used + estimateTokens(words[end]) <= tokens)) {
+                used += estimateTokens(words[end]);
+                end++;
+            }
+            chunks.add(String.join(" ", List.of(words).subList(start, end)));
+            if (end == words.length) {
+                break;
+            }
+            
+            // The next chunk starts far enough back to repeat the overlap, but always moves forward
+            int next = end;
+            int repeated = 0;
+            while (next - 1 > start && repeated + estimateTokens(words[next - 1]) <= overlap) {
+                next--;
+                repeated += estimateTokens(words[next]);
+            }
+            start = next;
+        }
+        return chunks;
+    }
+    
+    /**
+     * Estimated tokens of a word and the space after it, about four characters per token
+     */
+    static int estimateTokens(String word) {
+        return (word.length() + 4) / 4;
+    }
+}
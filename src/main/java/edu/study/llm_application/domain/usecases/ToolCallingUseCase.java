@@ -0,0 +1,134 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.ChatMessage;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.entities.ToolSettings;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmDeadlineExceededException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmOverloadedException;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort.LlmProcessingException;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.domain.ports.out.ToolPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Answers requests offering tools by letting the model call them until it answers
+ * Requests reach it through the regular pipeline, which checks the tools they name before they are
+ * queued and runs the loop in their bulkhead slot
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ToolCallingUseCase {
+    
+    private final LlmProviderPort llmProviderPort;
+    private final LlmMetricsPort llmMetricsPort;
+    private final ToolPort toolPort;
+    private final ToolSettings toolSettings;
+    
+    /**
+     * Copy of a request whose tools, named by the client, carry their registered definitions
+     */
+    public LlmRequest withToolDefinitions(LlmRequest request) throws LlmProcessingException {
+        if (request.responseSchema() != null) {
+            throw new LlmProcessingException("Invalid request: tools cannot be combined with a response schema");
+        }
+        List<ToolDefinition> tools = new ArrayList<>(request.tools().size());
+        for (ToolDefinition tool : request.tools()) {
+            tools.add(toolPort.find(tool.name())
+                    .orElseThrow(() -> new LlmProcessingException("Tool '" + tool.name() + "' is not available")));
+        }
+        return request.toBuilder().tools(List.copyOf(tools)).build();
+    }
+    
+    /**
+     * Runs the tool-calling loop: the tools the model calls in one turn run at the same time, and their
+     * results go back to the model until it answers without calling any
+     * Every round runs in the bulkhead slot of the request it is called from, so cancelling the request
+     * stops the loop. The cascade does not apply, the first model's tool calls being as costly to run as
+     * the requested one's
+     */
+    public LlmResponse generate(LlmRequest request) 
+            throws LlmProviderPort.LlmProviderException, LlmProcessingException {
+        List<ChatMessage> toolMessages = new ArrayList<>();
+        int toolCalls = 0;
+        int tokensUsed = 0;
+        for (int round = 1; round <= toolSettings.maxRounds(); round++) {
+            if (request.deadline() != null && request.deadline().isExpired()) {
+                throw new LlmDeadlineExceededException("Deadline of request " + request.id() + " passed while calling tools");
+            }
+            LlmResponse response = llmProviderPort.generateResponse(
+                    request.toBuilder().toolMessages(List.copyOf(toolMessages)).build());
+            tokensUsed += response.tokensUsed() != null ? response.tokensUsed() : 0;
+            if (!response.hasToolCalls()) {
+                llmMetricsPort.recordToolLoop(request.model(), "answered", round, toolCalls);
+                return tokensUsed > 0 ? response.toBuilder().tokensUsed(tokensUsed).build() : response;
+            }
+            
+            log.debug("Request {} calls {} in round {}", request.id(), 
+                    response.toolCalls().stream().map(ToolCall::name).toList(), round);
+            toolMessages.add(ChatMessage.assistant(response.content(), response.toolCalls()));
+            toolMessages.addAll(runTools(request, response.toolCalls()));
+            toolCalls += response.toolCalls().size();
+        }
+        
+        llmMetricsPort.recordToolLoop(request.model(), "exhausted", toolSettings.maxRounds(), toolCalls);
+        throw new LlmProcessingException("Model was still calling tools after " + toolSettings.maxRounds() + " rounds");
+    }
+    
+    /**
+     * Runs the tool calls of one turn at the same time and waits for all of them
+     * A failed call is answered with its error, which the model can work around, rather than failing the
+     * request; a call rejected because the tool workers are saturated fails it as overloaded
+     */
+    private List<ChatMessage> runTools(LlmRequest request, List<ToolCall> calls) 
+            throws LlmProviderPort.LlmProviderException, LlmOverloadedException {
+        List<CompletableFuture<String>> started = new ArrayList<>(calls.size());
+        List<CompletableFuture<ChatMessage>> results = new ArrayList<>(calls.size());
+        for (ToolCall call : calls) {
+            boolean offered = request.tools().stream().anyMatch(tool -> tool.name().equals(call.name()));
+            CompletableFuture<String> result = offered ? toolPort.execute(call) 
+                    : CompletableFuture.failedFuture(new ToolPort.ToolException("Tool " + call.name() + " is not available"));
+            started.add(result);
+            Throwable rejection = result.isCompletedExceptionally() ? result.handle((content, error) -> cause(error)).join() : null;
+            if (rejection instanceof ToolPort.ToolOverloadedException) {
+                started.forEach(running -> running.cancel(true));
+                throw new LlmOverloadedException("Tools of request " + request.id() + " rejected: " + rejection.getMessage(), rejection);
+            }
+            results.add(result.handle((content, error) -> ChatMessage.tool(call.id(), 
+                    error == null ? content : "Error: " + toolError(error))));
+        }
+        
+        try {
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            started.forEach(result -> result.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new LlmProviderPort.LlmProviderException("Tool calls of request " + request.id() + " cancelled", e);
+        } catch (ExecutionException e) {
+            // Every result handles its own failure
+            throw new IllegalStateException(e);
+        }
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+    
+    private static String toolError(Throwable error) {
+        Throwable cause = cause(error);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+    
+    private static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
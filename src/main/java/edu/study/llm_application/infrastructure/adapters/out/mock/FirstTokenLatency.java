@@ -0,0 +1,83 @@
+package edu.study.llm_application.infrastructure.adapters.out.mock;
+
+import edu.study.llm_application.infrastructure.config.MockProviderProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws the time to the first token of simulated generations from the configured latency model
+ * Safe to share between threads; every draw uses the random generator of the calling thread
+ */
+class FirstTokenLatency {
+    
+    private final MockProviderProperties.Latency model;
+    private final double medianMs;
+    private final double slowMedianMs;
+    private final double sigma;
+    private final double slowFraction;
+    // Upper bounds of the histogram buckets in milliseconds, and the generations up to each bucket
+    private final long[] bounds;
+    private final long[] cumulative;
+    
+    FirstTokenLatency(MockProviderProperties properties) {
+        this.model = properties.getLatency();
+        this.medianMs = properties.getFirstTokenMedian().toNanos() / 1_000_000.0;
+        this.slowMedianMs = properties.getSlowFirstTokenMedian().toNanos() / 1_000_000.0;
+        this.sigma = properties.getFirstTokenSigma();
+        this.slowFraction = properties.getSlowFraction();
+        
+        Map<Long, Long> histogram = new TreeMap<>(properties.getHistogram());
+        this.bounds = new long[histogram.size()];
+        this.cumulative = new long[histogram.size()];
+        int i = 0;
+        long total = 0;
+        // An empty bucket still bounds the one after it
+        for (Map.Entry<Long, Long> bucket : histogram.entrySet()) {
+            total += Math.max(0, bucket.getValue());
+            bounds[i] = bucket.getKey();
+            cumulative[i++] = total;
+        }
+        if (model == MockProviderProperties.Latency.HISTOGRAM && total == 0) {
+            throw new IllegalStateException("openai.mock.histogram needs at least one counted bucket for the HISTOGRAM latency");
+        }
+    }
+    
+    Duration next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double ms = switch (model) {
+            case FIXED -> medianMs;
+            case LOGNORMAL -> logNormal(random, medianMs);
+            case BIMODAL -> logNormal(random, random.nextDouble() < slowFraction ? slowMedianMs : medianMs);
+            case HISTOGRAM -> fromHistogram(random);
+        };
+        return Duration.ofNanos((long) (ms * 1_000_000));
+    }
+    
+    private double logNormal(ThreadLocalRandom random, double median) {
+        return median * Math.exp(sigma * random.nextGaussian());
+    }
+    
+    /**
+     * Picks a bucket in proportion to its generations, then a latency evenly within it
+     */
+    private double fromHistogram(ThreadLocalRandom random) {
+        long pick = random.nextLong(cumulative[cumulative.length - 1]);
+        // First bucket whose generations reach past the pick, which skips the empty ones
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > pick) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        int bucket = low;
+        long lower = bucket == 0 ? 0 : bounds[bucket - 1];
+        return lower + random.nextDouble() * (bounds[bucket] - lower);
+    }
+}
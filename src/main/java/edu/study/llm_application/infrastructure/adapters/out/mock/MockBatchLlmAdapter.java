@@ -0,0 +1,61 @@
+package edu.study.llm_application.infrastructure.adapters.out.mock;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.BatchLlmPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mock batch provider answering deferred requests one at a time on a background thread
+ * Activated when openai.mock.enabled=true
+ */
+@Component
+@ConditionalOnProperty(name = "openai.mock.enabled", havingValue = "true", matchIfMissing = true)
+public class MockBatchLlmAdapter implements BatchLlmPort {
+    
+    private final LlmProviderPort llmProviderPort;
+    private final Map<String, LlmResponse> results = new ConcurrentHashMap<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(DaemonThreads.named("llm-batch-mock"));
+    
+    public MockBatchLlmAdapter(LlmProviderPort llmProviderPort) {
+        this.llmProviderPort = llmProviderPort;
+    }
+    
+    @Override
+    public CompletableFuture<LlmResponse> enqueue(LlmRequest request) {
+        results.put(request.id(), LlmResponse.pending(request.id()));
+        CompletableFuture<LlmResponse> completed = new CompletableFuture<>();
+        worker.execute(() -> {
+            LlmResponse response;
+            try {
+                response = llmProviderPort.generateResponse(request);
+            } catch (LlmProviderPort.LlmProviderException e) {
+                response = LlmResponse.error(request.id(), e.getMessage());
+            }
+            results.put(request.id(), response);
+            completed.complete(response);
+        });
+        return completed;
+    }
+    
+    @Override
+    public Optional<LlmResponse> result(String requestId) {
+        return Optional.ofNullable(results.get(requestId));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
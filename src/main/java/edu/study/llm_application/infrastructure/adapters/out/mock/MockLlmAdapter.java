@@ -1,24 +1,51 @@
 package edu.study.llm_application.infrastructure.adapters.out.mock;
 
+import edu.study.llm_application.domain.entities.ChatMessage;
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.StreamChunk;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
 import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.MockProviderProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 
 /**
- * Mock LLM provider for testing and demo purposes
- * Activated when openai.mock.enabled=true
+ * Mock LLM provider simulating the latency, token rate and failures of a real one
+ * A generation waits for a time to the first token drawn from the configured latency model, then
+ * produces tokens at a steady rate, and its length is a random share of the request's max tokens. Some
+ * generations fail with an injected 429, 5xx or timeout instead. All waiting happens on Reactor's
+ * timers, so a stream holds no thread while it waits and a single node can simulate tens of thousands
+ * of generations at once; the blocking port method waits on the same timers from the calling thread,
+ * as the OpenAI adapter does. Activated when openai.mock.enabled=true
  */
 @Slf4j
 @Component
 @ConditionalOnProperty(name = "openai.mock.enabled", havingValue = "true", matchIfMissing = true)
 public class MockLlmAdapter implements LlmProviderPort {
     
-    private final Random random = new Random();
+    private static final int[] SERVER_ERRORS = {500, 502, 503};
+    
+    private final MockProviderProperties properties;
+    private final FirstTokenLatency latency;
     
     private final String[] mockResponses = {
         "This is a mock response from the LLM. In a real implementation, this would be generated by an actual language model like GPT.",
@@ -28,31 +55,74 @@ public class MockLlmAdapter implements LlmProviderPort {
         "Great question! This response is coming from a mock LLM adapter, which is useful for development and testing purposes."
     };
     
+    public MockLlmAdapter(MockProviderProperties properties) {
+        this.properties = properties;
+        this.latency = new FirstTokenLatency(properties);
+    }
+    
     @Override
     public LlmResponse generateResponse(LlmRequest request) throws LlmProviderException {
-        log.info("Generating mock response for prompt: {}", 
-                request.getPrompt().substring(0, Math.min(50, request.getPrompt().length())));
+        log.debug("Generating mock response for prompt: {}", 
+                request.prompt().substring(0, Math.min(50, request.prompt().length())));
         
-        try {
-            // Simulate processing time
-            Thread.sleep(500 + random.nextInt(1500)); // 0.5-2 seconds
-            
-            // Generate mock response
-            String mockContent = generateMockContent(request.getPrompt());
-            int mockTokens = 20 + random.nextInt(100); // 20-120 tokens
-            
-            return LlmResponse.success(
-                    request.getId(),
-                    mockContent,
-                    request.getModel(),
-                    mockTokens,
-                    null // Will be set by use case
-            );
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new LlmProviderException("Mock processing interrupted", e);
-        }
+        return await(Mono.defer(() -> {
+            Outcome outcome = draw(request);
+            if (outcome.failure() != null) {
+                return Mono.delay(outcome.delay()).then(Mono.error(outcome.failure()));
+            }
+            LlmResponse response = mockResponse(request, outcome.tokens());
+            int completionTokens = response.tokensUsed() - response.promptTokens();
+            return Mono.delay(outcome.delay().plus(generationTime(completionTokens))).thenReturn(response);
+        }));
+    }
+    
+    @Override
+    public Flux<String> streamResponse(LlmRequest request) {
+        return streamChunks(request).mapNotNull(StreamChunk::text);
+    }
+    
+    @Override
+    public Flux<StreamChunk> streamChunks(LlmRequest request) {
+        log.debug("Streaming mock response for prompt: {}", 
+                request.prompt().substring(0, Math.min(50, request.prompt().length())));
+        
+        return Flux.defer(() -> {
+            Outcome outcome = draw(request);
+            if (outcome.failure() != null) {
+                return Mono.delay(outcome.delay()).then(Mono.<StreamChunk>error(outcome.failure()));
+            }
+            List<String> tokens = request.responseSchema() != null 
+                    ? Arrays.asList(structuredChunks(request.responseSchema())) 
+                    : completionTokens(request.prompt(), outcome.tokens());
+            List<StreamChunk> chunks = chunks(tokens).stream().map(StreamChunk::text).toList();
+            int promptTokens = Math.max(1, request.prompt().length() / 4);
+            // The first chunk arrives after the time to the first token, the rest at the token rate
+            return Flux.concat(
+                    Mono.just(chunks.get(0)).delaySubscription(outcome.delay()),
+                    Flux.fromIterable(chunks.subList(1, chunks.size()))
+                            .delayElements(generationTime(properties.getTokensPerChunk())),
+                    Mono.just(StreamChunk.usage(promptTokens + tokens.size())));
+        });
+    }
+    
+    @Override
+    public List<float[]> generateEmbeddings(String model, List<String> texts) throws LlmProviderException {
+        log.debug("Generating {} mock embeddings for model: {}", texts.size(), model);
+        
+        // Simulate one network round trip per batch
+        await(Mono.delay(Duration.ofMillis(50 + ThreadLocalRandom.current().nextInt(100))));
+        
+        int dimensions = "text-embedding-3-large".equals(model) ? 3072 : 1536;
+        return texts.stream().map(text -> mockVector(model, text, dimensions)).toList();
+    }
+    
+    @Override
+    public String[] getSupportedEmbeddingModels() {
+        return new String[]{
+            "text-embedding-3-small",
+            "text-embedding-3-large",
+            "mock-embedding-v1"
+        };
     }
     
     @Override
@@ -75,9 +145,133 @@ public class MockLlmAdapter implements LlmProviderPort {
         return "Mock LLM Provider";
     }
     
+    /**
+     * Draws what a generation will do: fail with an injected error after a delay, or start after the
+     * time to the first token and produce a share of the request's max tokens
+     */
+    private Outcome draw(LlmRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Duration firstToken = latency.next();
+        double roll = random.nextDouble();
+        if ((roll -= properties.getTimeoutRate()) < 0) {
+            return new Outcome(properties.getTimeout(), 0, new LlmProviderException(
+                    "Mock provider timed out after " + properties.getTimeout().toMillis() + " ms", new TimeoutException()));
+        }
+        if ((roll -= properties.getRateLimitRate()) < 0) {
+            return new Outcome(firstToken, 0, providerError(HttpStatus.TOO_MANY_REQUESTS));
+        }
+        if ((roll -= properties.getServerErrorRate()) < 0) {
+            HttpStatus status = HttpStatus.valueOf(SERVER_ERRORS[random.nextInt(SERVER_ERRORS.length)]);
+            return new Outcome(firstToken, 0, providerError(status));
+        }
+        double minRatio = Math.min(1, Math.max(0, properties.getMinCompletionRatio()));
+        double ratio = minRatio + (1 - minRatio) * random.nextDouble();
+        return new Outcome(firstToken, Math.max(1, (int) Math.round(request.maxTokens() * ratio)), null);
+    }
+    
+    /**
+     * Error as the OpenAI adapter reports it once its retries are used up, with the status and body of OpenAI
+     */
+    private static LlmProviderException providerError(HttpStatus status) {
+        HttpHeaders headers = new HttpHeaders();
+        String body;
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            headers.set("retry-after-ms", "1000");
+            body = "{\"error\": {\"message\": \"Rate limit reached\", \"code\": \"rate_limit_exceeded\"}}";
+        } else {
+            body = "{\"error\": {\"message\": \"The server had an error while processing your request\"}}";
+        }
+        WebClientResponseException error = WebClientResponseException.create(status.value(), status.getReasonPhrase(),
+                headers, body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        return new LlmProviderException("Mock provider error: " + error.getMessage(), error);
+    }
+    
+    /**
+     * Response of a generation: tool calls on the first turn of a request offering tools, a sample of
+     * the response schema, or prose of exactly the drawn number of tokens
+     */
+    private LlmResponse mockResponse(LlmRequest request, int tokens) {
+        int promptTokens = Math.max(1, request.prompt().length() / 4);
+        LlmResponse.LlmResponseBuilder response = LlmResponse.builder()
+                .requestId(request.id())
+                .model(request.model())
+                .promptTokens(promptTokens)
+                .status("SUCCESS");
+        
+        // A request offering tools calls all of them in its first turn and answers from their results after
+        if (request.hasTools() && (request.toolMessages() == null || request.toolMessages().isEmpty())) {
+            List<ToolCall> calls = mockToolCalls(request);
+            int callTokens = calls.stream().mapToInt(call -> (call.name().length() + call.arguments().length()) / 4 + 1).sum();
+            return response.tokensUsed(promptTokens + callTokens).finishReason("tool_calls").toolCalls(calls).build();
+        }
+        
+        if (request.responseSchema() != null || request.hasTools()) {
+            String content = request.responseSchema() != null ? mockJson(request.responseSchema()) : mockToolAnswer(request);
+            return response.content(content).tokensUsed(promptTokens + Math.max(1, content.length() / 4))
+                    .finishReason("stop").build();
+        }
+        
+        String content = String.join("", completionTokens(request.prompt(), tokens)).stripTrailing();
+        return response.content(content).tokensUsed(promptTokens + tokens)
+                .finishReason(tokens >= request.maxTokens() ? "length" : "stop").build();
+    }
+    
+    /**
+     * Words of the mock content for the prompt, continued with further mock answers until there are
+     * as many as asked for; every word stands for one token
+     */
+    private List<String> completionTokens(String prompt, int count) {
+        List<String> tokens = new ArrayList<>(count);
+        String text = generateMockContent(prompt);
+        while (true) {
+            for (String word : text.split("(?<=\\s)(?=\\S)")) {
+                if (tokens.size() == count) {
+                    return tokens;
+                }
+                tokens.add(word);
+            }
+            text = "\n\n" + mockResponses[ThreadLocalRandom.current().nextInt(mockResponses.length)];
+        }
+    }
+    
+    /**
+     * Groups tokens into the chunks a stream emits
+     */
+    private List<String> chunks(List<String> tokens) {
+        int size = Math.max(1, properties.getTokensPerChunk());
+        List<String> chunks = new ArrayList<>(tokens.size() / size + 1);
+        for (int i = 0; i < tokens.size(); i += size) {
+            chunks.add(String.join("", tokens.subList(i, Math.min(tokens.size(), i + size))));
+        }
+        return chunks;
+    }
+    
+    private Duration generationTime(int tokens) {
+        return Duration.ofNanos((long) (tokens * 1_000_000_000.0 / properties.getTokensPerSecond()));
+    }
+    
+    /**
+     * Waits for a simulated call from a thread that needs its result, the way the port is called
+     */
+    private static <T> T await(Mono<T> call) throws LlmProviderException {
+        try {
+            return call.block();
+        } catch (RuntimeException e) {
+            // Interrupting block() disposes the subscription, which cancels the pending timer
+            if (Exceptions.unwrap(e) instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new LlmProviderException("Mock processing interrupted", e);
+            }
+            if (Exceptions.unwrap(e) instanceof LlmProviderException providerException) {
+                throw providerException;
+            }
+            throw e;
+        }
+    }
+    
     private String generateMockContent(String prompt) {
         // Select a base response
-        String baseResponse = mockResponses[random.nextInt(mockResponses.length)];
+        String baseResponse = mockResponses[ThreadLocalRandom.current().nextInt(mockResponses.length)];
         
         // Add some context based on the prompt
         String contextualPrefix = "";
@@ -97,4 +291,126 @@ public class MockLlmAdapter implements LlmProviderPort {
                "\n\n(Note: This is a mock response. The prompt was: \"" + 
                (prompt.length() > 100 ? prompt.substring(0, 100) + "..." : prompt) + "\")";
     }
+    
+    /**
+     * One call of every offered tool, with each required string argument set to the prompt
+     */
+    private List<ToolCall> mockToolCalls(LlmRequest request) {
+        String prompt = request.prompt().length() > 100 ? request.prompt().substring(0, 100) : request.prompt();
+        List<ToolCall> calls = new ArrayList<>(request.tools().size());
+        for (ToolDefinition tool : request.tools()) {
+            StringBuilder arguments = new StringBuilder("{");
+            Map<?, ?> parameters = tool.parameters() != null ? tool.parameters() : Map.of();
+            if (parameters.get("required") instanceof List<?> required 
+                    && parameters.get("properties") instanceof Map<?, ?> properties) {
+                for (Object name : required) {
+                    Object property = properties.get(name);
+                    boolean text = property instanceof Map<?, ?> map && "string".equals(map.get("type"));
+                    if (arguments.length() > 1) {
+                        arguments.append(", ");
+                    }
+                    arguments.append(quote(String.valueOf(name))).append(": ")
+                            .append(text ? quote(prompt) : mockJson(property));
+                }
+            }
+            calls.add(new ToolCall("call_" + Integer.toHexString(ThreadLocalRandom.current().nextInt()), tool.name(), 
+                    arguments.append('}').toString()));
+        }
+        return calls;
+    }
+    
+    private static String mockToolAnswer(LlmRequest request) {
+        StringBuilder answer = new StringBuilder("Mock answer to \"").append(request.prompt()).append("\" using the tool results:");
+        for (ChatMessage message : request.toolMessages()) {
+            if (ChatMessage.TOOL.equals(message.role())) {
+                String result = message.content().strip();
+                answer.append("\n- ").append(result.length() > 100 ? result.substring(0, 100) + "..." : result);
+            }
+        }
+        return answer.toString();
+    }
+    
+    /**
+     * Chunks of a JSON answer following a schema, split after its punctuation the way a model's tokens
+     * fall; one answer in four opens with a sentence of prose instead, as models without structured
+     * output support sometimes do
+     */
+    private String[] structuredChunks(Map<String, Object> schema) {
+        String json = mockJson(schema);
+        if (ThreadLocalRandom.current().nextInt(4) == 0) {
+            json = "Sure! Here is the JSON you asked for:\n" + json;
+        }
+        return json.split("(?<=[ ,:{\\[])");
+    }
+    
+    /**
+     * Sample value for a schema: the first enum value, or a placeholder of its first type, with every
+     * declared property of an object filled in
+     */
+    private String mockJson(Object schema) {
+        if (!(schema instanceof Map<?, ?> map)) {
+            return "null";
+        }
+        if (map.get("enum") instanceof List<?> values && !values.isEmpty()) {
+            Object value = values.get(0);
+            return value instanceof String text ? quote(text) : String.valueOf(value);
+        }
+        Object type = map.get("type") instanceof List<?> types && !types.isEmpty() ? types.get(0) : map.get("type");
+        if (type == null) {
+            type = map.containsKey("properties") ? "object" : "string";
+        }
+        return switch (String.valueOf(type)) {
+            case "object" -> {
+                StringBuilder json = new StringBuilder("{");
+                if (map.get("properties") instanceof Map<?, ?> properties) {
+                    for (Map.Entry<?, ?> property : properties.entrySet()) {
+                        if (json.length() > 1) {
+                            json.append(", ");
+                        }
+                        json.append(quote(String.valueOf(property.getKey()))).append(": ")
+                                .append(mockJson(property.getValue()));
+                    }
+                }
+                yield json.append('}').toString();
+            }
+            case "array" -> "[" + mockJson(map.get("items")) + "]";
+            case "integer" -> String.valueOf(1 + ThreadLocalRandom.current().nextInt(100));
+            case "number" -> String.valueOf(Math.round(ThreadLocalRandom.current().nextDouble() * 10000) / 100.0);
+            case "boolean" -> String.valueOf(ThreadLocalRandom.current().nextBoolean());
+            case "null" -> "null";
+            default -> quote("mock value");
+        };
+    }
+    
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+    
+    /**
+     * Deterministic unit vector seeded by the model and text, so equal texts always get equal vectors
+     */
+    private float[] mockVector(String model, String text, int dimensions) {
+        Random seeded = new Random(31L * model.hashCode() + text.hashCode());
+        float[] vector = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) seeded.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+    
+    /**
+     * What a simulated generation does
+     * 
+     * @param delay time to the first token, or until the failure
+     * @param tokens completion tokens to produce
+     * @param failure error the generation ends with, or null
+     */
+    private record Outcome(Duration delay, int tokens, LlmProviderException failure) {
+    }
 }
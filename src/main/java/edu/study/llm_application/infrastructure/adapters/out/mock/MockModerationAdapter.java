@@ -0,0 +1,47 @@
+package edu.study.llm_application.infrastructure.adapters.out.mock;
+
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+import edu.study.llm_application.domain.ports.out.ModerationPort;
+import edu.study.llm_application.infrastructure.config.ModerationProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mock moderation flagging inputs that contain one of the configured terms, after a short delay
+ * Activated when openai.mock.enabled=true
+ */
+@Component
+@ConditionalOnProperty(name = "openai.mock.enabled", havingValue = "true", matchIfMissing = true)
+public class MockModerationAdapter implements ModerationPort {
+    
+    private final List<String> flaggedTerms;
+    
+    public MockModerationAdapter(ModerationProperties properties) {
+        this.flaggedTerms = properties.getMockFlaggedTerms().stream()
+                .map(term -> term.toLowerCase(Locale.ROOT))
+                .toList();
+    }
+    
+    @Override
+    public CompletableFuture<ModerationVerdict> moderate(List<String> inputs) {
+        long delayMs = ThreadLocalRandom.current().nextLong(50, 200);
+        return CompletableFuture.supplyAsync(() -> verdict(inputs),
+                CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+    }
+    
+    private ModerationVerdict verdict(List<String> inputs) {
+        for (String input : inputs) {
+            String text = input.toLowerCase(Locale.ROOT);
+            if (flaggedTerms.stream().anyMatch(text::contains)) {
+                return new ModerationVerdict(true, List.of("mock"));
+            }
+        }
+        return ModerationVerdict.cleared();
+    }
+}
@@ -0,0 +1,321 @@
+package edu.study.llm_application.infrastructure.adapters.out.openai;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.BatchLlmPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.BatchProperties;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import edu.study.llm_application.infrastructure.ratelimit.ApiKeyPool;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch adapter sending deferred requests through the OpenAI Files and Batches APIs
+ * Requests are appended to a JSONL file on disk until it is full or the flush interval passes; the
+ * file is then uploaded and a batch created for it. Submitted batches are polled, and their output
+ * is downloaded to disk and read line by line into the results of the requests. Batches are tracked
+ * in memory, so requests waiting when the application stops are lost
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "openai.mock.enabled", havingValue = "false")
+public class OpenAiBatchAdapter implements BatchLlmPort {
+    
+    private static final Set<String> FINISHED = Set.of("completed", "failed", "expired", "cancelled");
+    
+    private final BatchProperties properties;
+    private final OpenAiJsonCodec codec;
+    private final ApiKeyPool keyPool;
+    private final WebClient webClient;
+    private final String apiUrl;
+    private final Duration callTimeout;
+    private final Path directory;
+    private final ScheduledExecutorService scheduler;
+    // Requests written or submitted whose batch has not finished
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+    // Completed with the result of each pending request
+    private final Map<String, CompletableFuture<LlmResponse>> completions = new ConcurrentHashMap<>();
+    private final Map<String, SubmittedBatch> submitted = new ConcurrentHashMap<>();
+    private OpenFile current;
+    
+    public OpenAiBatchAdapter(BatchProperties properties, OpenAiJsonCodec codec, ApiKeyPool keyPool, WebClient webClient,
+                              @Value("${openai.api.url:https://api.openai.com/v1}") String apiUrl,
+                              @Value("${openai.timeout.seconds:30}") int timeoutSeconds) {
+        this.properties = properties;
+        this.codec = codec;
+        this.keyPool = keyPool;
+        this.webClient = webClient;
+        this.apiUrl = apiUrl;
+        this.callTimeout = Duration.ofSeconds(timeoutSeconds);
+        this.directory = Path.of(properties.getPath());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(DaemonThreads.named("llm-batch"));
+        
+        long pollInterval = properties.getPollInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public CompletableFuture<LlmResponse> enqueue(LlmRequest request) throws LlmProviderPort.LlmProviderException {
+        OpenFile full = null;
+        CompletableFuture<LlmResponse> completion = new CompletableFuture<>();
+        synchronized (this) {
+            try {
+                if (current == null) {
+                    current = openFile(request.model());
+                }
+                codec.writeBatchLine(request, current.out());
+                current.requestIds().add(request.id());
+                completions.put(request.id(), completion);
+                pending.add(request.id());
+                if (current.requestIds().size() >= properties.getMaxRequests()) {
+                    full = current;
+                    current = null;
+                }
+            } catch (IOException e) {
+                throw new LlmProviderPort.LlmProviderException("Failed to write the batch file: " + e.getMessage(), e);
+            }
+        }
+        if (full != null) {
+            OpenFile batch = full;
+            scheduler.execute(() -> submit(batch));
+        }
+        return completion;
+    }
+    
+    @Override
+    public Optional<LlmResponse> result(String requestId) {
+        Result result = results.get(requestId);
+        if (result != null) {
+            return Optional.of(result.response());
+        }
+        return pending.contains(requestId) ? Optional.of(LlmResponse.pending(requestId)) : Optional.empty();
+    }
+    
+    /**
+     * Submits the file being collected, whether or not it is full
+     */
+    public void flush() {
+        OpenFile batch;
+        synchronized (this) {
+            batch = current;
+            current = null;
+        }
+        if (batch != null) {
+            submit(batch);
+        }
+    }
+    
+    /**
+     * Checks every submitted batch and collects the results of the finished ones
+     */
+    public void poll() {
+        long now = System.nanoTime();
+        results.values().removeIf(result -> now - result.expiresAt() > 0);
+        
+        for (SubmittedBatch batch : List.copyOf(submitted.values())) {
+            try {
+                OpenAiDtos.Batch status = webClient.get()
+                        .uri(apiUrl + "/batches/" + batch.id())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + batch.key().secret())
+                        .retrieve()
+                        .bodyToMono(OpenAiDtos.Batch.class)
+                        .block(callTimeout);
+                if (status != null && FINISHED.contains(status.status())) {
+                    collect(batch, status);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to check batch {}: {}", batch.id(), e.getMessage());
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    private OpenFile openFile(String model) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("batch-" + UUID.randomUUID() + ".jsonl");
+        OpenFile opened = new OpenFile(file, new BufferedOutputStream(Files.newOutputStream(file)), model, new ArrayList<>());
+        // The first request of a file waits at most the flush interval for others
+        scheduler.schedule(() -> flushIfCurrent(opened), properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+        return opened;
+    }
+    
+    private void flushIfCurrent(OpenFile file) {
+        synchronized (this) {
+            // The file this timer was started for may already have been sent because it filled up
+            if (current != file) {
+                return;
+            }
+            current = null;
+        }
+        submit(file);
+    }
+    
+    /**
+     * Uploads a closed input file and creates its batch
+     */
+    private void submit(OpenFile file) {
+        List<String> requestIds = file.requestIds();
+        ApiKeyPool.ApiKey key = keyPool.acquire(file.model());
+        try {
+            file.out().close();
+            
+            MultipartBodyBuilder multipart = new MultipartBodyBuilder();
+            multipart.part("purpose", "batch");
+            multipart.part("file", new FileSystemResource(file.path()));
+            OpenAiDtos.FileObject uploaded = webClient.post()
+                    .uri(apiUrl + "/files")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + key.secret())
+                    .body(BodyInserters.fromMultipartData(multipart.build()))
+                    .retrieve()
+                    .bodyToMono(OpenAiDtos.FileObject.class)
+                    .block(callTimeout);
+            
+            OpenAiDtos.Batch batch = webClient.post()
+                    .uri(apiUrl + "/batches")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + key.secret())
+                    .bodyValue(Map.of(
+                            "input_file_id", uploaded.id(),
+                            "endpoint", OpenAiJsonCodec.BATCH_ENDPOINT,
+                            "completion_window", properties.getCompletionWindow()))
+                    .retrieve()
+                    .bodyToMono(OpenAiDtos.Batch.class)
+                    .block(callTimeout);
+            
+            submitted.put(batch.id(), new SubmittedBatch(batch.id(), key, Set.copyOf(requestIds)));
+            Files.deleteIfExists(file.path());
+            log.info("Submitted batch {} with {} requests", batch.id(), requestIds.size());
+        } catch (Exception e) {
+            log.error("Failed to submit batch file {}: {}", file.path(), e.getMessage());
+            requestIds.forEach(requestId -> complete(requestId,
+                    LlmResponse.error(requestId, "Failed to submit batch: " + e.getMessage())));
+        } finally {
+            key.release();
+        }
+    }
+    
+    /**
+     * Downloads the output and error files of a finished batch and completes its requests
+     */
+    private void collect(SubmittedBatch batch, OpenAiDtos.Batch status) throws IOException {
+        Set<String> remaining = new HashSet<>(batch.requestIds());
+        for (String fileId : new String[] {status.outputFileId(), status.errorFileId()}) {
+            if (fileId != null) {
+                readResults(batch, fileId, remaining);
+            }
+        }
+        for (String requestId : remaining) {
+            complete(requestId, LlmResponse.error(requestId, "Batch " + batch.id() + " ended as " + status.status()));
+        }
+        submitted.remove(batch.id());
+        log.info("Batch {} ended as {}", batch.id(), status.status());
+    }
+    
+    private void readResults(SubmittedBatch batch, String fileId, Set<String> remaining) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(fileId + ".jsonl");
+        try {
+            // Streamed to disk, so the size of the output is not bounded by the in-memory codec limit
+            DataBufferUtils.write(webClient.get()
+                            .uri(apiUrl + "/files/" + fileId + "/content")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + batch.key().secret())
+                            .retrieve()
+                            .bodyToFlux(DataBuffer.class), file)
+                    .block(callTimeout);
+            
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        readResult(codec.readBatchLine(line), remaining);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private void readResult(OpenAiDtos.BatchOutputLine line, Set<String> remaining) {
+        String requestId = line.customId();
+        if (requestId == null || !remaining.remove(requestId)) {
+            return;
+        }
+        LlmResponse response;
+        if (line.response() != null && line.response().statusCode() == 200 && line.response().body() != null) {
+            try {
+                response = line.response().body().toDomainResponse(requestId);
+            } catch (LlmProviderPort.LlmProviderException e) {
+                response = LlmResponse.error(requestId, e.getMessage());
+            }
+        } else if (line.error() != null) {
+            response = LlmResponse.error(requestId, "OpenAI API returned error: " + line.error().message());
+        } else {
+            response = LlmResponse.error(requestId, "OpenAI API returned status "
+                    + (line.response() != null ? line.response().statusCode() : "unknown"));
+        }
+        complete(requestId, response);
+    }
+    
+    private void complete(String requestId, LlmResponse response) {
+        results.put(requestId, new Result(response, System.nanoTime() + properties.getResultRetention().toNanos()));
+        pending.remove(requestId);
+        CompletableFuture<LlmResponse> completion = completions.remove(requestId);
+        if (completion != null) {
+            completion.complete(response);
+        }
+    }
+    
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.error("Failed to poll batches: {}", e.getMessage());
+        }
+    }
+    
+    private record OpenFile(Path path, OutputStream out, String model, List<String> requestIds) {
+    }
+    
+    private record SubmittedBatch(String id, ApiKeyPool.ApiKey key, Set<String> requestIds) {
+    }
+    
+    private record Result(LlmResponse response, long expiresAt) {
+    }
+}
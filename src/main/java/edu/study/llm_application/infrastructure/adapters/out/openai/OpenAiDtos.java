@@ -1,89 +1,177 @@
 package edu.study.llm_application.infrastructure.adapters.out.openai;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.domain.ports.out.ModerationPort;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * DTOs for OpenAI API integration
+ * Chat completion bodies are written and stream chunks read by {@link OpenAiJsonCodec}; responses
+ * are compact records holding only the fields the adapters use
  */
 public class OpenAiDtos {
     
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ChatCompletion(String model, List<Choice> choices, Usage usage, Error error) {
+        
+        /**
+         * Converts the completion into the domain response to a request
+         */
+        public LlmResponse toDomainResponse(String requestId) throws LlmProviderPort.LlmProviderException {
+            if (error != null) {
+                throw new LlmProviderPort.LlmProviderException("OpenAI API returned error: " + error.message());
+            }
+            
+            if (choices == null || choices.isEmpty() || choices.get(0).message() == null) {
+                throw new LlmProviderPort.LlmProviderException("OpenAI API returned no choices");
+            }
+            
+            Message message = choices.get(0).message();
+            return LlmResponse.builder()
+                    .requestId(requestId)
+                    .content(message.content())
+                    .model(model)
+                    .tokensUsed(usage != null ? usage.totalTokens() : null)
+                    .promptTokens(usage != null ? usage.promptTokens() : null)
+                    .cachedTokens(usage != null && usage.promptTokensDetails() != null 
+                            ? usage.promptTokensDetails().cachedTokens() : null)
+                    .status("SUCCESS")
+                    .finishReason(choices.get(0).finishReason())
+                    .toolCalls(message.toolCalls() != null 
+                            ? message.toolCalls().stream().map(MessageToolCall::toDomain).toList() : null)
+                    .build();
+        }
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Message message, @JsonProperty("finish_reason") String finishReason) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Message(String role, String content, @JsonProperty("tool_calls") List<MessageToolCall> toolCalls) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record MessageToolCall(String id, String type, FunctionCall function) {
+        
+        ToolCall toDomain() {
+            return new ToolCall(id, function != null ? function.name() : null, function != null ? function.arguments() : null);
+        }
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record FunctionCall(String name, String arguments) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Usage(@JsonProperty("prompt_tokens") Integer promptTokens,
+                        @JsonProperty("completion_tokens") Integer completionTokens,
+                        @JsonProperty("total_tokens") Integer totalTokens,
+                        @JsonProperty("prompt_tokens_details") PromptTokensDetails promptTokensDetails) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record PromptTokensDetails(@JsonProperty("cached_tokens") Integer cachedTokens) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Error(String message, String type, String param, String code) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record FileObject(String id) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Batch(String id, String status,
+                        @JsonProperty("output_file_id") String outputFileId,
+                        @JsonProperty("error_file_id") String errorFileId) {
+    }
+    
+    /**
+     * One line of a batch output or error file
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record BatchOutputLine(@JsonProperty("custom_id") String customId, BatchResponse response, Error error) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record BatchResponse(@JsonProperty("status_code") int statusCode, ChatCompletion body) {
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Moderation(List<ModerationResult> results) {
+        
+        /**
+         * Combines the results of all inputs into one verdict, flagged when any input was
+         */
+        public ModerationVerdict toVerdict() throws ModerationPort.ModerationException {
+            if (results == null || results.isEmpty()) {
+                throw new ModerationPort.ModerationException("Moderation returned no results");
+            }
+            Set<String> categories = new TreeSet<>();
+            boolean flagged = false;
+            for (ModerationResult result : results) {
+                flagged |= result.flagged();
+                if (result.categories() != null) {
+                    result.categories().forEach((category, hit) -> {
+                        if (Boolean.TRUE.equals(hit)) {
+                            categories.add(category);
+                        }
+                    });
+                }
+            }
+            return new ModerationVerdict(flagged, List.copyOf(categories));
+        }
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ModerationResult(boolean flagged, Map<String, Boolean> categories) {
+    }
+    
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class ChatCompletionRequest {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class EmbeddingRequest {
         private String model;
-        private List<Message> messages;
-        private Integer max_tokens;
-        private Double temperature;
+        private List<String> input;
+        private String encoding_format;
         private String user;
-        
-        @Data
-        @Builder
-        @NoArgsConstructor
-        @AllArgsConstructor
-        public static class Message {
-            private String role;
-            private String content;
-        }
     }
     
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class ChatCompletionResponse {
-        private String id;
+    public static class EmbeddingResponse {
         private String object;
-        private Long created;
         private String model;
-        private List<Choice> choices;
+        private List<Item> data;
         private Usage usage;
-        private Error error;
         
         @Data
         @Builder
         @NoArgsConstructor
         @AllArgsConstructor
-        public static class Choice {
+        public static class Item {
             private Integer index;
-            private Message message;
-            private String finish_reason;
-            
-            @Data
-            @Builder
-            @NoArgsConstructor
-            @AllArgsConstructor
-            public static class Message {
-                private String role;
-                private String content;
-            }
-        }
-        
-        @Data
-        @Builder
-        @NoArgsConstructor
-        @AllArgsConstructor
-        public static class Usage {
-            private Integer prompt_tokens;
-            private Integer completion_tokens;
-            private Integer total_tokens;
-        }
-        
-        @Data
-        @Builder
-        @NoArgsConstructor
-        @AllArgsConstructor
-        public static class Error {
-            private String message;
-            private String type;
-            private String param;
-            private String code;
+            private float[] embedding;
         }
     }
 }
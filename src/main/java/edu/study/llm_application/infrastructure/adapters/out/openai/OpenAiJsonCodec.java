@@ -0,0 +1,249 @@
+package edu.study.llm_application.infrastructure.adapters.out.openai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.study.llm_application.domain.entities.ChatMessage;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * JSON encoding of the chat completion calls without a reflective object graph per call
+ * Request bodies are streamed field by field straight from the domain request into a buffer of the
+ * connection's allocator, responses are bound by a reader built once, and stream chunks are scanned
+ * for the only fields the adapter uses
+ */
+@Component
+public class OpenAiJsonCodec {
+    
+    /**
+     * Endpoint the lines of a batch input file are sent to
+     */
+    public static final String BATCH_ENDPOINT = "/v1/chat/completions";
+    
+    // Room for the field names and parameters around the message texts
+    private static final int BODY_OVERHEAD = 256;
+    
+    private final JsonFactory jsonFactory;
+    private final ObjectReader completionReader;
+    private final ObjectReader batchLineReader;
+    
+    public OpenAiJsonCodec(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.completionReader = objectMapper.readerFor(OpenAiDtos.ChatCompletion.class);
+        this.batchLineReader = objectMapper.readerFor(OpenAiDtos.BatchOutputLine.class);
+    }
+    
+    /**
+     * Writes the chat completion body of a request into a new buffer
+     * The buffer is released if writing fails; otherwise the caller owns it
+     * 
+     * @param stream whether to ask for a server-sent event stream
+     */
+    public DataBuffer writeChatRequest(LlmRequest request, boolean stream, DataBufferFactory bufferFactory) 
+            throws IOException {
+        List<ChatMessage> messages = request.toMessages();
+        int size = BODY_OVERHEAD;
+        for (ChatMessage message : messages) {
+            size += (message.content() != null ? message.content().length() : 0) + 32;
+            if (message.toolCalls() != null) {
+                for (ToolCall call : message.toolCalls()) {
+                    size += (call.arguments() != null ? call.arguments().length() : 0) + 96;
+                }
+            }
+        }
+        
+        DataBuffer buffer = bufferFactory.allocateBuffer(size);
+        try (OutputStream out = buffer.asOutputStream();
+             JsonGenerator json = jsonFactory.createGenerator(out)) {
+            writeBody(json, request, messages, stream);
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+        return buffer;
+    }
+    
+    /**
+     * Appends a request as one line of a batch input file, its id being the line's custom id
+     * The stream is left open for the following lines
+     */
+    public void writeBatchLine(LlmRequest request, OutputStream out) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("custom_id", request.id());
+            json.writeStringField("method", "POST");
+            json.writeStringField("url", BATCH_ENDPOINT);
+            json.writeFieldName("body");
+            writeBody(json, request, request.toMessages(), false);
+            json.writeEndObject();
+        }
+        out.write('\n');
+    }
+    
+    /**
+     * Reads one line of a batch output or error file
+     */
+    public OpenAiDtos.BatchOutputLine readBatchLine(String line) throws IOException {
+        return batchLineReader.readValue(line);
+    }
+    
+    /**
+     * Reads a chat completion response, releasing the buffer
+     */
+    public OpenAiDtos.ChatCompletion readCompletion(DataBuffer buffer) throws IOException {
+        try (InputStream in = buffer.asInputStream(true)) {
+            return completionReader.readValue(in);
+        }
+    }
+    
+    /**
+     * Extracts the text of the first choice from a stream chunk
+     * The rest of the chunk is skipped without being bound to objects
+     * 
+     * @return the text delta, or null when the chunk carries none
+     */
+    public String readChunkContent(String data) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            if (!seekField(parser, "choices", JsonToken.START_ARRAY) || parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            if (!seekField(parser, "delta", JsonToken.START_OBJECT) || !seekField(parser, "content", JsonToken.VALUE_STRING)) {
+                return null;
+            }
+            return parser.getText();
+        }
+    }
+    
+    /**
+     * Extracts the total tokens from the usage chunk ending a stream
+     * 
+     * @return the total tokens, or null when the chunk carries no usage
+     */
+    public Integer readChunkUsage(String data) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            if (!seekField(parser, "usage", JsonToken.START_OBJECT)
+                    || !seekField(parser, "total_tokens", JsonToken.VALUE_NUMBER_INT)) {
+                return null;
+            }
+            return parser.getIntValue();
+        }
+    }
+    
+    private static void writeBody(JsonGenerator json, LlmRequest request, List<ChatMessage> messages, boolean stream)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("model", request.model());
+        json.writeArrayFieldStart("messages");
+        for (ChatMessage message : messages) {
+            writeMessage(json, message);
+        }
+        json.writeEndArray();
+        if (request.hasTools()) {
+            json.writeArrayFieldStart("tools");
+            for (ToolDefinition tool : request.tools()) {
+                json.writeStartObject();
+                json.writeStringField("type", "function");
+                json.writeObjectFieldStart("function");
+                json.writeStringField("name", tool.name());
+                if (tool.description() != null) {
+                    json.writeStringField("description", tool.description());
+                }
+                if (tool.parameters() != null) {
+                    json.writeObjectField("parameters", tool.parameters());
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        if (request.maxTokens() != null) {
+            json.writeNumberField("max_tokens", request.maxTokens());
+        }
+        if (request.temperature() != null) {
+            json.writeNumberField("temperature", request.temperature());
+        }
+        if (request.userId() != null) {
+            json.writeStringField("user", request.userId());
+        }
+        if (request.responseSchema() != null) {
+            json.writeObjectFieldStart("response_format");
+            json.writeStringField("type", "json_schema");
+            json.writeObjectFieldStart("json_schema");
+            json.writeStringField("name", "response");
+            json.writeObjectField("schema", request.responseSchema());
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        if (stream) {
+            json.writeBooleanField("stream", true);
+            // Usage then arrives in a last chunk of its own
+            json.writeObjectFieldStart("stream_options");
+            json.writeBooleanField("include_usage", true);
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+    
+    private static void writeMessage(JsonGenerator json, ChatMessage message) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("role", message.role());
+        json.writeStringField("content", message.content());
+        if (message.toolCalls() != null) {
+            json.writeArrayFieldStart("tool_calls");
+            for (ToolCall call : message.toolCalls()) {
+                json.writeStartObject();
+                json.writeStringField("id", call.id());
+                json.writeStringField("type", "function");
+                json.writeObjectFieldStart("function");
+                json.writeStringField("name", call.name());
+                json.writeStringField("arguments", call.arguments());
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        if (message.toolCallId() != null) {
+            json.writeStringField("tool_call_id", message.toolCallId());
+        }
+        json.writeEndObject();
+    }
+    
+    /**
+     * Advances to the value of a field of the current object, skipping the values of other fields
+     * 
+     * @return true if the field was found with a value of the expected type
+     */
+    private static boolean seekField(JsonParser parser, String name, JsonToken expected) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(field)) {
+                return value == expected;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
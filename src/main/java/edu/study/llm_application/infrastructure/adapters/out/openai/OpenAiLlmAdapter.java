@@ -1,21 +1,48 @@
 package edu.study.llm_application.infrastructure.adapters.out.openai;
 
+import edu.study.llm_application.domain.entities.ChatMessage;
+import edu.study.llm_application.domain.entities.Deadline;
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.entities.StreamChunk;
+import edu.study.llm_application.domain.entities.ToolCall;
 import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.bulkhead.PartitionedWebClients;
+import edu.study.llm_application.infrastructure.ratelimit.ApiKeyPool;
+import edu.study.llm_application.infrastructure.ratelimit.ProviderRetryPolicy;
+import edu.study.llm_application.infrastructure.ratelimit.RateLimitPacer;
+import edu.study.llm_application.infrastructure.timeout.AdaptiveTimeoutPolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserter;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.util.retry.Retry;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 /**
  * OpenAI adapter implementing the LLM provider port
@@ -27,10 +54,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OpenAiLlmAdapter implements LlmProviderPort {
     
-    private final WebClient webClient;
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE = 
+            new ParameterizedTypeReference<>() {};
     
-    @Value("${openai.api.key:demo-key}")
-    private String apiKey;
+    private final PartitionedWebClients webClients;
+    private final AdaptiveTimeoutPolicy timeoutPolicy;
+    private final OpenAiJsonCodec codec;
+    private final RateLimitPacer pacer;
+    private final ProviderRetryPolicy retryPolicy;
+    private final ApiKeyPool keyPool;
     
     @Value("${openai.api.url:https://api.openai.com/v1}")
     private String apiUrl;
@@ -40,36 +72,152 @@ public class OpenAiLlmAdapter implements LlmProviderPort {
     
     @Override
     public LlmResponse generateResponse(LlmRequest request) throws LlmProviderException {
-        log.debug("Sending request to OpenAI API for model: {}", request.getModel());
+        log.debug("Sending request to OpenAI API for model: {}", request.model());
         
         try {
-            // Build OpenAI request
-            OpenAiDtos.ChatCompletionRequest openAiRequest = buildOpenAiRequest(request);
-            
-            // Call OpenAI API
-            OpenAiDtos.ChatCompletionResponse response = webClient
-                    .post()
-                    .uri(apiUrl + "/chat/completions")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .bodyValue(openAiRequest)
-                    .retrieve()
-                    .bodyToMono(OpenAiDtos.ChatCompletionResponse.class)
-                    .timeout(Duration.ofSeconds(timeoutSeconds))
+            // Call OpenAI API through the connection pool slice of the request's bulkhead
+            WebClient webClient = webClients.forPartition(request.model(), request.priority());
+            retryPolicy.recordRequest();
+            OpenAiDtos.ChatCompletion response = Mono.defer(() -> {
+                        // Every attempt picks a key again, so a retry moves away from a rate limited one
+                        ApiKeyPool.ApiKey key = keyPool.acquire(request.model());
+                        return pace(request, key)
+                                .then(Mono.defer(() -> {
+                                    long startTime = System.nanoTime();
+                                    return webClient
+                                            .post()
+                                            .uri(apiUrl + "/chat/completions")
+                                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + key.secret())
+                                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                            .body(chatBody(request, false))
+                                            .retrieve()
+                                            .toEntity(DataBuffer.class)
+                                            .<ResponseEntity<OpenAiDtos.ChatCompletion>>handle(this::readCompletion)
+                                            .timeout(timeoutFor(request))
+                                            .doOnNext(entity -> recordSuccess(request, key, entity, startTime));
+                                }))
+                                .doOnError(WebClientResponseException.class, e -> keyPool.recordFailure(key, request.model(), e))
+                                .doFinally(signal -> key.release());
+                    })
+                    .retryWhen(retrySpec(request, () -> true))
+                    .mapNotNull(ResponseEntity::getBody)
                     .block();
             
             // Convert to domain response
-            return convertToDomainResponse(response, request.getId());
+            return response.toDomainResponse(request.id());
             
         } catch (WebClientResponseException e) {
             log.error("OpenAI API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new LlmProviderException("OpenAI API error: " + e.getMessage(), e);
         } catch (Exception e) {
+            if (Exceptions.unwrap(e) instanceof LlmProviderException providerException) {
+                throw providerException;
+            }
+            // Interrupting block() disposes the subscription, which aborts the HTTP exchange
+            if (Exceptions.unwrap(e) instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new LlmProviderException("OpenAI API call cancelled", e);
+            }
             log.error("Error calling OpenAI API: {}", e.getMessage(), e);
             throw new LlmProviderException("Failed to call OpenAI API: " + e.getMessage(), e);
         }
     }
     
+    @Override
+    public Flux<String> streamResponse(LlmRequest request) {
+        return streamChunks(request).mapNotNull(StreamChunk::text);
+    }
+    
+    @Override
+    public Flux<StreamChunk> streamChunks(LlmRequest request) {
+        log.debug("Streaming request to OpenAI API for model: {}", request.model());
+        
+        Duration fallback = timeoutFor(request);
+        Duration firstTokenTimeout = timeoutPolicy.firstTokenTimeoutFor(request.model(), fallback);
+        Duration idleTimeout = timeoutPolicy.idleTimeoutFor(request.model(), fallback);
+        
+        retryPolicy.recordRequest();
+        return Flux.defer(() -> {
+            // Once text reached the client, a retry would repeat it, so only failures before the first token are retried
+            AtomicBoolean emitted = new AtomicBoolean();
+            return Flux.defer(() -> {
+                        ApiKeyPool.ApiKey key = keyPool.acquire(request.model());
+                        return pace(request, key)
+                                .thenMany(Flux.defer(() -> 
+                                        streamAttempt(request, key, firstTokenTimeout, idleTimeout)))
+                                .doFinally(signal -> key.release());
+                    })
+                    .doOnNext(chunk -> emitted.set(true))
+                    .retryWhen(retrySpec(request, () -> !emitted.get()));
+        }).onErrorMap(e -> !(e instanceof LlmProviderException), this::streamError);
+    }
+    
+    @Override
+    public List<float[]> generateEmbeddings(String model, List<String> texts) throws LlmProviderException {
+        log.debug("Requesting {} embeddings from OpenAI API for model: {}", texts.size(), model);
+        
+        OpenAiDtos.EmbeddingRequest embeddingRequest = OpenAiDtos.EmbeddingRequest.builder()
+                .model(model)
+                .input(texts)
+                .encoding_format("float")
+                .build();
+        long estimatedTokens = texts.stream().mapToLong(text -> text.length() / 4 + 1).sum();
+        
+        try {
+            WebClient webClient = webClients.forPartition(model, Priority.INTERACTIVE);
+            retryPolicy.recordRequest();
+            OpenAiDtos.EmbeddingResponse response = Mono.defer(() -> {
+                        ApiKeyPool.ApiKey key = keyPool.acquire(model);
+                        return pace(model, estimatedTokens, null, key)
+                                .then(webClient
+                                        .post()
+                                        .uri(apiUrl + "/embeddings")
+                                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + key.secret())
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .bodyValue(embeddingRequest)
+                                        .retrieve()
+                                        .toEntity(OpenAiDtos.EmbeddingResponse.class)
+                                        .timeout(Duration.ofSeconds(timeoutSeconds)))
+                                .doOnNext(entity -> keyPool.recordResponse(key, model, entity.getHeaders()))
+                                .doOnError(WebClientResponseException.class, e -> keyPool.recordFailure(key, model, e))
+                                .doFinally(signal -> key.release());
+                    })
+                    .retryWhen(retrySpec(model, null, () -> true))
+                    .mapNotNull(ResponseEntity::getBody)
+                    .block();
+            
+            if (response == null || response.getData() == null || response.getData().size() != texts.size()) {
+                throw new LlmProviderException("OpenAI API returned an incomplete embedding response");
+            }
+            float[][] vectors = new float[texts.size()][];
+            for (OpenAiDtos.EmbeddingResponse.Item item : response.getData()) {
+                vectors[item.getIndex()] = item.getEmbedding();
+            }
+            return List.of(vectors);
+            
+        } catch (WebClientResponseException e) {
+            log.error("OpenAI API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw new LlmProviderException("OpenAI API error: " + e.getMessage(), e);
+        } catch (LlmProviderException e) {
+            throw e;
+        } catch (Exception e) {
+            if (Exceptions.unwrap(e) instanceof LlmProviderException providerException) {
+                throw providerException;
+            }
+            log.error("Error calling OpenAI embeddings API: {}", e.getMessage(), e);
+            throw new LlmProviderException("Failed to call OpenAI embeddings API: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public String[] getSupportedEmbeddingModels() {
+        return new String[]{
+            "text-embedding-3-small",
+            "text-embedding-3-large",
+            "text-embedding-ada-002"
+        };
+    }
+    
     @Override
     public boolean isHealthy() {
         try {
@@ -98,41 +246,177 @@ public class OpenAiLlmAdapter implements LlmProviderPort {
         return "OpenAI";
     }
     
-    private OpenAiDtos.ChatCompletionRequest buildOpenAiRequest(LlmRequest request) {
-        return OpenAiDtos.ChatCompletionRequest.builder()
-                .model(request.getModel())
-                .messages(List.of(
-                    OpenAiDtos.ChatCompletionRequest.Message.builder()
-                            .role("user")
-                            .content(request.getPrompt())
-                            .build()
-                ))
-                .max_tokens(request.getMaxTokens())
-                .temperature(request.getTemperature())
-                .user(request.getUserId())
-                .build();
+    /**
+     * Upstream timeout adapted to the model's throughput and the requested tokens,
+     * shortened to what is left of the request deadline
+     */
+    private Duration timeoutFor(LlmRequest request) {
+        Duration timeout = timeoutPolicy.timeoutFor(
+                request.model(), request.maxTokens(), Duration.ofSeconds(timeoutSeconds));
+        return request.deadline() != null ? request.deadline().cap(timeout) : timeout;
     }
     
-    private LlmResponse convertToDomainResponse(OpenAiDtos.ChatCompletionResponse response, String requestId) 
-            throws LlmProviderException {
+    /**
+     * One streaming exchange with OpenAI, timed token by token
+     */
+    private Flux<StreamChunk> streamAttempt(LlmRequest request, ApiKeyPool.ApiKey key, 
+                                       Duration firstTokenTimeout, Duration idleTimeout) {
+        AtomicLong lastTokenAt = new AtomicLong(System.nanoTime());
+        AtomicLong tokens = new AtomicLong();
         
-        if (response.getError() != null) {
-            throw new LlmProviderException("OpenAI API returned error: " + response.getError().getMessage());
+        return webClients.forPartition(request.model(), request.priority())
+                .post()
+                .uri(apiUrl + "/chat/completions")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + key.secret())
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .body(chatBody(request, true))
+                .retrieve()
+                .toEntityFlux(SSE_TYPE)
+                .doOnError(WebClientResponseException.class, e -> keyPool.recordFailure(key, request.model(), e))
+                .flatMapMany(entity -> {
+                    keyPool.recordResponse(key, request.model(), entity.getHeaders());
+                    return entity.getBody();
+                })
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> !"[DONE]".equals(data))
+                // A hung stream is detected by the gap between tokens instead of the whole call
+                .timeout(Mono.delay(firstTokenTimeout), chunk -> Mono.delay(idleTimeout))
+                .doOnNext(chunk -> {
+                    long now = System.nanoTime();
+                    Duration elapsed = Duration.ofNanos(now - lastTokenAt.getAndSet(now));
+                    if (tokens.getAndIncrement() == 0) {
+                        timeoutPolicy.recordFirstToken(request.model(), elapsed);
+                    } else {
+                        timeoutPolicy.recordTokenGap(request.model(), elapsed);
+                    }
+                })
+                .<StreamChunk>handle((data, sink) -> {
+                    try {
+                        String content = codec.readChunkContent(data);
+                        if (content != null && !content.isEmpty()) {
+                            sink.next(StreamChunk.text(content));
+                            return;
+                        }
+                        // Only chunks without text are scanned again, the usage coming in the last one
+                        Integer tokensUsed = content == null ? codec.readChunkUsage(data) : null;
+                        if (tokensUsed != null) {
+                            sink.next(StreamChunk.usage(tokensUsed));
+                        }
+                    } catch (IOException e) {
+                        sink.error(new LlmProviderException("Malformed OpenAI stream chunk: " + e.getMessage(), e));
+                    }
+                });
+    }
+    
+    /**
+     * Waits as long as the rate limit pacer asks, failing fast if the quota would not recover before the deadline
+     */
+    private Mono<Long> pace(LlmRequest request, ApiKeyPool.ApiKey key) {
+        return pace(request.model(), estimatedTokens(request), request.deadline(), key);
+    }
+    
+    private Mono<Long> pace(String model, long estimatedTokens, Deadline deadline, ApiKeyPool.ApiKey key) {
+        Duration delay = pacer.reserve(key.scope(model), estimatedTokens);
+        if (delay.isZero()) {
+            return Mono.just(0L);
         }
-        
-        if (response.getChoices() == null || response.getChoices().isEmpty()) {
-            throw new LlmProviderException("OpenAI API returned no choices");
+        if (deadline != null && delay.compareTo(deadline.remaining()) >= 0) {
+            return Mono.error(new LlmProviderException(
+                    "OpenAI rate limit would not recover before the request deadline"));
         }
-        
-        String content = response.getChoices().get(0).getMessage().getContent();
-        Integer tokensUsed = response.getUsage() != null ? response.getUsage().getTotal_tokens() : null;
-        
-        return LlmResponse.success(
-                requestId,
-                content,
-                response.getModel(),
-                tokensUsed,
-                null // Will be set by use case
-        );
+        log.debug("Pacing OpenAI request for model {} by {} ms", model, delay.toMillis());
+        return Mono.delay(delay);
+    }
+    
+    /**
+     * Rough token cost of a request for quota accounting: about four characters per prompt token,
+     * or the estimate made when the prompt was rendered from a template
+     */
+    private long estimatedTokens(LlmRequest request) {
+        long promptTokens = request.estimatedPromptTokens() != null ? request.estimatedPromptTokens()
+                : request.prompt() != null ? request.prompt().length() / 4 + 1 : 0;
+        // Ahead of the prompt are system prompt, conversation and passages; after it the turns of a tool loop
+        List<ChatMessage> messages = request.toMessages();
+        int promptIndex = messages.size() - 1 - (request.toolMessages() != null ? request.toolMessages().size() : 0);
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage message = messages.get(i);
+            if (i != promptIndex && message.content() != null) {
+                promptTokens += message.content().length() / 4 + 1;
+            }
+            if (message.toolCalls() != null) {
+                for (ToolCall call : message.toolCalls()) {
+                    promptTokens += (call.arguments() != null ? call.arguments().length() : 0) / 4 + 8;
+                }
+            }
+        }
+        return promptTokens + (request.maxTokens() != null ? request.maxTokens() : 0);
+    }
+    
+    /**
+     * Retries of a call, failing over right away when another API key can take a rate limited or rejected request
+     */
+    private Retry retrySpec(LlmRequest request, BooleanSupplier retryable) {
+        return retrySpec(request.model(), request.deadline(), retryable);
+    }
+    
+    private Retry retrySpec(String model, Deadline deadline, BooleanSupplier retryable) {
+        return retryPolicy.retrySpec(model, deadline, retryable,
+                failure -> ApiKeyPool.isKeyFailure(failure) && keyPool.hasAvailableKey());
+    }
+    
+    private void recordSuccess(LlmRequest request, ApiKeyPool.ApiKey key, 
+                               ResponseEntity<OpenAiDtos.ChatCompletion> entity, long startTime) {
+        keyPool.recordResponse(key, request.model(), entity.getHeaders());
+        OpenAiDtos.ChatCompletion response = entity.getBody();
+        if (response != null && response.usage() != null && response.usage().completionTokens() != null) {
+            timeoutPolicy.recordCompletion(request.model(), 
+                    Duration.ofNanos(System.nanoTime() - startTime), response.usage().completionTokens());
+        }
+    }
+    
+    /**
+     * Chat completion body written by the codec into a buffer of the connection's pooled allocator
+     */
+    private BodyInserter<Object, ReactiveHttpOutputMessage> chatBody(LlmRequest request, boolean stream) {
+        return (message, context) -> {
+            DataBuffer body;
+            try {
+                body = codec.writeChatRequest(request, stream, message.bufferFactory());
+            } catch (IOException e) {
+                return Mono.error(new LlmProviderException("Failed to write OpenAI request: " + e.getMessage(), e));
+            }
+            message.getHeaders().setContentLength(body.readableByteCount());
+            return message.writeWith(Mono.just(body).doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+        };
+    }
+    
+    /**
+     * Binds the raw body of a chat completion with the codec's prebuilt reader
+     */
+    private void readCompletion(ResponseEntity<DataBuffer> entity, 
+                                SynchronousSink<ResponseEntity<OpenAiDtos.ChatCompletion>> sink) {
+        if (entity.getBody() == null) {
+            sink.error(new LlmProviderException("OpenAI API returned an empty response"));
+            return;
+        }
+        try {
+            sink.next(new ResponseEntity<>(codec.readCompletion(entity.getBody()), entity.getHeaders(), entity.getStatusCode()));
+        } catch (IOException e) {
+            sink.error(new LlmProviderException("Malformed OpenAI response: " + e.getMessage(), e));
+        }
+    }
+    
+    private LlmProviderException streamError(Throwable error) {
+        if (error instanceof TimeoutException) {
+            log.warn("OpenAI stream stalled: {}", error.getMessage());
+            return new LlmProviderException("OpenAI stream stalled waiting for the next token", error);
+        }
+        if (error instanceof WebClientResponseException e) {
+            log.error("OpenAI API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            return new LlmProviderException("OpenAI API error: " + e.getMessage(), e);
+        }
+        log.error("Error streaming from OpenAI API: {}", error.getMessage(), error);
+        return new LlmProviderException("Failed to stream from OpenAI API: " + error.getMessage(), error);
     }
 }
@@ -0,0 +1,68 @@
+package edu.study.llm_application.infrastructure.adapters.out.openai;
+
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+import edu.study.llm_application.domain.ports.out.ModerationPort;
+import edu.study.llm_application.infrastructure.config.ModerationProperties;
+import edu.study.llm_application.infrastructure.ratelimit.ApiKeyPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Moderation adapter checking content through the OpenAI moderations endpoint
+ * The call is non-blocking, so checks run alongside the provider calls they gate without taking a thread
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "openai.mock.enabled", havingValue = "false")
+public class OpenAiModerationAdapter implements ModerationPort {
+    
+    private final ModerationProperties properties;
+    private final ApiKeyPool keyPool;
+    private final WebClient webClient;
+    private final String apiUrl;
+    private final Duration callTimeout;
+    
+    public OpenAiModerationAdapter(ModerationProperties properties, ApiKeyPool keyPool, WebClient webClient,
+                                   @Value("${openai.api.url:https://api.openai.com/v1}") String apiUrl,
+                                   @Value("${openai.timeout.seconds:30}") int timeoutSeconds) {
+        this.properties = properties;
+        this.keyPool = keyPool;
+        this.webClient = webClient;
+        this.apiUrl = apiUrl;
+        this.callTimeout = Duration.ofSeconds(timeoutSeconds);
+    }
+    
+    @Override
+    public CompletableFuture<ModerationVerdict> moderate(List<String> inputs) {
+        return Mono.usingWhen(
+                        Mono.fromCallable(() -> keyPool.acquire(properties.getModel())),
+                        key -> webClient.post()
+                                .uri(apiUrl + "/moderations")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + key.secret())
+                                .bodyValue(Map.of("model", properties.getModel(), "input", inputs))
+                                .retrieve()
+                                .bodyToMono(OpenAiDtos.Moderation.class),
+                        key -> Mono.fromRunnable(key::release))
+                .timeout(callTimeout)
+                .<ModerationVerdict>handle((moderation, sink) -> {
+                    try {
+                        sink.next(moderation.toVerdict());
+                    } catch (ModerationException e) {
+                        sink.error(e);
+                    }
+                })
+                .onErrorMap(e -> !(e instanceof ModerationException),
+                        e -> new ModerationException("Moderation call failed: " + e.getMessage(), e))
+                .toFuture();
+    }
+}
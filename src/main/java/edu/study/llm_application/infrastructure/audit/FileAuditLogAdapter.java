@@ -0,0 +1,318 @@
+package edu.study.llm_application.infrastructure.audit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.study.llm_application.domain.entities.AuditRecord;
+import edu.study.llm_application.domain.ports.out.AuditLogPort;
+import edu.study.llm_application.infrastructure.config.AuditProperties;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Audit log of requests and their answers, written to rotating append-only JSONL files
+ * A request only places its record on a lock-free ring buffer; one background thread takes the records
+ * in groups, writes each group with a single flush and forces the file to disk as the fsync policy asks,
+ * so the cost of the disk is paid once per group instead of once per request. When the ring is full,
+ * the overflow strategy decides whether the request waits, or its record is dropped or sampled; a
+ * request on a non-blocking thread never waits
+ */
+@Slf4j
+@Component
+public class FileAuditLogAdapter implements AuditLogPort {
+    
+    private static final String PREFIX = "audit-";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+    // How long a blocked request waits before looking at the ring again
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    // How long the writer sleeps when there is nothing to write
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    
+    private final AuditProperties properties;
+    private final ObjectWriter writer;
+    private final AuditRingBuffer<AuditRecord> ring;
+    private final Path directory;
+    private final Thread writerThread;
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private volatile boolean running;
+    
+    private final Counter written;
+    private final Counter droppedFull;
+    private final Counter droppedSampled;
+    private final Counter droppedError;
+    private final Timer commits;
+    private final DistributionSummary batchSizes;
+    
+    // Only touched by the writer thread
+    private FileChannel channel;
+    private OutputStream out;
+    private Path file;
+    private long openedAt;
+    private long lastForce;
+    private boolean unforced;
+    
+    public FileAuditLogAdapter(AuditProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.directory = Paths.get(properties.getPath());
+        this.written = Counter.builder("llm.audit.written")
+                .description("Audit records written to the log")
+                .register(meterRegistry);
+        this.droppedFull = dropped(meterRegistry, "full");
+        this.droppedSampled = dropped(meterRegistry, "sampled");
+        this.droppedError = dropped(meterRegistry, "error");
+        this.commits = Timer.builder("llm.audit.commit")
+                .description("Time to write, flush and force one group of audit records")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("llm.audit.batch.size")
+                .description("Audit records written together")
+                .register(meterRegistry);
+        
+        if (!properties.isEnabled()) {
+            this.ring = null;
+            this.writerThread = null;
+            return;
+        }
+        
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create audit log directory " + directory, e);
+        }
+        this.ring = new AuditRingBuffer<>(properties.getBufferSize());
+        Gauge.builder("llm.audit.queue.depth", ring, AuditRingBuffer::size)
+                .description("Audit records waiting to be written")
+                .register(meterRegistry);
+        
+        this.running = true;
+        this.writerThread = DaemonThreads.named("llm-audit-writer").newThread(this::writeLoop);
+        writerThread.start();
+    }
+    
+    @Override
+    public void record(AuditRecord record) {
+        if (ring == null) {
+            return;
+        }
+        switch (properties.getOverflow()) {
+            case BLOCK -> {
+                while (!ring.offer(record)) {
+                    // An event loop thread is never parked; its record is dropped instead
+                    if (!running || Schedulers.isInNonBlockingThread()) {
+                        droppedFull.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+            case DROP -> {
+                if (!ring.offer(record)) {
+                    droppedFull.increment();
+                }
+            }
+            case SAMPLE -> {
+                if (ring.size() >= ring.capacity() / 2
+                        && sampleCounter.getAndIncrement() % Math.max(1, properties.getSampleEvery()) != 0) {
+                    droppedSampled.increment();
+                } else if (!ring.offer(record)) {
+                    droppedFull.increment();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stops taking records, writes the ones still waiting and closes the current file
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+    
+    private void writeLoop() {
+        List<AuditRecord> batch = new ArrayList<>(properties.getBatchSize());
+        while (true) {
+            // Read before draining, so records offered before shutdown are never left behind
+            boolean stopping = !running;
+            AuditRecord record;
+            while (batch.size() < properties.getBatchSize() && (record = ring.poll()) != null) {
+                batch.add(record);
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            } else if (stopping) {
+                break;
+            } else {
+                forceIfDue();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        closeFile();
+    }
+    
+    /**
+     * Writes a group of records with one flush, then forces it to disk if the fsync policy asks
+     */
+    private void commit(List<AuditRecord> batch) {
+        long start = System.nanoTime();
+        try {
+            if (out == null || dueForRotation()) {
+                closeFile();
+                openFile();
+            }
+            for (AuditRecord record : batch) {
+                writer.writeValue(out, record);
+                out.write('\n');
+            }
+            // A sync flush ends the compressed block, so the group is readable even if the process dies
+            out.flush();
+            unforced = true;
+            if (properties.getFsync() == AuditProperties.Fsync.EVERY_BATCH) {
+                force();
+            } else {
+                forceIfDue();
+            }
+            written.increment(batch.size());
+            batchSizes.record(batch.size());
+            commits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            log.error("Failed to write {} audit records to {}: {}", batch.size(), file, e.getMessage());
+            droppedError.increment(batch.size());
+            // The next group starts a new file rather than appending after a partial record
+            closeFile();
+        }
+    }
+    
+    private boolean dueForRotation() throws IOException {
+        return channel.size() >= properties.getMaxFileBytes()
+                || System.nanoTime() - openedAt >= properties.getRotateInterval().toNanos();
+    }
+    
+    private void forceIfDue() {
+        if (unforced && properties.getFsync() == AuditProperties.Fsync.INTERVAL
+                && System.nanoTime() - lastForce >= properties.getFsyncInterval().toNanos()) {
+            try {
+                force();
+            } catch (IOException e) {
+                log.warn("Failed to force audit log {} to disk: {}", file, e.getMessage());
+            }
+        }
+    }
+    
+    private void force() throws IOException {
+        channel.force(false);
+        lastForce = System.nanoTime();
+        unforced = false;
+    }
+    
+    private void openFile() throws IOException {
+        String extension = properties.isCompress() ? ".jsonl.gz" : ".jsonl";
+        Instant time = Instant.now();
+        Path next = directory.resolve(PREFIX + FILE_TIME.format(time) + extension);
+        // Names sort in the order the files were opened, which is how the oldest are found
+        while (Files.exists(next)) {
+            time = time.plusMillis(1);
+            next = directory.resolve(PREFIX + FILE_TIME.format(time) + extension);
+        }
+        channel = FileChannel.open(next, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+        out = properties.isCompress() ? new GZIPOutputStream(buffered, 64 * 1024, true) : buffered;
+        file = next;
+        openedAt = System.nanoTime();
+        lastForce = openedAt;
+        log.info("Writing audit log to {}", file);
+        deleteOldFiles();
+    }
+    
+    /**
+     * Ends the compressed stream and forces the file to disk before closing it
+     */
+    private void closeFile() {
+        if (out == null) {
+            return;
+        }
+        try {
+            if (out instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+            out.flush();
+            if (properties.getFsync() != AuditProperties.Fsync.NONE) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to finish audit log {}: {}", file, e.getMessage());
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Failed to close audit log {}: {}", file, e.getMessage());
+        }
+        out = null;
+        channel = null;
+        unforced = false;
+    }
+    
+    private void deleteOldFiles() {
+        if (properties.getMaxFiles() <= 0) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*.jsonl*")) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            log.warn("Failed to list audit logs in {}: {}", directory, e.getMessage());
+            return;
+        }
+        files.sort(null);
+        for (int i = 0; i < files.size() - properties.getMaxFiles(); i++) {
+            try {
+                Files.deleteIfExists(files.get(i));
+            } catch (IOException e) {
+                log.warn("Failed to delete audit log {}: {}", files.get(i), e.getMessage());
+            }
+        }
+    }
+    
+    private static Counter dropped(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("llm.audit.dropped")
+                .description("Audit records not written")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
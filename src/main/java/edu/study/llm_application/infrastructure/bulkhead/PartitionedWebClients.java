@@ -0,0 +1,54 @@
+package edu.study.llm_application.infrastructure.bulkhead;
+
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.infrastructure.config.BulkheadProperties;
+import edu.study.llm_application.infrastructure.config.WebClientConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebClients backed by one connection pool slice per bulkhead partition
+ * so a saturated model cannot hold on to the connections of another one
+ */
+@Component
+@RequiredArgsConstructor
+public class PartitionedWebClients {
+    
+    private final BulkheadProperties properties;
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+    
+    /**
+     * Gets the WebClient for the partition of a model and priority class
+     */
+    public WebClient forPartition(String model, Priority priority) {
+        String name = ThreadPoolBulkheadAdapter.partitionName(model, priority);
+        return clients.computeIfAbsent(name, key -> createClient(key, properties.limitsFor(model, priority)));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+    
+    private WebClient createClient(String name, BulkheadProperties.Limits limits) {
+        ConnectionProvider provider = ConnectionProvider.builder("llm-" + name)
+                .maxConnections(Math.max(1, limits.getMaxConcurrent()))
+                .pendingAcquireMaxCount(Math.max(1, limits.getQueueCapacity()))
+                .build();
+        providers.put(name, provider);
+        
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(WebClientConfig.MAX_IN_MEMORY_SIZE))
+                .build();
+    }
+}
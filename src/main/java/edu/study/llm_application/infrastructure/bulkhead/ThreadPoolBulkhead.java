@@ -0,0 +1,103 @@
+package edu.study.llm_application.infrastructure.bulkhead;
+
+import edu.study.llm_application.domain.ports.out.BulkheadPort.BulkheadFullException;
+import edu.study.llm_application.infrastructure.config.BulkheadProperties;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single bulkhead partition with its own workers and bounded queue
+ */
+public class ThreadPoolBulkhead {
+    
+    private final String name;
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+    
+    public ThreadPoolBulkhead(String name, BulkheadProperties.Limits limits) {
+        this.name = name;
+        this.maxConcurrent = Math.max(1, limits.getMaxConcurrent());
+        this.queueCapacity = Math.max(1, limits.getQueueCapacity());
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrent, maxConcurrent,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                DaemonThreads.named("bulkhead-" + name),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Queues a task in this partition; cancelling the returned future interrupts the worker, or takes
+     * the task out of the queue when it has not started
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) throws BulkheadFullException {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> work = new FutureTask<>(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            return null;
+        });
+        
+        try {
+            executor.execute(work);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new BulkheadFullException("Bulkhead '" + name + "' is full ("
+                    + maxConcurrent + " running, " + queueCapacity + " queued)");
+        }
+        
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                work.cancel(true);
+                // A task still queued gives its place back at once rather than when a worker reaches it
+                executor.remove(work);
+            }
+        });
+        return result;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+    
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+    
+    /**
+     * Share of the partition workers currently busy, between 0 and 1
+     */
+    public double getUtilization() {
+        return (double) executor.getActiveCount() / maxConcurrent;
+    }
+    
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
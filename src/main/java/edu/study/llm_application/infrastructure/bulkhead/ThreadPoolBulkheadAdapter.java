@@ -0,0 +1,85 @@
+package edu.study.llm_application.infrastructure.bulkhead;
+
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.ports.out.BulkheadPort;
+import edu.study.llm_application.infrastructure.config.BulkheadProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bulkhead adapter giving every model and priority class its own thread pool
+ * Partitions are created lazily and publish their utilization as actuator metrics
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ThreadPoolBulkheadAdapter implements BulkheadPort {
+    
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ThreadPoolBulkhead> bulkheads = new ConcurrentHashMap<>();
+    
+    @Override
+    public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) 
+            throws BulkheadFullException {
+        return bulkheadFor(model, priority).submit(task);
+    }
+    
+    /**
+     * Gets or creates the partition for a model and priority class
+     */
+    public ThreadPoolBulkhead bulkheadFor(String model, Priority priority) {
+        return bulkheads.computeIfAbsent(partitionName(model, priority), 
+                name -> createBulkhead(name, model, priority));
+    }
+    
+    /**
+     * Name of the partition serving a model and priority class
+     */
+    public static String partitionName(String model, Priority priority) {
+        return model + ":" + priority.name().toLowerCase();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(ThreadPoolBulkhead::shutdown);
+    }
+    
+    private ThreadPoolBulkhead createBulkhead(String name, String model, Priority priority) {
+        BulkheadProperties.Limits limits = properties.limitsFor(model, priority);
+        ThreadPoolBulkhead bulkhead = new ThreadPoolBulkhead(name, limits);
+        log.info("Created bulkhead {} with {} workers and queue of {}", 
+                name, limits.getMaxConcurrent(), limits.getQueueCapacity());
+        
+        Tags tags = Tags.of("model", model, "priority", priority.name().toLowerCase());
+        Gauge.builder("llm.bulkhead.active", bulkhead, ThreadPoolBulkhead::getActiveCount)
+                .description("Calls currently running in the bulkhead")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("llm.bulkhead.queued", bulkhead, ThreadPoolBulkhead::getQueuedCount)
+                .description("Calls waiting for a bulkhead worker")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("llm.bulkhead.utilization", bulkhead, ThreadPoolBulkhead::getUtilization)
+                .description("Share of bulkhead workers in use")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("llm.bulkhead.rejected", bulkhead, ThreadPoolBulkhead::getRejectedCount)
+                .description("Calls rejected because the bulkhead was full")
+                .tags(tags)
+                .register(meterRegistry);
+        
+        return bulkhead;
+    }
+}
@@ -0,0 +1,47 @@
+package edu.study.llm_application.infrastructure.cascade;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.ResponseAcceptancePort;
+import edu.study.llm_application.infrastructure.config.CascadeProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Rejects answers in which the first model says it is unsure
+ * The provider reports no token probabilities for chat completions, so confidence is judged from hedging
+ * phrases near the start of the answer, where a model that cannot answer says so
+ */
+@Component
+public class ConfidenceAcceptanceCheck implements ResponseAcceptancePort {
+    
+    /**
+     * Characters at the start of an answer searched for hedging phrases
+     */
+    private static final int SEARCHED_CHARS = 300;
+    
+    private final List<String> phrases;
+    
+    public ConfidenceAcceptanceCheck(CascadeProperties properties) {
+        this.phrases = properties.getLowConfidencePhrases().stream()
+                .map(phrase -> phrase.toLowerCase(Locale.ROOT))
+                .toList();
+    }
+    
+    @Override
+    public Optional<String> reject(LlmRequest request, LlmResponse response) {
+        String content = response.content();
+        String opening = content.substring(0, Math.min(SEARCHED_CHARS, content.length()))
+                .replace('’', '\'')
+                .toLowerCase(Locale.ROOT);
+        for (String phrase : phrases) {
+            if (opening.contains(phrase)) {
+                return Optional.of("low_confidence");
+            }
+        }
+        return Optional.empty();
+    }
+}
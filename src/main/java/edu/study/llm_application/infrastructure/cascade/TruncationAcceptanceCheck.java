@@ -0,0 +1,20 @@
+package edu.study.llm_application.infrastructure.cascade;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.ResponseAcceptancePort;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Rejects answers the first model stopped because they reached max_tokens
+ */
+@Component
+public class TruncationAcceptanceCheck implements ResponseAcceptancePort {
+    
+    @Override
+    public Optional<String> reject(LlmRequest request, LlmResponse response) {
+        return "length".equals(response.finishReason()) ? Optional.of("truncated") : Optional.empty();
+    }
+}
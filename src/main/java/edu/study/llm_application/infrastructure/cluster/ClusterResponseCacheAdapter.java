@@ -0,0 +1,203 @@
+package edu.study.llm_application.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.study.llm_application.domain.entities.ContentKey;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.ResponseCachePort;
+import edu.study.llm_application.infrastructure.config.ClusterProperties;
+import edu.study.llm_application.infrastructure.config.ResponseCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Response cache partitioned over the replicas of the cluster by consistent hashing of the request
+ * Every key has one owning replica that holds the response for all of them. Other replicas keep a copy
+ * of what they stored or fetched, so a repeated request is answered locally and only a local miss
+ * costs a call to the owner, bounded by the remote timeout
+ */
+@Slf4j
+@Component
+public class ClusterResponseCacheAdapter implements ResponseCachePort {
+    
+    private static final String GET = "cache/get";
+    private static final String PUT = "cache/put";
+    
+    private final ResponseCacheProperties properties;
+    private final ClusterTransport transport;
+    private final ObjectMapper objectMapper;
+    // Derived getters such as isSuccessful are written too, and skipped when read back
+    private final ObjectReader responseReader;
+    private final ObjectReader entryReader;
+    private final Duration remoteTimeout;
+    // Access ordered and bounded, so storing past the bound drops the least recently used entry
+    private final LinkedHashMap<String, Entry> entries;
+    
+    public ClusterResponseCacheAdapter(ResponseCacheProperties properties, ClusterTransport transport,
+                                       ClusterProperties clusterProperties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.responseReader = objectMapper.readerFor(LlmResponse.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.entryReader = objectMapper.readerFor(CacheEntry.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.remoteTimeout = clusterProperties.getRemoteTimeout();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+        transport.handle(GET, this::serveGet);
+        transport.handle(PUT, this::servePut);
+    }
+    
+    @Override
+    public String keyOf(LlmRequest request) {
+        // Retrieved context depends on the index at the time, and tool results on when the tools ran,
+        // so grounded requests and requests with tools are always sent
+        if (!properties.isEnabled() || request.prompt() == null
+                || request.temperature() > properties.getMaxTemperature()
+                || (request.retrievalTopK() != null && request.retrievalTopK() > 0) || request.hasTools()) {
+            return null;
+        }
+        
+        MessageDigest digest = ContentKey.sha256();
+        update(digest, request.model());
+        // A cascaded request may be answered by a faster model, which a request for the model itself must not get
+        update(digest, request.cascade().toString());
+        update(digest, request.maxTokens().toString());
+        update(digest, request.temperature().toString());
+        update(digest, request.systemPrompt());
+        if (request.context() != null) {
+            request.context().forEach(turn -> update(digest, turn));
+        }
+        update(digest, request.prompt());
+        if (request.responseSchema() != null) {
+            update(digest, request.responseSchema().toString());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    @Override
+    public Optional<LlmResponse> findLocal(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (System.nanoTime() - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(entry.response());
+        }
+    }
+    
+    @Override
+    public Optional<LlmResponse> find(String key) {
+        Optional<LlmResponse> local = findLocal(key);
+        String owner = transport.owner(key);
+        if (local.isPresent() || owner.equals(transport.self())) {
+            return local;
+        }
+        
+        try {
+            byte[] body = transport.send(owner, GET, key.getBytes(StandardCharsets.UTF_8), remoteTimeout)
+                    .get(remoteTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            if (body == null) {
+                return Optional.empty();
+            }
+            LlmResponse response = responseReader.readValue(body);
+            store(key, response);
+            return Optional.of(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException | TimeoutException | IOException e) {
+            log.debug("Response cache lookup at {} failed: {}", owner, e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    @Override
+    public void put(String key, LlmResponse response) {
+        store(key, response);
+        String owner = transport.owner(key);
+        if (!owner.equals(transport.self())) {
+            try {
+                transport.send(owner, PUT, objectMapper.writeValueAsBytes(new CacheEntry(key, response)), remoteTimeout);
+            } catch (IOException e) {
+                log.warn("Failed to encode cached response {}: {}", key, e.getMessage());
+            }
+        }
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    private byte[] serveGet(byte[] body) {
+        return findLocal(new String(body, StandardCharsets.UTF_8))
+                .map(response -> {
+                    try {
+                        return objectMapper.writeValueAsBytes(response);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .orElse(null);
+    }
+    
+    private byte[] servePut(byte[] body) {
+        try {
+            CacheEntry entry = entryReader.readValue(body);
+            store(entry.key(), entry.response());
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Stores a response, dropping the least recently used one beyond the bound; expired entries are
+     * dropped when looked up or once they become the least recently used
+     */
+    private void store(String key, LlmResponse response) {
+        Entry entry = new Entry(response, System.nanoTime() + properties.getTtl().toNanos());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+    
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+    
+    private record Entry(LlmResponse response, long expiresAt) {
+    }
+    
+    private record CacheEntry(String key, LlmResponse response) {
+    }
+}
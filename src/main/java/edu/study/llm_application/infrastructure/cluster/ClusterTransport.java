@@ -0,0 +1,233 @@
+package edu.study.llm_application.infrastructure.cluster;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.study.llm_application.infrastructure.config.ClusterProperties;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Embedded peer-to-peer transport between the replicas of a cluster, with membership from a static list
+ * Each replica serves calls from its peers on a port of its own, separate from the public API, and
+ * places itself and its peers on a hash ring. A peer that cannot be reached is left out of the ring for a
+ * while, so its keys fall to the next replica instead of every caller waiting on it. The port is bound on
+ * the host of this replica's own address only, and every call must carry the shared secret
+ */
+@Slf4j
+@Component
+public class ClusterTransport {
+    
+    private static final String PATH = "/cluster/";
+    private static final String SECRET_HEADER = "X-Cluster-Secret";
+    
+    private final ClusterProperties properties;
+    private final List<String> nodes;
+    private final List<String> peers;
+    private final ConsistentHashRing ring;
+    private final Map<String, Function<byte[], byte[]>> handlers = new ConcurrentHashMap<>();
+    private final Map<String, Long> quarantinedUntil = new ConcurrentHashMap<>();
+    private final HttpClient client;
+    private final HttpServer server;
+    private final ExecutorService serverThreads;
+    
+    public ClusterTransport(ClusterProperties properties) {
+        this.properties = properties;
+        this.peers = properties.isEnabled()
+                ? properties.getPeers().stream().filter(peer -> !peer.equals(properties.getSelf())).distinct().toList()
+                : List.of();
+        List<String> members = new ArrayList<>(peers);
+        members.add(properties.getSelf());
+        members.sort(null);
+        this.nodes = List.copyOf(members);
+        this.ring = new ConsistentHashRing(nodes, properties.getVirtualNodes());
+        
+        if (!properties.isEnabled()) {
+            this.client = null;
+            this.server = null;
+            this.serverThreads = null;
+            return;
+        }
+        if (properties.getSecret() == null || properties.getSecret().isBlank()) {
+            throw new IllegalStateException("llm.cluster.secret must be set when the cluster is enabled");
+        }
+        
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(properties.getRemoteTimeout().multipliedBy(4))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.serverThreads = Executors.newFixedThreadPool(4, DaemonThreads.named("llm-cluster-server"));
+        try {
+            this.server = HttpServer.create(address(properties.getSelf()), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to listen for cluster peers on " + properties.getSelf(), e);
+        }
+        server.createContext(PATH, this::serve);
+        server.setExecutor(serverThreads);
+        server.start();
+        log.info("Cluster node {} listening for peers {}", properties.getSelf(), peers);
+    }
+    
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+    
+    public String self() {
+        return properties.getSelf();
+    }
+    
+    /**
+     * All replicas of the cluster including this one, in the same order on every replica
+     */
+    public List<String> nodes() {
+        return nodes;
+    }
+    
+    public List<String> peers() {
+        return peers;
+    }
+    
+    /**
+     * Replica owning a key, this one whenever no other owner is available
+     */
+    public String owner(String key) {
+        String owner = ring.owner(key, this::isAvailable);
+        return owner != null ? owner : self();
+    }
+    
+    /**
+     * Whether a replica is this one or a peer that was reachable the last time it was called
+     */
+    public boolean isAvailable(String node) {
+        if (node.equals(self())) {
+            return true;
+        }
+        Long until = quarantinedUntil.get(node);
+        if (until == null) {
+            return true;
+        }
+        if (System.nanoTime() - until >= 0) {
+            quarantinedUntil.remove(node, until);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Serves calls of peers to a named handler
+     * 
+     * @param handler maps the request body to the response body, or to null when there is nothing to return
+     */
+    public void handle(String name, Function<byte[], byte[]> handler) {
+        handlers.put(name, handler);
+    }
+    
+    /**
+     * Calls a named handler of a peer
+     * 
+     * @return a future completed with the response body, or with null when the peer had nothing to return;
+     *         it fails if the peer does not answer within the timeout
+     */
+    public CompletableFuture<byte[]> send(String peer, String name, byte[] body, Duration timeout) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://" + peer + PATH + name))
+                .timeout(timeout)
+                .header(SECRET_HEADER, properties.getSecret())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> switch (response.statusCode()) {
+                    case 200 -> response.body();
+                    case 204 -> null;
+                    default -> throw new IllegalStateException("Peer " + peer + " answered " + response.statusCode());
+                })
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        return;
+                    }
+                    log.debug("Call {} to peer {} failed: {}", name, peer, error.getMessage());
+                    // A slow answer only costs this call; a peer that cannot be reached is skipped for a while
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (!(cause instanceof HttpTimeoutException) || cause instanceof HttpConnectTimeoutException) {
+                        quarantinedUntil.put(peer, System.nanoTime() + properties.getPeerQuarantine().toNanos());
+                    }
+                });
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            serverThreads.shutdownNow();
+        }
+    }
+    
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String secret = exchange.getRequestHeaders().getFirst(SECRET_HEADER);
+            // Compared in constant time, so the secret cannot be guessed from how long a refusal takes
+            if (secret == null || !MessageDigest.isEqual(properties.getSecret().getBytes(StandardCharsets.UTF_8),
+                    secret.getBytes(StandardCharsets.UTF_8))) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            Function<byte[], byte[]> handler = handlers.get(exchange.getRequestURI().getPath().substring(PATH.length()));
+            if (handler == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            
+            byte[] response;
+            try {
+                response = handler.apply(exchange.getRequestBody().readAllBytes());
+            } catch (RuntimeException e) {
+                log.warn("Cluster call {} failed: {}", exchange.getRequestURI().getPath(), e.getMessage());
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            if (response == null) {
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+    
+    /**
+     * Socket address of a host:port cluster address, resolved so the server listens on that host alone
+     */
+    private static InetSocketAddress address(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Cluster address " + address + " must be host:port");
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+}
@@ -0,0 +1,74 @@
+package edu.study.llm_application.infrastructure.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Hash ring assigning keys to nodes, each node placed at several virtual positions
+ * Adding or removing a node only moves the keys between it and its ring neighbours, and a key whose
+ * owner is unavailable falls to the next available node clockwise
+ */
+public final class ConsistentHashRing {
+    
+    private final long[] positions;
+    private final String[] owners;
+    
+    public ConsistentHashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one node and one virtual node per node");
+        }
+        
+        int size = nodes.size() * virtualNodes;
+        long[][] points = new long[size][2];
+        for (int n = 0; n < nodes.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                points[n * virtualNodes + v][0] = hash(nodes.get(n) + "#" + v);
+                points[n * virtualNodes + v][1] = n;
+            }
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+        
+        this.positions = new long[size];
+        this.owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = points[i][0];
+            owners[i] = nodes.get((int) points[i][1]);
+        }
+    }
+    
+    /**
+     * Node owning a key, skipping nodes that are not available
+     * 
+     * @return the owner, or null if no node is available
+     */
+    public String owner(String key, Predicate<String> available) {
+        int start = Arrays.binarySearch(positions, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = 0; i < positions.length; i++) {
+            String node = owners[(start + i) % positions.length];
+            if (available.test(node)) {
+                return node;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes, with a final mix so nearby names land far apart
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,190 @@
+package edu.study.llm_application.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.ports.out.UserRateLimitPort;
+import edu.study.llm_application.infrastructure.config.ClusterProperties;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import edu.study.llm_application.infrastructure.config.UserRateLimitProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user request limit counted across the cluster with counters merged by gossip
+ * Each user has a grow-only counter per window with one slot per replica: a replica only increments
+ * its own slot, and merging takes the larger value of every slot, so counters converge whatever the
+ * order or repetition of gossip rounds. A request is decided from the counters this replica already
+ * holds, weighting the previous window by how much of it still overlaps a sliding window, so the limit
+ * is approximate: requests other replicas admitted since the last round are not yet seen
+ */
+@Slf4j
+@Component
+public class GossipUserRateLimitAdapter implements UserRateLimitPort {
+    
+    private static final String GOSSIP = "ratelimit/gossip";
+    
+    private final UserRateLimitProperties properties;
+    private final ClusterTransport transport;
+    private final ObjectMapper objectMapper;
+    private final Duration gossipTimeout;
+    private final int gossipFanout;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final int ownSlot;
+    private final Map<WindowKey, AtomicLongArray> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService gossipTimer;
+    
+    public GossipUserRateLimitAdapter(UserRateLimitProperties properties, ClusterTransport transport,
+                                      ClusterProperties clusterProperties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.gossipTimeout = clusterProperties.getRemoteTimeout().multipliedBy(4);
+        this.gossipFanout = clusterProperties.getGossipFanout();
+        List<String> nodes = transport.nodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            slots.put(nodes.get(i), i);
+        }
+        this.ownSlot = slots.get(transport.self());
+        transport.handle(GOSSIP, this::merge);
+        
+        if (properties.getLimit() > 0 && !transport.peers().isEmpty()) {
+            this.gossipTimer = Executors.newSingleThreadScheduledExecutor(DaemonThreads.named("llm-ratelimit-gossip"));
+            long interval = clusterProperties.getGossipInterval().toMillis();
+            gossipTimer.scheduleWithFixedDelay(this::gossipQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.gossipTimer = null;
+        }
+    }
+    
+    @Override
+    public boolean tryAcquire(String userId) {
+        if (properties.getLimit() <= 0) {
+            return true;
+        }
+        
+        // Windows are aligned on wall clock time so that every replica counts into the same ones
+        long windowMs = properties.getWindow().toMillis();
+        long now = System.currentTimeMillis();
+        long window = now / windowMs;
+        double remainingOfPrevious = 1 - (now % windowMs) / (double) windowMs;
+        
+        AtomicLongArray current = counters.computeIfAbsent(new WindowKey(userId, window), key -> newCounter());
+        AtomicLongArray previous = counters.get(new WindowKey(userId, window - 1));
+        double used = sum(current) + (previous != null ? sum(previous) * remainingOfPrevious : 0);
+        if (used + 1 > properties.getLimit()) {
+            return false;
+        }
+        current.incrementAndGet(ownSlot);
+        return true;
+    }
+    
+    /**
+     * Sends the counters of the current and previous windows to a few peers and drops older windows
+     */
+    public void gossip() {
+        long window = System.currentTimeMillis() / properties.getWindow().toMillis();
+        counters.keySet().removeIf(key -> key.window() < window - 1);
+        if (counters.isEmpty()) {
+            return;
+        }
+        
+        List<Counter> entries = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> {
+            long[] counts = new long[counter.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = counter.get(i);
+            }
+            entries.add(new Counter(key.userId(), key.window(), counts));
+        });
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new Gossip(transport.nodes(), entries));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        List<String> targets = new ArrayList<>(transport.peers());
+        Collections.shuffle(targets);
+        targets.stream()
+                .filter(transport::isAvailable)
+                .limit(gossipFanout)
+                .forEach(peer -> transport.send(peer, GOSSIP, body, gossipTimeout));
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (gossipTimer != null) {
+            gossipTimer.shutdownNow();
+        }
+    }
+    
+    /**
+     * Merges counters received from a peer, mapping its slots to ours by replica address
+     */
+    private byte[] merge(byte[] body) {
+        Gossip gossip;
+        try {
+            gossip = objectMapper.readValue(body, Gossip.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        int[] slotOf = new int[gossip.nodes().size()];
+        for (int i = 0; i < slotOf.length; i++) {
+            slotOf[i] = slots.getOrDefault(gossip.nodes().get(i), -1);
+        }
+        for (Counter entry : gossip.counters()) {
+            AtomicLongArray counter = counters.computeIfAbsent(
+                    new WindowKey(entry.userId(), entry.window()), key -> newCounter());
+            for (int i = 0; i < entry.counts().length && i < slotOf.length; i++) {
+                if (slotOf[i] >= 0) {
+                    counter.accumulateAndGet(slotOf[i], entry.counts()[i], Math::max);
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void gossipQuietly() {
+        try {
+            gossip();
+        } catch (RuntimeException e) {
+            log.warn("Rate limit gossip failed: {}", e.getMessage());
+        }
+    }
+    
+    private AtomicLongArray newCounter() {
+        return new AtomicLongArray(slots.size());
+    }
+    
+    private static long sum(AtomicLongArray counter) {
+        long sum = 0;
+        for (int i = 0; i < counter.length(); i++) {
+            sum += counter.get(i);
+        }
+        return sum;
+    }
+    
+    private record WindowKey(String userId, long window) {
+    }
+    
+    private record Counter(String userId, long window, long[] counts) {
+    }
+    
+    private record Gossip(List<String> nodes, List<Counter> counters) {
+    }
+}
@@ -0,0 +1,64 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the per-model timeouts derived from observed throughput
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.timeout.adaptive")
+public class AdaptiveTimeoutProperties {
+    
+    /**
+     * Whether timeouts adapt to observed throughput; otherwise openai.timeout.seconds applies
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Quantile of base latency and time per token the timeouts are built from
+     */
+    private double quantile = 0.99;
+    
+    /**
+     * Multiplier applied on top of the estimated quantile
+     */
+    private double safetyFactor = 1.5;
+    
+    /**
+     * Observations needed for a model before its estimates replace the static timeout
+     */
+    private int minSamples = 20;
+    
+    /**
+     * Base latency assumed while a model has too few observations
+     */
+    private Duration initialBaseLatency = Duration.ofMillis(500);
+    
+    /**
+     * Throughput assumed while a model has too few observations
+     */
+    private double initialTokensPerSecond = 30;
+    
+    /**
+     * Lower bound of a whole-request timeout
+     */
+    private Duration minTimeout = Duration.ofSeconds(2);
+    
+    /**
+     * Upper bound of a whole-request timeout
+     */
+    private Duration maxTimeout = Duration.ofMinutes(5);
+    
+    /**
+     * Lower bound of the streaming inter-token idle timeout
+     */
+    private Duration minIdleTimeout = Duration.ofSeconds(1);
+    
+    /**
+     * Upper bound of the streaming inter-token idle timeout
+     */
+    private Duration maxIdleTimeout = Duration.ofSeconds(30);
+}
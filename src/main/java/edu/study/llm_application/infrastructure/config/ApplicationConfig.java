@@ -1,16 +1,45 @@
 package edu.study.llm_application.infrastructure.config;
 
+import edu.study.llm_application.domain.entities.CascadeSettings;
+import edu.study.llm_application.domain.entities.LongInputSettings;
+import edu.study.llm_application.domain.entities.ModerationSettings;
+import edu.study.llm_application.domain.entities.RetrievalSettings;
+import edu.study.llm_application.domain.entities.StructuredOutputSettings;
+import edu.study.llm_application.domain.entities.ToolSettings;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.Properties;
 
 /**
  * Additional configuration for the application
  */
 @Configuration
+@EnableConfigurationProperties({
+    BulkheadProperties.class,
+    AdaptiveTimeoutProperties.class,
+    RetryProperties.class,
+    EmbeddingProperties.class,
+    RagProperties.class,
+    ClusterProperties.class,
+    ResponseCacheProperties.class,
+    UserRateLimitProperties.class,
+    BatchProperties.class,
+    LongInputProperties.class,
+    IdempotencyProperties.class,
+    CascadeProperties.class,
+    ModerationProperties.class,
+    StructuredOutputProperties.class,
+    ToolProperties.class,
+    OfflineProperties.class,
+    AuditProperties.class,
+    MockProviderProperties.class,
+    ReplayProperties.class
+})
 public class ApplicationConfig {
     
     /**
@@ -28,4 +57,53 @@ public class ApplicationConfig {
         
         return new BuildProperties(properties);
     }
+    
+    /**
+     * Exposes the chunking and embedding settings of retrieval to the domain
+     */
+    @Bean
+    public RetrievalSettings retrievalSettings(RagProperties properties) {
+        return new RetrievalSettings(properties.getChunkWords(), properties.getChunkOverlap(), properties.getEmbeddingModel());
+    }
+    
+    /**
+     * Exposes the chunking and concurrency settings of long inputs to the domain
+     */
+    @Bean
+    public LongInputSettings longInputSettings(LongInputProperties properties) {
+        return new LongInputSettings(properties.getChunkTokens(), properties.getOverlapTokens(),
+                properties.getMaxConcurrent(), properties.getMaxInputChars());
+    }
+    
+    /**
+     * Exposes the models asked first by the cascade to the domain
+     */
+    @Bean
+    public CascadeSettings cascadeSettings(CascadeProperties properties) {
+        return new CascadeSettings(properties.isEnabled() ? Map.copyOf(properties.getModels()) : Map.of());
+    }
+    
+    /**
+     * Exposes whether requests are moderated, and what happens when a check fails, to the domain
+     */
+    @Bean
+    public ModerationSettings moderationSettings(ModerationProperties properties) {
+        return new ModerationSettings(properties.isEnabled(), properties.isFailOpen());
+    }
+    
+    /**
+     * Exposes the attempt budget of structured output to the domain
+     */
+    @Bean
+    public StructuredOutputSettings structuredOutputSettings(StructuredOutputProperties properties) {
+        return new StructuredOutputSettings(Math.max(1, properties.getMaxAttempts()));
+    }
+    
+    /**
+     * Exposes the round budget of the tool-calling loop to the domain
+     */
+    @Bean
+    public ToolSettings toolSettings(ToolProperties properties) {
+        return new ToolSettings(Math.max(1, properties.getMaxRounds()));
+    }
 }
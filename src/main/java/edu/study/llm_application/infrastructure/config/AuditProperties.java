@@ -0,0 +1,104 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the audit log of requests and their answers
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.audit")
+public class AuditProperties {
+    
+    /**
+     * What a request does when the buffer of records waiting to be written is full
+     */
+    public enum Overflow {
+        /**
+         * Wait for room, so no record is lost; records of requests on non-blocking threads are dropped
+         */
+        BLOCK,
+        /**
+         * Drop the record
+         */
+        DROP,
+        /**
+         * Keep one record in sample-every once the buffer is half full, and drop the rest
+         */
+        SAMPLE
+    }
+    
+    /**
+     * When written records are forced to disk
+     */
+    public enum Fsync {
+        /**
+         * After every group of records written together
+         */
+        EVERY_BATCH,
+        /**
+         * At most once per fsync interval
+         */
+        INTERVAL,
+        /**
+         * Whenever the operating system writes them
+         */
+        NONE
+    }
+    
+    /**
+     * Whether requests are written to the audit log
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Directory of the log files
+     */
+    private String path = "data/audit";
+    
+    /**
+     * Records waiting to be written at most; rounded up to a power of two
+     */
+    private int bufferSize = 65_536;
+    
+    /**
+     * Records written and flushed together at most
+     */
+    private int batchSize = 1024;
+    
+    /**
+     * Blocking by default, so the trail is complete unless a deployment opts out
+     */
+    private Overflow overflow = Overflow.BLOCK;
+    
+    /**
+     * One in how many records is kept by the sample overflow strategy
+     */
+    private int sampleEvery = 10;
+    
+    private Fsync fsync = Fsync.INTERVAL;
+    
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+    
+    /**
+     * Whether the log files are gzip compressed
+     */
+    private boolean compress = true;
+    
+    /**
+     * Size a log file is rotated at, in bytes as written to disk
+     */
+    private long maxFileBytes = 64L * 1024 * 1024;
+    
+    /**
+     * Age a log file is rotated at
+     */
+    private Duration rotateInterval = Duration.ofHours(1);
+    
+    /**
+     * Log files kept, the oldest deleted first; 0 keeps every file
+     */
+    private int maxFiles = 0;
+}
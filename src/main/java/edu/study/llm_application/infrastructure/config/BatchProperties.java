@@ -0,0 +1,44 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of deferred requests sent through the provider's batch API
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.batch")
+public class BatchProperties {
+    
+    /**
+     * Directory of the JSONL files being collected and downloaded
+     */
+    private String path = "data/batches";
+    
+    /**
+     * Requests per batch; a full batch is sent without waiting for the flush interval
+     */
+    private int maxRequests = 1000;
+    
+    /**
+     * Longest a request waits for others before its batch is sent
+     */
+    private Duration flushInterval = Duration.ofMinutes(5);
+    
+    /**
+     * How often submitted batches are checked for completion
+     */
+    private Duration pollInterval = Duration.ofMinutes(1);
+    
+    /**
+     * Time the provider is given to complete a batch, in its own format
+     */
+    private String completionWindow = "24h";
+    
+    /**
+     * How long the response of a completed request can be looked up
+     */
+    private Duration resultRetention = Duration.ofHours(24);
+}
@@ -0,0 +1,71 @@
+package edu.study.llm_application.infrastructure.config;
+
+import edu.study.llm_application.domain.entities.Priority;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits of the bulkheads isolating models and priority classes from each other
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.bulkhead")
+public class BulkheadProperties {
+    
+    /**
+     * Default limits for interactive partitions
+     */
+    private Limits interactive = new Limits(16, 32);
+    
+    /**
+     * Default limits for bulk partitions
+     */
+    private Limits bulk = new Limits(4, 256);
+    
+    /**
+     * Per-model overrides, keyed by model name
+     */
+    private Map<String, ModelLimits> models = new HashMap<>();
+    
+    /**
+     * Resolves the limits of the partition for a model and priority class
+     */
+    public Limits limitsFor(String model, Priority priority) {
+        ModelLimits overrides = models.get(model);
+        Limits override = null;
+        if (overrides != null) {
+            override = priority == Priority.BULK ? overrides.getBulk() : overrides.getInteractive();
+        }
+        if (override != null) {
+            return override;
+        }
+        return priority == Priority.BULK ? bulk : interactive;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+        /**
+         * Maximum number of calls running at once, also the size of the connection pool slice
+         */
+        private int maxConcurrent;
+        
+        /**
+         * Maximum number of calls waiting for a free worker
+         */
+        private int queueCapacity;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ModelLimits {
+        private Limits interactive;
+        private Limits bulk;
+    }
+}
@@ -0,0 +1,33 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of the model cascade answering requests with a faster model first
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.cascade")
+public class CascadeProperties {
+    
+    /**
+     * Whether requests to a model listed in models are first sent to its faster model
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Faster model asked first, by requested model
+     */
+    private Map<String, String> models = new HashMap<>();
+    
+    /**
+     * Phrases that mark an answer of the first model as unsure, matched case-insensitively
+     */
+    private List<String> lowConfidencePhrases = List.of(
+            "i'm not sure", "i am not sure", "i don't know", "i do not know", "i cannot answer", "i can't answer",
+            "i'm unable to", "i am unable to", "it is unclear", "it's unclear");
+}
@@ -0,0 +1,61 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the embedded cluster sharing the response cache and user rate limits between replicas
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.cluster")
+public class ClusterProperties {
+    
+    /**
+     * Whether this replica talks to its peers; when disabled it owns every cache key and counts only its own requests
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Address peers reach this replica at, as host:port; it must appear the same way in the peer lists of the others
+     */
+    private String self = "127.0.0.1:9191";
+    
+    /**
+     * Addresses of the other replicas, as host:port
+     */
+    private List<String> peers = new ArrayList<>();
+    
+    /**
+     * Shared secret peers send with every call; calls without it are refused, and it is required when enabled
+     */
+    private String secret = "";
+    
+    /**
+     * Positions of each replica on the hash ring; more spread the keys more evenly
+     */
+    private int virtualNodes = 64;
+    
+    /**
+     * How long a cache lookup waits for the owning peer before counting as a miss
+     */
+    private Duration remoteTimeout = Duration.ofMillis(50);
+    
+    /**
+     * How long a peer that could not be reached is left out of the ring
+     */
+    private Duration peerQuarantine = Duration.ofSeconds(5);
+    
+    /**
+     * How often rate limit counters are sent to peers
+     */
+    private Duration gossipInterval = Duration.ofMillis(200);
+    
+    /**
+     * Peers each gossip round is sent to, chosen at random; counters reach the others through them
+     */
+    private int gossipFanout = 2;
+}
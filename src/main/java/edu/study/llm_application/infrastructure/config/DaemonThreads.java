@@ -0,0 +1,24 @@
+package edu.study.llm_application.infrastructure.config;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the background threads of the adapters
+ * Daemon threads, so a pool not shut down never keeps the JVM alive, numbered after a prefix naming
+ * their pool
+ */
+public final class DaemonThreads {
+    
+    private DaemonThreads() {
+    }
+    
+    public static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
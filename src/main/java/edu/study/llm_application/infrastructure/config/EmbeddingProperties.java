@@ -0,0 +1,59 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of embedding micro-batching and the persistent vector cache
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.embeddings")
+public class EmbeddingProperties {
+    
+    private Batch batch = new Batch();
+    
+    private Cache cache = new Cache();
+    
+    @Data
+    public static class Batch {
+        /**
+         * How long a text waits for others to share its provider call
+         */
+        private Duration window = Duration.ofMillis(10);
+        
+        /**
+         * Texts sent in one provider call; a full batch is sent without waiting for the window
+         */
+        private int maxSize = 256;
+        
+        /**
+         * Provider calls running at the same time
+         */
+        private int maxConcurrent = 4;
+    }
+    
+    @Data
+    public static class Cache {
+        /**
+         * Whether vectors are kept in the memory-mapped cache
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Directory of the cache file
+         */
+        private String path = "data/embeddings";
+        
+        /**
+         * Size of each mapped region of the cache file
+         */
+        private long segmentSize = 64L * 1024 * 1024;
+        
+        /**
+         * Largest size of the cache file; no new vectors are stored once it is reached
+         */
+        private long maxSize = 1024L * 1024 * 1024;
+    }
+}
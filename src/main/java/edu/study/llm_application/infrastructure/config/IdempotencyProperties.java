@@ -0,0 +1,44 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the store of responses to requests sent with an idempotency key
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.idempotency")
+public class IdempotencyProperties {
+    
+    /**
+     * How long a response is returned to retries of its request
+     */
+    private Duration window = Duration.ofHours(24);
+    
+    /**
+     * Responses kept in memory; the least recently used ones move to disk when it is enabled
+     */
+    private int maxEntries = 10000;
+    
+    private Disk disk = new Disk();
+    
+    @Data
+    public static class Disk {
+        /**
+         * Whether responses evicted from memory are kept on disk, where they also survive a restart
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Directory holding one file per response
+         */
+        private String path = "data/idempotency";
+        
+        /**
+         * Responses kept on disk; the oldest ones are deleted first
+         */
+        private int maxEntries = 100000;
+    }
+}
@@ -0,0 +1,32 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of inputs answered through parallel map and reduce calls
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.long-input")
+public class LongInputProperties {
+    
+    /**
+     * Estimated tokens of input per map call, and the size partial answers are grouped up to
+     */
+    private int chunkTokens = 3000;
+    
+    /**
+     * Estimated tokens a chunk repeats from the end of the previous one
+     */
+    private int overlapTokens = 200;
+    
+    /**
+     * Provider calls of one long input running at the same time
+     */
+    private int maxConcurrent = 8;
+    
+    /**
+     * Longest input accepted, in characters
+     */
+    private int maxInputChars = 1_000_000;
+}
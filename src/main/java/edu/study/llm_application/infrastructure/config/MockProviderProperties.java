@@ -0,0 +1,109 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Settings of the mock provider, which simulates the latency, token rate and failures of a real one
+ */
+@Data
+@ConfigurationProperties(prefix = "openai.mock")
+public class MockProviderProperties {
+    
+    /**
+     * How the time to the first token of a generation is drawn
+     */
+    public enum Latency {
+        /**
+         * Always the median
+         */
+        FIXED,
+        /**
+         * Log-normal around the median with the spread of sigma, the long right tail of real providers
+         */
+        LOGNORMAL,
+        /**
+         * Log-normal around the median, except that a slow fraction of the generations are log-normal
+         * around the slow median, like requests queued behind a busy replica of the provider
+         */
+        BIMODAL,
+        /**
+         * Replayed from a histogram of observed latencies
+         */
+        HISTOGRAM
+    }
+    
+    /**
+     * Whether the mock provider is used instead of OpenAI
+     */
+    private boolean enabled = true;
+    
+    private Latency latency = Latency.LOGNORMAL;
+    
+    /**
+     * Median time to the first token
+     */
+    private Duration firstTokenMedian = Duration.ofMillis(400);
+    
+    /**
+     * Standard deviation of the logarithm of the time to the first token
+     */
+    private double firstTokenSigma = 0.5;
+    
+    /**
+     * Share of generations in the slow mode of the bimodal latency
+     */
+    private double slowFraction = 0.1;
+    
+    /**
+     * Median time to the first token of the slow mode of the bimodal latency
+     */
+    private Duration slowFirstTokenMedian = Duration.ofSeconds(3);
+    
+    /**
+     * Observed times to the first token for the histogram latency: the upper bound of every bucket in
+     * milliseconds, mapped to the generations that fell in it
+     */
+    private Map<Long, Long> histogram = new TreeMap<>();
+    
+    /**
+     * Tokens generated per second once the first token arrived
+     */
+    private double tokensPerSecond = 80;
+    
+    /**
+     * Smallest share of the max tokens of a request a completion uses; every completion uses between
+     * this share and all of them
+     */
+    private double minCompletionRatio = 0.3;
+    
+    /**
+     * Tokens sent together in one streamed chunk; raise it to simulate many streams at once with fewer
+     * timer events
+     */
+    private int tokensPerChunk = 1;
+    
+    /**
+     * Share of generations rejected with 429 Too Many Requests
+     */
+    private double rateLimitRate = 0;
+    
+    /**
+     * Share of generations failing with 500, 502 or 503
+     */
+    private double serverErrorRate = 0;
+    
+    /**
+     * Share of generations that never answer and fail after the timeout
+     */
+    private double timeoutRate = 0;
+    
+    /**
+     * How long a generation that never answers takes to fail
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+}
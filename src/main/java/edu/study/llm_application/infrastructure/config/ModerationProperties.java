@@ -0,0 +1,34 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Settings of the moderation check run alongside generation
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.moderation")
+public class ModerationProperties {
+    
+    /**
+     * Whether the content of requests is checked before their answers are returned
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Whether a request is answered when its check fails, rather than rejected
+     */
+    private boolean failOpen = false;
+    
+    /**
+     * Moderation model of the provider
+     */
+    private String model = "omni-moderation-latest";
+    
+    /**
+     * Terms the mock moderation flags, matched case-insensitively
+     */
+    private List<String> mockFlaggedTerms = List.of("[flag-me]");
+}
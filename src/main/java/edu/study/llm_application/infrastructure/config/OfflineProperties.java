@@ -0,0 +1,43 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the offline mode, which answers a JSONL file of requests and exits
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.offline")
+public class OfflineProperties {
+    
+    /**
+     * JSONL file with one request body of the generate API per line
+     */
+    private String input;
+    
+    /**
+     * JSONL file the responses are written to, in the order of the input; defaults to the input
+     * name with a .results.jsonl suffix
+     */
+    private String output;
+    
+    /**
+     * File recording how far the run got; defaults to the output name with a .checkpoint suffix
+     */
+    private String checkpoint;
+    
+    /**
+     * Requests answered at the same time; keep it within the queue of the bulk bulkhead
+     */
+    private int parallelism = 8;
+    
+    /**
+     * Responses written between two checkpoints, the most a crashed run answers again
+     */
+    private int checkpointEvery = 100;
+    
+    /**
+     * Bytes of the input mapped into memory at a time; a longer line gets a larger mapping
+     */
+    private int mapWindowBytes = 64 * 1024 * 1024;
+}
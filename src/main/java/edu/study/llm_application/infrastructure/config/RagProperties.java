@@ -0,0 +1,69 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of document chunking and the HNSW index used for retrieval-augmented generation
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.rag")
+public class RagProperties {
+    
+    /**
+     * Directory of the vector, graph and chunk files
+     */
+    private String path = "data/rag";
+    
+    /**
+     * Words per chunk
+     */
+    private int chunkWords = 200;
+    
+    /**
+     * Words a chunk repeats from the end of the previous one
+     */
+    private int chunkOverlap = 40;
+    
+    /**
+     * Model embedding chunks and prompts; local-hashing-v1 embeds in process without a provider call
+     */
+    private String embeddingModel = "local-hashing-v1";
+    
+    /**
+     * How often the graph is written to disk when chunks were added; it is also written on shutdown
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+    
+    private Index index = new Index();
+    
+    @Data
+    public static class Index {
+        /**
+         * Neighbours kept per node on the upper layers, twice as many on the bottom one
+         */
+        private int m = 16;
+        
+        /**
+         * Candidates examined when linking a new chunk; higher builds a better graph more slowly
+         */
+        private int efConstruction = 200;
+        
+        /**
+         * Candidates examined per query; higher trades latency for recall
+         */
+        private int efSearch = 64;
+        
+        /**
+         * Threads inserting chunks into the graph in parallel
+         */
+        private int insertThreads = 4;
+        
+        /**
+         * Size of each mapped region of the vector file
+         */
+        private long segmentSize = 64L * 1024 * 1024;
+    }
+}
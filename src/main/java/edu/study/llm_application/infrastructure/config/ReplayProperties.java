@@ -0,0 +1,59 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of recording provider calls and replaying them instead of calling the provider
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.replay")
+public class ReplayProperties {
+    
+    /**
+     * What happens to the calls of the configured provider
+     */
+    public enum Mode {
+        /**
+         * Calls go to the provider untouched
+         */
+        OFF,
+        /**
+         * Calls go to the provider, and their requests, answers, chunk timings and errors are recorded
+         */
+        RECORD,
+        /**
+         * Calls are answered from the recordings, without calling the provider
+         */
+        REPLAY
+    }
+    
+    /**
+     * How fast recordings are replayed
+     */
+    public enum Pace {
+        /**
+         * With the timings they were recorded with
+         */
+        RECORDED,
+        /**
+         * As fast as possible
+         */
+        FAST
+    }
+    
+    private Mode mode = Mode.OFF;
+    
+    /**
+     * Directory the recordings are written to and replayed from
+     */
+    private String path = "data/recordings";
+    
+    private Pace pace = Pace.RECORDED;
+    
+    /**
+     * Whether a request without a recording of its own fails; otherwise it gets the recordings of its
+     * model in turn
+     */
+    private boolean strict = true;
+}
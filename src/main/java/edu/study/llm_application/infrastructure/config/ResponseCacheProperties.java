@@ -0,0 +1,34 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cache of provider responses to identical requests
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.response-cache")
+public class ResponseCacheProperties {
+    
+    /**
+     * Whether responses are cached
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Highest sampling temperature of a cached request; responses at higher temperatures are meant to vary
+     */
+    private double maxTemperature = 0.0;
+    
+    /**
+     * Responses kept by each replica, owned and copied from peers together
+     */
+    private int maxEntries = 10000;
+    
+    /**
+     * How long a response is served from the cache
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+}
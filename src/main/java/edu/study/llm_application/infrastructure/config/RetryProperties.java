@@ -0,0 +1,65 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of provider retries and rate limit pacing
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.retry")
+public class RetryProperties {
+    
+    /**
+     * Maximum number of retries of a single provider call
+     */
+    private int maxRetries = 3;
+    
+    /**
+     * First backoff delay when the provider gives no Retry-After hint
+     */
+    private Duration initialBackoff = Duration.ofMillis(250);
+    
+    /**
+     * Upper bound of a single backoff delay
+     */
+    private Duration maxBackoff = Duration.ofSeconds(20);
+    
+    /**
+     * Retries allowed per original request across the whole service
+     */
+    private double budgetRatio = 0.1;
+    
+    /**
+     * Retries that can be saved up for a burst
+     */
+    private int budgetCapacity = 20;
+    
+    /**
+     * Whether failures after which the provider may already have run the generation
+     * (500, 502, 504) are retried; generation has no side effects besides its cost
+     */
+    private boolean retryPossiblyProcessed = true;
+    
+    private Pacing pacing = new Pacing();
+    
+    @Data
+    public static class Pacing {
+        /**
+         * Whether new requests are delayed when the remaining quota is nearly used up
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Share of the quota below which requests are spread over the rest of the window
+         */
+        private double thresholdRatio = 0.1;
+        
+        /**
+         * Longest delay pacing may add to a request
+         */
+        private Duration maxDelay = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,17 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of requests answered with JSON following a schema
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.structured-output")
+public class StructuredOutputProperties {
+    
+    /**
+     * Generations tried before a request whose output keeps diverging from its schema fails
+     */
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,56 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the tools run for the model and of the loop feeding their results back
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.tools")
+public class ToolProperties {
+    
+    /**
+     * Turns in which the model may call tools before the request fails
+     */
+    private int maxRounds = 5;
+    
+    /**
+     * Tool calls running at the same time, over all requests
+     */
+    private int maxConcurrent = 16;
+    
+    /**
+     * Tool calls waiting for a worker at most, over all requests; calls beyond it are rejected
+     */
+    private int queueCapacity = 64;
+    
+    /**
+     * How long a tool call may run before it is answered with a timeout error
+     */
+    private Duration timeout = Duration.ofSeconds(10);
+    
+    /**
+     * Timeouts of single tools, by name, overriding the default
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+    
+    private Cache cache = new Cache();
+    
+    @Data
+    public static class Cache {
+        /**
+         * How long the result of a call is reused for the same tool and arguments
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+        
+        /**
+         * Results kept at most
+         */
+        private int maxEntries = 10_000;
+    }
+}
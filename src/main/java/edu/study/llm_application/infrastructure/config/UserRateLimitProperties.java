@@ -0,0 +1,24 @@
+package edu.study.llm_application.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the per-user request limit, counted across all replicas of the cluster
+ */
+@Data
+@ConfigurationProperties(prefix = "llm.user-rate-limit")
+public class UserRateLimitProperties {
+    
+    /**
+     * Requests a user may send per window; 0 disables the limit
+     */
+    private int limit = 0;
+    
+    /**
+     * Length of the window the limit applies to
+     */
+    private Duration window = Duration.ofMinutes(1);
+}
@@ -10,13 +10,18 @@ import org.springframework.web.reactive.function.client.WebClient;
 @Configuration
 public class WebClientConfig {
     
+    /**
+     * Maximum size of a buffered response body
+     */
+    public static final int MAX_IN_MEMORY_SIZE = 1024 * 1024; // 1MB
+    
     /**
      * WebClient bean for making HTTP requests to external APIs
      */
     @Bean
     public WebClient webClient() {
         return WebClient.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024)) // 1MB
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE))
                 .build();
     }
 }
@@ -0,0 +1,60 @@
+package edu.study.llm_application.infrastructure.embeddings;
+
+import java.util.Locale;
+
+/**
+ * Deterministic embedding computed in process by feature hashing words and word pairs
+ * It captures lexical overlap only, but needs no provider call, so documents can be indexed and
+ * searched offline and in tests with stable results
+ */
+public final class LocalHashingEmbedder {
+    
+    /**
+     * Model name selecting this embedder
+     */
+    public static final String MODEL = "local-hashing-v1";
+    
+    public static final int DIMENSIONS = 512;
+    
+    private LocalHashingEmbedder() {
+    }
+    
+    /**
+     * Embeds a text into a unit length vector
+     */
+    public static float[] embed(String text) {
+        float[] vector = new float[DIMENSIONS];
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        String previous = null;
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            add(vector, word.hashCode(), 1.0f);
+            if (previous != null) {
+                // Word pairs keep a little of the word order
+                add(vector, previous.hashCode() * 31 + word.hashCode(), 0.5f);
+            }
+            previous = word;
+        }
+        
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+    
+    private static void add(float[] vector, int hash, float weight) {
+        int mixed = hash * 0x9E3779B9;
+        int bucket = (mixed >>> 1) % DIMENSIONS;
+        // The sign bit spreads collisions so they cancel out instead of piling up
+        vector[bucket] += (mixed & 1) == 0 ? weight : -weight;
+    }
+}
@@ -0,0 +1,209 @@
+package edu.study.llm_application.infrastructure.embeddings;
+
+import edu.study.llm_application.domain.entities.ContentKey;
+import edu.study.llm_application.infrastructure.config.EmbeddingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Persistent embedding cache in a memory-mapped file, keyed by content hash
+ * Vectors are appended as records of [length][dimensions][key][floats] to fixed size mapped
+ * segments; the length is written last, so a record cut short by a crash reads as free space.
+ * The index of record positions lives on the heap and is rebuilt by scanning the file at startup.
+ * Reads are lock free; appends are serialized
+ */
+@Slf4j
+@Component
+public class MappedEmbeddingCache {
+    
+    private static final String FILE_NAME = "vectors.bin";
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+    
+    private final EmbeddingProperties.Cache properties;
+    private final Map<ContentKey, Long> index = new ConcurrentHashMap<>();
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private FileChannel channel;
+    private FileLock lock;
+    private int writeSegment;
+    private int writeOffset;
+    private boolean full;
+    
+    public MappedEmbeddingCache(EmbeddingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getCache();
+        if (this.properties.isEnabled()) {
+            open(Path.of(this.properties.getPath()));
+        }
+        Gauge.builder("llm.embeddings.cache.entries", index, Map::size)
+                .description("Vectors held in the embedding cache")
+                .register(meterRegistry);
+        Gauge.builder("llm.embeddings.cache.bytes", this, MappedEmbeddingCache::sizeBytes)
+                .description("Bytes used by the embedding cache file")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Looks up the vector of a key
+     *
+     * @return a copy of the cached vector, or null on a miss
+     */
+    public float[] get(ContentKey key) {
+        Long location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        
+        ByteBuffer segment = segments.get((int) (location >>> 32));
+        int offset = (int) (long) location;
+        float[] vector = new float[segment.getInt(offset + 4)];
+        segment.slice(offset + HEADER_BYTES, vector.length * Float.BYTES).asFloatBuffer().get(vector);
+        return vector;
+    }
+    
+    /**
+     * Stores the vector of a key unless it is already cached or the cache is full
+     */
+    public synchronized void put(ContentKey key, float[] vector) {
+        if (channel == null || full || index.containsKey(key)) {
+            return;
+        }
+        
+        int length = HEADER_BYTES + vector.length * Float.BYTES;
+        if (length > properties.getSegmentSize()) {
+            log.warn("Embedding of {} dimensions does not fit in a cache segment", vector.length);
+            return;
+        }
+        
+        try {
+            if (writeOffset + length > properties.getSegmentSize()) {
+                if ((writeSegment + 2) * properties.getSegmentSize() > properties.getMaxSize()) {
+                    full = true;
+                    log.warn("Embedding cache reached its maximum size of {} bytes, new vectors are not cached",
+                            properties.getMaxSize());
+                    return;
+                }
+                writeSegment++;
+                writeOffset = 0;
+            }
+            MappedByteBuffer segment = segment(writeSegment);
+            
+            segment.putInt(writeOffset + 4, vector.length);
+            segment.putLong(writeOffset + 8, key.high());
+            segment.putLong(writeOffset + 16, key.low());
+            segment.slice(writeOffset + HEADER_BYTES, vector.length * Float.BYTES).asFloatBuffer().put(vector);
+            // Committing the length last marks the record complete
+            segment.putInt(writeOffset, length);
+            
+            index.put(key, location(writeSegment, writeOffset));
+            writeOffset += length;
+        } catch (IOException e) {
+            log.error("Failed to grow the embedding cache, disabling it: {}", e.getMessage());
+            full = true;
+        }
+    }
+    
+    /**
+     * Number of cached vectors
+     */
+    public int size() {
+        return index.size();
+    }
+    
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        segments.forEach(MappedByteBuffer::force);
+        try {
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the embedding cache: {}", e.getMessage());
+        }
+        channel = null;
+    }
+    
+    private void open(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            FileChannel fileChannel = FileChannel.open(directory.resolve(FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock fileLock = tryLock(fileChannel);
+            if (fileLock == null) {
+                log.warn("Embedding cache {} is used by another process, running without it", directory);
+                fileChannel.close();
+                return;
+            }
+            channel = fileChannel;
+            lock = fileLock;
+            load();
+            log.info("Embedding cache {} opened with {} vectors", directory, index.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the embedding cache in " + directory, e);
+        }
+    }
+    
+    /**
+     * Rebuilds the index from the records already in the file
+     */
+    private void load() throws IOException {
+        long segmentCount = Math.max(1, (channel.size() + properties.getSegmentSize() - 1) / properties.getSegmentSize());
+        for (int s = 0; s < segmentCount; s++) {
+            MappedByteBuffer segment = segment(s);
+            int offset = 0;
+            while (offset + HEADER_BYTES <= properties.getSegmentSize()) {
+                int length = segment.getInt(offset);
+                if (length < HEADER_BYTES || offset + length > properties.getSegmentSize()) {
+                    break;
+                }
+                index.put(new ContentKey(segment.getLong(offset + 8), segment.getLong(offset + 16)), location(s, offset));
+                offset += length;
+            }
+            writeSegment = s;
+            writeOffset = offset;
+        }
+    }
+    
+    private MappedByteBuffer segment(int number) throws IOException {
+        while (segments.size() <= number) {
+            long position = segments.size() * properties.getSegmentSize();
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, properties.getSegmentSize()));
+        }
+        return segments.get(number);
+    }
+    
+    private double sizeBytes() {
+        return (double) writeSegment * properties.getSegmentSize() + writeOffset;
+    }
+    
+    private static long location(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+    
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package edu.study.llm_application.infrastructure.embeddings;
+
+import edu.study.llm_application.domain.entities.ContentKey;
+import edu.study.llm_application.domain.entities.Embedding;
+import edu.study.llm_application.domain.ports.out.EmbeddingPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import edu.study.llm_application.infrastructure.config.EmbeddingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedding adapter serving vectors from the persistent cache and micro-batching the misses
+ * Texts requested within a short window are sent to the provider in a single call, and a text
+ * already on its way to the provider is shared with every request asking for it meanwhile.
+ * The in-process {@link LocalHashingEmbedder} model bypasses both
+ */
+@Slf4j
+@Component
+public class MicroBatchingEmbeddingAdapter implements EmbeddingPort {
+    
+    private final LlmProviderPort llmProviderPort;
+    private final MappedEmbeddingCache cache;
+    private final EmbeddingProperties.Batch properties;
+    private final Map<ContentKey, CompletableFuture<Embedding>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, BatchQueue> queues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushTimer;
+    private final ExecutorService providerCalls;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter sharedInFlight;
+    private final DistributionSummary batchSizes;
+    
+    public MicroBatchingEmbeddingAdapter(LlmProviderPort llmProviderPort, MappedEmbeddingCache cache,
+                                         EmbeddingProperties properties, MeterRegistry meterRegistry) {
+        this.llmProviderPort = llmProviderPort;
+        this.cache = cache;
+        this.properties = properties.getBatch();
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(DaemonThreads.named("llm-embedding-flush"));
+        this.providerCalls = Executors.newFixedThreadPool(this.properties.getMaxConcurrent(),
+                DaemonThreads.named("llm-embedding-call"));
+        this.cacheHits = meterRegistry.counter("llm.embeddings.cache.requests", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("llm.embeddings.cache.requests", "result", "miss");
+        this.sharedInFlight = meterRegistry.counter("llm.embeddings.cache.requests", "result", "in_flight");
+        this.batchSizes = DistributionSummary.builder("llm.embeddings.batch.size")
+                .description("Texts sent to the provider in one embedding call")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public CompletableFuture<Embedding> embed(String model, String text) {
+        if (LocalHashingEmbedder.MODEL.equals(model)) {
+            return CompletableFuture.completedFuture(new Embedding(LocalHashingEmbedder.embed(text), false));
+        }
+        
+        ContentKey key = ContentKey.of(model, text);
+        float[] cached = cache.get(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(new Embedding(cached, true));
+        }
+        
+        CompletableFuture<Embedding> pending = new CompletableFuture<>();
+        CompletableFuture<Embedding> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            sharedInFlight.increment();
+            return existing.copy();
+        }
+        
+        // A batch may have stored the vector between the cache lookup and claiming the key
+        cached = cache.get(key);
+        if (cached != null) {
+            inFlight.remove(key, pending);
+            cacheHits.increment();
+            pending.complete(new Embedding(cached, true));
+            return pending.copy();
+        }
+        
+        cacheMisses.increment();
+        pending.whenComplete((embedding, error) -> inFlight.remove(key, pending));
+        List<PendingText> ready = queues.computeIfAbsent(model, BatchQueue::new).add(new PendingText(key, text, pending));
+        if (ready != null) {
+            dispatch(model, ready);
+        }
+        return pending.copy();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flushTimer.shutdownNow();
+        providerCalls.shutdown();
+    }
+    
+    /**
+     * Sends one batch to the provider on a worker thread and completes its texts
+     */
+    private void dispatch(String model, List<PendingText> batch) {
+        batchSizes.record(batch.size());
+        providerCalls.execute(() -> {
+            try {
+                List<String> texts = batch.stream().map(PendingText::text).toList();
+                List<float[]> vectors = llmProviderPort.generateEmbeddings(model, texts);
+                if (vectors.size() != batch.size()) {
+                    throw new LlmProviderPort.LlmProviderException(
+                            "Provider returned " + vectors.size() + " embeddings for " + batch.size() + " texts");
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingText pending = batch.get(i);
+                    cache.put(pending.key(), vectors.get(i));
+                    pending.future().complete(new Embedding(vectors.get(i), false));
+                }
+            } catch (Exception e) {
+                log.warn("Embedding batch of {} texts for model {} failed: {}", batch.size(), model, e.getMessage());
+                batch.forEach(pending -> pending.future().completeExceptionally(e));
+            }
+        });
+    }
+    
+    private record PendingText(ContentKey key, String text, CompletableFuture<Embedding> future) {
+    }
+    
+    /**
+     * Texts of one model waiting for the batch window to close
+     */
+    private class BatchQueue {
+        
+        private final String model;
+        private List<PendingText> pending = new ArrayList<>();
+        private long generation;
+        
+        BatchQueue(String model) {
+            this.model = model;
+        }
+        
+        /**
+         * Adds a text and returns the batch if it became full
+         */
+        synchronized List<PendingText> add(PendingText text) {
+            pending.add(text);
+            if (pending.size() >= properties.getMaxSize()) {
+                return drain();
+            }
+            if (pending.size() == 1) {
+                long scheduledGeneration = generation;
+                flushTimer.schedule(() -> flush(scheduledGeneration),
+                        properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return null;
+        }
+        
+        private void flush(long scheduledGeneration) {
+            List<PendingText> batch;
+            synchronized (this) {
+                // The batch this timer was started for may already have been sent because it filled up
+                if (scheduledGeneration != generation || pending.isEmpty()) {
+                    return;
+                }
+                batch = drain();
+            }
+            dispatch(model, batch);
+        }
+        
+        private List<PendingText> drain() {
+            List<PendingText> batch = pending;
+            pending = new ArrayList<>();
+            generation++;
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package edu.study.llm_application.infrastructure.idempotency;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.study.llm_application.domain.entities.ContentKey;
+import edu.study.llm_application.domain.entities.IdempotentResponse;
+import edu.study.llm_application.domain.ports.out.IdempotencyStorePort;
+import edu.study.llm_application.infrastructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Idempotency store keeping recent responses in memory and, optionally, older ones on disk
+ * Memory holds the most recently used responses up to its bound; the least recently used one moves
+ * to a file of its own when the disk tier is enabled and is dropped otherwise. Files are named by the
+ * digest of their key and dated by when their response was stored, so the disk tier is rebuilt from
+ * a directory listing at startup without reading the files
+ */
+@Slf4j
+@Component
+public class TieredIdempotencyStoreAdapter implements IdempotencyStorePort {
+    
+    private static final String SUFFIX = ".json";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    // Derived getters such as isSuccessful are written too, and skipped when read back
+    private final ObjectReader fileReader;
+    private final Path directory;
+    // Access ordered, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    // Responses evicted from memory whose file is still being written, so lookups find them meanwhile
+    private final Map<String, Entry> spilling = new HashMap<>();
+    // Expiry of every file by the digest of its key, in the order the files were written
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>();
+    
+    public TieredIdempotencyStoreAdapter(IdempotencyProperties properties, ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.fileReader = objectMapper.readerFor(StoredFile.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.directory = properties.getDisk().isEnabled() ? Path.of(properties.getDisk().getPath()) : null;
+        if (directory != null) {
+            load();
+        }
+        Gauge.builder("llm.idempotency.entries", this, store -> store.size(false))
+                .description("Responses kept for retries of idempotent requests")
+                .tag("tier", "memory")
+                .register(meterRegistry);
+        Gauge.builder("llm.idempotency.entries", this, store -> store.size(true))
+                .description("Responses kept for retries of idempotent requests")
+                .tag("tier", "disk")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public Optional<IdempotentResponse> find(String key) {
+        long now = System.currentTimeMillis();
+        String digest;
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    return Optional.of(entry.response());
+                }
+                memory.remove(key);
+            }
+            Entry moving = spilling.get(key);
+            if (moving != null && moving.expiresAt() > now) {
+                return Optional.of(moving.response());
+            }
+            if (directory == null) {
+                return Optional.empty();
+            }
+            digest = digest(key);
+            Long expiresAt = files.get(digest);
+            if (expiresAt == null || expiresAt <= now) {
+                return Optional.empty();
+            }
+        }
+        
+        // A file deleted since the lookup above counts as a miss
+        try {
+            StoredFile stored = fileReader.readValue(file(digest).toFile());
+            return key.equals(stored.key()) ? Optional.of(stored.response()) : Optional.empty();
+        } catch (IOException e) {
+            log.debug("Failed to read idempotent response {}: {}", digest, e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    @Override
+    public void put(String key, IdempotentResponse response) {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Entry>> evicted = new ArrayList<>();
+        synchronized (this) {
+            memory.put(key, new Entry(response, now + properties.getWindow().toMillis()));
+            Iterator<Map.Entry<String, Entry>> eldest = memory.entrySet().iterator();
+            while (memory.size() > properties.getMaxEntries() && eldest.hasNext()) {
+                Map.Entry<String, Entry> entry = eldest.next();
+                eldest.remove();
+                if (directory != null && entry.getValue().expiresAt() > now) {
+                    spilling.put(entry.getKey(), entry.getValue());
+                    evicted.add(entry);
+                }
+            }
+        }
+        // Files are written outside the lock, so lookups do not wait on the disk; until a file is in
+        // place its response is found among those spilling
+        evicted.forEach(entry -> spill(entry.getKey(), entry.getValue()));
+    }
+    
+    /**
+     * Number of responses held in memory or on disk
+     */
+    public synchronized int size(boolean disk) {
+        return disk ? files.size() : memory.size();
+    }
+    
+    /**
+     * Moves a response evicted from memory to its file, then deletes the oldest files beyond the bound
+     */
+    private void spill(String key, Entry entry) {
+        String digest = digest(key);
+        try {
+            // Written aside and moved in place, so a reader never sees a partial file
+            Path temporary = Files.createTempFile(directory, digest, TEMPORARY_SUFFIX);
+            objectMapper.writeValue(temporary.toFile(), new StoredFile(key, entry.response()));
+            Files.setLastModifiedTime(temporary,
+                    FileTime.fromMillis(entry.expiresAt() - properties.getWindow().toMillis()));
+            Files.move(temporary, file(digest), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to move idempotent response {} to disk: {}", digest, e.getMessage());
+            synchronized (this) {
+                spilling.remove(key, entry);
+            }
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        List<String> deleted = new ArrayList<>();
+        synchronized (this) {
+            spilling.remove(key, entry);
+            files.remove(digest);
+            files.put(digest, entry.expiresAt());
+            Iterator<Map.Entry<String, Long>> oldest = files.entrySet().iterator();
+            while (oldest.hasNext()) {
+                Map.Entry<String, Long> file = oldest.next();
+                if (files.size() <= properties.getDisk().getMaxEntries() && file.getValue() > now) {
+                    break;
+                }
+                oldest.remove();
+                deleted.add(file.getKey());
+            }
+        }
+        deleted.forEach(old -> delete(file(old)));
+    }
+    
+    /**
+     * Rebuilds the index of the disk tier from the files left by an earlier run, deleting expired ones
+     */
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+            long now = System.currentTimeMillis();
+            List<Map.Entry<String, Long>> found = new ArrayList<>();
+            try (Stream<Path> listing = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) listing::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(TEMPORARY_SUFFIX)) {
+                        delete(file);
+                    } else if (name.endsWith(SUFFIX)) {
+                        long expiresAt = Files.getLastModifiedTime(file).toMillis() + properties.getWindow().toMillis();
+                        if (expiresAt > now) {
+                            found.add(Map.entry(name.substring(0, name.length() - SUFFIX.length()), expiresAt));
+                        } else {
+                            delete(file);
+                        }
+                    }
+                }
+            }
+            found.sort(Map.Entry.comparingByValue());
+            found.forEach(file -> files.put(file.getKey(), file.getValue()));
+            log.info("Idempotency store {} opened with {} responses on disk", directory, files.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the idempotency store in " + directory, e);
+        }
+    }
+    
+    private Path file(String digest) {
+        return directory.resolve(digest + SUFFIX);
+    }
+    
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete idempotent response file {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * Name of the file of a key, which is chosen by clients and so not safe as a file name itself
+     */
+    private static String digest(String key) {
+        return HexFormat.of().formatHex(ContentKey.sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private record Entry(IdempotentResponse response, long expiresAt) {
+    }
+    
+    private record StoredFile(String key, IdempotentResponse response) {
+    }
+}
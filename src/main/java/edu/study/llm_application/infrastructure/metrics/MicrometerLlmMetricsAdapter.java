@@ -0,0 +1,201 @@
+package edu.study.llm_application.infrastructure.metrics;
+
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics adapter publishing LLM use case metrics through Micrometer
+ */
+@Component
+@RequiredArgsConstructor
+public class MicrometerLlmMetricsAdapter implements LlmMetricsPort {
+    
+    /**
+     * Weight of the newest escalation in the moving average of the requested model's latency
+     */
+    private static final double CASCADE_SMOOTHING = 0.1;
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PromptCacheTokens> promptCacheTokens = new ConcurrentHashMap<>();
+    // Moving average of the latency of each requested model on escalated cascade requests
+    private final Map<String, Double> requestedModelMs = new ConcurrentHashMap<>();
+    
+    @Override
+    public void recordCancellation(String model, String reason) {
+        meterRegistry.counter("llm.requests.cancelled", "model", model, "reason", reason).increment();
+    }
+    
+    @Override
+    public void recordEmbeddingRequest(String model, int inputs, int unique, int cached) {
+        meterRegistry.counter("llm.embeddings.inputs", "model", model).increment(inputs);
+        meterRegistry.counter("llm.embeddings.deduplicated", "model", model).increment(inputs - unique);
+        meterRegistry.counter("llm.embeddings.cached", "model", model).increment(cached);
+    }
+    
+    @Override
+    public void recordRetrieval(int found, double durationMs) {
+        Timer.builder("llm.rag.retrieval")
+                .description("Time to embed a prompt and search the document index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record((long) (durationMs * 1_000_000), TimeUnit.NANOSECONDS);
+        meterRegistry.summary("llm.rag.retrieval.chunks").record(found);
+    }
+    
+    @Override
+    public void recordIngestion(int documents, int chunks) {
+        meterRegistry.counter("llm.rag.ingested.documents").increment(documents);
+        meterRegistry.counter("llm.rag.ingested.chunks").increment(chunks);
+    }
+    
+    @Override
+    public void recordPromptCache(String model, int promptTokens, int cachedTokens) {
+        PromptCacheTokens tokens = promptCacheTokens.computeIfAbsent(model, this::registerPromptCache);
+        tokens.prompt().add(promptTokens);
+        tokens.cached().add(cachedTokens);
+    }
+    
+    @Override
+    public void recordResponseCache(String model, String result) {
+        meterRegistry.counter("llm.response.cache.requests", "model", model, "result", result).increment();
+    }
+    
+    @Override
+    public void recordUserRateLimited() {
+        meterRegistry.counter("llm.requests.rate.limited").increment();
+    }
+    
+    @Override
+    public void recordIdempotentReplay(String model, String source) {
+        meterRegistry.counter("llm.idempotency.replays", "model", model, "source", source).increment();
+    }
+    
+    @Override
+    public void recordCascade(String model, String outcome, double firstModelMs, double escalationMs) {
+        meterRegistry.counter("llm.cascade.requests", "model", model, "outcome", outcome).increment();
+        if (escalationMs > 0) {
+            requestedModelMs.compute(model, (key, average) -> average == null 
+                    ? escalationMs : average + CASCADE_SMOOTHING * (escalationMs - average));
+            DistributionSummary.builder("llm.cascade.overhead")
+                    .description("Time spent on the first model of cascaded requests that were escalated")
+                    .baseUnit("milliseconds")
+                    .tag("model", model)
+                    .register(meterRegistry)
+                    .record(firstModelMs);
+            return;
+        }
+        // Saving against the requested model's recent latency on escalated requests
+        Double average = requestedModelMs.get(model);
+        if (average != null) {
+            DistributionSummary.builder("llm.cascade.saved")
+                    .description("Estimated time saved by cascaded requests answered by the first model")
+                    .baseUnit("milliseconds")
+                    .tag("model", model)
+                    .register(meterRegistry)
+                    .record(Math.max(0, average - firstModelMs));
+        }
+    }
+    
+    @Override
+    public void recordLongInput(String model, int chunks, int reduceRounds) {
+        DistributionSummary.builder("llm.long.input.chunks")
+                .description("Chunks a long input was split into")
+                .tag("model", model)
+                .register(meterRegistry)
+                .record(chunks);
+        DistributionSummary.builder("llm.long.input.reduce.rounds")
+                .description("Rounds of reduction a long input took")
+                .tag("model", model)
+                .register(meterRegistry)
+                .record(reduceRounds);
+    }
+    
+    /**
+     * Registers the prompt cache counters of a model and the hit ratio derived from them
+     */
+    private PromptCacheTokens registerPromptCache(String model) {
+        PromptCacheTokens tokens = new PromptCacheTokens(new LongAdder(), new LongAdder());
+        FunctionCounter.builder("llm.prompt.tokens", tokens.prompt(), LongAdder::sum)
+                .description("Prompt tokens counted by the provider")
+                .tag("model", model)
+                .register(meterRegistry);
+        FunctionCounter.builder("llm.prompt.tokens.cached", tokens.cached(), LongAdder::sum)
+                .description("Prompt tokens served from the provider's prompt cache")
+                .tag("model", model)
+                .register(meterRegistry);
+        Gauge.builder("llm.prompt.cache.hit.ratio", tokens, PromptCacheTokens::hitRatio)
+                .description("Share of prompt tokens served from the provider's prompt cache since startup")
+                .tag("model", model)
+                .register(meterRegistry);
+        return tokens;
+    }
+    
+    private record PromptCacheTokens(LongAdder prompt, LongAdder cached) {
+        
+        double hitRatio() {
+            long total = prompt.sum();
+            return total == 0 ? 0 : cached.sum() / (double) total;
+        }
+    }
+    
+    @Override
+    public void recordModeration(String outcome, double moderationMs, double heldMs) {
+        Timer.builder("llm.moderation")
+                .description("Time to check the content of a request")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record((long) (moderationMs * 1_000_000), TimeUnit.NANOSECONDS);
+        if (outcome.equals("cleared")) {
+            DistributionSummary.builder("llm.moderation.held")
+                    .description("Time generated answers waited for their moderation check")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry)
+                    .record(heldMs);
+        }
+    }
+    
+    @Override
+    public void recordStructuredOutput(String model, String outcome, int attempts, int abandonedChars) {
+        meterRegistry.counter("llm.structured.output", "model", model, "outcome", outcome).increment();
+        DistributionSummary.builder("llm.structured.output.attempts")
+                .description("Generations a structured output request took")
+                .tag("model", model)
+                .register(meterRegistry)
+                .record(attempts);
+        if (abandonedChars > 0) {
+            DistributionSummary.builder("llm.structured.output.abandoned")
+                    .description("Characters generated by attempts abandoned for diverging from the schema")
+                    .baseUnit("characters")
+                    .tag("model", model)
+                    .register(meterRegistry)
+                    .record(abandonedChars);
+        }
+    }
+    
+    @Override
+    public void recordToolLoop(String model, String outcome, int rounds, int toolCalls) {
+        meterRegistry.counter("llm.tools.requests", "model", model, "outcome", outcome).increment();
+        DistributionSummary.builder("llm.tools.rounds")
+                .description("Provider calls a request with tools took")
+                .tag("model", model)
+                .register(meterRegistry)
+                .record(rounds);
+        DistributionSummary.builder("llm.tools.calls")
+                .description("Tool calls run for one request")
+                .tag("model", model)
+                .register(meterRegistry)
+                .record(toolCalls);
+    }
+}
@@ -0,0 +1,116 @@
+package edu.study.llm_application.infrastructure.offline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines of a file through a window mapped into memory, moved along as the lines are read
+ * Lines are read as bytes, so the file is never decoded or copied beyond the line handed out, and
+ * reading can start at any line boundary a previous run stopped at. Blank lines are skipped but counted
+ */
+class MappedLineReader implements Closeable {
+    
+    /**
+     * A line of the file
+     *
+     * @param number line number, from 1
+     * @param bytes content without the line break
+     * @param end offset just past the line break, where the next line starts
+     */
+    record Line(long number, byte[] bytes, long end) {
+    }
+    
+    private final FileChannel channel;
+    private final long size;
+    private final int windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private long number;
+    
+    /**
+     * @param offset offset of the first line to read
+     * @param linesBefore lines of the file before that offset
+     */
+    MappedLineReader(Path file, long offset, long linesBefore, int windowBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        if (offset > size) {
+            channel.close();
+            throw new IOException(file + " is shorter than the offset " + offset + " to read from");
+        }
+        this.windowBytes = windowBytes;
+        this.position = offset;
+        this.number = linesBefore;
+    }
+    
+    /**
+     * Reads the next line that is not blank
+     *
+     * @return the line, or null at the end of the file
+     */
+    Line next() throws IOException {
+        while (position < size) {
+            Line line = readLine();
+            if (!isBlank(line.bytes())) {
+                return line;
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private Line readLine() throws IOException {
+        if (window == null || position >= windowStart + window.limit()) {
+            map(position, windowBytes);
+        }
+        while (true) {
+            int start = (int) (position - windowStart);
+            for (int i = start; i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    return take(start, i, i + 1);
+                }
+            }
+            if (windowStart + window.limit() == size) {
+                // Last line without a line break
+                return take(start, window.limit(), window.limit());
+            }
+            // The line runs past the window, so it is mapped again from its start with room for it
+            long length = Math.max(windowBytes, 2L * (window.limit() - start));
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Line " + (number + 1) + " is longer than a mapping can hold");
+            }
+            map(position, (int) length);
+        }
+    }
+    
+    private Line take(int start, int lineEnd, int next) {
+        int end = lineEnd > start && window.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        position = windowStart + next;
+        return new Line(++number, bytes, position);
+    }
+    
+    private void map(long start, int length) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, size - start));
+    }
+    
+    private static boolean isBlank(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
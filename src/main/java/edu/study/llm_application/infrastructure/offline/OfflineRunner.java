@@ -0,0 +1,316 @@
+package edu.study.llm_application.infrastructure.offline;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.application.dtos.LlmRequestDto;
+import edu.study.llm_application.application.dtos.LlmResponseDto;
+import edu.study.llm_application.application.mappers.ErrorMapper;
+import edu.study.llm_application.application.mappers.LlmMapper;
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.infrastructure.config.OfflineProperties;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Offline mode: answers a JSONL file of requests through the use case and writes the responses to
+ * another JSONL file, each tagged with its input line and written in input order
+ * Lines are read through a memory mapping and only as many as the parallelism allows are in flight,
+ * so files of any size run in constant memory. Every few responses the output is flushed to disk and
+ * a checkpoint records how far the input was answered; a run started again after a crash cuts the
+ * output back to the checkpoint and goes on from there, so only the lines after it are answered again
+ */
+@Slf4j
+@Component
+@Profile(OfflineRunner.PROFILE)
+public class OfflineRunner implements ApplicationRunner {
+    
+    /**
+     * Profile running the application in the offline mode
+     */
+    public static final String PROFILE = "offline";
+    
+    /**
+     * Status of a line that is not a request body
+     */
+    static final String INVALID_JSON = "INVALID_JSON";
+    
+    /**
+     * Status of a request that failed validation
+     */
+    static final String VALIDATION_ERROR = "VALIDATION_ERROR";
+    
+    private static final String SUCCESS = "SUCCESS";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    
+    private final LlmUseCasePort llmUseCase;
+    private final LlmMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final OfflineProperties properties;
+    private final long defaultDeadlineMs;
+    
+    public OfflineRunner(LlmUseCasePort llmUseCase, LlmMapper mapper, ObjectMapper objectMapper, Validator validator,
+                         OfflineProperties properties, @Value("${llm.deadline.default-ms:30000}") long defaultDeadlineMs) {
+        this.llmUseCase = llmUseCase;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.properties = properties;
+        this.defaultDeadlineMs = defaultDeadlineMs;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        process();
+    }
+    
+    /**
+     * Answers the lines of the input after its checkpoint
+     *
+     * @return what this run answered
+     */
+    Summary process() throws IOException {
+        if (isBlank(properties.getInput())) {
+            throw new IllegalStateException("llm.offline.input is required in the offline mode");
+        }
+        Path input = Path.of(properties.getInput());
+        Path output = !isBlank(properties.getOutput()) ? Path.of(properties.getOutput())
+                : input.resolveSibling(input.getFileName().toString().replaceFirst("\\.jsonl$", "") + ".results.jsonl");
+        Path checkpointFile = !isBlank(properties.getCheckpoint()) ? Path.of(properties.getCheckpoint())
+                : output.resolveSibling(output.getFileName() + CHECKPOINT_SUFFIX);
+        
+        Checkpoint start = Files.exists(checkpointFile)
+                ? objectMapper.readValue(checkpointFile.toFile(), Checkpoint.class) : Checkpoint.NONE;
+        if (start.lines() > 0) {
+            log.info("Resuming {} after line {} from {}", input, start.lines(), checkpointFile);
+        }
+        
+        long startTime = System.nanoTime();
+        Progress progress = new Progress(start);
+        try (MappedLineReader reader = new MappedLineReader(input, start.inputOffset(), start.lines(),
+                     properties.getMapWindowBytes());
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (outputChannel.size() < start.outputBytes()) {
+                throw new IOException(output + " is shorter than its checkpoint " + checkpointFile);
+            }
+            // Responses written after the last checkpoint belong to lines answered again
+            outputChannel.truncate(start.outputBytes());
+            outputChannel.position(start.outputBytes());
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(outputChannel));
+            
+            Flux.<MappedLineReader.Line>generate(sink -> {
+                        try {
+                            MappedLineReader.Line line = reader.next();
+                            if (line == null) {
+                                sink.complete();
+                            } else {
+                                sink.next(line);
+                            }
+                        } catch (IOException e) {
+                            sink.error(new UncheckedIOException(e));
+                        }
+                    })
+                    .flatMapSequential(line -> answer(line).map(response -> new ResultLine(line, response)),
+                            properties.getParallelism(), 1)
+                    .doOnNext(result -> {
+                        try {
+                            write(out, result, progress);
+                            if ((progress.answered - start.answered()) % properties.getCheckpointEvery() == 0) {
+                                checkpoint(out, outputChannel, progress, checkpointFile);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .blockLast();
+            checkpoint(out, outputChannel, progress, checkpointFile);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        Summary summary = new Summary(progress.answered - start.answered(), progress.failed - start.failed(),
+                progress.tokensUsed - start.tokensUsed(), progress.promptTokens - start.promptTokens(),
+                Duration.ofNanos(System.nanoTime() - startTime));
+        double seconds = Math.max(summary.elapsed().toNanos() / 1e9, 1e-9);
+        log.info("Offline run of {} finished in {} s: {} lines answered ({} failed), {} lines/s; "
+                        + "{} tokens used ({} prompt), {} tokens/s; responses in {}",
+                input, String.format("%.1f", seconds), summary.answered(), summary.failed(),
+                String.format("%.1f", summary.answered() / seconds), summary.tokensUsed(), summary.promptTokens(),
+                String.format("%.1f", summary.tokensUsed() / seconds), output);
+        if (start.lines() > 0) {
+            log.info("Including earlier runs: {} lines answered ({} failed), {} tokens used ({} prompt)",
+                    progress.answered, progress.failed, progress.tokensUsed, progress.promptTokens);
+        }
+        return summary;
+    }
+    
+    /**
+     * Answers a line as a bulk request; a line that cannot be answered gets an error response
+     */
+    private Mono<LlmResponseDto> answer(MappedLineReader.Line line) {
+        LlmRequestDto requestDto;
+        try {
+            requestDto = objectMapper.readValue(line.bytes(), LlmRequestDto.class);
+        } catch (JsonProcessingException e) {
+            return Mono.just(errorResponse(INVALID_JSON, "Line is not a request: " + e.getOriginalMessage()));
+        } catch (IOException e) {
+            return Mono.just(errorResponse(INVALID_JSON, "Line is not a request: " + e.getMessage()));
+        }
+        if (requestDto == null) {
+            return Mono.just(errorResponse(INVALID_JSON, "Line is not a request"));
+        }
+        Set<ConstraintViolation<LlmRequestDto>> violations = validator.validate(requestDto);
+        if (!violations.isEmpty()) {
+            return Mono.just(errorResponse(VALIDATION_ERROR, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "))));
+        }
+        
+        Deadline deadline = Deadline.after(Duration.ofMillis(defaultDeadlineMs));
+        try {
+            return Mono.fromFuture(llmUseCase.submitRequest(mapper.toDomain(requestDto, Priority.BULK, deadline)))
+                    .map(mapper::toDto)
+                    .onErrorResume(error -> Mono.just(errorResponse(error, deadline)));
+        } catch (LlmUseCasePort.LlmProcessingException e) {
+            return Mono.just(errorResponse(e, deadline));
+        }
+    }
+    
+    private void write(OutputStream out, ResultLine result, Progress progress) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(result);
+        out.write(bytes);
+        out.write('\n');
+        
+        LlmResponseDto response = result.response();
+        progress.inputOffset = result.end();
+        progress.lines = result.line();
+        progress.outputBytes += bytes.length + 1;
+        progress.answered++;
+        if (!SUCCESS.equals(response.getStatus())) {
+            progress.failed++;
+        }
+        progress.tokensUsed += response.getTokensUsed() != null ? response.getTokensUsed() : 0;
+        progress.promptTokens += response.getPromptTokens() != null ? response.getPromptTokens() : 0;
+    }
+    
+    /**
+     * Flushes the output to disk, then records how far it got
+     */
+    private void checkpoint(OutputStream out, FileChannel outputChannel, Progress progress, Path checkpointFile)
+            throws IOException {
+        out.flush();
+        outputChannel.force(false);
+        // Written aside and moved in place, so a crash never leaves a partial checkpoint
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        objectMapper.writeValue(temporary.toFile(), progress.toCheckpoint());
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
+    private static LlmResponseDto errorResponse(Throwable error, Deadline deadline) {
+        ErrorMapper.Failure failure = ErrorMapper.toFailure(error, deadline);
+        return errorResponse(failure.status(), failure.message());
+    }
+    
+    private static LlmResponseDto errorResponse(String status, String message) {
+        return LlmResponseDto.builder()
+                .status(status)
+                .errorMessage(message)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+    
+    /**
+     * What a run answered
+     *
+     * @param failed lines answered with an error response
+     */
+    record Summary(long answered, long failed, long tokensUsed, long promptTokens, Duration elapsed) {
+    }
+    
+    /**
+     * Line of the output
+     */
+    private record ResultLine(long line, LlmResponseDto response, @JsonIgnore long end) {
+        
+        ResultLine(MappedLineReader.Line line, LlmResponseDto response) {
+            this(line.number(), response, line.end());
+        }
+    }
+    
+    /**
+     * Progress of a file answered up to a line, with the totals of every run so far
+     *
+     * @param inputOffset offset of the input just past the last line answered
+     * @param lines input lines up to the last one answered, blank ones included
+     * @param outputBytes length of the output holding the responses up to that line
+     */
+    record Checkpoint(@JsonProperty("input_offset") long inputOffset,
+                      long lines,
+                      @JsonProperty("output_bytes") long outputBytes,
+                      long answered,
+                      long failed,
+                      @JsonProperty("tokens_used") long tokensUsed,
+                      @JsonProperty("prompt_tokens") long promptTokens) {
+        
+        static final Checkpoint NONE = new Checkpoint(0, 0, 0, 0, 0, 0, 0);
+    }
+    
+    /**
+     * Mutable progress, only touched by the writing of the output
+     */
+    private static final class Progress {
+        long inputOffset;
+        long lines;
+        long outputBytes;
+        long answered;
+        long failed;
+        long tokensUsed;
+        long promptTokens;
+        
+        Progress(Checkpoint start) {
+            inputOffset = start.inputOffset();
+            lines = start.lines();
+            outputBytes = start.outputBytes();
+            answered = start.answered();
+            failed = start.failed();
+            tokensUsed = start.tokensUsed();
+            promptTokens = start.promptTokens();
+        }
+        
+        Checkpoint toCheckpoint() {
+            return new Checkpoint(inputOffset, lines, outputBytes, answered, failed, tokensUsed, promptTokens);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package edu.study.llm_application.infrastructure.rag;
+
+import edu.study.llm_application.domain.entities.DocumentChunk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Append-only file of chunk texts addressed by node id
+ * Records are [length][id][chunk index][document id length][document id][text] with UTF-8 strings.
+ * Only record offsets live on the heap; texts are read back for the few chunks a search returns
+ */
+class ChunkStore implements Closeable {
+    
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 2;
+    
+    private final FileChannel channel;
+    private long[] offsets = new long[1024];
+    private long end;
+    
+    private ChunkStore(FileChannel channel) {
+        this.channel = channel;
+    }
+    
+    /**
+     * Opens the store, keeping the records of the ids the graph knows about
+     * Records past the last complete one, left by a crash, are cut off
+     *
+     * @param count number of nodes in the graph
+     */
+    static ChunkStore open(Path file, int count) throws IOException {
+        ChunkStore store = new ChunkStore(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        store.load(count);
+        return store;
+    }
+    
+    /**
+     * Appends the chunk of a node id
+     */
+    synchronized void append(int id, DocumentChunk chunk) throws IOException {
+        byte[] documentId = chunk.getDocumentId().getBytes(StandardCharsets.UTF_8);
+        byte[] text = chunk.getText().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + documentId.length + text.length);
+        record.putInt(record.capacity() - 4)
+                .putInt(id)
+                .putInt(chunk.getIndex())
+                .putShort((short) documentId.length)
+                .put(documentId)
+                .put(text)
+                .flip();
+        while (record.hasRemaining()) {
+            end += channel.write(record, end);
+        }
+        setOffset(id, end - record.capacity());
+    }
+    
+    /**
+     * Reads the chunk of a node id
+     */
+    DocumentChunk read(int id) throws IOException {
+        long offset;
+        synchronized (this) {
+            offset = id < offsets.length ? offsets[id] : -1;
+        }
+        if (offset < 0) {
+            throw new IOException("No chunk stored for node " + id);
+        }
+        
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(length, offset);
+        ByteBuffer record = ByteBuffer.allocate(length.flip().getInt());
+        readFully(record, offset + 4);
+        record.flip();
+        record.getInt();
+        int index = record.getInt();
+        byte[] documentId = new byte[record.getShort()];
+        record.get(documentId);
+        byte[] text = new byte[record.remaining()];
+        record.get(text);
+        return DocumentChunk.builder()
+                .documentId(new String(documentId, StandardCharsets.UTF_8))
+                .index(index)
+                .text(new String(text, StandardCharsets.UTF_8))
+                .build();
+    }
+    
+    void force() throws IOException {
+        channel.force(false);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private void load(int count) throws IOException {
+        Arrays.fill(offsets, -1);
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(8);
+        while (position + 8 <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            int id = header.getInt();
+            if (length < HEADER_BYTES - 4 || position + 4 + length > size) {
+                break;
+            }
+            // Chunks of nodes the last graph snapshot missed are dropped along with their vectors
+            if (id >= 0 && id < count) {
+                setOffset(id, position);
+            }
+            position += 4 + length;
+        }
+        end = position;
+        channel.truncate(end);
+    }
+    
+    private void setOffset(int id, long offset) {
+        if (id >= offsets.length) {
+            int previous = offsets.length;
+            offsets = Arrays.copyOf(offsets, Math.max(id + 1, previous * 2));
+            Arrays.fill(offsets, previous, offsets.length, -1);
+        }
+        offsets[id] = offset;
+    }
+    
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Chunk record cut short at " + position);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package edu.study.llm_application.infrastructure.rag;
+
+import edu.study.llm_application.domain.entities.DocumentChunk;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+import edu.study.llm_application.domain.ports.out.DocumentIndexPort;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import edu.study.llm_application.infrastructure.config.RagProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Document index adapter keeping chunk vectors in memory-mapped files and searching them with HNSW
+ * The files are created with the dimensions of the first chunk indexed. The graph is written to
+ * disk periodically and on shutdown; chunks added after the last snapshot are dropped on restart
+ */
+@Slf4j
+@Component
+public class HnswDocumentIndexAdapter implements DocumentIndexPort {
+    
+    private static final String VECTORS_FILE = "vectors.bin";
+    private static final String GRAPH_FILE = "graph.bin";
+    private static final String CHUNKS_FILE = "chunks.bin";
+    
+    private final RagProperties properties;
+    private final Path directory;
+    // Inserts share the lock; a snapshot takes it exclusively so it never sees a half-linked node
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final ExecutorService insertPool;
+    private final ScheduledExecutorService snapshotTimer;
+    private volatile Storage storage;
+    private volatile boolean dirty;
+    
+    public HnswDocumentIndexAdapter(RagProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.directory = Path.of(properties.getPath());
+        this.insertPool = Executors.newFixedThreadPool(properties.getIndex().getInsertThreads(), DaemonThreads.named("llm-rag-insert"));
+        this.snapshotTimer = Executors.newSingleThreadScheduledExecutor(DaemonThreads.named("llm-rag-snapshot"));
+        
+        if (Files.exists(directory.resolve(VECTORS_FILE))) {
+            try {
+                openStorage(0);
+            } catch (IOException | DocumentIndexException e) {
+                log.error("Failed to open the document index in {}: {}", directory, e.getMessage());
+            }
+        }
+        
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshotTimer.scheduleWithFixedDelay(this::snapshotQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        Gauge.builder("llm.rag.index.chunks", this, HnswDocumentIndexAdapter::size)
+                .description("Chunks in the document index")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public CompletableFuture<Void> add(List<DocumentChunk> chunks, List<float[]> vectors) {
+        if (chunks.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        Storage current;
+        try {
+            current = openStorage(vectors.get(0).length);
+            for (float[] vector : vectors) {
+                checkDimensions(current, vector);
+            }
+        } catch (IOException | DocumentIndexException e) {
+            return CompletableFuture.failedFuture(e instanceof DocumentIndexException ? e
+                    : new DocumentIndexException("Failed to open the document index: " + e.getMessage(), e));
+        }
+        
+        // Contiguous slices are linked concurrently; the graph only locks the nodes being updated
+        int slices = Math.min(properties.getIndex().getInsertThreads(), chunks.size());
+        List<CompletableFuture<Void>> inserts = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++) {
+            int from = (int) ((long) chunks.size() * slice / slices);
+            int to = (int) ((long) chunks.size() * (slice + 1) / slices);
+            inserts.add(CompletableFuture.runAsync(() -> insertRange(current, chunks, vectors, from, to), insertPool));
+        }
+        return CompletableFuture.allOf(inserts.toArray(CompletableFuture[]::new));
+    }
+    
+    @Override
+    public List<RetrievedChunk> search(float[] query, int topK) throws DocumentIndexException {
+        Storage current = storage;
+        if (current == null) {
+            return List.of();
+        }
+        checkDimensions(current, query);
+        
+        List<HnswIndex.Hit> hits = current.index().search(normalize(query), topK, properties.getIndex().getEfSearch());
+        List<RetrievedChunk> chunks = new ArrayList<>(hits.size());
+        try {
+            for (HnswIndex.Hit hit : hits) {
+                DocumentChunk chunk = current.chunks().read(hit.id());
+                chunks.add(RetrievedChunk.builder()
+                        .documentId(chunk.getDocumentId())
+                        .chunkIndex(chunk.getIndex())
+                        .text(chunk.getText())
+                        .score(hit.score())
+                        .build());
+            }
+        } catch (IOException e) {
+            throw new DocumentIndexException("Failed to read retrieved chunks: " + e.getMessage(), e);
+        }
+        return chunks;
+    }
+    
+    @Override
+    public long size() {
+        Storage current = storage;
+        return current == null ? 0 : current.index().size();
+    }
+    
+    /**
+     * Writes the graph and flushes vectors and chunks if anything was added since the last snapshot
+     */
+    public void snapshot() throws IOException {
+        Storage current = storage;
+        if (current == null || !dirty) {
+            return;
+        }
+        Lock lock = snapshotLock.writeLock();
+        lock.lock();
+        try {
+            dirty = false;
+            current.vectors().force();
+            current.chunks().force();
+            current.index().save(directory.resolve(GRAPH_FILE));
+            log.debug("Document index snapshot written with {} chunks", current.index().size());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        snapshotTimer.shutdownNow();
+        insertPool.shutdown();
+        try {
+            insertPool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshotQuietly();
+        
+        Storage current = storage;
+        if (current != null) {
+            try {
+                current.chunks().close();
+                current.vectors().close();
+            } catch (IOException e) {
+                log.warn("Failed to close the document index: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private void insertRange(Storage current, List<DocumentChunk> chunks, List<float[]> vectors, int from, int to) {
+        Lock lock = snapshotLock.readLock();
+        for (int i = from; i < to; i++) {
+            lock.lock();
+            try {
+                // The chunk is stored before its node is linked, so a search never finds a node without text
+                int id = current.index().reserve();
+                current.chunks().append(id, chunks.get(i));
+                current.index().insert(id, normalize(vectors.get(i)));
+                dirty = true;
+            } catch (IOException e) {
+                throw new CompletionException(new DocumentIndexException("Failed to index chunk: " + e.getMessage(), e));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Opens the files of the index, creating them for vectors of the given dimensions if needed
+     */
+    private synchronized Storage openStorage(int dimensions) throws IOException, DocumentIndexException {
+        if (storage != null) {
+            return storage;
+        }
+        
+        Files.createDirectories(directory);
+        MappedVectorStore vectors = MappedVectorStore.open(
+                directory.resolve(VECTORS_FILE), dimensions, properties.getIndex().getSegmentSize());
+        if (vectors == null) {
+            throw new DocumentIndexException("Document index " + directory + " is used by another process");
+        }
+        
+        try {
+            HnswIndex index = new HnswIndex(vectors, properties.getIndex().getM(), properties.getIndex().getEfConstruction());
+            Path graph = directory.resolve(GRAPH_FILE);
+            int count = Files.exists(graph) ? index.load(graph) : 0;
+            ChunkStore chunks = ChunkStore.open(directory.resolve(CHUNKS_FILE), count);
+            storage = new Storage(vectors, index, chunks);
+            log.info("Document index {} opened with {} chunks of {} dimensions", directory, count, vectors.dimensions());
+            return storage;
+        } catch (IOException e) {
+            vectors.close();
+            throw e;
+        }
+    }
+    
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            log.error("Failed to write the document index snapshot: {}", e.getMessage());
+        }
+    }
+    
+    private static void checkDimensions(Storage current, float[] vector) throws DocumentIndexException {
+        if (vector.length != current.vectors().dimensions()) {
+            throw new DocumentIndexException("Embedding has " + vector.length + " dimensions but the index holds "
+                    + current.vectors().dimensions() + "; chunks and queries must use the same embedding model");
+        }
+    }
+    
+    /**
+     * Scales a vector to unit length, so the dot product of two vectors is their cosine similarity
+     */
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return vector;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+    
+    private record Storage(MappedVectorStore vectors, HnswIndex index, ChunkStore chunks) {
+    }
+}
@@ -0,0 +1,487 @@
+package edu.study.llm_application.infrastructure.rag;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hierarchical navigable small world graph for approximate nearest neighbour search by cosine similarity
+ * Vectors live in a {@link MappedVectorStore} and must be unit length, so the dot product is the
+ * similarity. Each node keeps a neighbour list per layer on the heap, guarded by a striped lock;
+ * searches take the lock of a node only for the copy of its list, so inserts and searches run in
+ * parallel. Node tables are paged, so the graph grows without ever copying them
+ */
+public class HnswIndex {
+    
+    private static final int MAGIC = 0x484E5357;
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_PAGES = 1 << (31 - PAGE_BITS);
+    private static final int LOCK_STRIPES = 4096;
+    private static final int MAX_LEVEL = 16;
+    
+    private final MappedVectorStore vectors;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final AtomicReferenceArray<int[][][]> pages = new AtomicReferenceArray<>(MAX_PAGES);
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Object entryLock = new Object();
+    private final ThreadLocal<SearchState> searchState;
+    private volatile EntryPoint entryPoint;
+    
+    /**
+     * @param m neighbours kept per node on the upper layers, twice as many on the bottom one
+     * @param efConstruction candidates examined when linking a new node
+     */
+    public HnswIndex(MappedVectorStore vectors, int m, int efConstruction) {
+        this.vectors = vectors;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(m);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.searchState = ThreadLocal.withInitial(() -> new SearchState(maxM0));
+    }
+    
+    /**
+     * Claims the id of the next node, which {@link #insert} must then be called with
+     */
+    public int reserve() {
+        return nextId.getAndIncrement();
+    }
+    
+    /**
+     * Number of ids handed out
+     */
+    public int size() {
+        return nextId.get();
+    }
+    
+    /**
+     * Stores a unit length vector under a reserved id and links it into the graph
+     */
+    public void insert(int id, float[] vector) throws IOException {
+        vectors.set(id, vector);
+        int level = randomLevel();
+        int[][] links = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        synchronized (lock(id)) {
+            setNode(id, links);
+        }
+        
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            synchronized (entryLock) {
+                if (entryPoint == null) {
+                    entryPoint = new EntryPoint(id, level);
+                    return;
+                }
+                entry = entryPoint;
+            }
+        }
+        
+        SearchState state = searchState.get();
+        int current = entry.id();
+        float currentScore = vectors.dot(current, vector);
+        for (int l = entry.level(); l > level; l--) {
+            current = greedyClosest(vector, current, currentScore, l, state);
+            currentScore = vectors.dot(current, vector);
+        }
+        
+        int[] entries = {current};
+        for (int l = Math.min(level, entry.level()); l >= 0; l--) {
+            NodeHeap found = searchLayer(vector, entries, efConstruction, l, state);
+            int[] candidates = found.drainBestFirst();
+            int[] neighbours = selectNeighbours(vector, candidates, l == 0 ? maxM0 : m);
+            synchronized (lock(id)) {
+                int[] list = links[l];
+                list[0] = neighbours.length;
+                System.arraycopy(neighbours, 0, list, 1, neighbours.length);
+            }
+            for (int neighbour : neighbours) {
+                connect(neighbour, id, l);
+            }
+            entries = candidates;
+        }
+        
+        if (level > entry.level()) {
+            synchronized (entryLock) {
+                if (level > entryPoint.level()) {
+                    entryPoint = new EntryPoint(id, level);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Finds the nodes most similar to a unit length query
+     *
+     * @param k number of nodes to return
+     * @param ef candidates examined on the bottom layer; higher means better recall and slower queries
+     * @return up to k hits, most similar first
+     */
+    public List<Hit> search(float[] query, int k, int ef) {
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            return List.of();
+        }
+        
+        SearchState state = searchState.get();
+        int current = entry.id();
+        float currentScore = vectors.dot(current, query);
+        for (int l = entry.level(); l > 0; l--) {
+            current = greedyClosest(query, current, currentScore, l, state);
+            currentScore = vectors.dot(current, query);
+        }
+        
+        NodeHeap found = searchLayer(query, new int[]{current}, Math.max(ef, k), 0, state);
+        while (found.size() > k) {
+            found.pop();
+        }
+        Hit[] hits = new Hit[found.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            float score = found.topScore();
+            hits[i] = new Hit(found.pop(), score);
+        }
+        return Arrays.asList(hits);
+    }
+    
+    /**
+     * Writes the graph to a file, replacing it atomically
+     * No insert may run meanwhile, so that every reserved id is linked
+     */
+    public void save(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        EntryPoint entry = entryPoint;
+        int count = nextId.get();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(m);
+            out.writeInt(count);
+            out.writeInt(entry == null ? -1 : entry.id());
+            out.writeInt(entry == null ? -1 : entry.level());
+            for (int id = 0; id < count; id++) {
+                int[][] links = node(id);
+                if (links == null) {
+                    out.writeByte(-1);
+                    continue;
+                }
+                out.writeByte(links.length - 1);
+                synchronized (lock(id)) {
+                    for (int[] list : links) {
+                        out.writeShort(list[0]);
+                        for (int i = 1; i <= list[0]; i++) {
+                            out.writeInt(list[i]);
+                        }
+                    }
+                }
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Reads a graph written by {@link #save} into this empty index
+     *
+     * @return the number of nodes loaded
+     */
+    public int load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not an HNSW graph");
+            }
+            if (in.readInt() != m) {
+                throw new IOException(file + " was built with a different number of neighbours per node");
+            }
+            int count = in.readInt();
+            int entryId = in.readInt();
+            int entryLevel = in.readInt();
+            vectors.mapExisting(count);
+            for (int id = 0; id < count; id++) {
+                int level = in.readByte();
+                if (level < 0) {
+                    continue;
+                }
+                int[][] links = new int[level + 1][];
+                for (int l = 0; l <= level; l++) {
+                    int[] list = new int[(l == 0 ? maxM0 : m) + 1];
+                    list[0] = in.readShort();
+                    for (int i = 1; i <= list[0]; i++) {
+                        list[i] = in.readInt();
+                    }
+                    links[l] = list;
+                }
+                setNode(id, links);
+            }
+            nextId.set(count);
+            entryPoint = entryId < 0 ? null : new EntryPoint(entryId, entryLevel);
+            return count;
+        }
+    }
+    
+    /**
+     * Walks a layer towards the query, always moving to the most similar neighbour
+     */
+    private int greedyClosest(float[] query, int current, float currentScore, int level, SearchState state) {
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            int count = copyNeighbours(current, level, state.neighbours);
+            for (int i = 0; i < count; i++) {
+                int candidate = state.neighbours[i];
+                float score = vectors.dot(candidate, query);
+                if (score > currentScore) {
+                    current = candidate;
+                    currentScore = score;
+                    moved = true;
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Best-first search of one layer, keeping the ef most similar nodes seen
+     *
+     * @return the nodes found, least similar on top
+     */
+    private NodeHeap searchLayer(float[] query, int[] entries, int ef, int level, SearchState state) {
+        NodeHeap candidates = state.candidates;
+        NodeHeap results = new NodeHeap(ef + 1, true);
+        candidates.clear();
+        state.visited.reset(nextId.get());
+        
+        for (int entry : entries) {
+            if (state.visited.mark(entry)) {
+                float score = vectors.dot(entry, query);
+                candidates.push(entry, score);
+                results.push(entry, score);
+                if (results.size() > ef) {
+                    results.pop();
+                }
+            }
+        }
+        
+        while (candidates.size() > 0) {
+            float bestScore = candidates.topScore();
+            if (results.size() >= ef && bestScore < results.topScore()) {
+                break;
+            }
+            int count = copyNeighbours(candidates.pop(), level, state.neighbours);
+            for (int i = 0; i < count; i++) {
+                int neighbour = state.neighbours[i];
+                if (!state.visited.mark(neighbour)) {
+                    continue;
+                }
+                float score = vectors.dot(neighbour, query);
+                if (results.size() < ef || score > results.topScore()) {
+                    candidates.push(neighbour, score);
+                    results.push(neighbour, score);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Keeps the candidates that are closer to the vector than to any neighbour already kept,
+     * so the links point in diverse directions instead of into one dense cluster
+     *
+     * @param candidates node ids, most similar first
+     */
+    private int[] selectNeighbours(float[] vector, int[] candidates, int limit) {
+        if (candidates.length <= limit) {
+            return candidates;
+        }
+        List<float[]> keptVectors = new ArrayList<>(limit);
+        int[] kept = new int[limit];
+        int size = 0;
+        for (int candidate : candidates) {
+            float[] candidateVector = vectors.get(candidate);
+            float similarity = MappedVectorStore.dot(candidateVector, vector);
+            boolean diverse = true;
+            for (float[] keptVector : keptVectors) {
+                if (MappedVectorStore.dot(candidateVector, keptVector) > similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                kept[size++] = candidate;
+                keptVectors.add(candidateVector);
+                if (size == limit) {
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+    
+    /**
+     * Adds a link from an existing node to a new one
+     * A full list is updated incrementally rather than re-pruned: the new node is skipped when a
+     * closer neighbour already covers its direction, and otherwise replaces the neighbour it makes
+     * redundant, or failing that the least similar one. This costs a linear number of distance
+     * computations instead of a quadratic one
+     */
+    private void connect(int node, int newNode, int level) {
+        synchronized (lock(node)) {
+            int[] list = node(node)[level];
+            int limit = list.length - 1;
+            if (list[0] < limit) {
+                list[++list[0]] = newNode;
+                return;
+            }
+            
+            float[] nodeVector = vectors.get(node);
+            float[] newVector = vectors.get(newNode);
+            float newScore = MappedVectorStore.dot(nodeVector, newVector);
+            int covered = -1;
+            float coveredScore = Float.MAX_VALUE;
+            int weakest = -1;
+            float weakestScore = Float.MAX_VALUE;
+            for (int i = 1; i <= limit; i++) {
+                float score = vectors.dot(list[i], nodeVector);
+                float toNew = vectors.dot(list[i], newVector);
+                if (score > newScore && toNew > newScore) {
+                    return;
+                }
+                if (score < newScore && toNew > score && score < coveredScore) {
+                    covered = i;
+                    coveredScore = score;
+                }
+                if (score < weakestScore) {
+                    weakest = i;
+                    weakestScore = score;
+                }
+            }
+            if (covered > 0) {
+                list[covered] = newNode;
+            } else if (newScore > weakestScore) {
+                list[weakest] = newNode;
+            }
+        }
+    }
+    
+    /**
+     * Copies the neighbours of a node on a layer into a buffer
+     *
+     * @return the number of neighbours copied
+     */
+    private int copyNeighbours(int id, int level, int[] buffer) {
+        synchronized (lock(id)) {
+            int[][] links = node(id);
+            if (links == null || level >= links.length) {
+                return 0;
+            }
+            int[] list = links[level];
+            System.arraycopy(list, 1, buffer, 0, list[0]);
+            return list[0];
+        }
+    }
+    
+    private int[][] node(int id) {
+        int[][][] page = pages.get(id >>> PAGE_BITS);
+        return page == null ? null : page[id & (PAGE_SIZE - 1)];
+    }
+    
+    private void setNode(int id, int[][] links) {
+        int pageNumber = id >>> PAGE_BITS;
+        int[][][] page = pages.get(pageNumber);
+        if (page == null) {
+            pages.compareAndSet(pageNumber, null, new int[PAGE_SIZE][][]);
+            page = pages.get(pageNumber);
+        }
+        page[id & (PAGE_SIZE - 1)] = links;
+    }
+    
+    private Object lock(int id) {
+        return locks[id & (LOCK_STRIPES - 1)];
+    }
+    
+    private int randomLevel() {
+        double uniform = 1 - ThreadLocalRandom.current().nextDouble();
+        return Math.min(MAX_LEVEL, (int) (-Math.log(uniform) * levelFactor));
+    }
+    
+    /**
+     * A node found by a search and its similarity to the query
+     */
+    public record Hit(int id, float score) {
+    }
+    
+    private record EntryPoint(int id, int level) {
+    }
+    
+    /**
+     * Buffers reused by the searches of one thread
+     */
+    private static final class SearchState {
+        
+        private final VisitedSet visited = new VisitedSet();
+        private final NodeHeap candidates = new NodeHeap(64, false);
+        private final int[] neighbours;
+        
+        SearchState(int maxNeighbours) {
+            this.neighbours = new int[maxNeighbours];
+        }
+    }
+    
+    /**
+     * Set of visited node ids, cleared in constant time by moving to a new epoch
+     */
+    private static final class VisitedSet {
+        
+        private int[] marks = new int[0];
+        private int epoch;
+        
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+        
+        /**
+         * Marks a node visited
+         *
+         * @return whether it was not visited before
+         */
+        boolean mark(int id) {
+            if (id >= marks.length) {
+                // Linked by an insert that started after this search did
+                marks = Arrays.copyOf(marks, Math.max(id + 1, marks.length * 2));
+            }
+            if (marks[id] == epoch) {
+                return false;
+            }
+            marks[id] = epoch;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package edu.study.llm_application.infrastructure.rag;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed dimension float vectors addressed by id, kept in a memory-mapped file
+ * The file starts with a small header holding the dimensions, followed by the vectors in id order,
+ * mapped in segments of whole vectors so no vector straddles two mappings.
+ * Vectors stay off the heap, so the page cache rather than the garbage collector holds a large index
+ */
+public class MappedVectorStore implements Closeable {
+    
+    private static final int MAGIC = 0x56454331;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAX_SEGMENTS = 1 << 16;
+    
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final int dimensions;
+    private final int vectorsPerSegment;
+    private final AtomicReferenceArray<FloatBuffer> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final List<MappedByteBuffer> mappings = new ArrayList<>();
+    private final ThreadLocal<float[]> scratch;
+    
+    private MappedVectorStore(FileChannel channel, FileLock lock, int dimensions, long segmentSize) {
+        this.channel = channel;
+        this.lock = lock;
+        this.dimensions = dimensions;
+        this.vectorsPerSegment = (int) Math.max(1, segmentSize / ((long) dimensions * Float.BYTES));
+        this.scratch = ThreadLocal.withInitial(() -> new float[dimensions]);
+    }
+    
+    /**
+     * Opens the store in a file, creating it for vectors of the given dimensions if it does not exist
+     *
+     * @param dimensions dimensions of a new store; ignored for an existing one, which keeps its own
+     * @return the store, or null if another process holds the file
+     */
+    public static MappedVectorStore open(Path file, int dimensions, long segmentSize) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock lock = tryLock(channel);
+        if (lock == null) {
+            channel.close();
+            return null;
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() >= HEADER_BYTES) {
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                lock.release();
+                channel.close();
+                throw new IOException(file + " is not a vector store");
+            }
+            dimensions = header.getInt();
+        } else {
+            header.putInt(MAGIC).putInt(dimensions).flip();
+            channel.write(header, 0);
+        }
+        return new MappedVectorStore(channel, lock, dimensions, segmentSize);
+    }
+    
+    public int dimensions() {
+        return dimensions;
+    }
+    
+    /**
+     * Writes the vector of an id, growing the file as needed
+     * A vector must be written before its id is handed to readers
+     */
+    public void set(int id, float[] vector) throws IOException {
+        segment(id / vectorsPerSegment).put((id % vectorsPerSegment) * dimensions, vector);
+    }
+    
+    /**
+     * Reads the vector of an id into a new array
+     */
+    public float[] get(int id) {
+        float[] vector = new float[dimensions];
+        segments.get(id / vectorsPerSegment).get((id % vectorsPerSegment) * dimensions, vector);
+        return vector;
+    }
+    
+    /**
+     * Dot product of a stored vector with the given one
+     */
+    public float dot(int id, float[] vector) {
+        // A bulk copy out of the mapping is a memcpy; the loop over plain arrays then runs without per-element checks
+        float[] stored = scratch.get();
+        segments.get(id / vectorsPerSegment).get((id % vectorsPerSegment) * dimensions, stored);
+        return dot(stored, vector);
+    }
+    
+    /**
+     * Dot product of two vectors of the same length
+     */
+    public static float dot(float[] a, float[] b) {
+        // Independent accumulators let the multiplications overlap instead of waiting on one sum
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (; i + 3 < a.length; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+    
+    /**
+     * Maps the segments already present in the file, so stored vectors can be read after a restart
+     */
+    public void mapExisting(int count) throws IOException {
+        if (count > 0) {
+            segment((count - 1) / vectorsPerSegment);
+        }
+    }
+    
+    /**
+     * Flushes written vectors to the file
+     */
+    public synchronized void force() {
+        mappings.forEach(MappedByteBuffer::force);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        lock.release();
+        channel.close();
+    }
+    
+    private FloatBuffer segment(int number) throws IOException {
+        FloatBuffer segment = segments.get(number);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (this) {
+            for (int s = mappings.size(); s <= number; s++) {
+                long bytes = (long) vectorsPerSegment * dimensions * Float.BYTES;
+                MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + s * bytes, bytes);
+                mapping.order(ByteOrder.LITTLE_ENDIAN);
+                mappings.add(mapping);
+                segments.set(s, mapping.asFloatBuffer());
+            }
+            return segments.get(number);
+        }
+    }
+    
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package edu.study.llm_application.infrastructure.rag;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of node ids ordered by similarity, without boxing
+ * Either the least or the most similar node is on top
+ */
+final class NodeHeap {
+    
+    private final boolean leastSimilarOnTop;
+    private int[] ids;
+    private float[] scores;
+    private int size;
+    
+    NodeHeap(int capacity, boolean leastSimilarOnTop) {
+        this.ids = new int[Math.max(1, capacity)];
+        this.scores = new float[Math.max(1, capacity)];
+        this.leastSimilarOnTop = leastSimilarOnTop;
+    }
+    
+    void push(int id, float score) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        int position = size++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!above(score, scores[parent])) {
+                break;
+            }
+            ids[position] = ids[parent];
+            scores[position] = scores[parent];
+            position = parent;
+        }
+        ids[position] = id;
+        scores[position] = score;
+    }
+    
+    /**
+     * Removes the node on top
+     *
+     * @return its id
+     */
+    int pop() {
+        int top = ids[0];
+        size--;
+        if (size > 0) {
+            int lastId = ids[size];
+            float lastScore = scores[size];
+            int position = 0;
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!above(scores[child], lastScore)) {
+                    break;
+                }
+                ids[position] = ids[child];
+                scores[position] = scores[child];
+                position = child;
+            }
+            ids[position] = lastId;
+            scores[position] = lastScore;
+        }
+        return top;
+    }
+    
+    float topScore() {
+        return scores[0];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    void clear() {
+        size = 0;
+    }
+    
+    /**
+     * Empties the heap
+     *
+     * @return the ids it held, most similar first
+     */
+    int[] drainBestFirst() {
+        int[] drained = new int[size];
+        if (leastSimilarOnTop) {
+            for (int i = drained.length - 1; i >= 0; i--) {
+                drained[i] = pop();
+            }
+        } else {
+            for (int i = 0; i < drained.length; i++) {
+                drained[i] = pop();
+            }
+        }
+        return drained;
+    }
+    
+    private boolean above(float score, float other) {
+        return leastSimilarOnTop ? score < other : score > other;
+    }
+}
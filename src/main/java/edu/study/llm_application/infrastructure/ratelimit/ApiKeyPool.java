@@ -0,0 +1,214 @@
+package edu.study.llm_application.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of provider API keys with separate rate limits
+ * Each request goes to the key with the most request and token headroom for its model,
+ * as learned from the rate limit headers; keys answering 429 or 401 sit out for a while.
+ * Selection only reads atomics, so concurrent requests never contend on a lock
+ */
+@Slf4j
+@Component
+public class ApiKeyPool {
+    
+    private final List<ApiKey> keys;
+    private final RateLimitPacer pacer;
+    private final Duration rateLimitedQuarantine;
+    private final Duration unauthorizedQuarantine;
+    private final AtomicInteger rotation = new AtomicInteger();
+    
+    public ApiKeyPool(@Value("${openai.api.keys:}") String keys,
+                      @Value("${openai.api.key:demo-key}") String fallbackKey,
+                      @Value("${openai.api.key-quarantine.rate-limited:10s}") Duration rateLimitedQuarantine,
+                      @Value("${openai.api.key-quarantine.unauthorized:5m}") Duration unauthorizedQuarantine,
+                      RateLimitPacer pacer,
+                      MeterRegistry meterRegistry) {
+        List<String> secrets = Arrays.stream(keys.split(","))
+                .map(String::trim)
+                .filter(secret -> !secret.isEmpty())
+                .distinct()
+                .toList();
+        if (secrets.isEmpty()) {
+            secrets = List.of(fallbackKey);
+        }
+        
+        List<ApiKey> pool = new ArrayList<>();
+        for (int i = 0; i < secrets.size(); i++) {
+            ApiKey key = new ApiKey("key-" + i, secrets.get(i), meterRegistry);
+            Gauge.builder("llm.provider.key.quarantined", key, k -> k.isQuarantined() ? 1 : 0)
+                    .description("Whether the API key is sitting out after a 429 or 401")
+                    .tag("key", key.id())
+                    .register(meterRegistry);
+            pool.add(key);
+        }
+        this.keys = List.copyOf(pool);
+        this.pacer = pacer;
+        this.rateLimitedQuarantine = rateLimitedQuarantine;
+        this.unauthorizedQuarantine = unauthorizedQuarantine;
+        log.info("API key pool initialized with {} key(s)", this.keys.size());
+    }
+    
+    /**
+     * Picks the key for the next request to a model and marks it in flight
+     * The caller must {@link ApiKey#release() release} it once the call finishes
+     */
+    public ApiKey acquire(String model) {
+        int size = keys.size();
+        // Rotating the starting point spreads requests across keys with equal headroom
+        int start = Math.floorMod(rotation.getAndIncrement(), size);
+        
+        ApiKey best = null;
+        double bestScore = -1;
+        ApiKey soonestBack = null;
+        for (int i = 0; i < size; i++) {
+            ApiKey key = keys.get((start + i) % size);
+            if (key.isQuarantined()) {
+                if (soonestBack == null || key.quarantinedUntil - soonestBack.quarantinedUntil < 0) {
+                    soonestBack = key;
+                }
+                continue;
+            }
+            double score = pacer.headroom(key.scope(model)) / (1 + key.inFlight.get());
+            if (score > bestScore) {
+                best = key;
+                bestScore = score;
+            }
+        }
+        
+        // With every key quarantined, the one coming back first is the best bet
+        ApiKey chosen = best != null ? best : soonestBack;
+        chosen.inFlight.incrementAndGet();
+        chosen.requests.increment();
+        return chosen;
+    }
+    
+    /**
+     * Whether any key is out of quarantine and could take a request right now
+     */
+    public boolean hasAvailableKey() {
+        for (ApiKey key : keys) {
+            if (!key.isQuarantined()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Records the rate limit headers a key received for a model
+     */
+    public void recordResponse(ApiKey key, String model, HttpHeaders headers) {
+        pacer.update(key.scope(model), headers);
+    }
+    
+    /**
+     * Records a failed call, quarantining the key on 429 and 401
+     */
+    public void recordFailure(ApiKey key, String model, WebClientResponseException failure) {
+        pacer.update(key.scope(model), failure.getHeaders());
+        int status = failure.getStatusCode().value();
+        Duration quarantine;
+        if (status == 401 || status == 403 || isQuotaExhausted(failure)) {
+            quarantine = unauthorizedQuarantine;
+        } else if (status == 429) {
+            Duration hint = ProviderRetryPolicy.providerHint(failure.getHeaders());
+            quarantine = hint != null ? hint : rateLimitedQuarantine;
+        } else {
+            return;
+        }
+        key.quarantinedUntil = System.nanoTime() + quarantine.toNanos();
+        log.warn("Quarantining API key {} for {} ms after HTTP {}", key.id(), quarantine.toMillis(), status);
+    }
+    
+    /**
+     * Whether a failure is specific to the key it was sent with, so another key may succeed
+     */
+    public static boolean isKeyFailure(Throwable failure) {
+        if (failure instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            return status == 401 || status == 403 || status == 429;
+        }
+        return false;
+    }
+    
+    private static boolean isQuotaExhausted(WebClientResponseException failure) {
+        return failure.getStatusCode().value() == 429 
+                && ProviderRetryPolicy.classify(failure) == ProviderRetryPolicy.Classification.NOT_RETRYABLE;
+    }
+    
+    /**
+     * Number of keys in the pool
+     */
+    public int size() {
+        return keys.size();
+    }
+    
+    /**
+     * One API key and its in-flight and quarantine state
+     */
+    public static final class ApiKey {
+        
+        private final String id;
+        private final String secret;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter requests;
+        private volatile long quarantinedUntil = System.nanoTime();
+        
+        private ApiKey(String id, String secret, MeterRegistry meterRegistry) {
+            this.id = id;
+            this.secret = secret;
+            this.requests = Counter.builder("llm.provider.key.requests")
+                    .description("Provider requests sent with the API key")
+                    .tag("key", id)
+                    .register(meterRegistry);
+        }
+        
+        /**
+         * Identifier of the key that is safe to log and tag metrics with
+         */
+        public String id() {
+            return id;
+        }
+        
+        public String secret() {
+            return secret;
+        }
+        
+        /**
+         * Marks the call made with this key as finished
+         */
+        public void release() {
+            inFlight.decrementAndGet();
+        }
+        
+        /**
+         * Rate limit scope of this key for a model
+         */
+        public String scope(String model) {
+            return id + ":" + model;
+        }
+        
+        boolean isQuarantined() {
+            return quarantinedUntil - System.nanoTime() > 0;
+        }
+        
+        @Override
+        public String toString() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package edu.study.llm_application.infrastructure.ratelimit;
+
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.infrastructure.config.RetryProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Retry policy for provider calls honoring Retry-After and rate limit reset headers
+ * Falls back to exponential backoff with full jitter, never sleeps past the request
+ * deadline and draws every retry from a global budget
+ */
+@Slf4j
+@Component
+public class ProviderRetryPolicy {
+    
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final RetryBudget budget;
+    
+    public ProviderRetryPolicy(RetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.budget = new RetryBudget(properties.getBudgetRatio(), properties.getBudgetCapacity());
+        Gauge.builder("llm.provider.retry.budget", budget, RetryBudget::available)
+                .description("Retries currently available in the global retry budget")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * How safe it is to send a failed request again
+     */
+    public enum Classification {
+        /**
+         * The provider rejected the request without running it (429, 503, connection failures)
+         */
+        SAFE,
+        /**
+         * The provider may have run the generation before failing (500, 502, 504)
+         */
+        POSSIBLY_PROCESSED,
+        /**
+         * Retrying cannot succeed (other 4xx, exhausted quota, timeouts, parse errors)
+         */
+        NOT_RETRYABLE
+    }
+    
+    /**
+     * Records an original (non-retry) request, which earns part of a retry for the budget
+     */
+    public void recordRequest() {
+        budget.deposit();
+    }
+    
+    /**
+     * Builds the Reactor retry spec of one provider call
+     * 
+     * @param scope label of the call used in metrics, usually the model
+     * @param deadline deadline of the request, or null
+     * @param retryable extra condition checked before retrying, e.g. nothing was streamed yet
+     */
+    public Retry retrySpec(String scope, Deadline deadline, BooleanSupplier retryable) {
+        return retrySpec(scope, deadline, retryable, failure -> false);
+    }
+    
+    /**
+     * Builds the Reactor retry spec of a provider call that can fail over to another credential
+     * 
+     * @param failover tells whether a failure tied to the credential can be retried right away with another one
+     */
+    public Retry retrySpec(String scope, Deadline deadline, BooleanSupplier retryable, Predicate<Throwable> failover) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            Duration delay = retryDelay(failure, signal.totalRetries(), deadline, retryable, failover);
+            if (delay == null) {
+                return Mono.error(failure);
+            }
+            log.warn("Retrying {} call in {} ms after: {}", scope, delay.toMillis(), failure.getMessage());
+            meterRegistry.counter("llm.provider.retries", "scope", scope, "reason", reasonOf(failure)).increment();
+            return Mono.delay(delay);
+        }));
+    }
+    
+    /**
+     * Classifies a failure by whether the provider could have processed the request
+     */
+    public static Classification classify(Throwable failure) {
+        if (failure instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            if (status == 429) {
+                // An exhausted billing quota does not recover by waiting
+                return e.getResponseBodyAsString().contains("insufficient_quota")
+                        ? Classification.NOT_RETRYABLE : Classification.SAFE;
+            }
+            if (status == 503) {
+                return Classification.SAFE;
+            }
+            if (status == 500 || status == 502 || status == 504) {
+                return Classification.POSSIBLY_PROCESSED;
+            }
+            return Classification.NOT_RETRYABLE;
+        }
+        if (failure instanceof WebClientRequestException) {
+            return Classification.SAFE;
+        }
+        return Classification.NOT_RETRYABLE;
+    }
+    
+    /**
+     * Delay the provider asked for with Retry-After, retry-after-ms or rate limit reset headers
+     */
+    public static Duration providerHint(HttpHeaders headers) {
+        if (headers == null) {
+            return null;
+        }
+        
+        String retryAfterMs = headers.getFirst("retry-after-ms");
+        if (retryAfterMs != null) {
+            try {
+                return Duration.ofMillis((long) Double.parseDouble(retryAfterMs.trim()));
+            } catch (NumberFormatException ignored) {
+                // fall through to the other headers
+            }
+        }
+        
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    Duration untilThen = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                    return untilThen.isNegative() ? Duration.ZERO : untilThen;
+                } catch (DateTimeParseException ignored) {
+                    // fall through to the rate limit headers
+                }
+            }
+        }
+        
+        RateLimitSnapshot snapshot = RateLimitSnapshot.fromHeaders(headers);
+        Duration reset = null;
+        if (snapshot.remainingRequests() != null && snapshot.remainingRequests() == 0) {
+            reset = snapshot.resetRequests();
+        }
+        if (snapshot.remainingTokens() != null && snapshot.remainingTokens() == 0 
+                && snapshot.resetTokens() != null && (reset == null || snapshot.resetTokens().compareTo(reset) > 0)) {
+            reset = snapshot.resetTokens();
+        }
+        return reset;
+    }
+    
+    /**
+     * Delay before the next attempt, or null if the failure must not be retried
+     */
+    Duration retryDelay(Throwable failure, long retriesSoFar, Deadline deadline, BooleanSupplier retryable,
+                        Predicate<Throwable> failover) {
+        boolean failingOver = failover.test(failure);
+        Classification classification = failingOver ? Classification.SAFE : classify(failure);
+        if (classification == Classification.NOT_RETRYABLE
+                || (classification == Classification.POSSIBLY_PROCESSED && !properties.isRetryPossiblyProcessed())
+                || retriesSoFar >= properties.getMaxRetries()
+                || !retryable.getAsBoolean()) {
+            return null;
+        }
+        
+        // The provider's wait hint belongs to the failed credential, not to the one taking over
+        Duration hint = !failingOver && failure instanceof WebClientResponseException e ? providerHint(e.getHeaders()) : null;
+        Duration delay = hint != null ? withJitter(hint) : exponentialBackoff(retriesSoFar);
+        if (delay.compareTo(properties.getMaxBackoff()) > 0) {
+            delay = properties.getMaxBackoff();
+        }
+        
+        if (deadline != null && delay.compareTo(deadline.remaining()) >= 0) {
+            log.debug("Not retrying: backoff of {} ms would pass the deadline", delay.toMillis());
+            return null;
+        }
+        if (!budget.tryWithdraw()) {
+            meterRegistry.counter("llm.provider.retry.budget.exhausted").increment();
+            log.warn("Not retrying: retry budget exhausted");
+            return null;
+        }
+        return delay;
+    }
+    
+    /**
+     * Full jitter: a random delay between zero and the exponential bound
+     */
+    private Duration exponentialBackoff(long retriesSoFar) {
+        long bound = properties.getInitialBackoff().toMillis() << Math.min(retriesSoFar, 20);
+        bound = Math.min(bound, properties.getMaxBackoff().toMillis());
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+    
+    /**
+     * Spreads retries that were told to wait the same time, so they do not return at once
+     */
+    private static Duration withJitter(Duration hint) {
+        long spread = Math.max(1, hint.toMillis() / 10);
+        return hint.plusMillis(ThreadLocalRandom.current().nextLong(spread + 1));
+    }
+    
+    private static String reasonOf(Throwable failure) {
+        if (failure instanceof WebClientResponseException e) {
+            return String.valueOf(e.getStatusCode().value());
+        }
+        return failure.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,152 @@
+package edu.study.llm_application.infrastructure.ratelimit;
+
+import edu.study.llm_application.infrastructure.config.RetryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces outgoing requests from the quota the provider reports in its rate limit headers
+ * When the remaining quota of a window runs low, requests are spread over the time
+ * left until the window resets instead of being sent into certain 429s
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitPacer {
+    
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+    
+    /**
+     * Reserves quota for a request and returns how long it should wait before being sent
+     */
+    public Duration reserve(String scope, long estimatedTokens) {
+        if (!properties.getPacing().isEnabled()) {
+            return Duration.ZERO;
+        }
+        Quota quota = quotas.get(scope);
+        if (quota == null) {
+            return Duration.ZERO;
+        }
+        
+        Duration delay = quota.reserve(estimatedTokens, properties.getPacing().getThresholdRatio());
+        Duration maxDelay = properties.getPacing().getMaxDelay();
+        if (delay.compareTo(maxDelay) > 0) {
+            delay = maxDelay;
+        }
+        if (!delay.isZero()) {
+            meterRegistry.timer("llm.provider.pacing.delay", "scope", scope).record(delay);
+        }
+        return delay;
+    }
+    
+    /**
+     * Share of the request and token quota still available in a scope, 1.0 when nothing is known
+     */
+    public double headroom(String scope) {
+        Quota quota = quotas.get(scope);
+        return quota != null ? quota.headroom() : 1.0;
+    }
+    
+    /**
+     * Updates the known quota from the headers of a provider response
+     */
+    public void update(String scope, HttpHeaders headers) {
+        RateLimitSnapshot snapshot = RateLimitSnapshot.fromHeaders(headers);
+        if (!snapshot.isEmpty()) {
+            quotas.computeIfAbsent(scope, key -> new Quota()).update(snapshot);
+        }
+    }
+    
+    /**
+     * Quota of one rate limit scope, decremented locally between provider updates
+     */
+    static class Quota {
+        
+        private final AtomicLong remainingRequests = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong remainingTokens = new AtomicLong(Long.MAX_VALUE);
+        private volatile long limitRequests;
+        private volatile long limitTokens;
+        private volatile long requestsResetAt;
+        private volatile long tokensResetAt;
+        
+        void update(RateLimitSnapshot snapshot) {
+            long now = System.nanoTime();
+            if (snapshot.limitRequests() != null) {
+                limitRequests = snapshot.limitRequests();
+            }
+            if (snapshot.limitTokens() != null) {
+                limitTokens = snapshot.limitTokens();
+            }
+            if (snapshot.remainingRequests() != null) {
+                remainingRequests.set(snapshot.remainingRequests());
+                requestsResetAt = now + nanos(snapshot.resetRequests());
+            }
+            if (snapshot.remainingTokens() != null) {
+                remainingTokens.set(snapshot.remainingTokens());
+                tokensResetAt = now + nanos(snapshot.resetTokens());
+            }
+        }
+        
+        Duration reserve(long tokens, double thresholdRatio) {
+            long now = System.nanoTime();
+            
+            // A window that has reset gives back its whole limit until the provider says otherwise
+            if (now - requestsResetAt >= 0 && limitRequests > 0) {
+                remainingRequests.set(limitRequests);
+            }
+            if (now - tokensResetAt >= 0 && limitTokens > 0) {
+                remainingTokens.set(limitTokens);
+            }
+            
+            long requestsLeft = remainingRequests.decrementAndGet();
+            long tokensLeft = remainingTokens.addAndGet(-tokens);
+            
+            long delay = Math.max(
+                    delayFor(requestsLeft, 1, limitRequests, requestsResetAt - now, thresholdRatio),
+                    delayFor(tokensLeft, tokens, limitTokens, tokensResetAt - now, thresholdRatio));
+            return Duration.ofNanos(Math.max(0, delay));
+        }
+        
+        double headroom() {
+            long now = System.nanoTime();
+            return Math.min(
+                    ratio(remainingRequests.get(), limitRequests, requestsResetAt - now),
+                    ratio(remainingTokens.get(), limitTokens, tokensResetAt - now));
+        }
+        
+        private static double ratio(long left, long limit, long untilReset) {
+            if (limit <= 0 || untilReset <= 0) {
+                return 1.0;
+            }
+            return Math.max(0, Math.min(left, limit)) / (double) limit;
+        }
+        
+        /**
+         * Exhausted quota waits for the reset; low quota spreads the rest over the window
+         */
+        private static long delayFor(long left, long cost, long limit, long untilReset, double thresholdRatio) {
+            if (untilReset <= 0) {
+                return 0;
+            }
+            if (left < 0) {
+                return untilReset;
+            }
+            if (limit > 0 && left < limit * thresholdRatio) {
+                return untilReset * cost / (left + cost);
+            }
+            return 0;
+        }
+        
+        private static long nanos(Duration duration) {
+            return duration != null ? duration.toNanos() : 0;
+        }
+    }
+}
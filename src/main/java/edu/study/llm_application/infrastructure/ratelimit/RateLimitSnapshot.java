@@ -0,0 +1,80 @@
+package edu.study.llm_application.infrastructure.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rate limit state reported by the provider in x-ratelimit-* response headers
+ * Fields are null when the provider did not send the matching header
+ */
+public record RateLimitSnapshot(
+        Long limitRequests,
+        Long limitTokens,
+        Long remainingRequests,
+        Long remainingTokens,
+        Duration resetRequests,
+        Duration resetTokens) {
+    
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+    
+    /**
+     * Reads the snapshot from response headers
+     */
+    public static RateLimitSnapshot fromHeaders(HttpHeaders headers) {
+        if (headers == null) {
+            return new RateLimitSnapshot(null, null, null, null, null, null);
+        }
+        return new RateLimitSnapshot(
+                parseLong(headers.getFirst("x-ratelimit-limit-requests")),
+                parseLong(headers.getFirst("x-ratelimit-limit-tokens")),
+                parseLong(headers.getFirst("x-ratelimit-remaining-requests")),
+                parseLong(headers.getFirst("x-ratelimit-remaining-tokens")),
+                parseDuration(headers.getFirst("x-ratelimit-reset-requests")),
+                parseDuration(headers.getFirst("x-ratelimit-reset-tokens")));
+    }
+    
+    /**
+     * Checks if the provider reported any rate limit information
+     */
+    public boolean isEmpty() {
+        return remainingRequests == null && remainingTokens == null;
+    }
+    
+    /**
+     * Parses provider durations such as "20ms", "1s" or "6m0.5s"
+     */
+    static Duration parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double millis = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1_000;
+                default -> amount;
+            };
+        }
+        return matched ? Duration.ofMillis((long) Math.ceil(millis)) : null;
+    }
+    
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package edu.study.llm_application.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global budget capping retries to a share of the original requests
+ * Every request deposits a fraction of a token and every retry withdraws a whole one,
+ * so a provider outage cannot multiply the outgoing traffic into a retry storm
+ */
+public class RetryBudget {
+    
+    private static final long SCALE = 1000;
+    
+    private final long depositPerRequest;
+    private final long capacity;
+    private final AtomicLong balance;
+    
+    /**
+     * @param ratio retries allowed per original request, e.g. 0.1 for 10%
+     * @param capacity maximum number of retries that can be saved up for a burst
+     */
+    public RetryBudget(double ratio, int capacity) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.capacity = (long) capacity * SCALE;
+        this.balance = new AtomicLong(this.capacity);
+    }
+    
+    /**
+     * Records an original request, earning a share of a retry
+     */
+    public void deposit() {
+        balance.getAndUpdate(current -> Math.min(capacity, current + depositPerRequest));
+    }
+    
+    /**
+     * Takes one retry from the budget
+     * 
+     * @return true if the retry is allowed
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+    
+    /**
+     * Number of retries currently available
+     */
+    public double available() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,158 @@
+package edu.study.llm_application.infrastructure.replay;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import edu.study.llm_application.infrastructure.config.ReplayProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes recorded provider calls to gzip compressed JSONL files and reads them back
+ * Every run in record mode writes a file of its own; a background thread writes the calls, so the
+ * timings recorded are those of the provider alone. Each call ends a compressed block, so a run that
+ * dies keeps every call written before it
+ */
+@Slf4j
+@Component
+public class ProviderRecorder {
+    
+    private static final String PREFIX = "recording-";
+    private static final String SUFFIX = ".jsonl.gz";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+    
+    private final ReplayProperties properties;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private ExecutorService worker;
+    private OutputStream out;
+    private Path file;
+    
+    public ProviderRecorder(ReplayProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.writer = objectMapper.writerFor(ProviderRecording.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Derived getters such as isSuccessful are written too, and skipped when read back
+        this.reader = objectMapper.readerFor(ProviderRecording.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+    
+    /**
+     * Queues a call to be written to the recording of this run, opened with the first call
+     */
+    synchronized void write(ProviderRecording recording) {
+        if (worker == null) {
+            worker = Executors.newSingleThreadExecutor(DaemonThreads.named("llm-provider-recorder"));
+        }
+        worker.execute(() -> {
+            try {
+                if (out == null) {
+                    open();
+                }
+                writer.writeValue(out, recording);
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                log.error("Failed to record {} call of model {} to {}: {}",
+                        recording.type(), recording.model(), file, e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Reads every recording in the directory, the oldest file first and its calls in recorded order
+     */
+    List<ProviderRecording> readAll() {
+        Path directory = Paths.get(properties.getPath());
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                stream.forEach(files::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot list recordings in " + directory, e);
+            }
+        }
+        files.sort(null);
+        
+        List<ProviderRecording> recordings = new ArrayList<>();
+        for (Path recordingFile : files) {
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(recordingFile)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        recordings.add(reader.readValue(line));
+                    }
+                }
+            } catch (EOFException e) {
+                // A run that died leaves its file without the end of the compressed stream
+                log.warn("Recording {} ends early; replaying the calls before the end", recordingFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read recording " + recordingFile, e);
+            }
+        }
+        return recordings;
+    }
+    
+    @PreDestroy
+    public synchronized void close() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        worker.shutdown();
+        worker.awaitTermination(30, TimeUnit.SECONDS);
+        if (out != null) {
+            try {
+                out.close();
+                log.info("Recorded provider calls to {}", file);
+            } catch (IOException e) {
+                log.warn("Failed to finish recording {}: {}", file, e.getMessage());
+            }
+        }
+        worker = null;
+        out = null;
+    }
+    
+    private void open() throws IOException {
+        Path directory = Paths.get(properties.getPath());
+        Files.createDirectories(directory);
+        Instant time = Instant.now();
+        Path next = directory.resolve(PREFIX + FILE_TIME.format(time) + SUFFIX);
+        while (Files.exists(next)) {
+            time = time.plusMillis(1);
+            next = directory.resolve(PREFIX + FILE_TIME.format(time) + SUFFIX);
+        }
+        out = new GZIPOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(next, StandardOpenOption.CREATE_NEW), 64 * 1024), 64 * 1024, true);
+        file = next;
+        log.info("Recording provider calls to {}", file);
+    }
+}
@@ -0,0 +1,159 @@
+package edu.study.llm_application.infrastructure.replay;
+
+import edu.study.llm_application.domain.entities.ChatMessage;
+import edu.study.llm_application.domain.entities.ContentKey;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One recorded provider call, a line of a recording file
+ *
+ * @param type kind of call: generate, stream or embed
+ * @param key what the call is matched by when replayed, see {@link #keyOf(LlmRequest)}
+ * @param model the model called
+ * @param durationMicros time from the call being made to it finishing
+ * @param response the answer of a generate call, or null
+ * @param chunks the chunks of a stream call, or null
+ * @param embeddings the vectors of an embed call, or null
+ * @param error how the call failed, or null
+ */
+record ProviderRecording(
+        String type,
+        String key,
+        String model,
+        long durationMicros,
+        LlmResponse response,
+        List<Chunk> chunks,
+        List<float[]> embeddings,
+        Failure error) {
+    
+    static final String GENERATE = "generate";
+    static final String STREAM = "stream";
+    static final String EMBED = "embed";
+    
+    /**
+     * A streamed chunk and when it arrived
+     *
+     * @param atMicros time from the call being made to the chunk arriving
+     */
+    record Chunk(long atMicros, String text) {
+    }
+    
+    /**
+     * A failed call, with the HTTP status and body the provider answered with when there was one
+     *
+     * @param timeout whether the call failed by timing out
+     */
+    record Failure(String message, Integer status, String statusText, String body, boolean timeout) {
+        
+        static Failure of(Throwable error) {
+            Integer status = null;
+            String statusText = null;
+            String body = null;
+            boolean timeout = false;
+            for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                if (cause instanceof WebClientResponseException e && status == null) {
+                    status = e.getStatusCode().value();
+                    statusText = e.getStatusText();
+                    body = e.getResponseBodyAsString();
+                }
+                timeout |= cause instanceof TimeoutException;
+            }
+            return new Failure(error.getMessage(), status, statusText, body, timeout);
+        }
+        
+        /**
+         * The exception the provider threw, with the same status and body for anything classifying it
+         */
+        LlmProviderPort.LlmProviderException toException() {
+            Throwable cause = null;
+            if (status != null) {
+                cause = WebClientResponseException.create(status, statusText, null,
+                        body != null ? body.getBytes(StandardCharsets.UTF_8) : null, StandardCharsets.UTF_8);
+            } else if (timeout) {
+                cause = new TimeoutException(message);
+            }
+            return new LlmProviderPort.LlmProviderException(message, cause);
+        }
+    }
+    
+    /**
+     * Key of a request: everything that decides the answer, leaving out ids, users, deadlines and
+     * timestamps, so the same request made in another run finds its recording
+     */
+    static String keyOf(LlmRequest request) {
+        MessageDigest digest = ContentKey.sha256();
+        update(digest, request.model());
+        update(digest, request.maxTokens().toString());
+        update(digest, request.temperature().toString());
+        for (ChatMessage message : request.toMessages()) {
+            update(digest, message.role());
+            update(digest, message.content());
+            update(digest, message.toolCallId());
+            if (message.toolCalls() != null) {
+                for (ToolCall call : message.toolCalls()) {
+                    update(digest, call.id());
+                    update(digest, call.name());
+                    update(digest, call.arguments());
+                }
+            }
+        }
+        if (request.responseSchema() != null) {
+            update(digest, request.responseSchema().toString());
+        }
+        if (request.tools() != null) {
+            // The whole contract of a tool, since the model calls it differently when it changes
+            for (ToolDefinition tool : request.tools()) {
+                update(digest, tool.name());
+                update(digest, tool.description());
+                update(digest, tool.parameters() != null ? canonical(tool.parameters()).toString() : null);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Key of a batch of texts to embed
+     */
+    static String keyOf(String model, List<String> texts) {
+        MessageDigest digest = ContentKey.sha256();
+        update(digest, model);
+        texts.forEach(text -> update(digest, text));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Copy of a JSON value whose objects list their keys in order at every level, so it prints the same
+     * in every run; tool definitions are often built with maps of no fixed order
+     */
+    private static Object canonical(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((key, field) -> sorted.put(String.valueOf(key), canonical(field)));
+            return sorted;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(ProviderRecording::canonical).toList();
+        }
+        return value;
+    }
+    
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,38 @@
+package edu.study.llm_application.infrastructure.replay;
+
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.ReplayProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the configured provider in the recording decorator, or stands the replay adapter in for it,
+ * as llm.replay.mode asks; whichever provider is configured, every caller gets the wrapped one
+ */
+@Component
+public class ProviderReplayPostProcessor implements BeanPostProcessor {
+    
+    // Looked up when the provider is created, so this early bean does not create them itself
+    private final ObjectProvider<ReplayProperties> properties;
+    private final ObjectProvider<ProviderRecorder> recorder;
+    
+    public ProviderReplayPostProcessor(ObjectProvider<ReplayProperties> properties,
+                                       ObjectProvider<ProviderRecorder> recorder) {
+        this.properties = properties;
+        this.recorder = recorder;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof LlmProviderPort provider)) {
+            return bean;
+        }
+        ReplayProperties settings = properties.getObject();
+        return switch (settings.getMode()) {
+            case OFF -> bean;
+            case RECORD -> new RecordingLlmProviderAdapter(provider, recorder.getObject());
+            case REPLAY -> new ReplayLlmAdapter(provider, settings, recorder.getObject().readAll());
+        };
+    }
+}
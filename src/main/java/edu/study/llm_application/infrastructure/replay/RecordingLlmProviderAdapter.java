@@ -0,0 +1,96 @@
+package edu.study.llm_application.infrastructure.replay;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provider decorator recording every finished call of the provider it wraps: the request key, the
+ * answer or error, the time the call took and when each streamed chunk arrived
+ * A stream the caller cancels is not recorded, since it never showed how the provider ends it
+ */
+class RecordingLlmProviderAdapter implements LlmProviderPort {
+    
+    private final LlmProviderPort delegate;
+    private final ProviderRecorder recorder;
+    
+    RecordingLlmProviderAdapter(LlmProviderPort delegate, ProviderRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+    
+    @Override
+    public LlmResponse generateResponse(LlmRequest request) throws LlmProviderException {
+        long startTime = System.nanoTime();
+        try {
+            LlmResponse response = delegate.generateResponse(request);
+            recorder.write(new ProviderRecording(ProviderRecording.GENERATE, ProviderRecording.keyOf(request),
+                    request.model(), micros(startTime), response, null, null, null));
+            return response;
+        } catch (LlmProviderException e) {
+            recorder.write(new ProviderRecording(ProviderRecording.GENERATE, ProviderRecording.keyOf(request),
+                    request.model(), micros(startTime), null, null, null, ProviderRecording.Failure.of(e)));
+            throw e;
+        }
+    }
+    
+    @Override
+    public Flux<String> streamResponse(LlmRequest request) {
+        return Flux.defer(() -> {
+            long startTime = System.nanoTime();
+            // Signals of one subscription arrive one at a time, so a plain list is enough
+            List<ProviderRecording.Chunk> chunks = new ArrayList<>();
+            return delegate.streamResponse(request)
+                    .doOnNext(chunk -> chunks.add(new ProviderRecording.Chunk(micros(startTime), chunk)))
+                    .doOnComplete(() -> recorder.write(new ProviderRecording(ProviderRecording.STREAM,
+                            ProviderRecording.keyOf(request), request.model(), micros(startTime),
+                            null, chunks, null, null)))
+                    .doOnError(error -> recorder.write(new ProviderRecording(ProviderRecording.STREAM,
+                            ProviderRecording.keyOf(request), request.model(), micros(startTime),
+                            null, chunks, null, ProviderRecording.Failure.of(error))));
+        });
+    }
+    
+    @Override
+    public List<float[]> generateEmbeddings(String model, List<String> texts) throws LlmProviderException {
+        long startTime = System.nanoTime();
+        try {
+            List<float[]> vectors = delegate.generateEmbeddings(model, texts);
+            recorder.write(new ProviderRecording(ProviderRecording.EMBED, ProviderRecording.keyOf(model, texts),
+                    model, micros(startTime), null, null, vectors, null));
+            return vectors;
+        } catch (LlmProviderException e) {
+            recorder.write(new ProviderRecording(ProviderRecording.EMBED, ProviderRecording.keyOf(model, texts),
+                    model, micros(startTime), null, null, null, ProviderRecording.Failure.of(e)));
+            throw e;
+        }
+    }
+    
+    @Override
+    public String[] getSupportedEmbeddingModels() {
+        return delegate.getSupportedEmbeddingModels();
+    }
+    
+    @Override
+    public boolean isHealthy() {
+        return delegate.isHealthy();
+    }
+    
+    @Override
+    public String[] getSupportedModels() {
+        return delegate.getSupportedModels();
+    }
+    
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName() + " (recording)";
+    }
+    
+    private static long micros(long startTime) {
+        return (System.nanoTime() - startTime) / 1000;
+    }
+}
@@ -0,0 +1,154 @@
+package edu.study.llm_application.infrastructure.replay;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.ReplayProperties;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provider answering from recorded calls instead of calling a provider
+ * A call gets the recording of the same request, with the content, chunks and error of the original;
+ * a request recorded several times gets its recordings in turn. At the recorded pace a call takes as
+ * long as the original did and its chunks arrive at the same offsets, waiting on Reactor's timers
+ */
+@Slf4j
+class ReplayLlmAdapter implements LlmProviderPort {
+    
+    private final LlmProviderPort configured;
+    private final boolean strict;
+    private final boolean fast;
+    private final Map<String, Turns> byKey = new HashMap<>();
+    private final Map<String, Turns> byModel = new HashMap<>();
+    
+    /**
+     * @param configured the provider the recordings stand in for, which only answers what models exist
+     */
+    ReplayLlmAdapter(LlmProviderPort configured, ReplayProperties properties, List<ProviderRecording> recordings) {
+        this.configured = configured;
+        this.strict = properties.isStrict();
+        this.fast = properties.getPace() == ReplayProperties.Pace.FAST;
+        for (ProviderRecording recording : recordings) {
+            byKey.computeIfAbsent(recording.type() + ":" + recording.key(), key -> new Turns()).add(recording);
+            byModel.computeIfAbsent(recording.type() + ":" + recording.model(), key -> new Turns()).add(recording);
+        }
+        log.info("Replaying {} recorded provider calls from {} at {} pace",
+                recordings.size(), properties.getPath(), properties.getPace());
+    }
+    
+    @Override
+    public LlmResponse generateResponse(LlmRequest request) throws LlmProviderException {
+        ProviderRecording recording = find(ProviderRecording.GENERATE, ProviderRecording.keyOf(request), request.model());
+        await(Mono.delay(pace(recording.durationMicros())));
+        if (recording.error() != null) {
+            throw recording.error().toException();
+        }
+        return recording.response().toBuilder().requestId(request.id()).build();
+    }
+    
+    @Override
+    public Flux<String> streamResponse(LlmRequest request) {
+        return Flux.defer(() -> {
+            ProviderRecording recording;
+            try {
+                recording = find(ProviderRecording.STREAM, ProviderRecording.keyOf(request), request.model());
+            } catch (LlmProviderException e) {
+                return Flux.error(e);
+            }
+            List<ProviderRecording.Chunk> chunks = recording.chunks() != null ? recording.chunks() : List.of();
+            List<Mono<String>> timed = new ArrayList<>(chunks.size());
+            long previous = 0;
+            for (ProviderRecording.Chunk chunk : chunks) {
+                timed.add(Mono.just(chunk.text()).delayElement(pace(chunk.atMicros() - previous)));
+                previous = chunk.atMicros();
+            }
+            Mono<String> end = Mono.delay(pace(recording.durationMicros() - previous))
+                    .then(recording.error() != null ? Mono.error(recording.error().toException()) : Mono.empty());
+            return Flux.concat(timed).concatWith(end);
+        });
+    }
+    
+    @Override
+    public List<float[]> generateEmbeddings(String model, List<String> texts) throws LlmProviderException {
+        ProviderRecording recording = find(ProviderRecording.EMBED, ProviderRecording.keyOf(model, texts), model);
+        await(Mono.delay(pace(recording.durationMicros())));
+        if (recording.error() != null) {
+            throw recording.error().toException();
+        }
+        return recording.embeddings();
+    }
+    
+    @Override
+    public String[] getSupportedEmbeddingModels() {
+        return configured.getSupportedEmbeddingModels();
+    }
+    
+    @Override
+    public boolean isHealthy() {
+        return true;
+    }
+    
+    @Override
+    public String[] getSupportedModels() {
+        return configured.getSupportedModels();
+    }
+    
+    @Override
+    public String getProviderName() {
+        return configured.getProviderName() + " (replay)";
+    }
+    
+    private ProviderRecording find(String type, String key, String model) throws LlmProviderException {
+        Turns turns = byKey.get(type + ":" + key);
+        if (turns == null && !strict) {
+            turns = byModel.get(type + ":" + model);
+        }
+        if (turns == null) {
+            throw new LlmProviderException("No recorded " + type + " call matches this request of model " + model);
+        }
+        return turns.next();
+    }
+    
+    private Duration pace(long micros) {
+        return fast ? Duration.ZERO : Duration.ofNanos(Math.max(0, micros) * 1000);
+    }
+    
+    private static void await(Mono<?> delay) throws LlmProviderException {
+        try {
+            delay.block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new LlmProviderException("Replayed call interrupted", e);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Recordings of one request, handed out in recorded order and starting over after the last
+     */
+    private static class Turns {
+        
+        private final List<ProviderRecording> recordings = new ArrayList<>();
+        private final AtomicInteger next = new AtomicInteger();
+        
+        void add(ProviderRecording recording) {
+            recordings.add(recording);
+        }
+        
+        ProviderRecording next() {
+            return recordings.get(Math.floorMod(next.getAndIncrement(), recordings.size()));
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package edu.study.llm_application.infrastructure.structured;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import edu.study.llm_application.domain.ports.out.SchemaValidatorPort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Schema validator built on Jackson's non-blocking parser, which is pushed the output as it arrives
+ * and hands back every token completed so far. Each token is checked against the schema as soon as it
+ * is complete, so output that opens with prose, names a property the schema does not allow or puts a
+ * value of the wrong type is caught at that token rather than after the whole generation. The subset
+ * of JSON Schema checked is type, properties, required, additionalProperties, items and enum; other
+ * keywords are not checked, so they never reject output
+ */
+@Component
+public class IncrementalSchemaValidator implements SchemaValidatorPort {
+    
+    private final JsonFactory jsonFactory = new JsonFactory();
+    
+    @Override
+    public OutputValidator open(Map<String, Object> schema) throws InvalidSchemaException {
+        Node root = Node.compile(schema, "$");
+        try {
+            return new Validation(root, jsonFactory.createNonBlockingByteArrayParser());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private enum Type {
+        OBJECT, ARRAY, STRING, NUMBER, INTEGER, BOOLEAN, NULL;
+        
+        String schemaName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    /**
+     * A schema compiled into what the checks need
+     *
+     * @param types allowed types, empty when any type is
+     * @param additional schema of properties not listed, or null when they are not allowed
+     * @param enumValues allowed values, or null when any value of the types is
+     */
+    private record Node(Set<Type> types, Map<String, Node> properties, Set<String> required, Node additional,
+                        Node items, List<Object> enumValues) {
+        
+        static final Node ANY = new Node(EnumSet.noneOf(Type.class), Map.of(), Set.of(), null, null, null);
+        
+        @SuppressWarnings("unchecked")
+        static Node compile(Object schema, String path) throws InvalidSchemaException {
+            if (schema instanceof Boolean allowed) {
+                if (!allowed) {
+                    throw new InvalidSchemaException("Schema at " + path + " allows no value");
+                }
+                return ANY;
+            }
+            if (!(schema instanceof Map<?, ?> map)) {
+                throw new InvalidSchemaException("Schema at " + path + " is not an object");
+            }
+            
+            Set<Type> types = EnumSet.noneOf(Type.class);
+            Object type = map.get("type");
+            for (Object name : type instanceof List<?> list ? list : type == null ? List.of() : List.of(type)) {
+                types.add(type(name, path));
+            }
+            
+            Map<String, Node> properties = new HashMap<>();
+            if (map.get("properties") instanceof Map<?, ?> declared) {
+                for (Map.Entry<?, ?> property : declared.entrySet()) {
+                    String name = String.valueOf(property.getKey());
+                    properties.put(name, compile(property.getValue(), path + "." + name));
+                }
+            } else if (map.containsKey("properties")) {
+                throw new InvalidSchemaException("Properties at " + path + " are not an object");
+            }
+            
+            Set<String> required = new HashSet<>();
+            if (map.get("required") instanceof List<?> names) {
+                names.forEach(name -> required.add(String.valueOf(name)));
+            }
+            
+            Object additionalSchema = map.get("additionalProperties");
+            Node additional = additionalSchema == null || Boolean.TRUE.equals(additionalSchema) ? ANY
+                    : Boolean.FALSE.equals(additionalSchema) ? null : compile(additionalSchema, path + ".*");
+            Node items = map.containsKey("items") ? compile(map.get("items"), path + "[]") : ANY;
+            List<Object> enumValues = map.get("enum") instanceof List<?> values ? (List<Object>) values : null;
+            return new Node(types, properties, required, additional, items, enumValues);
+        }
+        
+        private static Type type(Object name, String path) throws InvalidSchemaException {
+            for (Type type : Type.values()) {
+                if (type.schemaName().equals(name)) {
+                    return type;
+                }
+            }
+            throw new InvalidSchemaException("Unknown type " + name + " at " + path);
+        }
+        
+        boolean allows(Type type) {
+            return types.isEmpty() || types.contains(type) || (type == Type.INTEGER && types.contains(Type.NUMBER));
+        }
+    }
+    
+    /**
+     * An object or array the output is inside of
+     */
+    private static final class Frame {
+        final Node node;
+        final String path;
+        final Set<String> seen;
+        int index;
+        // Schema and path of the value following the last property name
+        Node next;
+        String nextPath;
+        
+        Frame(Node node, String path, boolean object) {
+            this.node = node;
+            this.path = path;
+            this.seen = object ? new LinkedHashSet<>() : null;
+        }
+    }
+    
+    private static final class Validation implements OutputValidator {
+        
+        private static final String INCOMPLETE = "output ended before the JSON value was complete";
+        
+        private final Node root;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private boolean started;
+        private boolean complete;
+        private String violation;
+        
+        Validation(Node root, JsonParser parser) {
+            this.root = root;
+            this.parser = parser;
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+        
+        @Override
+        public Optional<String> accept(String chunk) {
+            if (violation == null && !chunk.isEmpty()) {
+                byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+                try {
+                    feeder.feedInput(bytes, 0, bytes.length);
+                    drain();
+                } catch (IOException e) {
+                    violation = "output is not JSON: " + message(e);
+                }
+            }
+            return Optional.ofNullable(violation);
+        }
+        
+        @Override
+        public Optional<String> finish() {
+            if (violation == null) {
+                try {
+                    // A number at the end is only known to be complete once the input ends
+                    feeder.endOfInput();
+                    drain();
+                    if (!complete) {
+                        violation = INCOMPLETE;
+                    }
+                } catch (IOException e) {
+                    // Ending inside a token, such as an unterminated string
+                    violation = INCOMPLETE;
+                }
+            }
+            return Optional.ofNullable(violation);
+        }
+        
+        private void drain() throws IOException {
+            JsonToken token;
+            while (violation == null && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                violation = check(token);
+            }
+        }
+        
+        /**
+         * Checks a completed token against the schema of its position
+         *
+         * @return the violation, or null
+         */
+        private String check(JsonToken token) throws IOException {
+            if (complete) {
+                return "unexpected content after the JSON value";
+            }
+            Frame frame = stack.peek();
+            switch (token) {
+                case FIELD_NAME -> {
+                    String name = parser.currentName();
+                    String path = frame.path + "." + name;
+                    Node property = frame.node.properties().get(name);
+                    if (property == null && frame.node.additional() == null) {
+                        return "property " + path + " is not allowed";
+                    }
+                    frame.seen.add(name);
+                    frame.next = property != null ? property : frame.node.additional();
+                    frame.nextPath = path;
+                    return null;
+                }
+                case END_OBJECT -> {
+                    for (String name : frame.node.required()) {
+                        if (!frame.seen.contains(name)) {
+                            return "required property " + frame.path + "." + name + " is missing";
+                        }
+                    }
+                    return end();
+                }
+                case END_ARRAY -> {
+                    return end();
+                }
+                default -> {
+                    return value(token, frame);
+                }
+            }
+        }
+        
+        private String value(JsonToken token, Frame parent) throws IOException {
+            Node node;
+            String path;
+            if (parent == null) {
+                node = root;
+                path = "$";
+                started = true;
+            } else if (parent.seen != null) {
+                node = parent.next;
+                path = parent.nextPath;
+            } else {
+                node = parent.node.items();
+                path = parent.path + "[" + parent.index++ + "]";
+            }
+            
+            Type type = switch (token) {
+                case START_OBJECT -> Type.OBJECT;
+                case START_ARRAY -> Type.ARRAY;
+                case VALUE_STRING -> Type.STRING;
+                case VALUE_NUMBER_INT -> Type.INTEGER;
+                case VALUE_NUMBER_FLOAT -> isIntegral(parser.getDecimalValue()) ? Type.INTEGER : Type.NUMBER;
+                case VALUE_TRUE, VALUE_FALSE -> Type.BOOLEAN;
+                case VALUE_NULL -> Type.NULL;
+                default -> null;
+            };
+            if (type == null) {
+                return "unexpected " + token + " at " + path;
+            }
+            if (!node.allows(type)) {
+                return path + " is " + (token == JsonToken.VALUE_NUMBER_FLOAT ? "number" : type.schemaName())
+                        + " but the schema expects " + node.types().stream().map(Type::schemaName).toList();
+            }
+            if (node.enumValues() != null && !inEnum(node.enumValues(), token)) {
+                return path + " is not one of " + node.enumValues();
+            }
+            
+            if (type == Type.OBJECT || type == Type.ARRAY) {
+                stack.push(new Frame(node, path, type == Type.OBJECT));
+            } else if (parent == null) {
+                complete = true;
+            }
+            return null;
+        }
+        
+        private String end() {
+            stack.pop();
+            if (stack.isEmpty()) {
+                complete = started;
+            }
+            return null;
+        }
+        
+        private boolean inEnum(List<Object> values, JsonToken token) throws IOException {
+            for (Object allowed : values) {
+                boolean matches = switch (token) {
+                    case VALUE_STRING -> parser.getText().equals(allowed);
+                    case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> allowed instanceof Number number
+                            && new BigDecimal(number.toString()).compareTo(parser.getDecimalValue()) == 0;
+                    case VALUE_TRUE -> Boolean.TRUE.equals(allowed);
+                    case VALUE_FALSE -> Boolean.FALSE.equals(allowed);
+                    case VALUE_NULL -> allowed == null;
+                    // Objects and arrays are not compared, so they never fail an enum
+                    default -> true;
+                };
+                if (matches) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private static boolean isIntegral(BigDecimal value) {
+            return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+        }
+        
+        private static String message(IOException e) {
+            return e instanceof JsonProcessingException processing ? processing.getOriginalMessage() : e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package edu.study.llm_application.infrastructure.templates;
+
+import edu.study.llm_application.domain.entities.PromptTemplate;
+import edu.study.llm_application.domain.ports.out.PromptTemplatePort;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prompt template store keeping compiled templates in memory
+ * Templates are lost on restart; clients register them again at startup
+ */
+@Component
+public class InMemoryPromptTemplateAdapter implements PromptTemplatePort {
+    
+    private final Map<String, PromptTemplate> templates = new ConcurrentHashMap<>();
+    
+    @Override
+    public void save(PromptTemplate template) {
+        templates.put(template.getId(), template);
+    }
+    
+    @Override
+    public Optional<PromptTemplate> find(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(templates.get(id));
+    }
+    
+    @Override
+    public int size() {
+        return templates.size();
+    }
+}
@@ -0,0 +1,108 @@
+package edu.study.llm_application.infrastructure.timeout;
+
+import edu.study.llm_application.infrastructure.config.AdaptiveTimeoutProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derives per-request timeouts from the throughput observed for each model
+ * A request may take base latency plus maxTokens times the per-token time, both
+ * taken at a high quantile and multiplied by a safety factor
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdaptiveTimeoutPolicy {
+    
+    private final AdaptiveTimeoutProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ModelLatencyProfile> profiles = new ConcurrentHashMap<>();
+    
+    /**
+     * Timeout of a whole non-streaming call generating up to maxTokens tokens
+     */
+    public Duration timeoutFor(String model, int maxTokens, Duration fallback) {
+        ModelLatencyProfile profile = profiles.get(model);
+        if (!properties.isEnabled() || profile == null || !profile.isWarm()) {
+            return fallback;
+        }
+        double expectedMs = profile.tailBaseMs() + maxTokens * profile.tailPerTokenMs();
+        return clamp(expectedMs * properties.getSafetyFactor(), 
+                properties.getMinTimeout(), properties.getMaxTimeout());
+    }
+    
+    /**
+     * Time a stream may take to deliver its first token
+     */
+    public Duration firstTokenTimeoutFor(String model, Duration fallback) {
+        ModelLatencyProfile profile = profiles.get(model);
+        if (!properties.isEnabled() || profile == null || !profile.isStreamingWarm()) {
+            return fallback;
+        }
+        return clamp(profile.tailBaseMs() * properties.getSafetyFactor(), 
+                properties.getMinTimeout(), properties.getMaxTimeout());
+    }
+    
+    /**
+     * Time a stream may stay silent between two tokens before it is considered hung
+     */
+    public Duration idleTimeoutFor(String model, Duration fallback) {
+        ModelLatencyProfile profile = profiles.get(model);
+        if (!properties.isEnabled() || profile == null || !profile.isStreamingWarm()) {
+            return fallback;
+        }
+        return clamp(profile.tailGapMs() * properties.getSafetyFactor(), 
+                properties.getMinIdleTimeout(), properties.getMaxIdleTimeout());
+    }
+    
+    public void recordCompletion(String model, Duration latency, int completionTokens) {
+        profileFor(model).recordCompletion(latency.toNanos() / 1e6, completionTokens);
+    }
+    
+    public void recordFirstToken(String model, Duration latency) {
+        profileFor(model).recordFirstToken(latency.toNanos() / 1e6);
+    }
+    
+    public void recordTokenGap(String model, Duration gap) {
+        profileFor(model).recordTokenGap(gap.toNanos() / 1e6);
+    }
+    
+    private ModelLatencyProfile profileFor(String model) {
+        return profiles.computeIfAbsent(model, this::createProfile);
+    }
+    
+    private ModelLatencyProfile createProfile(String model) {
+        ModelLatencyProfile profile = new ModelLatencyProfile(
+                properties.getQuantile(),
+                properties.getInitialBaseLatency().toMillis(),
+                1000.0 / properties.getInitialTokensPerSecond(),
+                properties.getMinSamples());
+        
+        Gauge.builder("llm.model.tokens_per_second", profile, ModelLatencyProfile::tokensPerSecond)
+                .description("Median generation speed observed for the model")
+                .tag("model", model)
+                .register(meterRegistry);
+        Gauge.builder("llm.model.base_latency", profile, ModelLatencyProfile::medianBaseMs)
+                .description("Median latency before the first token, in milliseconds")
+                .tag("model", model)
+                .register(meterRegistry);
+        
+        log.debug("Tracking latency profile of model {}", model);
+        return profile;
+    }
+    
+    private static Duration clamp(double millis, Duration min, Duration max) {
+        Duration timeout = Duration.ofMillis((long) Math.ceil(millis));
+        if (timeout.compareTo(min) < 0) {
+            return min;
+        }
+        return timeout.compareTo(max) > 0 ? max : timeout;
+    }
+}
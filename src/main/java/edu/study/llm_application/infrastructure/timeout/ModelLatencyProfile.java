@@ -0,0 +1,100 @@
+package edu.study.llm_application.infrastructure.timeout;
+
+/**
+ * Online latency model of one LLM: a base latency plus a time per generated token
+ * Non-streaming calls only reveal their total latency, which is split using the
+ * current median of the other component
+ */
+public class ModelLatencyProfile {
+    
+    private final P2QuantileEstimator baseMedian = new P2QuantileEstimator(0.5);
+    private final P2QuantileEstimator baseTail;
+    private final P2QuantileEstimator perTokenMedian = new P2QuantileEstimator(0.5);
+    private final P2QuantileEstimator perTokenTail;
+    private final P2QuantileEstimator gapTail;
+    private final double initialBaseMs;
+    private final double initialPerTokenMs;
+    private final int minSamples;
+    
+    public ModelLatencyProfile(double quantile, double initialBaseMs, double initialPerTokenMs, int minSamples) {
+        this.baseTail = new P2QuantileEstimator(quantile);
+        this.perTokenTail = new P2QuantileEstimator(quantile);
+        this.gapTail = new P2QuantileEstimator(quantile);
+        this.initialBaseMs = initialBaseMs;
+        this.initialPerTokenMs = initialPerTokenMs;
+        this.minSamples = minSamples;
+    }
+    
+    /**
+     * Records a completed non-streaming call
+     */
+    public void recordCompletion(double latencyMs, int completionTokens) {
+        int tokens = Math.max(1, completionTokens);
+        addBase(Math.max(0, latencyMs - tokens * medianPerTokenMs()));
+        addPerToken(Math.max(0, latencyMs - medianBaseMs()) / tokens);
+    }
+    
+    /**
+     * Records the time until the first streamed token arrived
+     */
+    public void recordFirstToken(double latencyMs) {
+        addBase(latencyMs);
+    }
+    
+    /**
+     * Records the time between two streamed tokens
+     */
+    public void recordTokenGap(double gapMs) {
+        addPerToken(gapMs);
+        gapTail.add(gapMs);
+    }
+    
+    /**
+     * Whether enough calls were observed for the tail estimates to be trusted
+     */
+    public boolean isWarm() {
+        return baseTail.count() >= minSamples && perTokenTail.count() >= minSamples;
+    }
+    
+    public boolean isStreamingWarm() {
+        return gapTail.count() >= minSamples && baseTail.count() >= minSamples;
+    }
+    
+    public double tailBaseMs() {
+        return baseTail.estimate();
+    }
+    
+    public double tailPerTokenMs() {
+        return perTokenTail.estimate();
+    }
+    
+    public double tailGapMs() {
+        return gapTail.estimate();
+    }
+    
+    public double medianBaseMs() {
+        return baseMedian.count() >= minSamples ? baseMedian.estimate() : initialBaseMs;
+    }
+    
+    public double medianPerTokenMs() {
+        return perTokenMedian.count() >= minSamples ? perTokenMedian.estimate() : initialPerTokenMs;
+    }
+    
+    /**
+     * Median generation speed in tokens per second
+     */
+    public double tokensPerSecond() {
+        double perTokenMs = medianPerTokenMs();
+        return perTokenMs > 0 ? 1000.0 / perTokenMs : 0;
+    }
+    
+    private void addBase(double value) {
+        baseMedian.add(value);
+        baseTail.add(value);
+    }
+    
+    private void addPerToken(double value) {
+        perTokenMedian.add(value);
+        perTokenTail.add(value);
+    }
+}
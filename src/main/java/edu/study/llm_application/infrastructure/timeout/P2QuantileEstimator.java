@@ -0,0 +1,122 @@
+package edu.study.llm_application.infrastructure.timeout;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantile estimator using the P-square algorithm (Jain and Chlamtac, 1985)
+ * Keeps five markers instead of the observations, so memory and update cost are constant
+ */
+public class P2QuantileEstimator {
+    
+    private final double quantile;
+    private final double[] heights = new double[5];
+    private final double[] positions = new double[5];
+    private final double[] desired = new double[5];
+    private final double[] increments = new double[5];
+    private long count;
+    
+    public P2QuantileEstimator(double quantile) {
+        if (quantile <= 0 || quantile >= 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        this.quantile = quantile;
+        for (int i = 0; i < 5; i++) {
+            positions[i] = i + 1;
+        }
+        desired[0] = 1;
+        desired[1] = 1 + 2 * quantile;
+        desired[2] = 1 + 4 * quantile;
+        desired[3] = 3 + 2 * quantile;
+        desired[4] = 5;
+        increments[0] = 0;
+        increments[1] = quantile / 2;
+        increments[2] = quantile;
+        increments[3] = (1 + quantile) / 2;
+        increments[4] = 1;
+    }
+    
+    /**
+     * Adds an observation to the estimate
+     */
+    public synchronized void add(double value) {
+        if (count < 5) {
+            heights[(int) count++] = value;
+            if (count == 5) {
+                Arrays.sort(heights);
+            }
+            return;
+        }
+        count++;
+        
+        // Find the cell containing the value, widening the extreme markers if needed
+        int cell;
+        if (value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        } else if (value >= heights[4]) {
+            heights[4] = Math.max(heights[4], value);
+            cell = 3;
+        } else {
+            cell = 0;
+            while (cell < 3 && value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        
+        for (int i = cell + 1; i < 5; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            desired[i] += increments[i];
+        }
+        
+        // Move the middle markers towards their desired positions
+        for (int i = 1; i < 4; i++) {
+            double offset = desired[i] - positions[i];
+            if ((offset >= 1 && positions[i + 1] - positions[i] > 1)
+                    || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int step = offset > 0 ? 1 : -1;
+                double candidate = parabolic(i, step);
+                if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                    heights[i] = candidate;
+                } else {
+                    heights[i] = linear(i, step);
+                }
+                positions[i] += step;
+            }
+        }
+    }
+    
+    /**
+     * Current estimate of the quantile, or NaN before the first observation
+     */
+    public synchronized double estimate() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < 5) {
+            double[] observed = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(observed);
+            return observed[(int) Math.round(quantile * (count - 1))];
+        }
+        return heights[2];
+    }
+    
+    public synchronized long count() {
+        return count;
+    }
+    
+    public double quantile() {
+        return quantile;
+    }
+    
+    private double parabolic(int i, int step) {
+        return heights[i] + step / (positions[i + 1] - positions[i - 1])
+                * ((positions[i] - positions[i - 1] + step) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i])
+                + (positions[i + 1] - positions[i] - step) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]));
+    }
+    
+    private double linear(int i, int step) {
+        return heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.study.llm_application.infrastructure.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Tells the model the current date and time, which it cannot know from its training
+ */
+@Component
+public class CurrentTimeTool implements ToolHandler {
+    
+    private static final ToolDefinition DEFINITION = new ToolDefinition(
+            "current_time",
+            "Gets the current date and time, in UTC unless a time zone is given",
+            Map.of("type", "object",
+                    "properties", Map.of("timezone", Map.of(
+                            "type", "string",
+                            "description", "IANA time zone, such as Europe/Paris")),
+                    "additionalProperties", false));
+    
+    @Override
+    public ToolDefinition definition() {
+        return DEFINITION;
+    }
+    
+    @Override
+    public String call(JsonNode arguments) {
+        String timezone = arguments.path("timezone").asText("UTC");
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(timezone.isBlank() ? "UTC" : timezone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone " + timezone);
+        }
+        return ZonedDateTime.now(zone).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) + " (" + zone + ")";
+    }
+    
+    @Override
+    public boolean cacheable() {
+        return false;
+    }
+}
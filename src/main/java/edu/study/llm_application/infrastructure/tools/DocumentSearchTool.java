@@ -0,0 +1,60 @@
+package edu.study.llm_application.infrastructure.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.ports.in.DocumentUseCasePort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lets the model search the ingested documents itself, with queries of its own, rather than only
+ * receiving the passages retrieved for the prompt
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentSearchTool implements ToolHandler {
+    
+    private static final int DEFAULT_TOP_K = 3;
+    private static final int MAX_TOP_K = 10;
+    
+    private static final ToolDefinition DEFINITION = new ToolDefinition(
+            "search_documents",
+            "Searches the ingested documents and returns the passages closest to the query",
+            Map.of("type", "object",
+                    "properties", Map.of(
+                            "query", Map.of("type", "string", "description", "What to search for"),
+                            "top_k", Map.of("type", "integer", "description", "Passages to return, at most " + MAX_TOP_K)),
+                    "required", List.of("query"),
+                    "additionalProperties", false));
+    
+    private final DocumentUseCasePort documentUseCase;
+    
+    @Override
+    public ToolDefinition definition() {
+        return DEFINITION;
+    }
+    
+    @Override
+    public String call(JsonNode arguments) throws Exception {
+        String query = arguments.path("query").asText();
+        if (query.isBlank()) {
+            throw new IllegalArgumentException("query is required");
+        }
+        int topK = Math.min(MAX_TOP_K, Math.max(1, arguments.path("top_k").asInt(DEFAULT_TOP_K)));
+        
+        List<RetrievedChunk> chunks = documentUseCase.retrieve(query, topK, null);
+        if (chunks.isEmpty()) {
+            return "No passages found";
+        }
+        StringBuilder result = new StringBuilder();
+        for (RetrievedChunk chunk : chunks) {
+            result.append('[').append(chunk.getDocumentId()).append('#').append(chunk.getChunkIndex()).append("] ")
+                    .append(chunk.getText()).append('\n');
+        }
+        return result.toString();
+    }
+}
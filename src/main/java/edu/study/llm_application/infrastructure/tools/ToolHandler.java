@@ -0,0 +1,31 @@
+package edu.study.llm_application.infrastructure.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+
+/**
+ * A tool the model may call; every handler bean is registered under the name of its definition
+ */
+public interface ToolHandler {
+    
+    /**
+     * Definition shown to the model
+     */
+    ToolDefinition definition();
+    
+    /**
+     * Runs a call on a tool worker, which is interrupted when the call times out
+     * 
+     * @param arguments the arguments given by the model, an object
+     * @return the result sent back to the model
+     * @throws Exception when the call fails; the message is sent back to the model
+     */
+    String call(JsonNode arguments) throws Exception;
+    
+    /**
+     * Whether a result may be reused for a later call with the same arguments
+     */
+    default boolean cacheable() {
+        return true;
+    }
+}
@@ -0,0 +1,232 @@
+package edu.study.llm_application.infrastructure.tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.ports.out.ToolPort;
+import edu.study.llm_application.infrastructure.config.DaemonThreads;
+import edu.study.llm_application.infrastructure.config.ToolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registry of the tool handler beans, running every call on a worker of its own bounded pool
+ * A call is interrupted once it runs past the timeout of its tool. The result of a cacheable tool is
+ * kept for the same arguments, and a call arriving while the same one is running shares its result,
+ * so parallel requests asking for the same lookup run it once
+ */
+@Slf4j
+@Component
+public class ToolRegistryAdapter implements ToolPort {
+    
+    private final Map<String, ToolHandler> handlers = new LinkedHashMap<>();
+    private final ToolProperties properties;
+    private final ObjectReader argumentsReader;
+    private final ExecutorService workers;
+    // Fails calls past their timeout; a call finishing first cancels its timeout, which leaves the queue
+    private final ScheduledThreadPoolExecutor timeouts;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CachedResult> cache = new ConcurrentHashMap<>();
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    
+    public ToolRegistryAdapter(List<ToolHandler> handlers, ToolProperties properties, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        for (ToolHandler handler : handlers) {
+            ToolHandler existing = this.handlers.putIfAbsent(handler.definition().name(), handler);
+            if (existing != null) {
+                throw new IllegalStateException("Tool " + handler.definition().name() + " is registered twice");
+            }
+        }
+        this.properties = properties;
+        this.argumentsReader = objectMapper.readerFor(JsonNode.class);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(properties.getMaxConcurrent(), properties.getMaxConcurrent(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                DaemonThreads.named("llm-tool"), new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        this.workers = pool;
+        this.timeouts = new ScheduledThreadPoolExecutor(1, DaemonThreads.named("llm-tool-timeout"));
+        timeouts.setRemoveOnCancelPolicy(true);
+        this.meterRegistry = meterRegistry;
+        this.cacheHits = meterRegistry.counter("llm.tools.cache.requests", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("llm.tools.cache.requests", "result", "miss");
+        log.info("Registered tools {}", this.handlers.keySet());
+    }
+    
+    @Override
+    public List<ToolDefinition> getTools() {
+        return handlers.values().stream().map(ToolHandler::definition).toList();
+    }
+    
+    @Override
+    public Optional<ToolDefinition> find(String name) {
+        return Optional.ofNullable(handlers.get(name)).map(ToolHandler::definition);
+    }
+    
+    @Override
+    public CompletableFuture<String> execute(ToolCall call) {
+        ToolHandler handler = handlers.get(call.name());
+        if (handler == null) {
+            return CompletableFuture.failedFuture(new ToolException("Unknown tool " + call.name()));
+        }
+        JsonNode arguments;
+        try {
+            arguments = call.arguments() == null || call.arguments().isBlank()
+                    ? argumentsReader.createObjectNode() : argumentsReader.readTree(call.arguments());
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(
+                    new ToolException("Arguments of " + call.name() + " are not JSON: " + e.getOriginalMessage(), e));
+        }
+        if (!arguments.isObject()) {
+            return CompletableFuture.failedFuture(new ToolException("Arguments of " + call.name() + " are not an object"));
+        }
+        
+        if (!handler.cacheable()) {
+            return start(handler, arguments);
+        }
+        
+        // Re-serialized, so calls differing only in whitespace share a result
+        String key = call.name() + '\0' + arguments;
+        long now = System.nanoTime();
+        AtomicBoolean started = new AtomicBoolean();
+        CachedResult entry = cache.compute(key, (ignored, existing) -> {
+            if (existing != null && now - existing.expiresAt() < 0) {
+                return existing;
+            }
+            started.set(true);
+            return new CachedResult(start(handler, arguments), now + properties.getCache().getTtl().toNanos());
+        });
+        if (started.get()) {
+            cacheMisses.increment();
+            entry.result().whenComplete((result, error) -> {
+                if (error != null) {
+                    cache.remove(key, entry);
+                }
+            });
+            if (cache.size() > properties.getCache().getMaxEntries()) {
+                evict();
+            }
+        } else {
+            cacheHits.increment();
+        }
+        // The result is shared, so a caller giving up must not cancel it for the others
+        return entry.result().copy();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        timeouts.shutdownNow();
+    }
+    
+    /**
+     * Runs a call on a worker, failing it and interrupting the worker once the tool's timeout passes
+     * Cancelling the returned future interrupts the worker as well
+     */
+    private CompletableFuture<String> start(ToolHandler handler, JsonNode arguments) {
+        String name = handler.definition().name();
+        Duration timeout = properties.getTimeouts().getOrDefault(name, properties.getTimeout());
+        CompletableFuture<String> result = new CompletableFuture<>();
+        long startTime = System.nanoTime();
+        
+        Future<?> task;
+        try {
+            task = workers.submit(() -> {
+                try {
+                    result.complete(handler.call(arguments));
+                } catch (InterruptedException e) {
+                    result.completeExceptionally(new ToolException(name + " was interrupted", e));
+                } catch (Exception e) {
+                    result.completeExceptionally(new ToolException(name + " failed: " + e.getMessage(), e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (workers.isShutdown()) {
+                return CompletableFuture.failedFuture(new ToolException("Tool workers are shut down", e));
+            }
+            return CompletableFuture.failedFuture(new ToolOverloadedException("Tool workers are full ("
+                    + properties.getMaxConcurrent() + " running, " + properties.getQueueCapacity() + " queued)"));
+        }
+        ScheduledFuture<?> timer;
+        try {
+            timer = timeouts.schedule(() -> result.completeExceptionally(
+                    new ToolTimeoutException(name + " timed out after " + timeout.toMillis() + " ms")),
+                    timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            task.cancel(true);
+            return CompletableFuture.failedFuture(new ToolException("Tool workers are shut down", e));
+        }
+        
+        result.whenComplete((value, error) -> {
+            timer.cancel(false);
+            if (error != null) {
+                task.cancel(true);
+            }
+            String outcome = error == null ? "success" : error instanceof ToolTimeoutException ? "timeout" : "error";
+            if (error != null) {
+                log.warn("Tool call of {} ended with {}: {}", name, outcome, error.getMessage());
+            }
+            Timer.builder("llm.tools.executions")
+                    .description("Time tool calls took")
+                    .tag("tool", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        });
+        return result;
+    }
+    
+    /**
+     * Number of calls whose timeout is still scheduled
+     */
+    int pendingTimeouts() {
+        return timeouts.getQueue().size();
+    }
+    
+    /**
+     * Drops expired results, then arbitrary ones until the cache is back under its bound
+     */
+    private void evict() {
+        long now = System.nanoTime();
+        cache.values().removeIf(entry -> now - entry.expiresAt() >= 0);
+        Iterator<String> keys = cache.keySet().iterator();
+        while (cache.size() > properties.getCache().getMaxEntries() && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+    
+    private record CachedResult(CompletableFuture<String> result, long expiresAt) {
+    }
+    
+    private static final class ToolTimeoutException extends ToolException {
+        ToolTimeoutException(String message) {
+            super(message);
+        }
+    }
+}
@@ -3,7 +3,12 @@ package edu.study.llm_application;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"llm.embeddings.cache.path=target/test-embeddings",
+		"llm.rag.path=target/test-rag",
+		"llm.audit.path=target/test-audit",
+		"spring.rsocket.server.port=0"
+})
 class LlmApplicationTests {
 
 	@Test
@@ -1,19 +1,41 @@
 package edu.study.llm_application.application.controllers;
 
+import edu.study.llm_application.application.dtos.EmbeddingRequestDto;
+import edu.study.llm_application.application.dtos.EmbeddingResponseDto;
 import edu.study.llm_application.application.dtos.LlmRequestDto;
+import edu.study.llm_application.application.dtos.LlmResponseDto;
+import edu.study.llm_application.domain.entities.EmbeddingRequest;
+import edu.study.llm_application.domain.entities.EmbeddingResponse;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.in.ComparisonUseCasePort;
+import edu.study.llm_application.domain.ports.in.DocumentUseCasePort;
+import edu.study.llm_application.domain.ports.in.EmbeddingUseCasePort;
 import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.in.LongInputUseCasePort;
+import edu.study.llm_application.domain.ports.in.PromptTemplateUseCasePort;
 import edu.study.llm_application.application.mappers.LlmMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.when;
 
 /**
@@ -28,6 +50,21 @@ public class LlmControllerTest {
     @MockBean
     private LlmUseCasePort llmUseCase;
 
+    @MockBean
+    private LongInputUseCasePort longInputUseCase;
+
+    @MockBean
+    private ComparisonUseCasePort comparisonUseCase;
+
+    @MockBean
+    private EmbeddingUseCasePort embeddingUseCase;
+
+    @MockBean
+    private DocumentUseCasePort documentUseCase;
+
+    @MockBean
+    private PromptTemplateUseCasePort promptTemplateUseCase;
+
     @MockBean
     private LlmMapper llmMapper;
 
@@ -78,4 +115,156 @@ public class LlmControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.status").value("VALIDATION_ERROR"));
     }
+
+    @Test
+    public void testGenerateText_PromptAndTemplateAreExclusive() throws Exception {
+        // Given
+        LlmRequestDto invalidRequest = LlmRequestDto.builder()
+                .prompt("Hello")
+                .templateId("greet")
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/llm/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.promptOrTemplate").exists());
+    }
+
+    @Test
+    public void testCompareModels_DeferredPriorityIsABadRequest() throws Exception {
+        // Given
+        LlmRequestDto request = LlmRequestDto.builder()
+                .prompt("Hello")
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/llm/compare")
+                .header(LlmController.PRIORITY_HEADER, "deferred")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Model comparisons cannot be deferred"));
+    }
+
+    @Test
+    public void testGenerateText_Success() throws Exception {
+        // Given
+        LlmRequestDto request = LlmRequestDto.builder()
+                .prompt("Hello")
+                .model("gpt-3.5-turbo")
+                .build();
+        LlmResponse domainResponse = LlmResponse.success("req", "Hi there", "gpt-3.5-turbo", 12, 5.0);
+        when(llmMapper.toDomain(any(), any(), any())).thenReturn(LlmRequest.builder().prompt("Hello").build());
+        when(llmMapper.toDto(any())).thenReturn(LlmResponseDto.builder().content("Hi there").status("SUCCESS").build());
+        when(llmUseCase.submitRequest(any())).thenReturn(CompletableFuture.completedFuture(domainResponse));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/v1/llm/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(LlmController.TIMEOUT_HEADER, "2000")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value("Hi there"));
+    }
+
+    @Test
+    public void testGenerateText_DeadlineExceeded() throws Exception {
+        // Given
+        LlmRequestDto request = LlmRequestDto.builder()
+                .prompt("Hello")
+                .model("gpt-4")
+                .build();
+        when(llmMapper.toDomain(any(), any(), any())).thenReturn(LlmRequest.builder().prompt("Hello").build());
+        when(llmUseCase.submitRequest(any())).thenReturn(CompletableFuture.failedFuture(
+                new LlmUseCasePort.LlmDeadlineExceededException("Deadline passed while queued")));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/v1/llm/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.status").value("DEADLINE_EXCEEDED"));
+    }
+
+    @Test
+    public void testCreateEmbeddings_Success() throws Exception {
+        // Given
+        EmbeddingRequestDto request = EmbeddingRequestDto.builder()
+                .input(List.of("first text", "second text"))
+                .build();
+        EmbeddingResponse domainResponse = EmbeddingResponse.builder()
+                .embeddings(List.of(new float[]{0.1f}, new float[]{0.2f}))
+                .status("SUCCESS")
+                .build();
+        when(llmMapper.toEmbeddingDomain(any(), any())).thenReturn(EmbeddingRequest.builder().inputs(request.getInput()).build());
+        when(llmMapper.toEmbeddingDto(any())).thenReturn(EmbeddingResponseDto.builder()
+                .data(List.of(EmbeddingResponseDto.Item.builder().index(0).embedding(new float[]{0.1f}).build()))
+                .status("SUCCESS")
+                .build());
+        when(embeddingUseCase.submitRequest(any())).thenReturn(CompletableFuture.completedFuture(domainResponse));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/v1/llm/embeddings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].embedding[0]").value(0.1));
+    }
+
+    @Test
+    public void testCreateEmbeddings_TimeoutCancelsTheCall() throws Exception {
+        // Given
+        EmbeddingRequestDto request = EmbeddingRequestDto.builder()
+                .input(List.of("first text"))
+                .build();
+        CompletableFuture<EmbeddingResponse> call = new CompletableFuture<>();
+        when(llmMapper.toEmbeddingDomain(any(), notNull())).thenReturn(EmbeddingRequest.builder().inputs(request.getInput()).build());
+        when(embeddingUseCase.submitRequest(any())).thenReturn(call);
+        MvcResult result = mockMvc.perform(post("/api/v1/llm/embeddings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(LlmController.TIMEOUT_HEADER, "2000")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        // Then
+        assertThat(call.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void testCreateEmbeddings_ValidationError() throws Exception {
+        // Given
+        EmbeddingRequestDto invalidRequest = EmbeddingRequestDto.builder()
+                .input(List.of())
+                .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/llm/embeddings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("VALIDATION_ERROR"));
+    }
 }
@@ -0,0 +1,115 @@
+package edu.study.llm_application.application.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.application.dtos.LlmRequestDto;
+import edu.study.llm_application.application.dtos.LlmResponseDto;
+import edu.study.llm_application.application.mappers.LlmMapper;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import io.rsocket.exceptions.ApplicationErrorException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for LlmRSocketController
+ */
+@ExtendWith(MockitoExtension.class)
+class LlmRSocketControllerTest {
+
+    @Mock
+    private LlmUseCasePort llmUseCase;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private LlmRSocketController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new LlmRSocketController(llmUseCase, new LlmMapper(), objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), 30000, 2);
+    }
+
+    @Test
+    void testBatch_ResponsesComeInRequestOrderAndFailuresDoNotEndTheChannel() throws Exception {
+        // Given
+        CompletableFuture<LlmResponse> slow = new CompletableFuture<>();
+        when(llmUseCase.submitRequest(argThat(request -> request != null && "first".equals(request.prompt()))))
+                .thenReturn(slow);
+        when(llmUseCase.submitRequest(argThat(request -> request != null && "second".equals(request.prompt()))))
+                .thenReturn(CompletableFuture.failedFuture(new LlmUseCasePort.LlmOverloadedException("Bulkhead full", null)));
+        LlmRequestDto invalid = LlmRequestDto.builder().prompt("third").maxTokens(0).build();
+
+        // When
+        Flux<LlmResponseDto> responses = controller.batch(Flux.just(
+                LlmRequestDto.builder().prompt("first").build(), LlmRequestDto.builder().prompt("second").build(), invalid));
+        slow.complete(LlmResponse.builder().content("First answer").status("SUCCESS").build());
+        List<LlmResponseDto> results = responses.collectList().block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(results).extracting(LlmResponseDto::getStatus).containsExactly("SUCCESS", "OVERLOADED", "VALIDATION_ERROR");
+        assertThat(results.get(0).getContent()).isEqualTo("First answer");
+        assertThat(results.get(2).getErrorMessage()).contains("maxTokens");
+        ArgumentCaptor<LlmRequest> submitted = ArgumentCaptor.forClass(LlmRequest.class);
+        verify(llmUseCase, times(2)).submitRequest(submitted.capture());
+        assertThat(submitted.getAllValues()).extracting(LlmRequest::priority).containsOnly(Priority.BULK);
+    }
+
+    @Test
+    void testBatch_NoMoreRequestsRunThanTheChannelConcurrency() throws Exception {
+        // Given
+        when(llmUseCase.submitRequest(any())).thenAnswer(invocation -> new CompletableFuture<>());
+
+        // When
+        Disposable subscription = controller.batch(Flux.range(0, 10)
+                        .map(i -> LlmRequestDto.builder().prompt("prompt " + i).build()))
+                .subscribe();
+
+        // Then
+        verify(llmUseCase, times(2)).submitRequest(any());
+        subscription.dispose();
+    }
+
+    @Test
+    void testGenerate_FailureCarriesTheStatusAndCancellingCancelsTheCall() throws Exception {
+        // Given
+        CompletableFuture<LlmResponse> pending = new CompletableFuture<>();
+        when(llmUseCase.submitRequest(argThat(request -> request != null && "pending".equals(request.prompt()))))
+                .thenReturn(pending);
+        when(llmUseCase.submitRequest(argThat(request -> request != null && "limited".equals(request.prompt()))))
+                .thenThrow(new LlmUseCasePort.LlmRateLimitedException("Too many requests"));
+
+        // When
+        Disposable subscription = controller.generate(LlmRequestDto.builder().prompt("pending").build()).subscribe();
+        subscription.dispose();
+
+        Throwable error = catchThrowable(() -> controller.generate(LlmRequestDto.builder().prompt("limited").build()).block());
+
+        // Then
+        assertThat(pending).isCancelled();
+        assertThat(error).isInstanceOf(ApplicationErrorException.class);
+        LlmResponseDto payload = objectMapper.readValue(error.getMessage(), LlmResponseDto.class);
+        assertThat(payload.getStatus()).isEqualTo("RATE_LIMITED");
+        assertThat(payload.getErrorMessage()).isEqualTo("Too many requests");
+    }
+}
@@ -0,0 +1,89 @@
+package edu.study.llm_application.benchmarks;
+
+import edu.study.llm_application.domain.entities.AuditRecord;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.infrastructure.audit.FileAuditLogAdapter;
+import edu.study.llm_application.infrastructure.config.AuditProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time a request spends handing its record to the audit log
+ * Several request threads record at once while the writer thread compresses and writes them. With
+ * the block strategy the time includes waiting for room whenever the writer falls behind, so it shows
+ * what a sustained rate costs; the drop strategy shows the cost of the hand-off alone. The records the
+ * drop strategy lost are logged at the end of the trial
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(4)
+@Fork(1)
+public class AuditLogBenchmark {
+
+    @Param({"BLOCK", "DROP"})
+    private AuditProperties.Overflow overflow;
+
+    @Param({"INTERVAL"})
+    private AuditProperties.Fsync fsync;
+
+    private Path directory;
+    private SimpleMeterRegistry meterRegistry;
+    private FileAuditLogAdapter auditLog;
+    private AuditRecord record;
+
+    @Setup(Level.Trial)
+    public void openLog() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+        AuditProperties properties = new AuditProperties();
+        properties.setPath(directory.toString());
+        properties.setOverflow(overflow);
+        properties.setFsync(fsync);
+        meterRegistry = new SimpleMeterRegistry();
+        auditLog = new FileAuditLogAdapter(properties, Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        record = new AuditRecord(Instant.now(), "req-1", "alice", "gpt-4", Priority.INTERACTIVE,
+                "You are a helpful assistant", "Summarise the quarterly report in three sentences",
+                "Revenue grew, costs fell and the outlook is stable.", "SUCCESS", 120, 80, null, 850.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeLog() throws Exception {
+        auditLog.shutdown();
+        log.info("Written {}, dropped {}",
+                (long) meterRegistry.get("llm.audit.written").counter().count(),
+                (long) meterRegistry.get("llm.audit.dropped").tag("reason", "full").counter().count());
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        auditLog.record(record);
+    }
+}
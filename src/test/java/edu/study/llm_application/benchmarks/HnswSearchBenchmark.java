@@ -0,0 +1,168 @@
+package edu.study.llm_application.benchmarks;
+
+import edu.study.llm_application.domain.entities.DocumentChunk;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+import edu.study.llm_application.infrastructure.config.RagProperties;
+import edu.study.llm_application.infrastructure.rag.HnswDocumentIndexAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Search latency and recall of the HNSW document index
+ * Builds an index once per trial, logs build throughput and recall@10 against exact search,
+ * then measures single queries. Vectors are scattered around random topic centroids, like the
+ * embeddings of a document collection; uniformly random vectors have no near neighbours worth
+ * finding. Run with a larger index through {@code -p chunks=1000000} and enough heap for the
+ * vectors kept for the exact search
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class HnswSearchBenchmark {
+
+    private static final int TOP_K = 10;
+    private static final int RECALL_QUERIES = 100;
+    private static final int QUERY_POOL = 1024;
+    private static final int CHUNKS_PER_TOPIC = 100;
+    private static final double TOPIC_SPREAD = 0.1;
+
+    @Param({"100000"})
+    private int chunks;
+
+    @Param({"384"})
+    private int dimensions;
+
+    @Param({"64"})
+    private int efSearch;
+
+    private Path directory;
+    private HnswDocumentIndexAdapter index;
+    private float[][] topics;
+    private float[][] queries;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void buildIndex() throws Exception {
+        directory = Files.createTempDirectory("hnsw-benchmark");
+        RagProperties properties = new RagProperties();
+        properties.setPath(directory.toString());
+        properties.getIndex().setEfSearch(efSearch);
+        properties.getIndex().setInsertThreads(Runtime.getRuntime().availableProcessors());
+        index = new HnswDocumentIndexAdapter(properties, new SimpleMeterRegistry());
+
+        Random random = new Random(42);
+        topics = new float[Math.max(1, chunks / CHUNKS_PER_TOPIC)][];
+        for (int t = 0; t < topics.length; t++) {
+            topics[t] = randomUnitVector(random, null);
+        }
+        float[][] vectors = new float[chunks][];
+        long start = System.nanoTime();
+        for (int from = 0; from < chunks; from += 10_000) {
+            int to = Math.min(chunks, from + 10_000);
+            List<DocumentChunk> batch = new ArrayList<>(to - from);
+            List<float[]> batchVectors = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                vectors[i] = randomUnitVector(random, topics[random.nextInt(topics.length)]);
+                batch.add(DocumentChunk.builder().documentId("doc-" + i / 100).index(i).text("chunk " + i).build());
+                batchVectors.add(vectors[i]);
+            }
+            index.add(batch, batchVectors).join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Indexed {} chunks of {} dimensions in {} s ({} chunks/s)",
+                chunks, dimensions, String.format("%.1f", seconds), String.format("%.0f", chunks / seconds));
+
+        queries = new float[QUERY_POOL][];
+        for (int i = 0; i < QUERY_POOL; i++) {
+            queries[i] = randomUnitVector(random, topics[random.nextInt(topics.length)]);
+        }
+        log.info("Recall@{} at efSearch={}: {}", TOP_K, efSearch, String.format("%.3f", recall(vectors)));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteIndex() throws IOException {
+        index.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<RetrievedChunk> search() throws Exception {
+        float[] query = queries[nextQuery++ & (QUERY_POOL - 1)];
+        return index.search(query, TOP_K);
+    }
+
+    private double recall(float[][] vectors) throws Exception {
+        int found = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            float[] query = queries[q];
+            double[] scores = new double[vectors.length];
+            IntStream.range(0, vectors.length).parallel().forEach(i -> scores[i] = dot(vectors[i], query));
+            List<Integer> exact = IntStream.range(0, vectors.length).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -scores[i]))
+                    .limit(TOP_K)
+                    .toList();
+            for (RetrievedChunk chunk : index.search(query, TOP_K)) {
+                if (exact.contains(chunk.getChunkIndex())) {
+                    found++;
+                }
+            }
+        }
+        return found / (double) (RECALL_QUERIES * TOP_K);
+    }
+
+    /**
+     * Random unit vector near a topic centroid, or anywhere when the topic is null
+     */
+    private float[] randomUnitVector(Random random, float[] topic) {
+        float[] vector = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = topic == null 
+                    ? (float) random.nextGaussian() 
+                    : topic[i] + (float) (random.nextGaussian() * TOPIC_SPREAD);
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,212 @@
+package edu.study.llm_application.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.infrastructure.adapters.out.openai.OpenAiJsonCodec;
+import io.netty.buffer.PooledByteBufAllocator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of encoding a chat completion request and decoding its response, comparing the reflective
+ * DTO path the adapter used before with {@link OpenAiJsonCodec}
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenAiSerializationBenchmark {
+    
+    private static final String COMPLETION = """
+            {"id":"chatcmpl-123","object":"chat.completion","created":1700000000,"model":"gpt-4",
+             "choices":[{"index":0,"message":{"role":"assistant","content":"Remote work is allowed three days a week, and Fridays are kept free of meetings so teams can focus."},
+                         "logprobs":null,"finish_reason":"stop"}],
+             "usage":{"prompt_tokens":1200,"completion_tokens":24,"total_tokens":1224,
+                      "prompt_tokens_details":{"cached_tokens":1024,"audio_tokens":0},
+                      "completion_tokens_details":{"reasoning_tokens":0,"audio_tokens":0}},
+             "system_fingerprint":"fp_44709d6fcb"}
+            """;
+    
+    private static final String CHUNK = "{\"id\":\"chatcmpl-123\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,"
+            + "\"model\":\"gpt-4\",\"system_fingerprint\":\"fp_44709d6fcb\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{\"content\":\" three\"},\"logprobs\":null,\"finish_reason\":null}]}";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final OpenAiJsonCodec codec = new OpenAiJsonCodec(objectMapper);
+    private final NettyDataBufferFactory pooledBuffers = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private LlmRequest request;
+    private byte[] completion;
+    
+    @Setup
+    public void setUp() {
+        request = LlmRequest.builder()
+                .model("gpt-4")
+                .systemPrompt("You answer questions about the employee handbook. Quote the passages you rely on.")
+                .retrievedContext("Use the following passages to answer when they are relevant.\n\n[1] " + "Employees may work remotely up to three days a week. ".repeat(20))
+                .prompt("How many days a week can I work from home, and are Fridays different?")
+                .maxTokens(150)
+                .temperature(0.7)
+                .userId("user123")
+                .build();
+        completion = COMPLETION.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public int writeRequestReflective() throws Exception {
+        LegacyChatCompletionRequest body = LegacyChatCompletionRequest.builder()
+                .model(request.model())
+                .messages(request.toMessages().stream()
+                        .map(message -> LegacyChatCompletionRequest.Message.builder()
+                                .role(message.role())
+                                .content(message.content())
+                                .build())
+                        .toList())
+                .max_tokens(request.maxTokens())
+                .temperature(request.temperature())
+                .user(request.userId())
+                .build();
+        // What the WebClient encoder does with a body value: serialize it into a fresh buffer
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+        return buffer.readableByteCount();
+    }
+    
+    @Benchmark
+    public int writeRequestCodec() throws Exception {
+        DataBuffer buffer = codec.writeChatRequest(request, false, pooledBuffers);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+    
+    @Benchmark
+    public Object readCompletionReflective() throws Exception {
+        // What the WebClient decoder does with a body: look up a reader and bind the joined buffer
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(completion);
+        return objectMapper.readerFor(LegacyChatCompletionResponse.class).readValue(buffer.asInputStream(true));
+    }
+    
+    @Benchmark
+    public Object readCompletionCodec() throws Exception {
+        return codec.readCompletion(DefaultDataBufferFactory.sharedInstance.wrap(completion));
+    }
+    
+    @Benchmark
+    public String readChunkReflective() throws Exception {
+        LegacyChatCompletionChunk chunk = objectMapper.readValue(CHUNK, LegacyChatCompletionChunk.class);
+        return chunk.getChoices().get(0).getDelta().getContent();
+    }
+    
+    @Benchmark
+    public String readChunkCodec() throws Exception {
+        return codec.readChunkContent(CHUNK);
+    }
+    
+    // The request and response classes the adapter bound before the codec, kept here as the baseline
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LegacyChatCompletionRequest {
+        private String model;
+        private List<Message> messages;
+        private Integer max_tokens;
+        private Double temperature;
+        private String user;
+        private Boolean stream;
+        
+        @Data
+        @Builder
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Message {
+            private String role;
+            private String content;
+        }
+    }
+    
+    @Data
+    @NoArgsConstructor
+    public static class LegacyChatCompletionResponse {
+        private String id;
+        private String object;
+        private Long created;
+        private String model;
+        private List<Choice> choices;
+        private Usage usage;
+        
+        @Data
+        @NoArgsConstructor
+        public static class Choice {
+            private Integer index;
+            private Message message;
+            private String finish_reason;
+        }
+        
+        @Data
+        @NoArgsConstructor
+        public static class Message {
+            private String role;
+            private String content;
+        }
+        
+        @Data
+        @NoArgsConstructor
+        public static class Usage {
+            private Integer prompt_tokens;
+            private Integer completion_tokens;
+            private Integer total_tokens;
+        }
+    }
+    
+    @Data
+    @NoArgsConstructor
+    public static class LegacyChatCompletionChunk {
+        private String id;
+        private String object;
+        private Long created;
+        private String model;
+        private List<Choice> choices;
+        
+        @Data
+        @NoArgsConstructor
+        public static class Choice {
+            private Integer index;
+            private Delta delta;
+            private String finish_reason;
+        }
+        
+        @Data
+        @NoArgsConstructor
+        public static class Delta {
+            private String role;
+            private String content;
+        }
+    }
+}
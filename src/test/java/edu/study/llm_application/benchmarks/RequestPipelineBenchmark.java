@@ -0,0 +1,123 @@
+package edu.study.llm_application.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.application.dtos.LlmRequestDto;
+import edu.study.llm_application.application.mappers.LlmMapper;
+import edu.study.llm_application.domain.entities.CascadeSettings;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ModerationSettings;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.entities.StructuredOutputSettings;
+import edu.study.llm_application.domain.entities.ToolSettings;
+import edu.study.llm_application.domain.ports.out.BulkheadPort;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.domain.usecases.LlmUseCase;
+import edu.study.llm_application.domain.usecases.ModerationGate;
+import edu.study.llm_application.domain.usecases.ToolCallingUseCase;
+import edu.study.llm_application.infrastructure.cluster.ClusterResponseCacheAdapter;
+import edu.study.llm_application.infrastructure.cluster.ClusterTransport;
+import edu.study.llm_application.infrastructure.config.ClusterProperties;
+import edu.study.llm_application.infrastructure.config.ResponseCacheProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of one generation request between the controller and the provider port
+ * Maps a request DTO to the domain, runs it through the use case against a provider answering
+ * at once, and maps the response back. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPipelineBenchmark {
+    
+    private final LlmMapper mapper = new LlmMapper();
+    private LlmUseCase useCase;
+    private LlmRequestDto requestDto;
+    
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        BulkheadPort directBulkhead = new BulkheadPort() {
+            @Override
+            public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) {
+                try {
+                    return CompletableFuture.completedFuture(task.call());
+                } catch (Exception e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+        ClusterProperties standalone = new ClusterProperties();
+        ClusterResponseCacheAdapter responseCache = new ClusterResponseCacheAdapter(new ResponseCacheProperties(),
+                new ClusterTransport(standalone), standalone, new ObjectMapper());
+        LlmMetricsPort metrics = new LlmMetricsPort() { };
+        useCase = new LlmUseCase(new InstantProvider(), directBulkhead, metrics, null, null,
+                responseCache, userId -> true, null, null, new CascadeSettings(Map.of()), List.of(),
+                new ModerationGate(null, new ModerationSettings(false, false), metrics),
+                null, new StructuredOutputSettings(1),
+                new ToolCallingUseCase(null, metrics, null, new ToolSettings(1)), record -> { });
+        requestDto = LlmRequestDto.builder()
+                .prompt("How many days a week can I work from home, and are Fridays different?")
+                .model("gpt-4")
+                .userId("user123")
+                .build();
+    }
+    
+    @Benchmark
+    public Object generate() throws Exception {
+        LlmRequest request = mapper.toDomain(requestDto, Priority.INTERACTIVE, null);
+        return mapper.toDto(useCase.submitRequest(request).join());
+    }
+    
+    /**
+     * Provider answering every request at once with the same text
+     */
+    private static class InstantProvider implements LlmProviderPort {
+        
+        private static final String[] MODELS = {"gpt-3.5-turbo", "gpt-4"};
+        
+        @Override
+        public LlmResponse generateResponse(LlmRequest request) {
+            return LlmResponse.success(request.id(), "Three days a week; Fridays are meeting free.", 
+                    request.model(), 42, null);
+        }
+        
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+        
+        @Override
+        public String[] getSupportedModels() {
+            return MODELS;
+        }
+        
+        @Override
+        public String getProviderName() {
+            return "Instant";
+        }
+    }
+}
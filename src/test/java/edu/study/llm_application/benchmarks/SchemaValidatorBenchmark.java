@@ -0,0 +1,85 @@
+package edu.study.llm_application.benchmarks;
+
+import edu.study.llm_application.domain.ports.out.SchemaValidatorPort;
+import edu.study.llm_application.infrastructure.structured.IncrementalSchemaValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per streamed token of checking structured output against its schema
+ * An answer of {@code tokens} tokens, in chunks of about four characters as the provider streams
+ * them, is fed through a new validator; the score is the time per token, to set against the tens of
+ * milliseconds a model takes to generate one
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaValidatorBenchmark {
+
+    private static final int TOKENS = 1000;
+
+    private static final Map<String, Object> SCHEMA = Map.of(
+            "type", "object",
+            "required", List.of("results"),
+            "additionalProperties", false,
+            "properties", Map.of("results", Map.of(
+                    "type", "array",
+                    "items", Map.of(
+                            "type", "object",
+                            "required", List.of("title", "score", "category"),
+                            "properties", Map.of(
+                                    "title", Map.of("type", "string"),
+                                    "score", Map.of("type", "number"),
+                                    "category", Map.of("enum", List.of("policy", "benefit", "process")))))));
+
+    private final IncrementalSchemaValidator validator = new IncrementalSchemaValidator();
+    private List<String> chunks;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\"results\": [");
+        String[] categories = {"policy", "benefit", "process"};
+        for (int i = 0; json.length() < TOKENS * 4; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"title\": \"Remote work allowance ").append(i).append("\", \"score\": 0.")
+                    .append(100 + i).append(", \"category\": \"").append(categories[i % 3]).append("\"}");
+        }
+        json.append("]}");
+
+        chunks = new ArrayList<>(TOKENS + 1);
+        for (int i = 0; i < json.length(); i += 4) {
+            chunks.add(json.substring(i, Math.min(json.length(), i + 4)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public boolean validatePerToken() throws Exception {
+        SchemaValidatorPort.OutputValidator output = validator.open(SCHEMA);
+        for (String chunk : chunks) {
+            if (output.accept(chunk).isPresent()) {
+                return false;
+            }
+        }
+        return output.finish().isEmpty();
+    }
+}
@@ -0,0 +1,240 @@
+package edu.study.llm_application.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.application.controllers.GlobalExceptionHandler;
+import edu.study.llm_application.application.controllers.LlmController;
+import edu.study.llm_application.application.controllers.LlmRSocketController;
+import edu.study.llm_application.application.dtos.LlmRequestDto;
+import edu.study.llm_application.application.dtos.LlmResponseDto;
+import edu.study.llm_application.application.mappers.LlmMapper;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.in.ComparisonUseCasePort;
+import edu.study.llm_application.domain.ports.in.DocumentUseCasePort;
+import edu.study.llm_application.domain.ports.in.EmbeddingUseCasePort;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.in.LongInputUseCasePort;
+import edu.study.llm_application.domain.ports.in.PromptTemplateUseCasePort;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the transport of a generation request, REST over HTTP/1.1 against RSocket over TCP
+ * Both endpoints run in one application context in front of a use case answering at once, so the
+ * scores are the transport, codec and dispatch overhead alone. The single benchmarks are the latency
+ * of one message sent after the previous one was answered; the batch benchmarks send {@code BATCH}
+ * requests at once, as parallel REST calls or one RSocket channel, and score the time per request,
+ * the inverse of the throughput
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+    private static final int BATCH = 64;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest httpRequest;
+    private RSocketRequester requester;
+    private LlmRequestDto requestDto;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(TransportApplication.class)
+                .properties("server.port=0", "spring.rsocket.server.port=0", "spring.main.banner-mode=off",
+                        "logging.level.root=WARN", "logging.level.edu.study.llm_application=WARN")
+                .run();
+        int httpPort = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        int rsocketPort = context.getEnvironment().getRequiredProperty("local.rsocket.server.port", Integer.class);
+
+        requestDto = LlmRequestDto.builder()
+                .prompt("How many days a week can I work from home, and are Fridays different?")
+                .model("gpt-4")
+                .userId("user123")
+                .build();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        httpRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + httpPort + "/api/v1/llm/generate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestDto)))
+                .build();
+        requester = RSocketRequester.builder()
+                .rsocketStrategies(context.getBean(RSocketStrategies.class))
+                .tcp("localhost", rsocketPort);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requester.dispose();
+        context.close();
+    }
+
+    @Benchmark
+    public LlmResponseDto restSingle() throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        return objectMapper.readValue(response.body(), LlmResponseDto.class);
+    }
+
+    @Benchmark
+    public LlmResponseDto rsocketSingle() {
+        return requester.route("llm.generate").data(requestDto).retrieveMono(LlmResponseDto.class).block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<LlmResponseDto> restBatch() throws Exception {
+        List<CompletableFuture<LlmResponseDto>> calls = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            calls.add(httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> {
+                        try {
+                            return objectMapper.readValue(response.body(), LlmResponseDto.class);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }));
+        }
+        return calls.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<LlmResponseDto> rsocketBatch() {
+        return requester.route("llm.generate.batch")
+                .data(Flux.range(0, BATCH).map(i -> requestDto), LlmRequestDto.class)
+                .retrieveFlux(LlmResponseDto.class)
+                .collectList()
+                .block();
+    }
+
+    /**
+     * Both controllers with auto-configuration, without the rest of the application
+     */
+    @EnableAutoConfiguration
+    @Import({LlmController.class, LlmRSocketController.class, GlobalExceptionHandler.class, LlmMapper.class})
+    static class TransportApplication {
+
+        @Bean
+        LlmUseCasePort llmUseCase() {
+            return new InstantUseCase();
+        }
+
+        @Bean
+        LongInputUseCasePort longInputUseCase() {
+            return Mockito.mock(LongInputUseCasePort.class);
+        }
+
+        @Bean
+        ComparisonUseCasePort comparisonUseCase() {
+            return Mockito.mock(ComparisonUseCasePort.class);
+        }
+
+        @Bean
+        EmbeddingUseCasePort embeddingUseCase() {
+            return Mockito.mock(EmbeddingUseCasePort.class);
+        }
+
+        @Bean
+        DocumentUseCasePort documentUseCase() {
+            return Mockito.mock(DocumentUseCasePort.class);
+        }
+
+        @Bean
+        PromptTemplateUseCasePort promptTemplateUseCase() {
+            return Mockito.mock(PromptTemplateUseCasePort.class);
+        }
+
+        @Bean
+        BuildProperties buildProperties() {
+            return new BuildProperties(new Properties());
+        }
+    }
+
+    /**
+     * Use case answering every request at once with the same text
+     */
+    private static class InstantUseCase implements LlmUseCasePort {
+
+        // Deferred requests are answered at once too, as if their batch had already completed
+        private final Map<String, LlmResponse> deferred = new ConcurrentHashMap<>();
+
+        @Override
+        public LlmResponse processRequest(LlmRequest request) {
+            return LlmResponse.success(request.id(), "Three days a week; Fridays are meeting free.",
+                    request.model(), 42, null);
+        }
+
+        @Override
+        public CompletableFuture<LlmResponse> submitRequest(LlmRequest request) {
+            return CompletableFuture.completedFuture(processRequest(request));
+        }
+
+        @Override
+        public Flux<String> streamRequest(LlmRequest request) {
+            return Flux.just("Three days a week; ", "Fridays are meeting free.");
+        }
+
+        @Override
+        public LlmResponse deferRequest(LlmRequest request) {
+            deferred.put(request.id(), processRequest(request));
+            return LlmResponse.pending(request.id());
+        }
+
+        @Override
+        public Optional<LlmResponse> findDeferred(String id) {
+            return Optional.ofNullable(deferred.get(id));
+        }
+
+        @Override
+        public boolean validateRequest(LlmRequest request) {
+            return true;
+        }
+
+        @Override
+        public String[] getAvailableModels() {
+            return new String[] {"gpt-4"};
+        }
+
+        @Override
+        public boolean isServiceHealthy() {
+            return true;
+        }
+    }
+}
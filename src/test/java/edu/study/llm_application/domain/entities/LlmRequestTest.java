@@ -0,0 +1,71 @@
+package edu.study.llm_application.domain.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the message assembly of LLM requests
+ */
+class LlmRequestTest {
+
+    @Test
+    void testToMessages_LongestLivedPartsComeFirst() {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("And on Fridays?")
+                .systemPrompt("You answer questions about the handbook")
+                .context(List.of("How many remote days are allowed?", "Three days a week."))
+                .retrievedContext("[1] Fridays are meeting free.")
+                .build();
+
+        // When
+        List<ChatMessage> messages = request.toMessages();
+
+        // Then
+        assertThat(messages).containsExactly(
+                ChatMessage.system("You answer questions about the handbook"),
+                ChatMessage.user("How many remote days are allowed?"),
+                ChatMessage.user("Three days a week."),
+                ChatMessage.system("[1] Fridays are meeting free."),
+                ChatMessage.user("And on Fridays?"));
+    }
+
+    @Test
+    void testToMessages_PromptOnly() {
+        // Given
+        LlmRequest request = LlmRequest.builder().prompt("Hello").build();
+
+        // When & Then
+        assertThat(request.toMessages()).containsExactly(ChatMessage.user("Hello"));
+    }
+
+    @Test
+    void testBuild_CopiesTheCollectionsOfTheCaller() {
+        // Given
+        List<String> context = new ArrayList<>(List.of("Earlier question"));
+        context.add(null);
+        Map<String, Object> schema = new HashMap<>();
+        schema.put("type", "object");
+        schema.put("default", null);
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Hello")
+                .context(context)
+                .responseSchema(schema)
+                .build();
+
+        // When
+        context.add("Added later");
+        schema.put("required", List.of("answer"));
+
+        // Then
+        assertThat(request.context()).containsExactly("Earlier question", null);
+        assertThat(request.responseSchema()).containsOnlyKeys("type", "default");
+        assertThat(request.responseSchema()).containsEntry("default", null);
+    }
+}
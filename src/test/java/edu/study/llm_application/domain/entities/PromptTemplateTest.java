@@ -0,0 +1,73 @@
+package edu.study.llm_application.domain.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for compiled prompt templates
+ */
+class PromptTemplateTest {
+
+    @Test
+    void testCompile_CollectsVariablesAndStaticTokens() {
+        // When
+        PromptTemplate template = PromptTemplate.compile("summarize",
+                "Summarize in {{ sentences }} sentences:\n\n{{text}}\n\nKeep {{sentences}} sentences.");
+
+        // Then
+        assertThat(template.getVariables()).containsExactly("sentences", "text");
+        assertThat(template.getStaticTokens()).isEqualTo("Summarize in  sentences:\n\n\n\nKeep  sentences.".length() / 4);
+    }
+
+    @Test
+    void testRender_FillsEveryPlaceholder() {
+        // Given
+        PromptTemplate template = PromptTemplate.compile("greet", "Hello {{name}}, welcome to {{place}}!");
+        StringBuilder buffer = new StringBuilder();
+
+        // When
+        int tokens = template.render(Map.of("name", "Ada", "place", "the lab", "unused", "x"), buffer);
+
+        // Then
+        assertThat(buffer.toString()).isEqualTo("Hello Ada, welcome to the lab!");
+        assertThat(tokens).isEqualTo(template.getStaticTokens() + "Adathe lab".length() / 4 + 1);
+    }
+
+    @Test
+    void testRender_TemplateWithoutPlaceholders() {
+        // Given
+        PromptTemplate template = PromptTemplate.compile("static", "Tell me a joke");
+        StringBuilder buffer = new StringBuilder();
+
+        // When
+        template.render(null, buffer);
+
+        // Then
+        assertThat(buffer.toString()).isEqualTo("Tell me a joke");
+    }
+
+    @Test
+    void testRender_MissingVariablesAreListed() {
+        // Given
+        PromptTemplate template = PromptTemplate.compile("greet", "Hello {{name}}, welcome to {{place}}!");
+
+        // When & Then
+        assertThatThrownBy(() -> template.render(Map.of(), new StringBuilder()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("name, place");
+    }
+
+    @Test
+    void testCompile_RejectsMalformedPlaceholders() {
+        assertThatThrownBy(() -> PromptTemplate.compile("broken", "Hello {{name"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unclosed");
+        assertThatThrownBy(() -> PromptTemplate.compile("broken", "Hello {{first name}}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("first name");
+    }
+}
@@ -0,0 +1,116 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.ComparisonChunk;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ModelComparison;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the model comparison use case
+ */
+@ExtendWith(MockitoExtension.class)
+class ComparisonUseCaseTest {
+
+    @Mock
+    private LlmUseCasePort llmUseCase;
+
+    @Test
+    void testCompare_RunsModelsConcurrentlyAndReportsFailuresPerModel() throws Exception {
+        // Given
+        ComparisonUseCase useCase = new ComparisonUseCase(llmUseCase);
+        when(llmUseCase.validateRequest(any())).thenReturn(true);
+        when(llmUseCase.submitRequest(any())).thenAnswer(invocation -> {
+            LlmRequest copy = invocation.getArgument(0);
+            if (copy.model().equals("gpt-4")) {
+                return CompletableFuture.failedFuture(new LlmUseCasePort.LlmOverloadedException("Too many requests", null));
+            }
+            return CompletableFuture.supplyAsync(() -> LlmResponse.success(copy.id(), "answer from " + copy.model(),
+                    copy.model(), 10, 200.0), CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+        });
+        LlmRequest request = LlmRequest.builder().prompt("Hello").build();
+
+        // When
+        long start = System.nanoTime();
+        ModelComparison comparison = useCase.compare(request, List.of("gpt-3.5-turbo", "gpt-4", "gpt-4o", "gpt-4o"))
+                .get(5, TimeUnit.SECONDS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(comparison.requestId()).isEqualTo(request.id());
+        assertThat(comparison.responses()).extracting(LlmResponse::model)
+                .containsExactly("gpt-3.5-turbo", "gpt-4", "gpt-4o");
+        assertThat(comparison.responses().get(0).content()).isEqualTo("answer from gpt-3.5-turbo");
+        assertThat(comparison.responses().get(1).status()).isEqualTo("ERROR");
+        assertThat(comparison.responses().get(1).errorMessage()).contains("Too many requests");
+        assertThat(comparison.responses().get(2).isSuccessful()).isTrue();
+        assertThat(elapsedMs).isLessThan(400);
+    }
+
+    @Test
+    void testStreamCompare_InterleavesModelsAndEndsEachOne() throws Exception {
+        // Given
+        ComparisonUseCase useCase = new ComparisonUseCase(llmUseCase);
+        when(llmUseCase.validateRequest(any())).thenReturn(true);
+        when(llmUseCase.streamRequest(any())).thenAnswer(invocation -> {
+            LlmRequest copy = invocation.getArgument(0);
+            if (copy.model().equals("gpt-4")) {
+                return Flux.interval(Duration.ofMillis(30), Duration.ofMillis(60)).take(3).map(i -> "b" + i);
+            }
+            return Flux.interval(Duration.ZERO, Duration.ofMillis(60)).take(2).map(i -> "a" + i)
+                    .concatWith(Flux.error(new IllegalStateException("Provider closed the stream")));
+        });
+        LlmRequest request = LlmRequest.builder().prompt("Hello").build();
+
+        // When
+        List<ComparisonChunk> chunks = useCase.streamCompare(request, List.of("gpt-3.5-turbo", "gpt-4"))
+                .collectList().block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(chunks).filteredOn(chunk -> chunk.type() == ComparisonChunk.Type.TOKEN)
+                .extracting(ComparisonChunk::text)
+                .containsExactly("a0", "b0", "a1", "b1", "b2");
+        assertThat(chunks).filteredOn(chunk -> chunk.model().equals("gpt-3.5-turbo"))
+                .last()
+                .satisfies(chunk -> {
+                    assertThat(chunk.type()).isEqualTo(ComparisonChunk.Type.ERROR);
+                    assertThat(chunk.text()).contains("Provider closed the stream");
+                });
+        assertThat(chunks.get(chunks.size() - 1))
+                .isEqualTo(new ComparisonChunk("gpt-4", ComparisonChunk.Type.DONE, ""));
+    }
+
+    @Test
+    void testCompare_TooManyModelsIsRejected() throws Exception {
+        // Given
+        ComparisonUseCase useCase = new ComparisonUseCase(llmUseCase);
+        when(llmUseCase.validateRequest(any())).thenReturn(true);
+        List<String> models = IntStream.rangeClosed(0, ComparisonUseCase.MAX_MODELS)
+                .mapToObj(i -> "model-" + i).toList();
+        LlmRequest request = LlmRequest.builder().prompt("Hello").build();
+
+        // When & Then
+        assertThatThrownBy(() -> useCase.compare(request, models))
+                .isInstanceOf(LlmUseCasePort.LlmProcessingException.class)
+                .hasMessageContaining("more than " + ComparisonUseCase.MAX_MODELS);
+        verify(llmUseCase, never()).submitRequest(any());
+    }
+}
@@ -1,17 +1,68 @@
 package edu.study.llm_application.domain.usecases;
 
+import edu.study.llm_application.domain.entities.AuditRecord;
+import edu.study.llm_application.domain.entities.CascadeSettings;
+import edu.study.llm_application.domain.entities.ChatMessage;
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.domain.entities.IdempotentResponse;
 import edu.study.llm_application.domain.entities.LlmRequest;
 import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ModerationSettings;
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+import edu.study.llm_application.domain.entities.StreamChunk;
+import edu.study.llm_application.domain.entities.StructuredOutputSettings;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.entities.ToolSettings;
+import edu.study.llm_application.domain.ports.in.DocumentUseCasePort;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.in.PromptTemplateUseCasePort;
+import edu.study.llm_application.domain.ports.out.AuditLogPort;
+import edu.study.llm_application.domain.ports.out.BatchLlmPort;
+import edu.study.llm_application.domain.ports.out.BulkheadPort;
+import edu.study.llm_application.domain.ports.out.IdempotencyStorePort;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
 import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.domain.ports.out.ModerationPort;
+import edu.study.llm_application.domain.ports.out.ResponseCachePort;
+import edu.study.llm_application.domain.ports.out.SchemaValidatorPort;
+import edu.study.llm_application.domain.ports.out.ToolPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -23,11 +74,83 @@ class LlmUseCaseTest {
     @Mock
     private LlmProviderPort llmProviderPort;
 
+    @Mock
+    private LlmMetricsPort llmMetricsPort;
+
+    @Mock
+    private DocumentUseCasePort documentUseCase;
+
+    @Mock
+    private PromptTemplateUseCasePort promptTemplateUseCase;
+
+    @Mock
+    private ResponseCachePort responseCache;
+
+    @Mock
+    private BatchLlmPort batchLlmPort;
+
+    @Mock
+    private IdempotencyStorePort idempotencyStore;
+
+    @Mock
+    private ModerationPort moderationPort;
+
+    @Mock
+    private ToolPort toolPort;
+
+    @Mock
+    private AuditLogPort auditLog;
+
     private LlmUseCase llmUseCase;
 
+    private static final CascadeSettings NO_CASCADE = new CascadeSettings(Map.of());
+
+    private static final ModerationSettings NO_MODERATION = new ModerationSettings(false, false);
+
+    private static final ModerationSettings MODERATION = new ModerationSettings(true, false);
+
+    private static final StructuredOutputSettings ONE_ATTEMPT = new StructuredOutputSettings(1);
+
+    private static final ToolSettings TWO_ROUNDS = new ToolSettings(2);
+
+    /**
+     * Validator accepting output that is a JSON object, judged by its first and last characters
+     */
+    private static final SchemaValidatorPort OBJECT_VALIDATOR = schema -> new SchemaValidatorPort.OutputValidator() {
+        private final StringBuilder output = new StringBuilder();
+
+        @Override
+        public Optional<String> accept(String chunk) {
+            output.append(chunk);
+            return output.charAt(0) == '{' ? Optional.empty() : Optional.of("output is not an object");
+        }
+
+        @Override
+        public Optional<String> finish() {
+            return output.toString().endsWith("}") ? Optional.empty() : Optional.of("object is not complete");
+        }
+    };
+
+    /**
+     * Bulkhead running tasks on the calling thread
+     */
+    private static final BulkheadPort DIRECT_BULKHEAD = new BulkheadPort() {
+        @Override
+        public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) {
+            try {
+                return CompletableFuture.completedFuture(task.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    };
+
     @BeforeEach
     void setUp() {
-        llmUseCase = new LlmUseCase(llmProviderPort);
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
     }
 
     @Test
@@ -111,4 +234,950 @@ class LlmUseCaseTest {
         // Then
         assertThat(result).isTrue();
     }
+
+    @Test
+    void testProcessRequest_CallsProviderThroughBulkhead() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "Answer", "gpt-4", 10, null));
+
+        // When
+        LlmResponse response = llmUseCase.processRequest(request);
+
+        // Then
+        assertThat(response.content()).isEqualTo("Answer");
+        assertThat(response.processingTimeMs()).isNotNull();
+    }
+
+    @Test
+    void testProcessRequest_SendsRetrievedChunksAsContext() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("How many remote days are allowed?")
+                .model("gpt-4")
+                .retrievalTopK(2)
+                .build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(documentUseCase.retrieve(eq("How many remote days are allowed?"), eq(2), any()))
+                .thenReturn(List.of(
+                        RetrievedChunk.builder().documentId("handbook").text("Remote work is allowed three days a week.").build(),
+                        RetrievedChunk.builder().documentId("handbook").text("Fridays are meeting free.").build()));
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "Three", "gpt-4", 10, null));
+
+        // When
+        llmUseCase.processRequest(request);
+
+        // Then
+        ArgumentCaptor<LlmRequest> sent = ArgumentCaptor.forClass(LlmRequest.class);
+        verify(llmProviderPort).generateResponse(sent.capture());
+        assertThat(sent.getValue().retrievedContext())
+                .contains("[1] Remote work is allowed three days a week.")
+                .endsWith("[2] Fridays are meeting free.");
+        assertThat(sent.getValue().prompt()).isEqualTo("How many remote days are allowed?");
+    }
+
+    @Test
+    void testProcessRequest_RendersTemplateBeforeCallingProvider() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .templateId("summarize")
+                .variables(Map.of("text", "The quick brown fox"))
+                .model("gpt-4")
+                .build();
+        when(promptTemplateUseCase.render(request)).thenReturn(request.toBuilder()
+                .prompt("Summarize: The quick brown fox")
+                .estimatedPromptTokens(8)
+                .build());
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "A fox", "gpt-4", 10, null));
+
+        // When
+        llmUseCase.processRequest(request);
+
+        // Then
+        ArgumentCaptor<LlmRequest> sent = ArgumentCaptor.forClass(LlmRequest.class);
+        verify(llmProviderPort).generateResponse(sent.capture());
+        assertThat(sent.getValue().prompt()).isEqualTo("Summarize: The quick brown fox");
+        assertThat(sent.getValue().estimatedPromptTokens()).isEqualTo(8);
+    }
+
+    @Test
+    void testProcessRequest_RecordsPromptCacheUsage() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .build();
+        LlmResponse response = LlmResponse.success("req", "Answer", "gpt-4", 1300, null).toBuilder()
+                .promptTokens(1200)
+                .cachedTokens(1024)
+                .build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any())).thenReturn(response);
+
+        // When
+        llmUseCase.processRequest(request);
+
+        // Then
+        verify(llmMetricsPort).recordPromptCache("gpt-4", 1200, 1024);
+    }
+
+    @Test
+    void testSubmitRequest_LocalCacheHitSkipsProvider() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Capital of France?")
+                .model("gpt-4")
+                .temperature(0.0)
+                .build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(responseCache.keyOf(request)).thenReturn("key");
+        when(responseCache.findLocal("key"))
+                .thenReturn(Optional.of(LlmResponse.success("earlier", "Paris", "gpt-4", 12, 850.0)));
+
+        // When
+        LlmResponse response = llmUseCase.submitRequest(request).join();
+
+        // Then
+        assertThat(response.content()).isEqualTo("Paris");
+        assertThat(response.requestId()).isEqualTo(request.id());
+        assertThat(response.processingTimeMs()).isZero();
+        verify(llmProviderPort, never()).generateResponse(any());
+        verify(llmMetricsPort).recordResponseCache("gpt-4", "hit_local");
+    }
+
+    @Test
+    void testProcessRequest_CacheMissStoresProviderResponse() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Capital of France?")
+                .model("gpt-4")
+                .temperature(0.0)
+                .build();
+        LlmResponse providerResponse = LlmResponse.success(request.id(), "Paris", "gpt-4", 12, null);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(responseCache.keyOf(request)).thenReturn("key");
+        when(responseCache.findLocal("key")).thenReturn(Optional.empty());
+        when(responseCache.find("key")).thenReturn(Optional.empty());
+        when(llmProviderPort.generateResponse(any())).thenReturn(providerResponse);
+
+        // When
+        llmUseCase.processRequest(request);
+
+        // Then
+        verify(responseCache).put("key", providerResponse);
+        verify(llmMetricsPort).recordResponseCache("gpt-4", "miss");
+    }
+
+    @Test
+    void testProcessRequest_UserOverRateLimitIsRejected() {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> false, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .userId("user123")
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.processRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmRateLimitedException.class);
+        verify(llmMetricsPort).recordUserRateLimited();
+    }
+
+    @Test
+    void testDeferRequest_QueuesRequestAndReturnsPending() throws Exception {
+        // Given
+        CompletableFuture<LlmResponse> batchResult = new CompletableFuture<>();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(batchLlmPort.enqueue(any())).thenReturn(batchResult);
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Summarize the quarterly report")
+                .model("gpt-4")
+                .priority(Priority.DEFERRED)
+                .build();
+
+        // When
+        LlmResponse response = llmUseCase.deferRequest(request);
+        verify(auditLog, never()).record(any());
+        batchResult.complete(LlmResponse.success(request.id(), "Revenue grew", "gpt-4", 30, null));
+
+        // Then
+        assertThat(response.isPending()).isTrue();
+        assertThat(response.requestId()).isEqualTo(request.id());
+        verify(batchLlmPort).enqueue(any());
+        verify(llmProviderPort, never()).generateResponse(any());
+        ArgumentCaptor<AuditRecord> audited = ArgumentCaptor.forClass(AuditRecord.class);
+        verify(auditLog).record(audited.capture());
+        assertThat(audited.getValue().completion()).isEqualTo("Revenue grew");
+        assertThat(audited.getValue().requestId()).isEqualTo(request.id());
+    }
+
+    @Test
+    void testStreamRequest_DeferredPriorityIsRejected() {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Summarize the quarterly report")
+                .priority(Priority.DEFERRED)
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.streamRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmProcessingException.class);
+    }
+
+    @Test
+    void testProcessRequest_FullBulkheadIsReportedAsOverload() {
+        // Given
+        BulkheadPort fullBulkhead = new BulkheadPort() {
+            @Override
+            public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task)
+                    throws BulkheadFullException {
+                throw new BulkheadFullException("full");
+            }
+        };
+        llmUseCase = new LlmUseCase(llmProviderPort, fullBulkhead, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.processRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmOverloadedException.class);
+    }
+
+    @Test
+    void testProcessRequest_ExpiredDeadlineIsRejected() {
+        // Given
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .deadline(Deadline.after(Duration.ZERO))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.processRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmDeadlineExceededException.class);
+    }
+
+    @Test
+    void testProcessRequest_SlowProviderIsCancelledAtDeadline() throws Exception {
+        // Given
+        BulkheadPort asyncBulkhead = new BulkheadPort() {
+            @Override
+            public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                new Thread(() -> {
+                    try {
+                        future.complete(task.call());
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                }).start();
+                return future;
+            }
+        };
+        llmUseCase = new LlmUseCase(llmProviderPort, asyncBulkhead, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return LlmResponse.success("req", "Too late", "gpt-4", 10, null);
+        });
+        LlmRequest built = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .build();
+        // Set once the request exists, so generating its id on a cold JVM does not use up the deadline
+        LlmRequest request = built.toBuilder().deadline(Deadline.after(Duration.ofMillis(100))).build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.processRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmDeadlineExceededException.class);
+        verify(llmMetricsPort, timeout(1000)).recordCancellation("gpt-4", "deadline_exceeded");
+    }
+
+    @Test
+    void testSubmitRequest_RetriesWithTheSameIdempotencyKeyShareOneProviderCall() throws Exception {
+        // Given
+        Map<String, IdempotentResponse> stored = new ConcurrentHashMap<>();
+        IdempotencyStorePort mapStore = new IdempotencyStorePort() {
+            @Override
+            public Optional<IdempotentResponse> find(String key) {
+                return Optional.ofNullable(stored.get(key));
+            }
+
+            @Override
+            public void put(String key, IdempotentResponse response) {
+                stored.put(key, response);
+            }
+        };
+        BulkheadPort asyncBulkhead = new BulkheadPort() {
+            @Override
+            public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return task.call();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+            }
+        };
+        llmUseCase = new LlmUseCase(llmProviderPort, asyncBulkhead, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, mapStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        CountDownLatch release = new CountDownLatch(1);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            release.await();
+            return LlmResponse.success(((LlmRequest) invocation.getArgument(0)).id(), "Only once", "gpt-4", 10, null);
+        });
+        LlmRequest first = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .userId("user123")
+                .idempotencyKey("retry-1")
+                .build();
+
+        // When
+        CompletableFuture<LlmResponse> original = llmUseCase.submitRequest(first);
+        CompletableFuture<LlmResponse> concurrentRetry = llmUseCase.submitRequest(first.toBuilder().id(null).build());
+        release.countDown();
+        LlmResponse response = original.get(5, TimeUnit.SECONDS);
+        LlmResponse joined = concurrentRetry.get(5, TimeUnit.SECONDS);
+        LlmResponse replayed = llmUseCase.submitRequest(first.toBuilder().id(null).build()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(joined).isEqualTo(response);
+        assertThat(replayed).isEqualTo(response);
+        assertThat(response.requestId()).isEqualTo(first.id());
+        verify(llmProviderPort, times(1)).generateResponse(any());
+        verify(llmMetricsPort).recordIdempotentReplay("gpt-4", "in_flight");
+        verify(llmMetricsPort).recordIdempotentReplay("gpt-4", "stored");
+    }
+
+    @Test
+    void testSubmitRequest_IdempotencyKeyReusedForAnotherRequestIsRejected() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("A different prompt")
+                .model("gpt-4")
+                .userId("user123")
+                .idempotencyKey("retry-1")
+                .build();
+        when(idempotencyStore.find("user123:retry-1")).thenReturn(Optional.of(new IdempotentResponse("0",
+                LlmResponse.success("req", "Earlier answer", "gpt-4", 10, null))));
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.submitRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmIdempotencyConflictException.class);
+        verify(llmProviderPort, never()).generateResponse(any());
+    }
+
+    @Test
+    void testSubmitRequest_RetryAfterAnUnexpectedFailureIsAnsweredAgain() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .userId("user123")
+                .idempotencyKey("retry-1")
+                .build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(responseCache.keyOf(any()))
+                .thenThrow(new IllegalStateException("cache unavailable"))
+                .thenReturn(null);
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "Answer", "gpt-4", 10, null));
+        assertThatThrownBy(() -> llmUseCase.submitRequest(request))
+                .isInstanceOf(IllegalStateException.class);
+
+        // When
+        LlmResponse retried = llmUseCase.submitRequest(request).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(retried.content()).isEqualTo("Answer");
+        verify(llmMetricsPort, never()).recordIdempotentReplay(any(), eq("in_flight"));
+    }
+
+    @Test
+    void testSubmitRequest_IdempotencyKeyWithoutAUserIsRejected() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .idempotencyKey("retry-1")
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.submitRequest(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("user id");
+        verify(idempotencyStore, never()).find(any());
+        verify(llmProviderPort, never()).generateResponse(any());
+    }
+
+    @Test
+    void testSubmitRequest_CascadeReturnsAnAcceptedAnswerOfTheFirstModel() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore,
+                new CascadeSettings(Map.of("gpt-4", "gpt-3.5-turbo")), List.of((request, response) -> Optional.empty()),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-3.5-turbo", "gpt-4"});
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            LlmRequest sent = invocation.getArgument(0);
+            return LlmResponse.success(sent.id(), "Answer from " + sent.model(), sent.model(), 10, null);
+        });
+        LlmRequest request = LlmRequest.builder().prompt("Test prompt").model("gpt-4").build();
+
+        // When
+        LlmResponse response = llmUseCase.submitRequest(request).get();
+
+        // Then
+        assertThat(response.model()).isEqualTo("gpt-3.5-turbo");
+        assertThat(response.content()).isEqualTo("Answer from gpt-3.5-turbo");
+        verify(llmProviderPort, times(1)).generateResponse(any());
+        verify(llmMetricsPort).recordCascade(eq("gpt-4"), eq("accepted"), anyDouble(), eq(0.0));
+    }
+
+    @Test
+    void testSubmitRequest_CascadeEscalatesARejectedAnswerToTheRequestedModel() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore,
+                new CascadeSettings(Map.of("gpt-4", "gpt-3.5-turbo")),
+                List.of((request, response) -> "length".equals(response.finishReason())
+                        ? Optional.of("truncated") : Optional.empty()),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-3.5-turbo", "gpt-4"});
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            LlmRequest sent = invocation.getArgument(0);
+            return LlmResponse.success(sent.id(), "Answer from " + sent.model(), sent.model(), 10, null).toBuilder()
+                    .finishReason(sent.model().equals("gpt-4") ? "stop" : "length")
+                    .build();
+        });
+        LlmRequest request = LlmRequest.builder().prompt("Test prompt").model("gpt-4").build();
+        LlmRequest pinned = request.toBuilder().id(null).cascade(false).build();
+
+        // When
+        LlmResponse response = llmUseCase.submitRequest(request).get();
+        LlmResponse pinnedResponse = llmUseCase.submitRequest(pinned).get();
+
+        // Then
+        assertThat(response.content()).isEqualTo("Answer from gpt-4");
+        assertThat(pinnedResponse.content()).isEqualTo("Answer from gpt-4");
+        ArgumentCaptor<LlmRequest> sent = ArgumentCaptor.forClass(LlmRequest.class);
+        verify(llmProviderPort, times(3)).generateResponse(sent.capture());
+        assertThat(sent.getAllValues()).extracting(LlmRequest::model).containsExactly("gpt-3.5-turbo", "gpt-4", "gpt-4");
+        verify(llmMetricsPort).recordCascade(eq("gpt-4"), eq("truncated"), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testSubmitRequest_FlaggedRequestIsRejectedAndItsProviderCallCancelled() throws Exception {
+        // Given
+        AtomicReference<CompletableFuture<?>> providerCall = new AtomicReference<>();
+        BulkheadPort asyncBulkhead = new BulkheadPort() {
+            @Override
+            public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                providerCall.set(future);
+                Thread worker = new Thread(() -> {
+                    try {
+                        future.complete(task.call());
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+                worker.setDaemon(true);
+                worker.start();
+                return future;
+            }
+        };
+        llmUseCase = new LlmUseCase(llmProviderPort, asyncBulkhead, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return LlmResponse.success("req", "Should not be returned", "gpt-4", 10, null);
+        });
+        when(moderationPort.moderate(List.of("Test prompt"))).thenReturn(CompletableFuture.supplyAsync(
+                () -> new ModerationVerdict(true, List.of("violence")),
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+        LlmRequest request = LlmRequest.builder().prompt("Test prompt").model("gpt-4").build();
+
+        // When
+        CompletableFuture<LlmResponse> result = llmUseCase.submitRequest(request);
+
+        // Then
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(LlmUseCasePort.LlmContentFlaggedException.class)
+                .hasMessageContaining("violence");
+        assertThat(providerCall.get().isCancelled()).isTrue();
+        verify(llmMetricsPort).recordModeration(eq("flagged"), anyDouble(), eq(0.0));
+        verify(llmMetricsPort, timeout(1000)).recordCancellation("gpt-4", "moderation_rejected");
+        verify(llmMetricsPort, never()).recordCancellation("gpt-4", "client_cancelled");
+    }
+
+    @Test
+    void testSubmitRequest_FlaggedPromptSentTwiceIsNeverAnsweredFromTheCache() throws Exception {
+        // Given
+        Map<String, LlmResponse> cached = new ConcurrentHashMap<>();
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                mapCache(cached), userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "Should not be returned", "gpt-4", 10, null));
+        // The verdict arrives after the answer, which the direct bulkhead has already produced
+        when(moderationPort.moderate(List.of("Test prompt"))).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+                () -> new ModerationVerdict(true, List.of("hate")),
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+        LlmRequest request = LlmRequest.builder().prompt("Test prompt").model("gpt-4").temperature(0.0).build();
+
+        // When
+        CompletableFuture<LlmResponse> first = llmUseCase.submitRequest(request);
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(LlmUseCasePort.LlmContentFlaggedException.class);
+        CompletableFuture<LlmResponse> second = llmUseCase.submitRequest(request.toBuilder().id(null).build());
+
+        // Then
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(LlmUseCasePort.LlmContentFlaggedException.class);
+        assertThat(cached).isEmpty();
+        verify(llmProviderPort, times(2)).generateResponse(any());
+    }
+
+    @Test
+    void testSubmitRequest_LocalCacheHitIsHeldUntilModerationClears() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        LlmRequest request = LlmRequest.builder().prompt("Test prompt").model("gpt-4").temperature(0.0).build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(responseCache.keyOf(request)).thenReturn("key");
+        when(responseCache.findLocal("key"))
+                .thenReturn(Optional.of(LlmResponse.success("earlier", "Should not be returned", "gpt-4", 12, 850.0)));
+        when(moderationPort.moderate(List.of("Test prompt")))
+                .thenReturn(CompletableFuture.completedFuture(new ModerationVerdict(true, List.of("hate"))));
+
+        // When
+        CompletableFuture<LlmResponse> result = llmUseCase.submitRequest(request);
+
+        // Then
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(LlmUseCasePort.LlmContentFlaggedException.class);
+        verify(llmProviderPort, never()).generateResponse(any());
+    }
+
+    @Test
+    void testSubmitRequest_AnswerIsHeldUntilModerationClears() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "Answer", "gpt-4", 10, null));
+        when(moderationPort.moderate(List.of("Be brief", "Test prompt"))).thenReturn(CompletableFuture.supplyAsync(
+                ModerationVerdict::cleared, CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS)));
+        LlmRequest request = LlmRequest.builder().prompt("Test prompt").systemPrompt("Be brief").model("gpt-4").build();
+
+        // When
+        CompletableFuture<LlmResponse> result = llmUseCase.submitRequest(request);
+        boolean doneBeforeModeration = result.isDone();
+        LlmResponse response = result.get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(doneBeforeModeration).isFalse();
+        assertThat(response.content()).isEqualTo("Answer");
+        ArgumentCaptor<Double> heldMs = ArgumentCaptor.forClass(Double.class);
+        verify(llmMetricsPort).recordModeration(eq("cleared"), anyDouble(), heldMs.capture());
+        assertThat(heldMs.getValue()).isGreaterThan(100.0);
+    }
+
+    @Test
+    void testSubmitRequest_AnswerFinishedBeforeAFlagFromAnotherThreadIsNotReleased() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "Should not be returned", "gpt-4", 10, null));
+        // The verdict is flagged on another thread before the answer, already done, is looked at
+        CompletableFuture<ModerationVerdict> verdict = CompletableFuture.supplyAsync(
+                () -> new ModerationVerdict(true, List.of("hate")));
+        when(moderationPort.moderate(List.of("Test prompt"))).thenAnswer(invocation -> {
+            verdict.join();
+            return verdict;
+        });
+        LlmRequest request = LlmRequest.builder().prompt("Test prompt").model("gpt-4").build();
+
+        // When
+        CompletableFuture<LlmResponse> result = llmUseCase.submitRequest(request);
+
+        // Then
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(LlmUseCasePort.LlmContentFlaggedException.class)
+                .hasMessageContaining("hate");
+        verify(llmMetricsPort, never()).recordModeration(eq("cleared"), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testStreamRequest_ChunksWaitForModerationAndAFlagEndsTheStream() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, MODERATION, llmMetricsPort), OBJECT_VALIDATOR, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        AtomicBoolean flaggedStreamCancelled = new AtomicBoolean();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.streamResponse(any())).thenAnswer(invocation -> {
+            LlmRequest streamed = invocation.getArgument(0);
+            return streamed.prompt().equals("Fine prompt")
+                    ? Flux.just("Hello", " world")
+                    : Flux.<String>never().doOnCancel(() -> flaggedStreamCancelled.set(true));
+        });
+        when(moderationPort.moderate(List.of("Fine prompt"))).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+                ModerationVerdict::cleared, CompletableFuture.delayedExecutor(150, TimeUnit.MILLISECONDS)));
+        when(moderationPort.moderate(List.of("Bad prompt"))).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+                () -> new ModerationVerdict(true, List.of()), CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+
+        // When
+        long start = System.nanoTime();
+        List<String> chunks = llmUseCase.streamRequest(LlmRequest.builder().prompt("Fine prompt").model("gpt-4").build())
+                .collectList().block(Duration.ofSeconds(1));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Flux<String> flagged = llmUseCase.streamRequest(LlmRequest.builder().prompt("Bad prompt").model("gpt-4").build());
+
+        // Then
+        assertThat(chunks).containsExactly("Hello", " world");
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(140);
+        assertThatThrownBy(() -> flagged.blockLast(Duration.ofSeconds(1)))
+                .hasCauseInstanceOf(LlmUseCasePort.LlmContentFlaggedException.class);
+        assertThat(flaggedStreamCancelled).isTrue();
+    }
+
+    @Test
+    void testSubmitRequest_OutputDivergingFromTheSchemaIsCancelledAndGeneratedAgain() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, new StructuredOutputSettings(3),
+                toolCalling(), auditLog);
+        AtomicBoolean proseCancelled = new AtomicBoolean();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.streamChunks(any()))
+                .thenReturn(Flux.just("Sure", "! Here", " is", " the", " JSON").map(StreamChunk::text)
+                        .doOnCancel(() -> proseCancelled.set(true)))
+                .thenReturn(Flux.just(StreamChunk.text("{\"city\":"), StreamChunk.text(" \"Paris\"}"), StreamChunk.usage(21)));
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Capital of France as JSON")
+                .model("gpt-4")
+                .responseSchema(Map.of("type", "object"))
+                .build();
+
+        // When
+        LlmResponse response = llmUseCase.processRequest(request);
+
+        // Then
+        assertThat(response.content()).isEqualTo("{\"city\": \"Paris\"}");
+        assertThat(response.tokensUsed()).isEqualTo(21);
+        assertThat(proseCancelled).isTrue();
+        verify(llmProviderPort, never()).generateResponse(any());
+        verify(llmMetricsPort).recordStructuredOutput("gpt-4", "valid", 2, 4);
+    }
+
+    @Test
+    void testSubmitRequest_OutputThatKeepsDivergingFailsOnceTheAttemptsAreUsedUp() throws Exception {
+        // Given
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), OBJECT_VALIDATOR, new StructuredOutputSettings(2),
+                toolCalling(), auditLog);
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.streamChunks(any()))
+                .thenAnswer(invocation -> Flux.just(StreamChunk.text("{\"city\":"), StreamChunk.text(" \"Par")));
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Capital of France as JSON")
+                .model("gpt-4")
+                .responseSchema(Map.of("type", "object"))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.processRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmInvalidOutputException.class)
+                .hasMessageContaining("after 2 attempts")
+                .hasMessageContaining("object is not complete");
+        verify(llmProviderPort, times(2)).streamChunks(any());
+        verify(llmMetricsPort).recordStructuredOutput("gpt-4", "invalid", 2, 26);
+    }
+
+    @Test
+    void testStreamRequest_SchemaMismatchCancelsTheProviderStreamMidway() throws Exception {
+        // Given
+        SchemaValidatorPort proseRejecting = schema -> new SchemaValidatorPort.OutputValidator() {
+            @Override
+            public Optional<String> accept(String chunk) {
+                return chunk.startsWith("Sure") ? Optional.of("prose after the object started") : Optional.empty();
+            }
+
+            @Override
+            public Optional<String> finish() {
+                return Optional.empty();
+            }
+        };
+        llmUseCase = new LlmUseCase(llmProviderPort, DIRECT_BULKHEAD, llmMetricsPort, documentUseCase, promptTemplateUseCase,
+                responseCache, userId -> true, batchLlmPort, idempotencyStore, NO_CASCADE, List.of(),
+                new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), proseRejecting, ONE_ATTEMPT,
+                toolCalling(), auditLog);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger requested = new AtomicInteger();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.streamResponse(any())).thenReturn(Flux.just("{\"city\":", "Sure", " thing")
+                .concatWith(Flux.never())
+                .doOnNext(chunk -> requested.incrementAndGet())
+                .doOnCancel(() -> cancelled.set(true)));
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Capital of France as JSON")
+                .model("gpt-4")
+                .responseSchema(Map.of("type", "object"))
+                .build();
+        List<String> received = new ArrayList<>();
+
+        // When
+        Flux<String> stream = llmUseCase.streamRequest(request).doOnNext(received::add);
+
+        // Then
+        assertThatThrownBy(() -> stream.blockLast(Duration.ofSeconds(1)))
+                .hasCauseInstanceOf(LlmUseCasePort.LlmSchemaMismatchException.class)
+                .hasMessageContaining("diverged");
+        assertThat(received).containsExactly("{\"city\":");
+        assertThat(cancelled).isTrue();
+        assertThat(requested).hasValue(2);
+        verify(llmMetricsPort).recordStructuredOutput("gpt-4", "invalid", 1, 0);
+    }
+
+    @Test
+    void testSubmitRequest_ToolCallsOfOneTurnRunTogetherAndTheirResultsGoBackToTheModel() throws Exception {
+        // Given
+        ToolDefinition time = new ToolDefinition("current_time", "Gets the time", Map.of("type", "object"));
+        ToolDefinition search = new ToolDefinition("search_documents", "Searches", Map.of("type", "object"));
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(toolPort.find("current_time")).thenReturn(Optional.of(time));
+        when(toolPort.find("search_documents")).thenReturn(Optional.of(search));
+        // The first call only completes once the second has started, so running them one after the other would hang
+        CompletableFuture<String> timeResult = new CompletableFuture<>();
+        when(toolPort.execute(any())).thenAnswer(invocation -> {
+            ToolCall call = invocation.getArgument(0);
+            if (call.name().equals("current_time")) {
+                return timeResult;
+            }
+            timeResult.complete("12:00");
+            return CompletableFuture.failedFuture(new ToolPort.ToolException("index is empty"));
+        });
+        ArgumentCaptor<LlmRequest> sent = ArgumentCaptor.forClass(LlmRequest.class);
+        when(llmProviderPort.generateResponse(sent.capture()))
+                .thenReturn(LlmResponse.builder().model("gpt-4").status("SUCCESS").tokensUsed(30)
+                        .toolCalls(List.of(new ToolCall("call_1", "current_time", "{}"),
+                                new ToolCall("call_2", "search_documents", "{\"query\": \"holidays\"}")))
+                        .build())
+                .thenReturn(LlmResponse.builder().content("It is noon").model("gpt-4").status("SUCCESS").tokensUsed(50).build());
+        LlmRequest request = LlmRequest.builder()
+                .prompt("What time is it?")
+                .model("gpt-4")
+                .tools(List.of(ToolDefinition.named("current_time"), ToolDefinition.named("search_documents")))
+                .build();
+
+        // When
+        LlmResponse response = llmUseCase.submitRequest(request).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(response.content()).isEqualTo("It is noon");
+        assertThat(response.tokensUsed()).isEqualTo(80);
+        assertThat(sent.getAllValues().get(0).tools()).containsExactly(time, search);
+        assertThat(sent.getAllValues().get(1).toolMessages()).extracting(ChatMessage::role, ChatMessage::content)
+                .containsExactly(
+                        tuple("assistant", null),
+                        tuple("tool", "12:00"),
+                        tuple("tool", "Error: index is empty"));
+        verify(llmMetricsPort).recordToolLoop("gpt-4", "answered", 2, 2);
+    }
+
+    @Test
+    void testSubmitRequest_ModelStillCallingToolsAfterTheLastRoundFails() throws Exception {
+        // Given
+        ToolDefinition time = new ToolDefinition("current_time", "Gets the time", Map.of("type", "object"));
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(toolPort.find("current_time")).thenReturn(Optional.of(time));
+        when(toolPort.execute(any())).thenReturn(CompletableFuture.completedFuture("12:00"));
+        when(llmProviderPort.generateResponse(any())).thenReturn(LlmResponse.builder().model("gpt-4").status("SUCCESS")
+                .toolCalls(List.of(new ToolCall("call_1", "current_time", "{}")))
+                .build());
+        LlmRequest request = LlmRequest.builder()
+                .prompt("What time is it?")
+                .model("gpt-4")
+                .tools(List.of(ToolDefinition.named("current_time")))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.processRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmProcessingException.class)
+                .hasMessageContaining("after 2 rounds");
+        verify(llmProviderPort, times(2)).generateResponse(any());
+        verify(llmMetricsPort).recordToolLoop("gpt-4", "exhausted", 2, 2);
+    }
+
+    @Test
+    void testSubmitRequest_ToolCallRejectedBySaturatedWorkersFailsAsOverloaded() throws Exception {
+        // Given
+        ToolDefinition time = new ToolDefinition("current_time", "Gets the time", Map.of("type", "object"));
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(toolPort.find("current_time")).thenReturn(Optional.of(time));
+        when(toolPort.execute(any())).thenReturn(CompletableFuture.failedFuture(
+                new ToolPort.ToolOverloadedException("Tool workers are full (1 running, 1 queued)")));
+        when(llmProviderPort.generateResponse(any())).thenReturn(LlmResponse.builder().model("gpt-4").status("SUCCESS")
+                .toolCalls(List.of(new ToolCall("call_1", "current_time", "{}")))
+                .build());
+        LlmRequest request = LlmRequest.builder()
+                .prompt("What time is it?")
+                .model("gpt-4")
+                .tools(List.of(ToolDefinition.named("current_time")))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.processRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmOverloadedException.class)
+                .hasMessageContaining("Tool workers are full");
+        verify(llmProviderPort, times(1)).generateResponse(any());
+    }
+
+    @Test
+    void testSubmitRequest_UnknownToolIsRejected() {
+        // Given
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(toolPort.find("delete_everything")).thenReturn(Optional.empty());
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Clean up")
+                .model("gpt-4")
+                .tools(List.of(ToolDefinition.named("delete_everything")))
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> llmUseCase.submitRequest(request))
+                .isInstanceOf(LlmUseCasePort.LlmProcessingException.class)
+                .hasMessageContaining("delete_everything");
+        verify(toolPort, never()).execute(any());
+    }
+
+    @Test
+    void testProcessRequest_AnsweredRequestIsAudited() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .userId("alice")
+                .build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any()))
+                .thenReturn(LlmResponse.success("req", "Answer", "gpt-4", 10, null));
+
+        // When
+        llmUseCase.processRequest(request);
+
+        // Then
+        ArgumentCaptor<AuditRecord> record = ArgumentCaptor.forClass(AuditRecord.class);
+        verify(auditLog).record(record.capture());
+        assertThat(record.getValue().userId()).isEqualTo("alice");
+        assertThat(record.getValue().prompt()).isEqualTo("Test prompt");
+        assertThat(record.getValue().completion()).isEqualTo("Answer");
+        assertThat(record.getValue().status()).isEqualTo("SUCCESS");
+        assertThat(record.getValue().tokensUsed()).isEqualTo(10);
+    }
+
+    @Test
+    void testSubmitRequest_FailedRequestIsAuditedWithItsError() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .prompt("Test prompt")
+                .model("gpt-4")
+                .build();
+        when(llmProviderPort.getSupportedModels()).thenReturn(new String[]{"gpt-4"});
+        when(llmProviderPort.generateResponse(any()))
+                .thenThrow(new LlmProviderPort.LlmProviderException("provider unavailable"));
+
+        // When
+        CompletableFuture<LlmResponse> answer = llmUseCase.submitRequest(request);
+
+        // Then
+        assertThatThrownBy(answer::join).isInstanceOf(CompletionException.class);
+        ArgumentCaptor<AuditRecord> record = ArgumentCaptor.forClass(AuditRecord.class);
+        verify(auditLog).record(record.capture());
+        assertThat(record.getValue().status()).isEqualTo("ERROR");
+        assertThat(record.getValue().completion()).isNull();
+        assertThat(record.getValue().error()).contains("provider unavailable");
+    }
+
+    /**
+     * Response cache keeping every response in a map, keyed by prompt
+     */
+    private static ResponseCachePort mapCache(Map<String, LlmResponse> responses) {
+        return new ResponseCachePort() {
+            @Override
+            public String keyOf(LlmRequest request) {
+                return request.prompt();
+            }
+
+            @Override
+            public Optional<LlmResponse> findLocal(String key) {
+                return Optional.ofNullable(responses.get(key));
+            }
+
+            @Override
+            public Optional<LlmResponse> find(String key) {
+                return findLocal(key);
+            }
+
+            @Override
+            public void put(String key, LlmResponse response) {
+                responses.put(key, response);
+            }
+        };
+    }
+
+    private ToolCallingUseCase toolCalling() {
+        return new ToolCallingUseCase(llmProviderPort, llmMetricsPort, toolPort, TWO_ROUNDS);
+    }
 }
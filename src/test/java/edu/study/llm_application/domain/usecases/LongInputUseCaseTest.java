@@ -0,0 +1,200 @@
+package edu.study.llm_application.domain.usecases;
+
+import edu.study.llm_application.domain.entities.AuditRecord;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.LongInputProgress;
+import edu.study.llm_application.domain.entities.LongInputSettings;
+import edu.study.llm_application.domain.entities.ModerationSettings;
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.domain.ports.out.AuditLogPort;
+import edu.study.llm_application.domain.ports.out.BulkheadPort;
+import edu.study.llm_application.domain.ports.out.LlmMetricsPort;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.domain.ports.out.ModerationPort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the long input use case
+ */
+@ExtendWith(MockitoExtension.class)
+class LongInputUseCaseTest {
+
+    @Mock
+    private LlmUseCasePort llmUseCase;
+
+    @Mock
+    private LlmProviderPort llmProviderPort;
+
+    @Mock
+    private LlmMetricsPort llmMetricsPort;
+
+    @Mock
+    private ModerationPort moderationPort;
+
+    @Mock
+    private AuditLogPort auditLog;
+
+    private static final ModerationSettings NO_MODERATION = new ModerationSettings(false, false);
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(16);
+
+    /**
+     * Bulkhead running tasks on a shared pool, so only the use case bounds their concurrency
+     */
+    private final BulkheadPort pooledBulkhead = new BulkheadPort() {
+        @Override
+        public <T> CompletableFuture<T> submit(String model, Priority priority, Callable<T> task) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, workers);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void testProcess_MapsChunksInParallelAndReducesInRounds() throws Exception {
+        // Given
+        LongInputUseCase useCase = useCase(new LongInputSettings(50, 10, 4, 100_000));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            LlmRequest part = invocation.getArgument(0);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return LlmResponse.success(part.id(), "partial answer", part.model(), 10, null);
+        });
+        String input = IntStream.range(0, 400).mapToObj(i -> "word" + i).collect(Collectors.joining(" "));
+        LlmRequest request = LlmRequest.builder().prompt("Summarize").model("gpt-4").build();
+
+        // When
+        List<LongInputProgress> events = useCase.process(request, input).collectList().block();
+
+        // Then
+        LongInputProgress last = events.get(events.size() - 1);
+        assertThat(last.stage()).isEqualTo(LongInputProgress.Stage.DONE);
+        assertThat(last.response().content()).isEqualTo("partial answer");
+        assertThat(last.response().requestId()).isEqualTo(request.id());
+        assertThat(last.response().tokensUsed()).isEqualTo(10 * (events.size() - 1));
+        List<LongInputProgress> map = events.stream().filter(e -> e.stage() == LongInputProgress.Stage.MAP).toList();
+        assertThat(map).hasSizeGreaterThan(8);
+        assertThat(map.get(map.size() - 1).completed()).isEqualTo(map.get(0).total());
+        assertThat(events).anyMatch(e -> e.stage() == LongInputProgress.Stage.REDUCE && e.level() == 2);
+        assertThat(maxInFlight.get()).isBetween(2, 4);
+    }
+
+    @Test
+    void testProcess_InputFittingOneCallIsAnsweredDirectly() throws Exception {
+        // Given
+        LongInputUseCase useCase = useCase(new LongInputSettings(500, 50, 4, 100_000));
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            LlmRequest part = invocation.getArgument(0);
+            return LlmResponse.success(part.id(), "short summary", part.model(), 12, null);
+        });
+        LlmRequest request = LlmRequest.builder().prompt("Summarize").model("gpt-4").build();
+
+        // When
+        List<LongInputProgress> events = useCase.process(request, "A short note about the release.").collectList().block();
+
+        // Then
+        assertThat(events).extracting(LongInputProgress::stage)
+                .containsExactly(LongInputProgress.Stage.MAP, LongInputProgress.Stage.DONE);
+        assertThat(events.get(1).response().content()).isEqualTo("short summary");
+        verify(llmMetricsPort).recordLongInput("gpt-4", 1, 0);
+        ArgumentCaptor<AuditRecord> audited = ArgumentCaptor.forClass(AuditRecord.class);
+        verify(auditLog, timeout(1000)).record(audited.capture());
+        assertThat(audited.getValue().requestId()).isEqualTo(request.id());
+        assertThat(audited.getValue().prompt()).isEqualTo("Summarize");
+        assertThat(audited.getValue().completion()).isEqualTo("short summary");
+    }
+
+    @Test
+    void testProcess_InputOverTheLimitIsRejected() throws Exception {
+        // Given
+        LongInputUseCase useCase = new LongInputUseCase(llmUseCase, llmProviderPort, pooledBulkhead, llmMetricsPort,
+                userId -> true, new ModerationGate(moderationPort, NO_MODERATION, llmMetricsPort), auditLog,
+                new LongInputSettings(50, 10, 4, 100));
+        when(llmUseCase.validateRequest(any())).thenReturn(true);
+        LlmRequest request = LlmRequest.builder().prompt("Summarize").model("gpt-4").build();
+
+        // When & Then
+        assertThatThrownBy(() -> useCase.process(request, "x".repeat(101)))
+                .isInstanceOf(LlmUseCasePort.LlmProcessingException.class)
+                .hasMessageContaining("exceeds the limit");
+        verify(llmProviderPort, never()).generateResponse(any());
+    }
+
+    @Test
+    void testProcess_FlaggedInputIsRejectedAndItsCallsCancelled() throws Exception {
+        // Given
+        LongInputUseCase useCase = useCase(new LongInputSettings(50, 10, 4, 100_000), new ModerationSettings(true, false));
+        when(llmProviderPort.generateResponse(any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return LlmResponse.success("part", "Should not be returned", "gpt-4", 10, null);
+        });
+        when(moderationPort.moderate(any())).thenReturn(CompletableFuture.supplyAsync(
+                () -> new ModerationVerdict(true, List.of("violence")),
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+        String input = IntStream.range(0, 200).mapToObj(i -> "word" + i).collect(Collectors.joining(" "));
+        LlmRequest request = LlmRequest.builder().prompt("Summarize").model("gpt-4").build();
+
+        // When & Then
+        assertThatThrownBy(() -> useCase.process(request, input).blockLast(Duration.ofSeconds(2)))
+                .hasCauseInstanceOf(LlmUseCasePort.LlmContentFlaggedException.class)
+                .hasMessageContaining("violence");
+        verify(auditLog, timeout(1000)).record(argThat(record -> "ERROR".equals(record.status())));
+        verify(moderationPort).moderate(argThat(inputs -> inputs.get(0).equals("Summarize")
+                && inputs.stream().anyMatch(text -> text.contains("word199"))));
+        // The flag ends the run while the first calls are still going, so no further call is started
+        verify(llmProviderPort, atMost(4)).generateResponse(any());
+    }
+
+    private LongInputUseCase useCase(LongInputSettings settings) {
+        return useCase(settings, NO_MODERATION);
+    }
+
+    private LongInputUseCase useCase(LongInputSettings settings, ModerationSettings moderation) {
+        when(llmUseCase.validateRequest(any())).thenReturn(true);
+        when(llmUseCase.getAvailableModels()).thenReturn(new String[]{"gpt-4"});
+        return new LongInputUseCase(llmUseCase, llmProviderPort, pooledBulkhead, llmMetricsPort, userId -> true,
+                new ModerationGate(moderationPort, moderation, llmMetricsPort), auditLog, settings);
+    }
+}
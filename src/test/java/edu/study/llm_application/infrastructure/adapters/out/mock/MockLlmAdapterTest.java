@@ -0,0 +1,129 @@
+package edu.study.llm_application.infrastructure.adapters.out.mock;
+
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.MockProviderProperties;
+import edu.study.llm_application.infrastructure.ratelimit.ProviderRetryPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the simulating mock provider
+ */
+class MockLlmAdapterTest {
+
+    private final MockProviderProperties properties = new MockProviderProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setLatency(MockProviderProperties.Latency.FIXED);
+        properties.setFirstTokenMedian(Duration.ofMillis(200));
+        properties.setTokensPerSecond(100);
+        properties.setMinCompletionRatio(1);
+    }
+
+    @Test
+    void testGenerateResponse_CompletionFillsTheMaxTokensAtTheTokenRate() throws Exception {
+        // Given
+        MockLlmAdapter adapter = new MockLlmAdapter(properties);
+        LlmRequest request = LlmRequest.builder().prompt("Explain caching").model("gpt-4").maxTokens(30).build();
+
+        // When
+        long start = System.nanoTime();
+        LlmResponse response = adapter.generateResponse(request);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(response.content().split("\\s+")).hasSize(30);
+        assertThat(response.tokensUsed()).isEqualTo(response.promptTokens() + 30);
+        assertThat(response.finishReason()).isEqualTo("length");
+        // 200 ms to the first token and 30 tokens at 100 per second
+        assertThat(elapsedMs).isBetween(490L, 2000L);
+    }
+
+    @Test
+    void testStreamResponse_ThousandsOfStreamsWaitWithoutHoldingThreads() {
+        // Given
+        properties.setTokensPerChunk(2);
+        MockLlmAdapter adapter = new MockLlmAdapter(properties);
+        LlmRequest request = LlmRequest.builder().prompt("Hello").model("gpt-4").maxTokens(6).build();
+        int streams = 5000;
+
+        // When
+        long start = System.nanoTime();
+        List<List<String>> chunks = Flux.range(0, streams)
+                .flatMap(i -> adapter.streamResponse(request).collectList(), streams)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(chunks).hasSize(streams).allSatisfy(stream -> assertThat(stream).hasSize(3));
+        // Each stream takes 240 ms; run one after another they would take 20 minutes
+        assertThat(elapsedMs).isLessThan(10_000L);
+    }
+
+    @Test
+    void testGenerateResponse_InjectedRateLimitLooksLikeTheProviderRejectingTheCall() {
+        // Given
+        properties.setRateLimitRate(1);
+        MockLlmAdapter adapter = new MockLlmAdapter(properties);
+        LlmRequest request = LlmRequest.builder().prompt("Hello").model("gpt-4").build();
+
+        // When & Then
+        assertThatThrownBy(() -> adapter.generateResponse(request))
+                .isInstanceOf(LlmProviderPort.LlmProviderException.class)
+                .satisfies(e -> {
+                    assertThat(e.getCause()).isInstanceOf(WebClientResponseException.class);
+                    assertThat(((WebClientResponseException) e.getCause()).getStatusCode().value()).isEqualTo(429);
+                    assertThat(ProviderRetryPolicy.classify(e.getCause())).isEqualTo(ProviderRetryPolicy.Classification.SAFE);
+                });
+    }
+
+    @Test
+    void testStreamResponse_InjectedServerErrorEndsTheStream() {
+        // Given
+        properties.setServerErrorRate(1);
+        properties.setFirstTokenMedian(Duration.ofMillis(10));
+        MockLlmAdapter adapter = new MockLlmAdapter(properties);
+        LlmRequest request = LlmRequest.builder().prompt("Hello").model("gpt-4").build();
+
+        // When
+        Throwable error = adapter.streamResponse(request).then(Mono.<Throwable>empty())
+                .onErrorResume(Mono::just)
+                .block();
+
+        // Then
+        assertThat(error).isInstanceOf(LlmProviderPort.LlmProviderException.class)
+                .hasCauseInstanceOf(WebClientResponseException.class);
+        assertThat(((WebClientResponseException) error.getCause()).getStatusCode().is5xxServerError()).isTrue();
+    }
+
+    @Test
+    void testFirstTokenLatency_HistogramDrawsFallInTheObservedBuckets() {
+        // Given
+        properties.setLatency(MockProviderProperties.Latency.HISTOGRAM);
+        properties.setHistogram(Map.of(100L, 9L, 1000L, 0L, 2000L, 1L));
+        FirstTokenLatency latency = new FirstTokenLatency(properties);
+
+        // When
+        List<Long> draws = IntStream.range(0, 10_000).mapToObj(i -> latency.next().toMillis()).toList();
+
+        // Then
+        assertThat(draws).allSatisfy(ms -> assertThat(ms).isBetween(0L, 2000L))
+                .noneMatch(ms -> ms > 100 && ms < 1000);
+        assertThat(draws.stream().filter(ms -> ms >= 1000).count()).isBetween(700L, 1300L);
+    }
+}
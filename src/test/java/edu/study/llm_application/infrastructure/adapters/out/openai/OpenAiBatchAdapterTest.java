@@ -0,0 +1,156 @@
+package edu.study.llm_application.infrastructure.adapters.out.openai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.infrastructure.config.BatchProperties;
+import edu.study.llm_application.infrastructure.config.RetryProperties;
+import edu.study.llm_application.infrastructure.ratelimit.ApiKeyPool;
+import edu.study.llm_application.infrastructure.ratelimit.RateLimitPacer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the OpenAI batch adapter against a local stand-in of the Files and Batches APIs
+ */
+class OpenAiBatchAdapterTest {
+
+    private static final Pattern CUSTOM_ID = Pattern.compile("\"custom_id\":\"([^\"]+)\"");
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private OpenAiBatchAdapter adapter;
+    private final List<String> uploadedIds = new ArrayList<>();
+    private volatile String batchStatus = "in_progress";
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/files", this::files);
+        server.createContext("/batches", this::batches);
+        server.start();
+
+        BatchProperties properties = new BatchProperties();
+        properties.setPath(directory.toString());
+        properties.setMaxRequests(10);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ApiKeyPool keyPool = new ApiKeyPool("", "sk-test", Duration.ofSeconds(10), Duration.ofMinutes(5),
+                new RateLimitPacer(new RetryProperties(), meterRegistry), meterRegistry);
+        adapter = new OpenAiBatchAdapter(properties, new OpenAiJsonCodec(new ObjectMapper()), keyPool,
+                WebClient.create(), "http://127.0.0.1:" + server.getAddress().getPort(), 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adapter.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testQueuedRequestsAreAnsweredOnceTheirBatchCompletes() throws Exception {
+        // Given
+        LlmRequest answered = LlmRequest.builder().prompt("Capital of France?").model("gpt-4").build();
+        LlmRequest rejected = LlmRequest.builder().prompt("Capital of Spain?").model("gpt-4").build();
+        adapter.enqueue(answered);
+        adapter.enqueue(rejected);
+
+        // When
+        adapter.flush();
+        adapter.poll();
+        boolean pendingWhileRunning = adapter.result(answered.id()).orElseThrow().isPending();
+        batchStatus = "completed";
+        adapter.poll();
+
+        // Then
+        assertThat(uploadedIds).containsExactly(answered.id(), rejected.id());
+        assertThat(pendingWhileRunning).isTrue();
+        assertThat(adapter.result(answered.id())).hasValueSatisfying(response -> {
+            assertThat(response.isSuccessful()).isTrue();
+            assertThat(response.content()).isEqualTo("Paris");
+            assertThat(response.tokensUsed()).isEqualTo(7);
+        });
+        assertThat(adapter.result(rejected.id())).hasValueSatisfying(response -> {
+            assertThat(response.status()).isEqualTo("ERROR");
+            assertThat(response.errorMessage()).contains("Invalid model");
+        });
+        assertThat(adapter.result("unknown")).isEmpty();
+    }
+
+    @Test
+    void testRequestsOfAFailedBatchAreCompletedWithAnError() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder().prompt("Capital of Italy?").model("gpt-4").build();
+        adapter.enqueue(request);
+        adapter.flush();
+
+        // When
+        batchStatus = "expired";
+        adapter.poll();
+
+        // Then
+        assertThat(adapter.result(request.id())).hasValueSatisfying(response -> {
+            assertThat(response.status()).isEqualTo("ERROR");
+            assertThat(response.errorMessage()).contains("expired");
+        });
+    }
+
+    private void files(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if ("POST".equals(exchange.getRequestMethod()) && path.equals("/files")) {
+            Matcher matcher = CUSTOM_ID.matcher(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                uploadedIds.add(matcher.group(1));
+            }
+            respond(exchange, "{\"id\":\"file-in\",\"purpose\":\"batch\"}");
+        } else if (path.equals("/files/file-out/content")) {
+            respond(exchange, "{\"custom_id\":\"" + uploadedIds.get(0) + "\",\"response\":{\"status_code\":200,\"body\":"
+                    + "{\"model\":\"gpt-4\",\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"Paris\"}}],"
+                    + "\"usage\":{\"prompt_tokens\":5,\"completion_tokens\":2,\"total_tokens\":7}}},\"error\":null}\n");
+        } else if (path.equals("/files/file-err/content")) {
+            respond(exchange, "{\"custom_id\":\"" + uploadedIds.get(1) + "\",\"response\":{\"status_code\":400,\"body\":"
+                    + "{\"error\":{\"message\":\"Invalid model\"}}},\"error\":{\"message\":\"Invalid model\"}}\n");
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+        }
+    }
+
+    private void batches(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        if ("POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, "{\"id\":\"batch-1\",\"status\":\"validating\"}");
+        } else if ("completed".equals(batchStatus)) {
+            respond(exchange, "{\"id\":\"batch-1\",\"status\":\"completed\","
+                    + "\"output_file_id\":\"file-out\",\"error_file_id\":\"file-err\"}");
+        } else {
+            respond(exchange, "{\"id\":\"batch-1\",\"status\":\"" + batchStatus + "\"}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
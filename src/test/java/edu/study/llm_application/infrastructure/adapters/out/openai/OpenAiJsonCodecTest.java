@@ -0,0 +1,214 @@
+package edu.study.llm_application.infrastructure.adapters.out.openai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.entities.ChatMessage;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the OpenAI JSON codec
+ */
+class OpenAiJsonCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenAiJsonCodec codec = new OpenAiJsonCodec(objectMapper);
+
+    @Test
+    void testWriteChatRequest_WritesMessagesAndParameters() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .model("gpt-4")
+                .systemPrompt("Be brief")
+                .prompt("Say \"hi\"\nplease")
+                .maxTokens(50)
+                .temperature(0.2)
+                .build();
+        NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+        // When
+        DataBuffer buffer = codec.writeChatRequest(request, true, bufferFactory);
+
+        // Then
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        assertThat(body.get("model").asText()).isEqualTo("gpt-4");
+        assertThat(body.get("messages")).hasSize(2);
+        assertThat(body.get("messages").get(0).get("role").asText()).isEqualTo("system");
+        assertThat(body.get("messages").get(1).get("content").asText()).isEqualTo("Say \"hi\"\nplease");
+        assertThat(body.get("max_tokens").asInt()).isEqualTo(50);
+        assertThat(body.get("temperature").asDouble()).isEqualTo(0.2);
+        assertThat(body.get("stream").asBoolean()).isTrue();
+        assertThat(body.get("stream_options").get("include_usage").asBoolean()).isTrue();
+        assertThat(body.has("user")).isFalse();
+    }
+
+    @Test
+    void testWriteBatchLine_WritesTheResponseSchemaAsResponseFormat() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .model("gpt-4")
+                .prompt("Capital of France as JSON")
+                .responseSchema(Map.of("type", "object", "required", List.of("city"),
+                        "properties", Map.of("city", Map.of("type", "string"))))
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        codec.writeBatchLine(request, out);
+
+        // Then
+        JsonNode format = objectMapper.readTree(out.toString(StandardCharsets.UTF_8)).get("body").get("response_format");
+        assertThat(format.get("type").asText()).isEqualTo("json_schema");
+        assertThat(format.get("json_schema").get("name").asText()).isEqualTo("response");
+        assertThat(format.get("json_schema").get("schema").get("properties").get("city").get("type").asText())
+                .isEqualTo("string");
+    }
+
+    @Test
+    void testReadCompletion_ReadsUsageWithCachedTokens() throws Exception {
+        // Given
+        String json = """
+                {"id":"chatcmpl-1","object":"chat.completion","created":1,"model":"gpt-4",
+                 "choices":[{"index":0,"message":{"role":"assistant","content":"Hello"},"finish_reason":"stop"}],
+                 "usage":{"prompt_tokens":1200,"completion_tokens":5,"total_tokens":1205,
+                          "prompt_tokens_details":{"cached_tokens":1024,"audio_tokens":0}},
+                 "system_fingerprint":"fp"}
+                """;
+
+        // When
+        OpenAiDtos.ChatCompletion completion = codec.readCompletion(
+                DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(completion.choices().get(0).message().content()).isEqualTo("Hello");
+        assertThat(completion.usage().promptTokens()).isEqualTo(1200);
+        assertThat(completion.usage().promptTokensDetails().cachedTokens()).isEqualTo(1024);
+    }
+
+    @Test
+    void testWriteChatRequest_WritesToolsAndTheTurnsOfTheToolLoop() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder()
+                .model("gpt-4")
+                .prompt("What time is it in Paris?")
+                .tools(List.of(new ToolDefinition("current_time", "Gets the time",
+                        Map.of("type", "object", "properties", Map.of("timezone", Map.of("type", "string"))))))
+                .toolMessages(List.of(
+                        ChatMessage.assistant(null, List.of(new ToolCall("call_1", "current_time", "{\"timezone\":\"Europe/Paris\"}"))),
+                        ChatMessage.tool("call_1", "2026-10-19T12:00:00+02:00")))
+                .build();
+
+        // When
+        DataBuffer buffer = codec.writeChatRequest(request, false, DefaultDataBufferFactory.sharedInstance);
+
+        // Then
+        JsonNode body = objectMapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+        JsonNode function = body.get("tools").get(0).get("function");
+        assertThat(body.get("tools").get(0).get("type").asText()).isEqualTo("function");
+        assertThat(function.get("name").asText()).isEqualTo("current_time");
+        assertThat(function.get("parameters").get("properties").get("timezone").get("type").asText()).isEqualTo("string");
+        JsonNode messages = body.get("messages");
+        assertThat(messages).hasSize(3);
+        assertThat(messages.get(1).get("content").isNull()).isTrue();
+        assertThat(messages.get(1).get("tool_calls").get(0).get("function").get("arguments").asText())
+                .isEqualTo("{\"timezone\":\"Europe/Paris\"}");
+        assertThat(messages.get(2).get("role").asText()).isEqualTo("tool");
+        assertThat(messages.get(2).get("tool_call_id").asText()).isEqualTo("call_1");
+    }
+
+    @Test
+    void testReadCompletion_ReadsToolCalls() throws Exception {
+        // Given
+        String json = """
+                {"id":"chatcmpl-2","model":"gpt-4","choices":[{"index":0,"finish_reason":"tool_calls",
+                 "message":{"role":"assistant","content":null,"tool_calls":[
+                   {"id":"call_1","type":"function","function":{"name":"current_time","arguments":"{}"}},
+                   {"id":"call_2","type":"function","function":{"name":"search_documents","arguments":"{\\"query\\":\\"leave\\"}"}}]}}],
+                 "usage":{"prompt_tokens":80,"completion_tokens":30,"total_tokens":110}}
+                """;
+
+        // When
+        LlmResponse response = codec.readCompletion(
+                DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8))).toDomainResponse("r1");
+
+        // Then
+        assertThat(response.hasToolCalls()).isTrue();
+        assertThat(response.toolCalls()).containsExactly(
+                new ToolCall("call_1", "current_time", "{}"),
+                new ToolCall("call_2", "search_documents", "{\"query\":\"leave\"}"));
+        assertThat(response.finishReason()).isEqualTo("tool_calls");
+    }
+
+    @Test
+    void testWriteBatchLine_WritesOneLinePerRequest() throws Exception {
+        // Given
+        LlmRequest first = LlmRequest.builder().model("gpt-4").prompt("One").build();
+        LlmRequest second = LlmRequest.builder().model("gpt-4").prompt("Two").userId("u1").build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        codec.writeBatchLine(first, out);
+        codec.writeBatchLine(second, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode line = objectMapper.readTree(lines[1]);
+        assertThat(line.get("custom_id").asText()).isEqualTo(second.id());
+        assertThat(line.get("method").asText()).isEqualTo("POST");
+        assertThat(line.get("url").asText()).isEqualTo(OpenAiJsonCodec.BATCH_ENDPOINT);
+        assertThat(line.get("body").get("messages").get(0).get("content").asText()).isEqualTo("Two");
+        assertThat(line.get("body").get("user").asText()).isEqualTo("u1");
+        assertThat(line.get("body").has("stream")).isFalse();
+    }
+
+    @Test
+    void testReadChunkContent_SkipsEverythingButTheDelta() throws Exception {
+        // Given
+        String chunk = "{\"id\":\"c\",\"choices\":[{\"index\":0,\"logprobs\":{\"content\":[]},"
+                + "\"delta\":{\"role\":\"assistant\",\"content\":\"Hel\"},\"finish_reason\":null}]}";
+        String roleOnly = "{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}";
+        String noChoices = "{\"choices\":[],\"usage\":{\"total_tokens\":3}}";
+
+        // When & Then
+        assertThat(codec.readChunkContent(chunk)).isEqualTo("Hel");
+        assertThat(codec.readChunkContent(roleOnly)).isNull();
+        assertThat(codec.readChunkContent(noChoices)).isNull();
+        assertThatThrownBy(() -> codec.readChunkContent("[1]")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testReadChunkUsage_FindsTheTotalOfTheLastChunk() throws Exception {
+        // Given
+        String usage = "{\"id\":\"c\",\"choices\":[],\"usage\":{\"prompt_tokens\":9,\"completion_tokens\":3,"
+                + "\"total_tokens\":12}}";
+        String text = "{\"choices\":[{\"delta\":{\"content\":\"Hel\"}}],\"usage\":null}";
+
+        // When & Then
+        assertThat(codec.readChunkUsage(usage)).isEqualTo(12);
+        assertThat(codec.readChunkUsage(text)).isNull();
+        assertThatThrownBy(() -> codec.readChunkUsage("[1]")).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package edu.study.llm_application.infrastructure.adapters.out.openai;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.study.llm_application.domain.entities.ModerationVerdict;
+import edu.study.llm_application.domain.ports.out.ModerationPort;
+import edu.study.llm_application.infrastructure.config.ModerationProperties;
+import edu.study.llm_application.infrastructure.config.RetryProperties;
+import edu.study.llm_application.infrastructure.ratelimit.ApiKeyPool;
+import edu.study.llm_application.infrastructure.ratelimit.RateLimitPacer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the OpenAI moderation adapter against a local stand-in of the moderations endpoint
+ */
+class OpenAiModerationAdapterTest {
+
+    private HttpServer server;
+    private OpenAiModerationAdapter adapter;
+    private volatile int status = 200;
+    private volatile String requestBody;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/moderations", this::moderations);
+        server.start();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ApiKeyPool keyPool = new ApiKeyPool("", "sk-test", Duration.ofSeconds(10), Duration.ofMinutes(5),
+                new RateLimitPacer(new RetryProperties(), meterRegistry), meterRegistry);
+        adapter = new OpenAiModerationAdapter(new ModerationProperties(), keyPool, WebClient.create(),
+                "http://127.0.0.1:" + server.getAddress().getPort(), 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testModerate_FlagsWhenAnyInputIsFlaggedAndCombinesCategories() throws Exception {
+        // When
+        ModerationVerdict verdict = adapter.moderate(List.of("Be brief", "Something bad"))
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(requestBody).contains("\"model\":\"omni-moderation-latest\"")
+                .contains("\"input\":[\"Be brief\",\"Something bad\"]");
+        assertThat(verdict.flagged()).isTrue();
+        assertThat(verdict.categories()).containsExactly("harassment", "violence");
+    }
+
+    @Test
+    void testModerate_FailedCallFailsWithModerationException() {
+        // Given
+        status = 500;
+
+        // When & Then
+        assertThatThrownBy(() -> adapter.moderate(List.of("Hello")).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(ModerationPort.ModerationException.class);
+    }
+
+    private void moderations(HttpExchange exchange) throws IOException {
+        requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        byte[] body = ("""
+                {"id":"modr-1","model":"omni-moderation-latest","results":[
+                  {"flagged":false,"categories":{"violence":false,"harassment":false}},
+                  {"flagged":true,"categories":{"violence":true,"harassment":true,"self-harm":false}}
+                ]}""").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
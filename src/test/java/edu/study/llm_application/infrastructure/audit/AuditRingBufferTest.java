@@ -0,0 +1,81 @@
+package edu.study.llm_application.infrastructure.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the ring buffer of the audit log
+ */
+class AuditRingBufferTest {
+
+    @Test
+    void testOffer_FullRingRejectsUntilAnElementIsTaken() {
+        // Given
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(3);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+
+        // When
+        boolean offeredWhenFull = ring.offer(4);
+        Integer oldest = ring.poll();
+        boolean offeredAfterPoll = ring.offer(4);
+
+        // Then
+        assertThat(ring.capacity()).isEqualTo(4);
+        assertThat(offeredWhenFull).isFalse();
+        assertThat(oldest).isZero();
+        assertThat(offeredAfterPoll).isTrue();
+        assertThat(List.of(ring.poll(), ring.poll(), ring.poll(), ring.poll())).containsExactly(1, 2, 3, 4);
+        assertThat(ring.poll()).isNull();
+        assertThat(ring.size()).isZero();
+    }
+
+    @Test
+    void testOffer_ConcurrentProducersLoseNothing() throws Exception {
+        // Given
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> running = new ArrayList<>();
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            running.add(executor.submit(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!ring.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        Set<Integer> taken = new HashSet<>();
+        while (taken.size() < producers * perProducer) {
+            Integer element = ring.poll();
+            if (element == null) {
+                Thread.yield();
+            } else {
+                assertThat(taken.add(element)).isTrue();
+            }
+        }
+        for (Future<?> producer : running) {
+            producer.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(taken).hasSize(producers * perProducer);
+        assertThat(ring.poll()).isNull();
+    }
+}
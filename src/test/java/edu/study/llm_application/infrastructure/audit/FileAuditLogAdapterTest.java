@@ -0,0 +1,174 @@
+package edu.study.llm_application.infrastructure.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.entities.AuditRecord;
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.infrastructure.config.AuditProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the file audit log
+ */
+class FileAuditLogAdapterTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FileAuditLogAdapter auditLog;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (auditLog != null) {
+            auditLog.shutdown();
+        }
+    }
+
+    @Test
+    void testRecord_RecordsAreWrittenAsCompressedJsonLinesAndDrainedOnShutdown() throws Exception {
+        // Given
+        auditLog = new FileAuditLogAdapter(properties(), objectMapper, meterRegistry);
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            auditLog.record(record("req-" + i));
+        }
+        auditLog.shutdown();
+
+        // Then
+        List<JsonNode> records = readAll();
+        assertThat(records).hasSize(500);
+        assertThat(records.get(0).get("requestId").asText()).isEqualTo("req-0");
+        assertThat(records.get(499).get("requestId").asText()).isEqualTo("req-499");
+        assertThat(records.get(0).get("completion").asText()).isEqualTo("Answer");
+        assertThat(meterRegistry.get("llm.audit.written").counter().count()).isEqualTo(500);
+        assertThat(meterRegistry.get("llm.audit.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void testRecord_FullFilesAreRotatedAndTheOldestDeleted() throws Exception {
+        // Given
+        AuditProperties properties = properties();
+        properties.setCompress(false);
+        properties.setBatchSize(10);
+        properties.setMaxFileBytes(2000);
+        properties.setMaxFiles(3);
+        auditLog = new FileAuditLogAdapter(properties, objectMapper, meterRegistry);
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            auditLog.record(record("req-" + i));
+        }
+        auditLog.shutdown();
+
+        // Then
+        List<Path> files = files();
+        assertThat(files).hasSize(3);
+        assertThat(files).allSatisfy(file -> assertThat(file.getFileName().toString()).endsWith(".jsonl"));
+        List<JsonNode> records = readAll();
+        assertThat(records.get(records.size() - 1).get("requestId").asText()).isEqualTo("req-199");
+    }
+
+    @Test
+    void testRecord_DropStrategyCountsRecordsThatFindTheBufferFull() throws Exception {
+        // Given
+        AuditProperties properties = properties();
+        properties.setBufferSize(4);
+        properties.setOverflow(AuditProperties.Overflow.DROP);
+        auditLog = new FileAuditLogAdapter(properties, objectMapper, meterRegistry);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            auditLog.record(record("req-" + i));
+        }
+        auditLog.shutdown();
+
+        // Then
+        double written = meterRegistry.get("llm.audit.written").counter().count();
+        double dropped = meterRegistry.get("llm.audit.dropped").tag("reason", "full").counter().count();
+        assertThat(dropped).isPositive();
+        assertThat(written + dropped).isEqualTo(10_000);
+        assertThat(readAll()).hasSize((int) written);
+    }
+
+    @Test
+    void testRecord_BlockStrategyDropsInsteadOfParkingANonBlockingThread() throws Exception {
+        // Given
+        AuditProperties properties = properties();
+        properties.setBufferSize(4);
+        properties.setOverflow(AuditProperties.Overflow.BLOCK);
+        auditLog = new FileAuditLogAdapter(properties, objectMapper, meterRegistry);
+
+        // When
+        Mono.fromRunnable(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                auditLog.record(record("req-" + i));
+            }
+        }).subscribeOn(Schedulers.parallel()).block(Duration.ofSeconds(10));
+        auditLog.shutdown();
+
+        // Then
+        double written = meterRegistry.get("llm.audit.written").counter().count();
+        double dropped = meterRegistry.get("llm.audit.dropped").tag("reason", "full").counter().count();
+        assertThat(dropped).isPositive();
+        assertThat(written + dropped).isEqualTo(10_000);
+    }
+
+    private AuditProperties properties() {
+        AuditProperties properties = new AuditProperties();
+        properties.setPath(directory.toString());
+        properties.setFsync(AuditProperties.Fsync.EVERY_BATCH);
+        return properties;
+    }
+
+    private static AuditRecord record(String requestId) {
+        return new AuditRecord(Instant.now(), requestId, "alice", "gpt-4", Priority.INTERACTIVE, null,
+                "Question", "Answer", "SUCCESS", 10, 4, null, 12.5);
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private List<JsonNode> readAll() throws Exception {
+        List<JsonNode> records = new ArrayList<>();
+        for (Path file : files()) {
+            InputStream in = Files.newInputStream(file);
+            if (file.toString().endsWith(".gz")) {
+                in = new GZIPInputStream(in);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    records.add(objectMapper.readTree(line));
+                }
+            }
+        }
+        return records;
+    }
+}
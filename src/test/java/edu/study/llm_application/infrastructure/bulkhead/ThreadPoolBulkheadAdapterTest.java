@@ -0,0 +1,134 @@
+package edu.study.llm_application.infrastructure.bulkhead;
+
+import edu.study.llm_application.domain.entities.Priority;
+import edu.study.llm_application.domain.ports.out.BulkheadPort;
+import edu.study.llm_application.infrastructure.config.BulkheadProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the thread pool bulkhead adapter
+ */
+class ThreadPoolBulkheadAdapterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolBulkheadAdapter adapter;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setInteractive(new BulkheadProperties.Limits(1, 1));
+        meterRegistry = new SimpleMeterRegistry();
+        adapter = new ThreadPoolBulkheadAdapter(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        adapter.shutdown();
+    }
+
+    @Test
+    void testSaturatedModelDoesNotBlockOtherModels() throws Exception {
+        // Given
+        adapter.submit("gpt-4", Priority.INTERACTIVE, this::blockUntilReleased);
+        adapter.submit("gpt-4", Priority.INTERACTIVE, this::blockUntilReleased);
+
+        // When
+        CompletableFuture<String> fast = adapter.submit("gpt-3.5-turbo", Priority.INTERACTIVE, () -> "done");
+
+        // Then
+        assertThat(fast.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThatThrownBy(() -> adapter.submit("gpt-4", Priority.INTERACTIVE, () -> "rejected"))
+                .isInstanceOf(BulkheadPort.BulkheadFullException.class);
+    }
+
+    @Test
+    void testPriorityClassesAreIsolated() throws Exception {
+        // Given
+        adapter.submit("gpt-4", Priority.INTERACTIVE, this::blockUntilReleased);
+        adapter.submit("gpt-4", Priority.INTERACTIVE, this::blockUntilReleased);
+
+        // When
+        CompletableFuture<String> bulk = adapter.submit("gpt-4", Priority.BULK, () -> "done");
+
+        // Then
+        assertThat(bulk.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    }
+
+    @Test
+    void testUtilizationIsPublishedAsMetric() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        adapter.submit("gpt-4", Priority.INTERACTIVE, () -> {
+            started.countDown();
+            return blockUntilReleased();
+        });
+
+        // When
+        started.await(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(meterRegistry.get("llm.bulkhead.utilization")
+                .tags("model", "gpt-4", "priority", "interactive")
+                .gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testCancellingFutureInterruptsWorker() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> call = adapter.submit("gpt-4", Priority.INTERACTIVE, () -> {
+            started.countDown();
+            try {
+                return blockUntilReleased();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        // When
+        call.cancel(true);
+
+        // Then
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testCancelledQueuedTaskFreesItsPlaceInTheQueue() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        adapter.submit("gpt-4", Priority.INTERACTIVE, () -> {
+            started.countDown();
+            return blockUntilReleased();
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = adapter.submit("gpt-4", Priority.INTERACTIVE, () -> "abandoned");
+
+        // When
+        queued.cancel(true);
+        CompletableFuture<String> next = adapter.submit("gpt-4", Priority.INTERACTIVE, () -> "done");
+
+        // Then
+        release.countDown();
+        assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    }
+
+    private String blockUntilReleased() throws InterruptedException {
+        release.await();
+        return "released";
+    }
+}
@@ -0,0 +1,153 @@
+package edu.study.llm_application.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.infrastructure.config.ClusterProperties;
+import edu.study.llm_application.infrastructure.config.ResponseCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the response cache shared by the replicas of a cluster
+ */
+class ClusterResponseCacheAdapterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<ClusterTransport> transports = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        transports.forEach(ClusterTransport::close);
+    }
+
+    @Test
+    void testResponseStoredOnOwnerIsFoundByOtherReplica() throws Exception {
+        // Given
+        String first = "127.0.0.1:" + freePort();
+        String second = "127.0.0.1:" + freePort();
+        ClusterResponseCacheAdapter firstCache = node(first, second);
+        ClusterResponseCacheAdapter secondCache = node(second, first);
+        String key = keyOwnedBy(firstCache, transports.get(0), first);
+        LlmResponse response = LlmResponse.success("req", "Paris", "gpt-4", 12, 850.0);
+
+        // When
+        firstCache.put(key, response);
+
+        // Then
+        assertThat(secondCache.findLocal(key)).isEmpty();
+        assertThat(secondCache.find(key)).hasValueSatisfying(found -> {
+            assertThat(found.content()).isEqualTo("Paris");
+            assertThat(found.timestamp()).isEqualTo(response.timestamp());
+        });
+        assertThat(secondCache.findLocal(key)).isPresent();
+    }
+
+    @Test
+    void testUnreachableOwnerIsAMissAndLeavesTheRing() throws Exception {
+        // Given
+        String self = "127.0.0.1:" + freePort();
+        String down = "127.0.0.1:" + freePort();
+        ClusterResponseCacheAdapter cache = node(self, down);
+        ClusterTransport transport = transports.get(0);
+        String key = keyOwnedBy(cache, transport, down);
+
+        // When
+        long start = System.nanoTime();
+        boolean found = cache.find(key).isPresent();
+
+        // Then
+        assertThat(found).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(2_000_000_000L);
+        assertThat(transport.owner(key)).isEqualTo(self);
+    }
+
+    @Test
+    void testLeastRecentlyUsedResponseIsDroppedBeyondTheBound() {
+        // Given
+        ResponseCacheProperties cacheProperties = new ResponseCacheProperties();
+        cacheProperties.setMaxEntries(2);
+        ClusterProperties properties = new ClusterProperties();
+        ClusterResponseCacheAdapter cache = new ClusterResponseCacheAdapter(cacheProperties,
+                new ClusterTransport(properties), properties, objectMapper);
+
+        // When
+        cache.put("a", LlmResponse.success("req-a", "A", "gpt-4", 1, 1.0));
+        cache.put("b", LlmResponse.success("req-b", "B", "gpt-4", 1, 1.0));
+        cache.findLocal("a");
+        cache.put("c", LlmResponse.success("req-c", "C", "gpt-4", 1, 1.0));
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.findLocal("a")).isPresent();
+        assertThat(cache.findLocal("b")).isEmpty();
+        assertThat(cache.findLocal("c")).isPresent();
+    }
+
+    @Test
+    void testKeyIgnoresUserAndSkipsSampledRequests() throws Exception {
+        // Given
+        ClusterResponseCacheAdapter cache = node("127.0.0.1:" + freePort(), null);
+        LlmRequest request = LlmRequest.builder().prompt("Capital of France?").temperature(0.0).userId("a").build();
+
+        // When
+        String key = cache.keyOf(request);
+
+        // Then
+        assertThat(key).hasSize(64);
+        assertThat(cache.keyOf(request.toBuilder().userId("b").build())).isEqualTo(key);
+        assertThat(cache.keyOf(request.toBuilder().systemPrompt("Answer in French").build())).isNotEqualTo(key);
+        assertThat(cache.keyOf(request.toBuilder().temperature(0.7).build())).isNull();
+    }
+
+    @Test
+    void testCascadedRequestDoesNotShareAKeyWithARequestForTheModelItself() throws Exception {
+        // Given
+        ClusterResponseCacheAdapter cache = node("127.0.0.1:" + freePort(), null);
+        LlmRequest cascaded = LlmRequest.builder().prompt("Capital of France?").model("gpt-4").temperature(0.0).build();
+        LlmRequest direct = cascaded.toBuilder().cascade(false).build();
+        cache.put(cache.keyOf(cascaded), LlmResponse.success("req-1", "Paris", "gpt-4o-mini", 12, 850.0));
+
+        // When
+        String key = cache.keyOf(direct);
+
+        // Then
+        assertThat(key).isNotEqualTo(cache.keyOf(cascaded));
+        assertThat(cache.findLocal(key)).isEmpty();
+    }
+
+    private ClusterResponseCacheAdapter node(String self, String peer) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf(self);
+        properties.setSecret("secret");
+        properties.setPeers(peer != null ? List.of(peer) : List.of());
+        properties.setRemoteTimeout(Duration.ofSeconds(2));
+        ClusterTransport transport = new ClusterTransport(properties);
+        transports.add(transport);
+        return new ClusterResponseCacheAdapter(new ResponseCacheProperties(), transport, properties, objectMapper);
+    }
+
+    private static String keyOwnedBy(ClusterResponseCacheAdapter cache, ClusterTransport transport, String owner) {
+        for (int i = 0; ; i++) {
+            String key = cache.keyOf(LlmRequest.builder().prompt("Question " + i).temperature(0.0).build());
+            if (transport.owner(key).equals(owner)) {
+                return key;
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
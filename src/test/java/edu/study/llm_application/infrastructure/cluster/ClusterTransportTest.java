@@ -0,0 +1,80 @@
+package edu.study.llm_application.infrastructure.cluster;
+
+import edu.study.llm_application.infrastructure.config.ClusterProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the transport between the replicas of a cluster
+ */
+class ClusterTransportTest {
+
+    private final List<ClusterTransport> transports = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        transports.forEach(ClusterTransport::close);
+    }
+
+    @Test
+    void testEnabledClusterWithoutASecretFailsToStart() {
+        // Given
+        ClusterProperties properties = properties("127.0.0.1:9191", "127.0.0.1:9192", "");
+
+        // When & Then
+        assertThatThrownBy(() -> new ClusterTransport(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("llm.cluster.secret");
+    }
+
+    @Test
+    void testCallsAreAnsweredOnlyWithTheSharedSecret() throws Exception {
+        // Given
+        String first = "127.0.0.1:" + freePort();
+        String second = "127.0.0.1:" + freePort();
+        ClusterTransport server = node(first, second, "secret");
+        server.handle("echo", body -> body);
+        ClusterTransport peer = node(second, first, "secret");
+        ClusterTransport stranger = node("127.0.0.1:" + freePort(), first, "guess");
+        byte[] body = "hello".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        byte[] answer = peer.send(first, "echo", body, Duration.ofSeconds(2)).join();
+
+        // Then
+        assertThat(answer).isEqualTo(body);
+        assertThatThrownBy(() -> stranger.send(first, "echo", body, Duration.ofSeconds(2)).join())
+                .hasMessageContaining("403");
+    }
+
+    private ClusterTransport node(String self, String peer, String secret) {
+        ClusterTransport transport = new ClusterTransport(properties(self, peer, secret));
+        transports.add(transport);
+        return transport;
+    }
+
+    private static ClusterProperties properties(String self, String peer, String secret) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf(self);
+        properties.setPeers(List.of(peer));
+        properties.setSecret(secret);
+        return properties;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package edu.study.llm_application.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.infrastructure.config.ClusterProperties;
+import edu.study.llm_application.infrastructure.config.UserRateLimitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the per-user rate limit counted across replicas
+ */
+class GossipUserRateLimitAdapterTest {
+
+    private final List<ClusterTransport> transports = new ArrayList<>();
+    private final List<GossipUserRateLimitAdapter> limiters = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        limiters.forEach(GossipUserRateLimitAdapter::close);
+        transports.forEach(ClusterTransport::close);
+    }
+
+    @Test
+    void testLimitCountsRequestsAdmittedByEveryReplica() throws Exception {
+        // Given
+        String first = "127.0.0.1:" + freePort();
+        String second = "127.0.0.1:" + freePort();
+        GossipUserRateLimitAdapter firstLimiter = node(first, second);
+        GossipUserRateLimitAdapter secondLimiter = node(second, first);
+        for (int i = 0; i < 6; i++) {
+            assertThat(firstLimiter.tryAcquire("alice")).isTrue();
+        }
+
+        // When
+        firstLimiter.gossip();
+        Thread.sleep(300);
+
+        // Then
+        int admitted = 0;
+        while (secondLimiter.tryAcquire("alice")) {
+            admitted++;
+        }
+        assertThat(admitted).isEqualTo(4);
+        assertThat(secondLimiter.tryAcquire("bob")).isTrue();
+    }
+
+    @Test
+    void testReplicaDecidesLocallyWhenPeersAreDown() throws Exception {
+        // Given
+        GossipUserRateLimitAdapter limiter = node("127.0.0.1:" + freePort(), "127.0.0.1:" + freePort());
+
+        // When
+        int admitted = 0;
+        while (limiter.tryAcquire("alice")) {
+            admitted++;
+        }
+        limiter.gossip();
+
+        // Then
+        assertThat(admitted).isEqualTo(10);
+    }
+
+    private GossipUserRateLimitAdapter node(String self, String peer) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf(self);
+        properties.setSecret("secret");
+        properties.setPeers(List.of(peer));
+        // Rounds are sent by the test
+        properties.setGossipInterval(Duration.ofHours(1));
+        UserRateLimitProperties limit = new UserRateLimitProperties();
+        limit.setLimit(10);
+        limit.setWindow(Duration.ofHours(1));
+        ClusterTransport transport = new ClusterTransport(properties);
+        transports.add(transport);
+        GossipUserRateLimitAdapter limiter = new GossipUserRateLimitAdapter(limit, transport, properties, new ObjectMapper());
+        limiters.add(limiter);
+        return limiter;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.study.llm_application.infrastructure.embeddings;
+
+import edu.study.llm_application.domain.entities.ContentKey;
+import edu.study.llm_application.infrastructure.config.EmbeddingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the memory-mapped embedding cache
+ */
+class MappedEmbeddingCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testVectorsSurviveRestart() {
+        // Given
+        ContentKey key = ContentKey.of("text-embedding-3-small", "hello");
+        MappedEmbeddingCache cache = new MappedEmbeddingCache(properties(4096, 1 << 20), new SimpleMeterRegistry());
+        cache.put(key, new float[]{0.1f, -0.2f, 0.3f});
+        cache.close();
+
+        // When
+        MappedEmbeddingCache reopened = new MappedEmbeddingCache(properties(4096, 1 << 20), new SimpleMeterRegistry());
+
+        // Then
+        assertThat(reopened.get(key)).containsExactly(0.1f, -0.2f, 0.3f);
+        assertThat(reopened.get(ContentKey.of("text-embedding-3-large", "hello"))).isNull();
+        reopened.close();
+    }
+
+    @Test
+    void testSpillsIntoNewSegmentsUntilFull() {
+        // Given: 24 byte header + 100 floats per record, three records per segment, two segments
+        MappedEmbeddingCache cache = new MappedEmbeddingCache(properties(1500, 3000), new SimpleMeterRegistry());
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            float[] vector = new float[100];
+            vector[0] = i;
+            cache.put(ContentKey.of("model", "text " + i), vector);
+        }
+
+        // Then
+        assertThat(cache.size()).isEqualTo(6);
+        assertThat(cache.get(ContentKey.of("model", "text 4"))[0]).isEqualTo(4f);
+        assertThat(cache.get(ContentKey.of("model", "text 7"))).isNull();
+        cache.close();
+    }
+
+    private EmbeddingProperties properties(long segmentSize, long maxSize) {
+        EmbeddingProperties properties = new EmbeddingProperties();
+        properties.getCache().setPath(directory.toString());
+        properties.getCache().setSegmentSize(segmentSize);
+        properties.getCache().setMaxSize(maxSize);
+        return properties;
+    }
+}
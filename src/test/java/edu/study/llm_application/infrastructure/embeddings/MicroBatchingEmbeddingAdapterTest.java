@@ -0,0 +1,90 @@
+package edu.study.llm_application.infrastructure.embeddings;
+
+import edu.study.llm_application.domain.entities.Embedding;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.EmbeddingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for embedding micro-batching
+ */
+@ExtendWith(MockitoExtension.class)
+class MicroBatchingEmbeddingAdapterTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private LlmProviderPort llmProviderPort;
+
+    private MappedEmbeddingCache cache;
+    private MicroBatchingEmbeddingAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EmbeddingProperties properties = new EmbeddingProperties();
+        properties.getBatch().setWindow(Duration.ofMillis(50));
+        properties.getCache().setPath(directory.toString());
+        properties.getCache().setSegmentSize(1 << 16);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cache = new MappedEmbeddingCache(properties, meterRegistry);
+        adapter = new MicroBatchingEmbeddingAdapter(llmProviderPort, cache, properties, meterRegistry);
+        when(llmProviderPort.generateEmbeddings(eq("model"), anyList())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(1);
+            return texts.stream().map(text -> new float[]{text.length()}).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        adapter.shutdown();
+        cache.close();
+    }
+
+    @Test
+    void testConcurrentTextsShareOneProviderCall() throws Exception {
+        // When
+        CompletableFuture<Embedding> first = adapter.embed("model", "a");
+        CompletableFuture<Embedding> second = adapter.embed("model", "bb");
+        CompletableFuture<Embedding> duplicate = adapter.embed("model", "a");
+
+        // Then
+        assertThat(first.get().vector()).containsExactly(1f);
+        assertThat(second.get().vector()).containsExactly(2f);
+        assertThat(duplicate.get().vector()).containsExactly(1f);
+        verify(llmProviderPort, times(1)).generateEmbeddings("model", List.of("a", "bb"));
+    }
+
+    @Test
+    void testRepeatedTextIsServedFromCache() throws Exception {
+        // Given
+        adapter.embed("model", "cached text").get();
+
+        // When
+        Embedding embedding = adapter.embed("model", "cached text").get();
+
+        // Then
+        assertThat(embedding.cached()).isTrue();
+        assertThat(embedding.vector()).containsExactly(11f);
+        verify(llmProviderPort, times(1)).generateEmbeddings(eq("model"), anyList());
+    }
+}
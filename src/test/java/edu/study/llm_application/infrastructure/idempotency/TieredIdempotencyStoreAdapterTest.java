@@ -0,0 +1,80 @@
+package edu.study.llm_application.infrastructure.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.entities.IdempotentResponse;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.infrastructure.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the tiered idempotency store
+ */
+class TieredIdempotencyStoreAdapterTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void testResponsesEvictedFromMemoryAreServedFromDiskAfterRestart() {
+        // Given
+        TieredIdempotencyStoreAdapter store = store(true, 2, 3);
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            store.put("user:key-" + i, response(i));
+        }
+        TieredIdempotencyStoreAdapter reopened = store(true, 2, 3);
+
+        // Then
+        assertThat(store.size(false)).isEqualTo(2);
+        assertThat(store.size(true)).isEqualTo(3);
+        assertThat(store.find("user:key-5")).hasValueSatisfying(found ->
+                assertThat(found.response().content()).isEqualTo("answer 5"));
+        assertThat(store.find("user:key-3")).hasValueSatisfying(found -> {
+            assertThat(found.fingerprint()).isEqualTo("fp-3");
+            assertThat(found.response().content()).isEqualTo("answer 3");
+        });
+        assertThat(store.find("user:key-0")).isEmpty();
+        assertThat(reopened.size(true)).isEqualTo(3);
+        assertThat(reopened.find("user:key-1")).hasValueSatisfying(found ->
+                assertThat(found.response().content()).isEqualTo("answer 1"));
+    }
+
+    @Test
+    void testResponsesEvictedFromMemoryAreDroppedWithoutDisk() {
+        // Given
+        TieredIdempotencyStoreAdapter store = store(false, 2, 3);
+
+        // When
+        store.put("user:key-0", response(0));
+        store.put("user:key-1", response(1));
+        store.find("user:key-0");
+        store.put("user:key-2", response(2));
+
+        // Then
+        assertThat(store.find("user:key-0")).isPresent();
+        assertThat(store.find("user:key-1")).isEmpty();
+        assertThat(store.find("user:key-2")).isPresent();
+    }
+
+    private TieredIdempotencyStoreAdapter store(boolean disk, int memoryEntries, int diskEntries) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(memoryEntries);
+        properties.getDisk().setEnabled(disk);
+        properties.getDisk().setPath(directory.toString());
+        properties.getDisk().setMaxEntries(diskEntries);
+        return new TieredIdempotencyStoreAdapter(properties, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private static IdempotentResponse response(int i) {
+        return new IdempotentResponse("fp-" + i, LlmResponse.success("req-" + i, "answer " + i, "gpt-4", 10, 5.0));
+    }
+}
@@ -0,0 +1,122 @@
+package edu.study.llm_application.infrastructure.offline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.application.mappers.LlmMapper;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.ports.in.LlmUseCasePort;
+import edu.study.llm_application.infrastructure.config.OfflineProperties;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the offline runner
+ */
+class OfflineRunnerTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LlmUseCasePort llmUseCase = mock(LlmUseCasePort.class);
+    private final OfflineProperties properties = new OfflineProperties();
+    private Path input;
+    private Path output;
+    private OfflineRunner runner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        input = directory.resolve("prompts.jsonl");
+        output = directory.resolve("prompts.results.jsonl");
+        properties.setInput(input.toString());
+        properties.setParallelism(4);
+        properties.setCheckpointEvery(2);
+        // Smaller than most lines, so lines cross the mapped windows
+        properties.setMapWindowBytes(16);
+        runner = new OfflineRunner(llmUseCase, new LlmMapper(), objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), properties, 30000);
+
+        when(llmUseCase.submitRequest(any())).thenAnswer(invocation -> {
+            LlmRequest request = invocation.getArgument(0);
+            LlmResponse response = LlmResponse.success(request.id(), "Answer to " + request.prompt(), "gpt-4", 10, null);
+            // The first request finishes last, so the responses complete out of order
+            return request.prompt().equals("first")
+                    ? CompletableFuture.supplyAsync(() -> response, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS))
+                    : CompletableFuture.completedFuture(response);
+        });
+    }
+
+    @Test
+    void testProcess_ResponsesAreWrittenInInputOrderTaggedByLine() throws Exception {
+        // Given
+        Files.writeString(input, """
+                {"prompt": "first"}
+                {"prompt": "second", "model": "gpt-4"}
+
+                not json
+                {"prompt": "third", "max_tokens": 0}
+                {"prompt": "fourth"}""");
+
+        // When
+        OfflineRunner.Summary summary = runner.process();
+
+        // Then
+        List<JsonNode> results = readOutput();
+        assertThat(results).extracting(result -> result.get("line").asLong()).containsExactly(1L, 2L, 4L, 5L, 6L);
+        assertThat(results).extracting(result -> result.path("response").path("status").asText())
+                .containsExactly("SUCCESS", "SUCCESS", "INVALID_JSON", "VALIDATION_ERROR", "SUCCESS");
+        assertThat(results.get(0).path("response").path("content").asText()).isEqualTo("Answer to first");
+        assertThat(results.get(4).path("response").path("content").asText()).isEqualTo("Answer to fourth");
+        assertThat(summary.answered()).isEqualTo(5);
+        assertThat(summary.failed()).isEqualTo(2);
+        assertThat(summary.tokensUsed()).isEqualTo(30);
+    }
+
+    @Test
+    void testProcess_RestartedRunResumesAfterTheCheckpoint() throws Exception {
+        // Given
+        Files.writeString(input, "{\"prompt\": \"first\"}\n{\"prompt\": \"second\"}\n");
+        runner.process();
+        // A crash after the checkpoint leaves part of a response behind, and more lines arrive
+        Files.writeString(output, "{\"line\": 3, \"resp", StandardOpenOption.APPEND);
+        Files.writeString(input, "{\"prompt\": \"third\"}\n{\"prompt\": \"fourth\"}\n", StandardOpenOption.APPEND);
+
+        // When
+        OfflineRunner.Summary summary = runner.process();
+
+        // Then
+        assertThat(summary.answered()).isEqualTo(2);
+        verify(llmUseCase, times(4)).submitRequest(any());
+        assertThat(readOutput()).extracting(result -> result.path("response").path("content").asText())
+                .containsExactly("Answer to first", "Answer to second", "Answer to third", "Answer to fourth");
+        assertThat(directory.resolve("prompts.results.jsonl.checkpoint")).exists();
+    }
+
+    private List<JsonNode> readOutput() throws Exception {
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : Files.readAllLines(output, StandardCharsets.UTF_8)) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+}
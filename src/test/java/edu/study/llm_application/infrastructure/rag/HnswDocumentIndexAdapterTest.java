@@ -0,0 +1,121 @@
+package edu.study.llm_application.infrastructure.rag;
+
+import edu.study.llm_application.domain.entities.DocumentChunk;
+import edu.study.llm_application.domain.entities.RetrievedChunk;
+import edu.study.llm_application.infrastructure.config.RagProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Unit tests for the HNSW document index
+ */
+class HnswDocumentIndexAdapterTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecallAgainstExactSearch() throws Exception {
+        // Given: 5000 random chunks inserted from four threads
+        HnswDocumentIndexAdapter index = new HnswDocumentIndexAdapter(properties(), new SimpleMeterRegistry());
+        Random random = new Random(7);
+        List<float[]> vectors = new ArrayList<>();
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            vectors.add(randomUnitVector(random));
+            chunks.add(DocumentChunk.builder().documentId("doc").index(i).text("chunk " + i).build());
+        }
+        index.add(chunks, vectors).join();
+
+        // When
+        int found = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random);
+            Set<Integer> exact = new HashSet<>(IntStream.range(0, vectors.size()).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -dot(vectors.get(i), query)))
+                    .limit(10)
+                    .toList());
+            for (RetrievedChunk chunk : index.search(query, 10)) {
+                if (exact.contains(chunk.getChunkIndex())) {
+                    found++;
+                }
+            }
+        }
+
+        // Then
+        assertThat(index.size()).isEqualTo(5000);
+        assertThat(found / (double) (queries * 10)).isGreaterThan(0.9);
+        index.close();
+    }
+
+    @Test
+    void testChunksSurviveRestart() throws Exception {
+        // Given
+        Random random = new Random(11);
+        float[] target = randomUnitVector(random);
+        HnswDocumentIndexAdapter index = new HnswDocumentIndexAdapter(properties(), new SimpleMeterRegistry());
+        index.add(List.of(
+                DocumentChunk.builder().documentId("handbook").index(0).text("Remote work three days a week").build(),
+                DocumentChunk.builder().documentId("handbook").index(1).text("Fridays are meeting free").build()),
+                List.of(target, randomUnitVector(random))).join();
+        index.close();
+
+        // When
+        HnswDocumentIndexAdapter reopened = new HnswDocumentIndexAdapter(properties(), new SimpleMeterRegistry());
+        List<RetrievedChunk> results = reopened.search(target, 1);
+
+        // Then
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getText()).isEqualTo("Remote work three days a week");
+        assertThat(results.get(0).getScore()).isCloseTo(1.0, offset(1e-4));
+        assertThatThrownBy(() -> reopened.search(new float[DIMENSIONS * 2], 1))
+                .isInstanceOf(HnswDocumentIndexAdapter.DocumentIndexException.class);
+        reopened.close();
+    }
+
+    private RagProperties properties() {
+        RagProperties properties = new RagProperties();
+        properties.setPath(directory.toString());
+        properties.getIndex().setSegmentSize(64 * 1024);
+        return properties;
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
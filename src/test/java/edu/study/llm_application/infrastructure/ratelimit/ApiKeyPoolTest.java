@@ -0,0 +1,114 @@
+package edu.study.llm_application.infrastructure.ratelimit;
+
+import edu.study.llm_application.infrastructure.config.RetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the API key pool
+ */
+class ApiKeyPoolTest {
+
+    private RateLimitPacer pacer;
+    private ApiKeyPool pool;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        pacer = new RateLimitPacer(new RetryProperties(), meterRegistry);
+        pool = new ApiKeyPool("sk-a, sk-b,sk-c", "sk-single",
+                Duration.ofSeconds(10), Duration.ofMinutes(5), pacer, meterRegistry);
+    }
+
+    @Test
+    void testFallsBackToSingleKey() {
+        // Given
+        ApiKeyPool single = new ApiKeyPool("", "sk-single", Duration.ofSeconds(10), Duration.ofMinutes(5),
+                pacer, new SimpleMeterRegistry());
+
+        // When & Then
+        assertThat(single.size()).isEqualTo(1);
+        assertThat(single.acquire("gpt-4").secret()).isEqualTo("sk-single");
+        assertThat(pool.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testSpreadsConcurrentRequestsAcrossKeys() {
+        // When
+        Map<String, Integer> uses = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            uses.merge(pool.acquire("gpt-4").secret(), 1, Integer::sum);
+        }
+
+        // Then: with no quota known, in-flight calls decide
+        assertThat(uses).containsOnlyKeys("sk-a", "sk-b", "sk-c");
+    }
+
+    @Test
+    void testPrefersKeyWithMostHeadroom() {
+        // Given
+        ApiKeyPool.ApiKey first = pool.acquire("gpt-4");
+        ApiKeyPool.ApiKey second = pool.acquire("gpt-4");
+        ApiKeyPool.ApiKey third = pool.acquire("gpt-4");
+        pool.recordResponse(first, "gpt-4", quota(1000, 100));
+        pool.recordResponse(second, "gpt-4", quota(1000, 900));
+        pool.recordResponse(third, "gpt-4", quota(1000, 500));
+        first.release();
+        second.release();
+        third.release();
+
+        // When & Then
+        for (int i = 0; i < 5; i++) {
+            ApiKeyPool.ApiKey key = pool.acquire("gpt-4");
+            assertThat(key).isSameAs(second);
+            key.release();
+        }
+    }
+
+    @Test
+    void testQuarantinesRateLimitedAndUnauthorizedKeys() {
+        // Given
+        ApiKeyPool.ApiKey limited = pool.acquire("gpt-4");
+        ApiKeyPool.ApiKey revoked = pool.acquire("gpt-4");
+        limited.release();
+        revoked.release();
+
+        // When
+        pool.recordFailure(limited, "gpt-4", error(429));
+        pool.recordFailure(revoked, "gpt-4", error(401));
+
+        // Then
+        for (int i = 0; i < 5; i++) {
+            ApiKeyPool.ApiKey key = pool.acquire("gpt-4");
+            assertThat(key).isNotSameAs(limited).isNotSameAs(revoked);
+            key.release();
+        }
+        assertThat(pool.hasAvailableKey()).isTrue();
+        assertThat(ApiKeyPool.isKeyFailure(error(429))).isTrue();
+        assertThat(ApiKeyPool.isKeyFailure(error(500))).isFalse();
+    }
+
+    private static HttpHeaders quota(long limit, long remaining) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-ratelimit-limit-requests", String.valueOf(limit));
+        headers.set("x-ratelimit-remaining-requests", String.valueOf(remaining));
+        headers.set("x-ratelimit-reset-requests", "1m");
+        return headers;
+    }
+
+    private static WebClientResponseException error(int status) {
+        return WebClientResponseException.create(status, HttpStatus.valueOf(status).getReasonPhrase(),
+                new HttpHeaders(), new byte[0], StandardCharsets.UTF_8);
+    }
+}
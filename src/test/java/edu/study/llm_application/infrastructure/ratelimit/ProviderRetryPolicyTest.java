@@ -0,0 +1,150 @@
+package edu.study.llm_application.infrastructure.ratelimit;
+
+import edu.study.llm_application.domain.entities.Deadline;
+import edu.study.llm_application.infrastructure.config.RetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for rate limit aware provider retries
+ */
+class ProviderRetryPolicyTest {
+
+    private RetryProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ProviderRetryPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetryProperties();
+        properties.setInitialBackoff(Duration.ofMillis(5));
+        meterRegistry = new SimpleMeterRegistry();
+        policy = new ProviderRetryPolicy(properties, meterRegistry);
+    }
+
+    @Test
+    void testClassification() {
+        assertThat(ProviderRetryPolicy.classify(error(429, new HttpHeaders(), "")))
+                .isEqualTo(ProviderRetryPolicy.Classification.SAFE);
+        assertThat(ProviderRetryPolicy.classify(error(429, new HttpHeaders(), "{\"error\":{\"code\":\"insufficient_quota\"}}")))
+                .isEqualTo(ProviderRetryPolicy.Classification.NOT_RETRYABLE);
+        assertThat(ProviderRetryPolicy.classify(error(503, new HttpHeaders(), "")))
+                .isEqualTo(ProviderRetryPolicy.Classification.SAFE);
+        assertThat(ProviderRetryPolicy.classify(error(502, new HttpHeaders(), "")))
+                .isEqualTo(ProviderRetryPolicy.Classification.POSSIBLY_PROCESSED);
+        assertThat(ProviderRetryPolicy.classify(error(400, new HttpHeaders(), "")))
+                .isEqualTo(ProviderRetryPolicy.Classification.NOT_RETRYABLE);
+    }
+
+    @Test
+    void testProviderHintFromHeaders() {
+        // Given
+        HttpHeaders retryAfter = new HttpHeaders();
+        retryAfter.set(HttpHeaders.RETRY_AFTER, "2");
+        HttpHeaders retryAfterMs = new HttpHeaders();
+        retryAfterMs.set("retry-after-ms", "150");
+        HttpHeaders rateLimit = new HttpHeaders();
+        rateLimit.set("x-ratelimit-remaining-requests", "0");
+        rateLimit.set("x-ratelimit-reset-requests", "1m0.5s");
+
+        // When & Then
+        assertThat(ProviderRetryPolicy.providerHint(retryAfter)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(ProviderRetryPolicy.providerHint(retryAfterMs)).isEqualTo(Duration.ofMillis(150));
+        assertThat(ProviderRetryPolicy.providerHint(rateLimit)).isEqualTo(Duration.ofMillis(60_500));
+        assertThat(ProviderRetryPolicy.providerHint(new HttpHeaders())).isNull();
+    }
+
+    @Test
+    void testRetriesRateLimitedCallUntilItSucceeds() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("retry-after-ms", "10");
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> attempts.incrementAndGet() < 3
+                ? Mono.error(error(429, headers, ""))
+                : Mono.just("ok"));
+
+        // When
+        String result = call.retryWhen(policy.retrySpec("gpt-4", null, () -> true)).block();
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.counter("llm.provider.retries", "scope", "gpt-4", "reason", "429").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void testDoesNotRetryPastDeadline() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "5");
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(error(429, headers, ""));
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> call
+                .retryWhen(policy.retrySpec("gpt-4", Deadline.after(Duration.ofSeconds(1)), () -> true))
+                .block())
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testRetryBudgetStopsRetryStorm() {
+        // Given
+        properties.setBudgetCapacity(2);
+        properties.setBudgetRatio(0);
+        policy = new ProviderRetryPolicy(properties, new SimpleMeterRegistry());
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(error(503, new HttpHeaders(), ""));
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> call.retryWhen(policy.retrySpec("gpt-4", null, () -> true)).block())
+                .isInstanceOf(WebClientResponseException.class);
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    void testPacerSpreadsRequestsWhenQuotaRunsLow() {
+        // Given
+        RateLimitPacer pacer = new RateLimitPacer(properties, meterRegistry);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-ratelimit-limit-requests", "100");
+        headers.set("x-ratelimit-remaining-requests", "50");
+        headers.set("x-ratelimit-reset-requests", "10s");
+        pacer.update("gpt-4", headers);
+        assertThat(pacer.reserve("gpt-4", 10)).isZero();
+
+        // When
+        headers.set("x-ratelimit-remaining-requests", "2");
+        pacer.update("gpt-4", headers);
+        Duration delay = pacer.reserve("gpt-4", 10);
+
+        // Then
+        assertThat(delay).isPositive().isLessThanOrEqualTo(properties.getPacing().getMaxDelay());
+    }
+
+    private static WebClientResponseException error(int status, HttpHeaders headers, String body) {
+        return WebClientResponseException.create(status, HttpStatus.valueOf(status).getReasonPhrase(),
+                headers, body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
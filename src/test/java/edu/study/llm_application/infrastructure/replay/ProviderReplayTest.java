@@ -0,0 +1,174 @@
+package edu.study.llm_application.infrastructure.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.entities.LlmRequest;
+import edu.study.llm_application.domain.entities.LlmResponse;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.ports.out.LlmProviderPort;
+import edu.study.llm_application.infrastructure.config.ReplayProperties;
+import edu.study.llm_application.infrastructure.ratelimit.ProviderRetryPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for recording provider calls and replaying them
+ */
+class ProviderReplayTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LlmProviderPort provider = mock(LlmProviderPort.class);
+    private final ReplayProperties properties = new ReplayProperties();
+    private ProviderRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        properties.setPath(directory.toString());
+        recorder = new ProviderRecorder(properties, objectMapper);
+    }
+
+    @Test
+    void testReplay_RecordedAnswerAndStreamAreServedToTheSameRequestOfAnotherRun() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder().prompt("Explain caching").model("gpt-4").build();
+        LlmResponse answer = LlmResponse.builder().requestId(request.id()).content("Caching keeps answers")
+                .model("gpt-4").tokensUsed(42).promptTokens(12).status("SUCCESS").finishReason("stop").build();
+        when(provider.generateResponse(any())).thenReturn(answer);
+        when(provider.streamResponse(any())).thenReturn(Flux.just("Caching ", "keeps ", "answers")
+                .delayElements(Duration.ofMillis(100)));
+        LlmProviderPort recording = new RecordingLlmProviderAdapter(provider, recorder);
+        recording.generateResponse(request);
+        recording.streamResponse(request).collectList().block();
+        recorder.close();
+
+        // When
+        LlmProviderPort replay = new ReplayLlmAdapter(provider, properties, recorder.readAll());
+        LlmRequest again = request.toBuilder().id("another-run").build();
+        LlmResponse replayed = replay.generateResponse(again);
+        long start = System.nanoTime();
+        List<String> chunks = replay.streamResponse(again).collectList().block();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(replayed.requestId()).isEqualTo("another-run");
+        assertThat(replayed.toBuilder().requestId(answer.requestId()).build()).isEqualTo(answer);
+        assertThat(chunks).containsExactly("Caching ", "keeps ", "answers");
+        // The chunks arrive at their recorded offsets
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(290L);
+    }
+
+    @Test
+    void testReplay_FastPaceSkipsTheRecordedTimings() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder().prompt("Slow answer").model("gpt-4").build();
+        when(provider.streamResponse(any())).thenReturn(Flux.just("one ", "two").delayElements(Duration.ofMillis(300)));
+        new RecordingLlmProviderAdapter(provider, recorder).streamResponse(request).collectList().block();
+        recorder.close();
+        properties.setPace(ReplayProperties.Pace.FAST);
+
+        // When
+        LlmProviderPort replay = new ReplayLlmAdapter(provider, properties, recorder.readAll());
+        long start = System.nanoTime();
+        List<String> chunks = replay.streamResponse(request).collectList().block();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(chunks).containsExactly("one ", "two");
+        assertThat(elapsedMs).isLessThan(300L);
+    }
+
+    @Test
+    void testReplay_RecordedErrorKeepsItsStatusAndBody() throws Exception {
+        // Given
+        LlmRequest request = LlmRequest.builder().prompt("Rate limited").model("gpt-4").build();
+        WebClientResponseException rateLimited = WebClientResponseException.create(429, "Too Many Requests", null,
+                "{\"error\": {\"code\": \"rate_limit_exceeded\"}}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        when(provider.generateResponse(any()))
+                .thenThrow(new LlmProviderPort.LlmProviderException("OpenAI API error", rateLimited));
+        LlmProviderPort recording = new RecordingLlmProviderAdapter(provider, recorder);
+        assertThatThrownBy(() -> recording.generateResponse(request)).isInstanceOf(LlmProviderPort.LlmProviderException.class);
+        recorder.close();
+
+        // When
+        LlmProviderPort replay = new ReplayLlmAdapter(provider, properties, recorder.readAll());
+
+        // Then
+        assertThatThrownBy(() -> replay.generateResponse(request))
+                .isInstanceOf(LlmProviderPort.LlmProviderException.class)
+                .hasMessage("OpenAI API error")
+                .satisfies(e -> {
+                    WebClientResponseException cause = (WebClientResponseException) e.getCause();
+                    assertThat(cause.getStatusCode().value()).isEqualTo(429);
+                    assertThat(cause.getResponseBodyAsString()).contains("rate_limit_exceeded");
+                    assertThat(ProviderRetryPolicy.classify(cause)).isEqualTo(ProviderRetryPolicy.Classification.SAFE);
+                });
+    }
+
+    @Test
+    void testKeyOf_ToolsAreMatchedByTheirWholeDefinition() {
+        // Given
+        Map<String, Object> byDay = new LinkedHashMap<>();
+        byDay.put("type", "object");
+        byDay.put("properties", Map.of("day", Map.of("type", "string")));
+        Map<String, Object> sameInAnotherOrder = new LinkedHashMap<>();
+        sameInAnotherOrder.put("properties", Map.of("day", Map.of("type", "string")));
+        sameInAnotherOrder.put("type", "object");
+        LlmRequest request = LlmRequest.builder().prompt("What is on today?").model("gpt-4")
+                .tools(List.of(new ToolDefinition("calendar", "Reads the calendar", byDay)))
+                .build();
+
+        // When
+        String key = ProviderRecording.keyOf(request);
+
+        // Then
+        assertThat(ProviderRecording.keyOf(request.toBuilder()
+                .tools(List.of(new ToolDefinition("calendar", "Reads the calendar", sameInAnotherOrder)))
+                .build())).isEqualTo(key);
+        assertThat(ProviderRecording.keyOf(request.toBuilder()
+                .tools(List.of(new ToolDefinition("calendar", "Reads the calendar", Map.of("type", "object"))))
+                .build())).isNotEqualTo(key);
+        assertThat(ProviderRecording.keyOf(request.toBuilder()
+                .tools(List.of(new ToolDefinition("calendar", "Writes the calendar", byDay)))
+                .build())).isNotEqualTo(key);
+    }
+
+    @Test
+    void testReplay_RequestWithoutRecordingFailsUnlessMatchingIsLoose() throws Exception {
+        // Given
+        when(provider.generateResponse(any())).thenReturn(LlmResponse.success("req", "Recorded", "gpt-4", 5, null));
+        new RecordingLlmProviderAdapter(provider, recorder)
+                .generateResponse(LlmRequest.builder().prompt("Recorded prompt").model("gpt-4").build());
+        recorder.close();
+        LlmRequest unrecorded = LlmRequest.builder().prompt("Another prompt").model("gpt-4").build();
+
+        // When
+        LlmProviderPort strict = new ReplayLlmAdapter(provider, properties, recorder.readAll());
+        properties.setStrict(false);
+        LlmProviderPort loose = new ReplayLlmAdapter(provider, properties, recorder.readAll());
+
+        // Then
+        assertThatThrownBy(() -> strict.generateResponse(unrecorded))
+                .isInstanceOf(LlmProviderPort.LlmProviderException.class)
+                .hasMessageContaining("No recorded generate call");
+        assertThat(loose.generateResponse(unrecorded).content()).isEqualTo("Recorded");
+    }
+}
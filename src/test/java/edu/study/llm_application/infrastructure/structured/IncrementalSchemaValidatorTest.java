@@ -0,0 +1,99 @@
+package edu.study.llm_application.infrastructure.structured;
+
+import edu.study.llm_application.domain.ports.out.SchemaValidatorPort;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the incremental schema validator
+ */
+class IncrementalSchemaValidatorTest {
+
+    private static final Map<String, Object> CITY_SCHEMA = Map.of(
+            "type", "object",
+            "required", List.of("city", "population"),
+            "additionalProperties", false,
+            "properties", Map.of(
+                    "city", Map.of("type", "string"),
+                    "population", Map.of("type", "integer"),
+                    "tags", Map.of("type", "array", "items", Map.of("enum", List.of("capital", "port")))));
+
+    private final IncrementalSchemaValidator validator = new IncrementalSchemaValidator();
+
+    @Test
+    void testAccept_MatchingOutputSplitAnywherePassesOnceComplete() throws Exception {
+        // Given
+        SchemaValidatorPort.OutputValidator output = validator.open(CITY_SCHEMA);
+        String json = "{\"city\": \"Paris\", \"population\": 2102650, \"tags\": [\"capital\"]}";
+
+        // When
+        Optional<String> violation = Optional.empty();
+        for (int i = 0; i < json.length() && violation.isEmpty(); i += 3) {
+            violation = output.accept(json.substring(i, Math.min(json.length(), i + 3)));
+        }
+
+        // Then
+        assertThat(violation).isEmpty();
+        assertThat(output.finish()).isEmpty();
+    }
+
+    @Test
+    void testAccept_ProseIsRejectedAtTheFirstChunk() throws Exception {
+        // Given
+        SchemaValidatorPort.OutputValidator output = validator.open(CITY_SCHEMA);
+
+        // When
+        Optional<String> violation = output.accept("Sure");
+
+        // Then
+        assertThat(violation).hasValueSatisfying(reason -> assertThat(reason).startsWith("output is not JSON"));
+        assertThat(output.accept("{")).isEqualTo(violation);
+    }
+
+    @Test
+    void testAccept_DivergenceIsReportedAtTheTokenThatBreaksTheSchema() throws Exception {
+        // Given
+        SchemaValidatorPort.OutputValidator wrongType = validator.open(CITY_SCHEMA);
+        SchemaValidatorPort.OutputValidator unknownProperty = validator.open(CITY_SCHEMA);
+        SchemaValidatorPort.OutputValidator notInEnum = validator.open(CITY_SCHEMA);
+
+        // When & Then
+        assertThat(wrongType.accept("{\"city\": \"Paris\", ")).isEmpty();
+        assertThat(wrongType.accept("\"population\": \"about two million\""))
+                .hasValue("$.population is string but the schema expects [integer]");
+        assertThat(unknownProperty.accept("{\"country\":")).hasValue("property $.country is not allowed");
+        assertThat(notInEnum.accept("{\"tags\": [\"capital\", \"river\"")).hasValue("$.tags[1] is not one of [capital, port]");
+    }
+
+    @Test
+    void testFinish_IncompleteOrMissingRequiredPropertiesAreRejected() throws Exception {
+        // Given
+        SchemaValidatorPort.OutputValidator truncated = validator.open(CITY_SCHEMA);
+        SchemaValidatorPort.OutputValidator missing = validator.open(CITY_SCHEMA);
+        SchemaValidatorPort.OutputValidator trailing = validator.open(Map.of("type", "number"));
+
+        // When
+        truncated.accept("{\"city\": \"Par");
+        Optional<String> missingViolation = missing.accept("{\"city\": \"Paris\"}");
+        Optional<String> trailingViolation = trailing.accept("42 and more");
+
+        // Then
+        assertThat(truncated.finish()).hasValue("output ended before the JSON value was complete");
+        assertThat(missingViolation).hasValue("required property $.population is missing");
+        assertThat(trailingViolation).isPresent();
+    }
+
+    @Test
+    void testOpen_MalformedSchemaIsRejected() {
+        // When & Then
+        assertThatThrownBy(() -> validator.open(Map.of("type", "text")))
+                .isInstanceOf(SchemaValidatorPort.InvalidSchemaException.class)
+                .hasMessageContaining("Unknown type text");
+    }
+}
@@ -0,0 +1,70 @@
+package edu.study.llm_application.infrastructure.timeout;
+
+import edu.study.llm_application.infrastructure.config.AdaptiveTimeoutProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the adaptive timeout policy
+ */
+class AdaptiveTimeoutPolicyTest {
+
+    private static final Duration FALLBACK = Duration.ofSeconds(30);
+
+    private AdaptiveTimeoutPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        AdaptiveTimeoutProperties properties = new AdaptiveTimeoutProperties();
+        properties.setMinSamples(10);
+        policy = new AdaptiveTimeoutPolicy(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testFallbackUntilModelIsWarm() {
+        // Given
+        policy.recordCompletion("gpt-4", Duration.ofMillis(2000), 100);
+
+        // When & Then
+        assertThat(policy.timeoutFor("gpt-4", 100, FALLBACK)).isEqualTo(FALLBACK);
+        assertThat(policy.timeoutFor("unknown", 100, FALLBACK)).isEqualTo(FALLBACK);
+    }
+
+    @Test
+    void testTimeoutScalesWithRequestedTokens() {
+        // Given: 300 ms base latency and 20 ms per token
+        for (int i = 0; i < 200; i++) {
+            int tokens = 20 + (i % 10) * 40;
+            policy.recordCompletion("gpt-3.5-turbo", Duration.ofMillis(300 + tokens * 20L), tokens);
+        }
+
+        // When
+        Duration shortAnswer = policy.timeoutFor("gpt-3.5-turbo", 20, FALLBACK);
+        Duration longAnswer = policy.timeoutFor("gpt-3.5-turbo", 4000, FALLBACK);
+
+        // Then
+        assertThat(shortAnswer).isLessThan(FALLBACK);
+        assertThat(longAnswer).isGreaterThan(FALLBACK);
+        assertThat(longAnswer).isGreaterThan(shortAnswer.multipliedBy(10));
+    }
+
+    @Test
+    void testIdleTimeoutFollowsTokenGaps() {
+        // Given
+        for (int i = 0; i < 50; i++) {
+            policy.recordFirstToken("gpt-4", Duration.ofMillis(800));
+            policy.recordTokenGap("gpt-4", Duration.ofMillis(40 + i % 20));
+        }
+
+        // When
+        Duration idle = policy.idleTimeoutFor("gpt-4", FALLBACK);
+
+        // Then: clamped to the one second minimum
+        assertThat(idle).isEqualTo(Duration.ofSeconds(1));
+    }
+}
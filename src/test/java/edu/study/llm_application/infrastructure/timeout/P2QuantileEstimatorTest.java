@@ -0,0 +1,53 @@
+package edu.study.llm_application.infrastructure.timeout;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for the P-square quantile estimator
+ */
+class P2QuantileEstimatorTest {
+
+    @Test
+    void testEstimateBeforeFirstObservation() {
+        // Given
+        P2QuantileEstimator estimator = new P2QuantileEstimator(0.5);
+
+        // When & Then
+        assertThat(estimator.estimate()).isNaN();
+    }
+
+    @Test
+    void testMedianOfUniformValues() {
+        // Given
+        P2QuantileEstimator estimator = new P2QuantileEstimator(0.5);
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            estimator.add(random.nextDouble() * 100);
+        }
+
+        // Then
+        assertThat(estimator.estimate()).isCloseTo(50, within(2.0));
+    }
+
+    @Test
+    void testTailQuantileOfExponentialValues() {
+        // Given
+        P2QuantileEstimator estimator = new P2QuantileEstimator(0.99);
+        Random random = new Random(7);
+
+        // When
+        for (int i = 0; i < 50_000; i++) {
+            estimator.add(-Math.log(1 - random.nextDouble()) * 10);
+        }
+
+        // Then: the 99th percentile of an exponential with mean 10 is 10 * ln(100)
+        assertThat(estimator.estimate()).isCloseTo(10 * Math.log(100), within(3.0));
+    }
+}
@@ -0,0 +1,185 @@
+package edu.study.llm_application.infrastructure.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.study.llm_application.domain.entities.ToolCall;
+import edu.study.llm_application.domain.entities.ToolDefinition;
+import edu.study.llm_application.domain.ports.out.ToolPort;
+import edu.study.llm_application.infrastructure.config.ToolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the tool registry
+ */
+class ToolRegistryAdapterTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+
+    private ToolRegistryAdapter registry;
+
+    /**
+     * Cacheable lookup that blocks until released
+     */
+    private final ToolHandler lookup = new ToolHandler() {
+        @Override
+        public ToolDefinition definition() {
+            return new ToolDefinition("lookup", "Looks a key up", Map.of("type", "object"));
+        }
+
+        @Override
+        public String call(JsonNode arguments) throws Exception {
+            lookups.incrementAndGet();
+            release.await();
+            return "value of " + arguments.path("key").asText();
+        }
+    };
+
+    /**
+     * Tool that never returns on its own
+     */
+    private final ToolHandler hanging = new ToolHandler() {
+        @Override
+        public ToolDefinition definition() {
+            return new ToolDefinition("hanging", "Never answers", Map.of("type", "object"));
+        }
+
+        @Override
+        public String call(JsonNode arguments) {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "too late";
+        }
+
+        @Override
+        public boolean cacheable() {
+            return false;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        ToolProperties properties = new ToolProperties();
+        properties.setTimeouts(Map.of("hanging", Duration.ofMillis(100)));
+        registry = new ToolRegistryAdapter(List.of(lookup, hanging), properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void testExecute_SameCallWhileRunningAndAfterSharesOneResult() throws Exception {
+        // Given
+        CompletableFuture<String> first = registry.execute(new ToolCall("call_1", "lookup", "{\"key\": \"a\"}"));
+        CompletableFuture<String> sameWhileRunning = registry.execute(new ToolCall("call_2", "lookup", "{\"key\":\"a\"}"));
+        CompletableFuture<String> other = registry.execute(new ToolCall("call_3", "lookup", "{\"key\": \"b\"}"));
+
+        // When
+        release.countDown();
+        String firstResult = first.get(1, TimeUnit.SECONDS);
+        String later = registry.execute(new ToolCall("call_4", "lookup", "{\"key\": \"a\"}")).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(firstResult).isEqualTo("value of a");
+        assertThat(sameWhileRunning.get(1, TimeUnit.SECONDS)).isEqualTo("value of a");
+        assertThat(other.get(1, TimeUnit.SECONDS)).isEqualTo("value of b");
+        assertThat(later).isEqualTo("value of a");
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    void testExecute_CallRunningPastItsTimeoutFailsAndIsInterrupted() throws Exception {
+        // When
+        long startTime = System.nanoTime();
+        CompletableFuture<String> result = registry.execute(new ToolCall("call_1", "hanging", "{}"));
+
+        // Then
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ToolPort.ToolException.class)
+                .hasMessageContaining("timed out after 100 ms");
+        assertThat(Duration.ofNanos(System.nanoTime() - startTime)).isLessThan(Duration.ofSeconds(1));
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testExecute_CallFinishingEarlyCancelsItsTimeout() throws Exception {
+        // Given
+        CompletableFuture<String> result = registry.execute(new ToolCall("call_1", "lookup", "{\"key\": \"a\"}"));
+        assertThat(registry.pendingTimeouts()).isEqualTo(1);
+
+        // When
+        release.countDown();
+        String value = result.get(1, TimeUnit.SECONDS);
+        // The timeout is cancelled by a completion callback, which may run just after the caller wakes up
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (registry.pendingTimeouts() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertThat(value).isEqualTo("value of a");
+        assertThat(registry.pendingTimeouts()).isZero();
+    }
+
+    @Test
+    void testExecute_CallBeyondTheQueueIsRejectedAsOverloaded() {
+        // Given
+        ToolProperties properties = new ToolProperties();
+        properties.setMaxConcurrent(1);
+        properties.setQueueCapacity(1);
+        ToolRegistryAdapter saturated = new ToolRegistryAdapter(List.of(lookup, hanging), properties, new ObjectMapper(),
+                new SimpleMeterRegistry());
+        try {
+            saturated.execute(new ToolCall("call_1", "hanging", "{}"));
+            saturated.execute(new ToolCall("call_2", "hanging", "{}"));
+
+            // When
+            CompletableFuture<String> rejected = saturated.execute(new ToolCall("call_3", "hanging", "{}"));
+
+            // Then
+            assertThatThrownBy(rejected::join)
+                    .hasCauseInstanceOf(ToolPort.ToolOverloadedException.class)
+                    .hasMessageContaining("1 running, 1 queued");
+        } finally {
+            saturated.shutdown();
+        }
+    }
+
+    @Test
+    void testExecute_UnknownToolsAndMalformedArgumentsAreRejected() {
+        // When & Then
+        assertThat(registry.find("lookup")).isPresent();
+        assertThat(registry.getTools()).extracting(ToolDefinition::name).containsExactly("lookup", "hanging");
+        assertThatThrownBy(() -> registry.execute(new ToolCall("call_1", "missing", "{}")).join())
+                .hasCauseInstanceOf(ToolPort.ToolException.class)
+                .hasMessageContaining("Unknown tool missing");
+        assertThatThrownBy(() -> registry.execute(new ToolCall("call_2", "lookup", "{\"key\": ")).join())
+                .hasCauseInstanceOf(ToolPort.ToolException.class)
+                .hasMessageContaining("not JSON");
+        assertThatThrownBy(() -> registry.execute(new ToolCall("call_3", "lookup", "[1]")).join())
+                .hasMessageContaining("not an object");
+        assertThat(lookups).hasValue(0);
+    }
+}